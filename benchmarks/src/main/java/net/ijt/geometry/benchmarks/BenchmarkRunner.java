@@ -0,0 +1,217 @@
+/**
+ *
+ */
+package net.ijt.geometry.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, and compares the results with a baseline.
+ *
+ * Usage:
+ *
+ * <pre>
+ * <code>
+ * # record the baseline with the current implementation
+ * java -jar target/benchmarks.jar -save baseline.csv
+ *
+ * # after modifications, compare with the baseline
+ * java -jar target/benchmarks.jar -baseline baseline.csv [regexp]
+ * </code>
+ * </pre>
+ *
+ * The optional regular expression restricts the benchmarks to run. Results
+ * are saved as CSV files with one line per benchmark and parameter set. The
+ * comparison report lists, for each benchmark, the baseline score, the new
+ * score, and the speedup (ratio of baseline time over new time, larger is
+ * better).
+ *
+ * @author dlegland
+ *
+ */
+public class BenchmarkRunner
+{
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BenchmarkRunner()
+    {
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException
+    {
+        String savePath = null;
+        String baselinePath = null;
+        ChainedOptionsBuilder builder = new OptionsBuilder();
+        boolean hasInclude = false;
+        for (int i = 0; i < args.length; i++)
+        {
+            if ("-save".equals(args[i]))
+            {
+                savePath = args[++i];
+            }
+            else if ("-baseline".equals(args[i]))
+            {
+                baselinePath = args[++i];
+            }
+            else
+            {
+                builder = builder.include(args[i]);
+                hasInclude = true;
+            }
+        }
+        if (!hasInclude)
+        {
+            builder = builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+
+        Collection<RunResult> results = new Runner(builder.build()).run();
+        Map<String, Score> scores = collectScores(results);
+
+        if (savePath != null)
+        {
+            writeScores(scores, new File(savePath));
+        }
+        if (baselinePath != null)
+        {
+            Map<String, Score> baseline = readScores(new File(baselinePath));
+            printComparison(baseline, scores, new PrintWriter(System.out, true));
+        }
+    }
+
+
+    // ===================================================================
+    // Management of scores
+
+    /**
+     * Converts the JMH results into a map of scores, indexed by the name of
+     * the benchmark followed by its parameters.
+     */
+    private static final Map<String, Score> collectScores(Collection<RunResult> results)
+    {
+        Map<String, Score> scores = new LinkedHashMap<String, Score>();
+        for (RunResult res : results)
+        {
+            BenchmarkParams params = res.getParams();
+            StringBuilder key = new StringBuilder(params.getBenchmark());
+            Collection<String> paramKeys = new ArrayList<String>(params.getParamsKeys());
+            if (!paramKeys.isEmpty())
+            {
+                key.append('[');
+                String sep = "";
+                for (String paramKey : paramKeys)
+                {
+                    key.append(sep).append(paramKey).append('=').append(params.getParam(paramKey));
+                    sep = ";";
+                }
+                key.append(']');
+            }
+            Result<?> primary = res.getPrimaryResult();
+            scores.put(key.toString(), new Score(primary.getScore(), primary.getScoreError(), primary.getScoreUnit()));
+        }
+        return scores;
+    }
+
+    private static final void writeScores(Map<String, Score> scores, File file) throws IOException
+    {
+        try (PrintWriter writer = new PrintWriter(file, "ISO-8859-1"))
+        {
+            writer.println("benchmark,score,error,unit");
+            for (Map.Entry<String, Score> entry : scores.entrySet())
+            {
+                Score score = entry.getValue();
+                writer.printf(Locale.ENGLISH, "%s,%g,%g,%s%n", entry.getKey(), score.value, score.error, score.unit);
+            }
+        }
+    }
+
+    private static final Map<String, Score> readScores(File file) throws IOException
+    {
+        Map<String, Score> scores = new TreeMap<String, Score>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file)))
+        {
+            // skip header
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null)
+            {
+                String[] tokens = line.split(",");
+                if (tokens.length < 4)
+                {
+                    continue;
+                }
+                double value = Double.parseDouble(tokens[1]);
+                double error = Double.parseDouble(tokens[2]);
+                scores.put(tokens[0], new Score(value, error, tokens[3]));
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Prints the comparison of the new scores with the baseline scores. All
+     * benchmarks are assumed to measure an average time per operation.
+     */
+    private static final void printComparison(Map<String, Score> baseline, Map<String, Score> scores, PrintWriter out)
+    {
+        out.println();
+        out.println("Comparison with baseline (speedup = baseline / new, larger is better)");
+        out.printf(Locale.ENGLISH, "%-80s %14s %14s %10s %8s%n", "Benchmark", "Baseline", "New", "Unit", "Speedup");
+        for (Map.Entry<String, Score> entry : scores.entrySet())
+        {
+            String key = entry.getKey();
+            Score score = entry.getValue();
+            Score ref = baseline.get(key);
+            if (ref == null)
+            {
+                out.printf(Locale.ENGLISH, "%-80s %14s %14.3f %10s %8s%n", key, "-", score.value, score.unit, "new");
+            }
+            else if (!ref.unit.equals(score.unit))
+            {
+                out.printf(Locale.ENGLISH, "%-80s %14.3f %14.3f %10s %8s%n", key, ref.value, score.value, score.unit, "unit?");
+            }
+            else
+            {
+                out.printf(Locale.ENGLISH, "%-80s %14.3f %14.3f %10s %7.2fx%n", key, ref.value, score.value, score.unit, ref.value / score.value);
+            }
+        }
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * The score of a benchmark, with its error and its unit.
+     */
+    private static final class Score
+    {
+        final double value;
+        final double error;
+        final String unit;
+
+        Score(double value, double error, String unit)
+        {
+            this.value = value;
+            this.error = error;
+            this.unit = unit;
+        }
+    }
+}
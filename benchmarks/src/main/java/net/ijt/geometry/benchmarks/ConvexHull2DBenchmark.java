@@ -0,0 +1,72 @@
+/**
+ *
+ */
+package net.ijt.geometry.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.polygon2d.Polygon2D;
+import net.ijt.geometry.polygon2d.process.ChanConvexHull2D;
+import net.ijt.geometry.polygon2d.process.GiftWrappingConvexHull2D;
+import net.ijt.geometry.polygon2d.process.MonotoneChainConvexHull2D;
+
+/**
+ * Benchmarks the computation of the convex hull of random point clouds.
+ *
+ * @author dlegland
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConvexHull2DBenchmark
+{
+    /**
+     * The number of points within the cloud.
+     */
+    @Param({"1000", "10000", "100000"})
+    public int pointCount;
+
+    ArrayList<Point2D> points;
+
+    @Setup
+    public void setup()
+    {
+        points = Generators.randomPointsInDisk(pointCount, Generators.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public Polygon2D giftWrapping()
+    {
+        return new GiftWrappingConvexHull2D().process(points);
+    }
+
+    @Benchmark
+    public Polygon2D monotoneChain()
+    {
+        return new MonotoneChainConvexHull2D().process(points);
+    }
+
+    @Benchmark
+    public Polygon2D chan()
+    {
+        return new ChanConvexHull2D().process(points);
+    }
+}
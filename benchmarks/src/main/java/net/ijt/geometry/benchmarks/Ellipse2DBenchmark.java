@@ -0,0 +1,74 @@
+/**
+ *
+ */
+package net.ijt.geometry.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ijt.geometry.geom2d.curve.Ellipse2D;
+
+/**
+ * Benchmarks the computation of the distance between points and an ellipse,
+ * for several elongations of the ellipse.
+ *
+ * @author dlegland
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Ellipse2DBenchmark
+{
+    /**
+     * The ratio between the major and the minor semi-axis lengths.
+     */
+    @Param({"1.5", "10"})
+    public double elongation;
+
+    /**
+     * The number of query points processed at each invocation.
+     */
+    static final int QUERY_COUNT = 1000;
+
+    Ellipse2D ellipse;
+
+    double[] queries;
+
+    @Setup
+    public void setup()
+    {
+        ellipse = new Ellipse2D(0.1, 0.2, 1.0, 1.0 / elongation, 30.0);
+        queries = Generators.randomQueryPoints(QUERY_COUNT, 2.0, Generators.DEFAULT_SEED);
+    }
+
+    /**
+     * Computes the distance between the ellipse and a batch of points.
+     *
+     * @return the sum of the distances
+     */
+    @Benchmark
+    public double distance()
+    {
+        double sum = 0;
+        for (int i = 0; i < queries.length; i += 2)
+        {
+            sum += ellipse.distance(queries[i], queries[i + 1]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ *
+ */
+package net.ijt.geometry.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.polygon2d.LinearRing2D;
+
+/**
+ * Generators of reproducible synthetic data sets for benchmarks.
+ *
+ * All generators use an explicit seed, so that successive runs (and runs on
+ * different versions of the library) process exactly the same data.
+ *
+ * @author dlegland
+ *
+ */
+public class Generators
+{
+    /**
+     * The seed used by default for random generators.
+     */
+    public static final long DEFAULT_SEED = 42L;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Generators()
+    {
+    }
+
+    /**
+     * Creates a random star-shaped simple polygon, centered on the origin,
+     * with vertices at random radii between 0.5 and 1.0 and sorted angles.
+     *
+     * @param vertexCount
+     *            the number of polygon vertices
+     * @param seed
+     *            the seed of the random generator
+     * @return a random simple polygon, oriented counter-clockwise
+     */
+    public static final LinearRing2D randomStarPolygon(int vertexCount, long seed)
+    {
+        Random random = new Random(seed);
+        double[] angles = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++)
+        {
+            angles[i] = random.nextDouble() * 2 * Math.PI;
+        }
+        Arrays.sort(angles);
+
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++)
+        {
+            double r = 0.5 + 0.5 * random.nextDouble();
+            xs[i] = r * Math.cos(angles[i]);
+            ys[i] = r * Math.sin(angles[i]);
+        }
+        return LinearRing2D.wrap(xs, ys);
+    }
+
+    /**
+     * Creates a cloud of points uniformly distributed within the unit disk.
+     *
+     * @param pointCount
+     *            the number of points
+     * @param seed
+     *            the seed of the random generator
+     * @return a list of random points
+     */
+    public static final ArrayList<Point2D> randomPointsInDisk(int pointCount, long seed)
+    {
+        Random random = new Random(seed);
+        ArrayList<Point2D> points = new ArrayList<Point2D>(pointCount);
+        for (int i = 0; i < pointCount; i++)
+        {
+            double r = Math.sqrt(random.nextDouble());
+            double theta = random.nextDouble() * 2 * Math.PI;
+            points.add(new Point2D(r * Math.cos(theta), r * Math.sin(theta)));
+        }
+        return points;
+    }
+
+    /**
+     * Creates the coordinates of random query points within the square
+     * [-extent; extent]^2, packed as (x1, y1, x2, y2, ...).
+     *
+     * @param pointCount
+     *            the number of points
+     * @param extent
+     *            the half-size of the square
+     * @param seed
+     *            the seed of the random generator
+     * @return the array of point coordinates
+     */
+    public static final double[] randomQueryPoints(int pointCount, double extent, long seed)
+    {
+        Random random = new Random(seed);
+        double[] coords = new double[2 * pointCount];
+        for (int i = 0; i < coords.length; i++)
+        {
+            coords[i] = (2 * random.nextDouble() - 1) * extent;
+        }
+        return coords;
+    }
+}
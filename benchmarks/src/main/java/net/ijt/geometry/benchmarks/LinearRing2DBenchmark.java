@@ -0,0 +1,99 @@
+/**
+ *
+ */
+package net.ijt.geometry.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.PreparedPolygon2D;
+
+/**
+ * Benchmarks point-in-polygon tests on random star-shaped polygons.
+ *
+ * @author dlegland
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LinearRing2DBenchmark
+{
+    /**
+     * The number of polygon vertices.
+     */
+    @Param({"100", "1000", "10000"})
+    public int vertexCount;
+
+    /**
+     * The number of query points tested at each invocation.
+     */
+    static final int QUERY_COUNT = 1000;
+
+    LinearRing2D ring;
+
+    PreparedPolygon2D prepared;
+
+    double[] queries;
+
+    @Setup
+    public void setup()
+    {
+        ring = Generators.randomStarPolygon(vertexCount, Generators.DEFAULT_SEED);
+        prepared = new PreparedPolygon2D(ring);
+        queries = Generators.randomQueryPoints(QUERY_COUNT, 1.0, Generators.DEFAULT_SEED + 1);
+    }
+
+    /**
+     * Tests a batch of query points against the polygon.
+     *
+     * @return the number of points inside the polygon
+     */
+    @Benchmark
+    public int isInside()
+    {
+        int count = 0;
+        for (int i = 0; i < queries.length; i += 2)
+        {
+            if (ring.isInside(queries[i], queries[i + 1]))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Tests a batch of query points against the prepared polygon.
+     *
+     * @return the number of points inside the polygon
+     */
+    @Benchmark
+    public int preparedIsInside()
+    {
+        int count = 0;
+        for (int i = 0; i < queries.length; i += 2)
+        {
+            if (prepared.isInside(queries[i], queries[i + 1]))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+}
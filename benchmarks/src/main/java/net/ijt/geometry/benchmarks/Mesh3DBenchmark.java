@@ -0,0 +1,64 @@
+/**
+ *
+ */
+package net.ijt.geometry.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ijt.geometry.geom3d.Bounds3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+
+/**
+ * Benchmarks aggregate queries on icosphere meshes with increasing
+ * subdivision levels. The number of faces is 20 * 4^level.
+ *
+ * @author dlegland
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Mesh3DBenchmark
+{
+    /**
+     * The subdivision level of the icosphere.
+     */
+    @Param({"3", "5", "7"})
+    public int level;
+
+    SimpleTriMesh3D mesh;
+
+    @Setup
+    public void setup()
+    {
+        mesh = (SimpleTriMesh3D) Meshes3D.createIcosphere(level);
+    }
+
+    @Benchmark
+    public double surfaceArea()
+    {
+        return mesh.surfaceArea();
+    }
+
+    @Benchmark
+    public Bounds3D bounds()
+    {
+        return mesh.bounds();
+    }
+}
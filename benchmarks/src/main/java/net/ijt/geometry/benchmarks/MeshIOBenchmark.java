@@ -0,0 +1,85 @@
+/**
+ *
+ */
+package net.ijt.geometry.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.io.BinaryMeshReader;
+import net.ijt.geometry.mesh3d.io.BinaryMeshWriter;
+import net.ijt.geometry.mesh3d.io.OffMeshReader;
+import net.ijt.geometry.mesh3d.io.OffMeshWriter;
+
+/**
+ * Benchmarks the reading of icosphere meshes from OFF files, and from binary
+ * files for comparison.
+ *
+ * @author dlegland
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MeshIOBenchmark
+{
+    /**
+     * The subdivision level of the icosphere.
+     */
+    @Param({"4", "6"})
+    public int level;
+
+    File offFile;
+
+    File binaryFile;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        Mesh3D mesh = Meshes3D.createIcosphere(level);
+
+        offFile = File.createTempFile("icosphere", ".off");
+        new OffMeshWriter(offFile).writeMesh(mesh);
+
+        binaryFile = File.createTempFile("icosphere", ".ijtm");
+        new BinaryMeshWriter(binaryFile).writeMesh(mesh);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        offFile.delete();
+        binaryFile.delete();
+    }
+
+    @Benchmark
+    public Mesh3D readOff() throws IOException
+    {
+        return new OffMeshReader(offFile).readMesh();
+    }
+
+    @Benchmark
+    public Mesh3D readBinary() throws IOException
+    {
+        return new BinaryMeshReader(binaryFile).readMesh();
+    }
+}
@@ -0,0 +1,843 @@
+/**
+ *
+ */
+package net.ijt.geometry.geom2d;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * A static spatial index over a list of bounding boxes, used to find the
+ * boxes that intersect a query box without testing all of them.
+ *
+ * The index is an R-tree bulk-loaded with the Sort-Tile-Recursive (STR)
+ * algorithm: items are sorted by the x-coordinate of their center, split into
+ * vertical slices, sorted by y-coordinate within each slice, and packed into
+ * leaves of at most <code>NODE_CAPACITY</code> items. Upper levels are built
+ * in the same way from the centers of the nodes of the level below. The tree
+ * is stored within flattened primitive arrays, and can be shared between
+ * threads.
+ *
+ * Item indices correspond to the positions of the boxes within the list (or
+ * the array) used for creating the index. Besides box queries, the index
+ * supports nearest item and within-radius queries, for which the distance
+ * between a point and an item is provided by the caller. This is used by
+ * SegmentIndex2D for indexing the segments of polylines.
+ *
+ * @see net.ijt.geometry.polygon2d.SegmentIndex2D
+ *
+ * @author dlegland
+ *
+ */
+public class BoundsIndex2D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The maximum number of children of each node.
+     */
+    public static final int NODE_CAPACITY = 8;
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The bounds of each item, stored as (xmin, ymin, xmax, ymax).
+     */
+    final double[] itemBounds;
+
+    /**
+     * The number of items.
+     */
+    final int itemCount;
+
+    /**
+     * The indices of the items, ordered such that each leaf covers a
+     * contiguous range.
+     */
+    final int[] itemOrder;
+
+    /**
+     * The bounds of each node, stored as (xmin, ymin, xmax, ymax).
+     */
+    double[] nodeBounds;
+
+    /**
+     * The position of the first child of each node, within the itemOrder
+     * array for leaves, and within the childNodes array for other nodes.
+     */
+    int[] childStarts;
+
+    /**
+     * The number of children of each node.
+     */
+    int[] childCounts;
+
+    /**
+     * The indices of the children of the non-leaf nodes.
+     */
+    int[] childNodes;
+
+    /**
+     * The number of leaf nodes. Leaves are the first nodes, and the root is
+     * the last one.
+     */
+    int leafCount;
+
+    /**
+     * The number of nodes.
+     */
+    int nodeCount;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new index over a list of bounding boxes. The boxes must be
+     * bounded.
+     *
+     * @param boundsList
+     *            the boxes to index
+     * @throws IllegalArgumentException
+     *             if one of the boxes is not bounded
+     */
+    public BoundsIndex2D(List<Bounds2D> boundsList)
+    {
+        this(boundsArray(boundsList), boundsList.size());
+    }
+
+    /**
+     * Creates a new index over bounding boxes given by their extents. The
+     * array is not retained by the index.
+     *
+     * @param bounds
+     *            the extents of the boxes, stored as (xmin, ymin, xmax, ymax)
+     *            for each box
+     * @param count
+     *            the number of boxes to consider within the array
+     */
+    public BoundsIndex2D(double[] bounds, int count)
+    {
+        int n = count;
+        this.itemCount = n;
+        this.itemBounds = Arrays.copyOf(bounds, 4 * n);
+
+        this.itemOrder = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            itemOrder[i] = i;
+        }
+        if (n == 0)
+        {
+            this.nodeBounds = new double[0];
+            this.childStarts = new int[0];
+            this.childCounts = new int[0];
+            this.childNodes = new int[0];
+            return;
+        }
+
+        // each level contains less than half the items of the level below,
+        // plus one partial node per slice
+        int maxNodes = 2 * n + 8;
+        this.nodeBounds = new double[4 * maxNodes];
+        this.childStarts = new int[maxNodes];
+        this.childCounts = new int[maxNodes];
+        this.childNodes = new int[maxNodes];
+        this.nodeCount = 0;
+
+        // create leaves from item centers (multiplied by two)
+        double[] centers = new double[2 * n];
+        for (int i = 0; i < n; i++)
+        {
+            centers[2 * i] = itemBounds[4 * i] + itemBounds[4 * i + 2];
+            centers[2 * i + 1] = itemBounds[4 * i + 1] + itemBounds[4 * i + 3];
+        }
+        packLevel(itemOrder, n, centers, itemBounds, 0);
+        this.leafCount = this.nodeCount;
+
+        // create upper levels until a single root remains
+        int levelStart = 0;
+        int levelEnd = this.nodeCount;
+        int childCount = 0;
+        while (levelEnd - levelStart > 1)
+        {
+            int m = levelEnd - levelStart;
+            int[] items = new int[m];
+            double[] nodeCenters = new double[2 * levelEnd];
+            for (int i = 0; i < m; i++)
+            {
+                int node = levelStart + i;
+                items[i] = node;
+                nodeCenters[2 * node] = nodeBounds[4 * node] + nodeBounds[4 * node + 2];
+                nodeCenters[2 * node + 1] = nodeBounds[4 * node + 1] + nodeBounds[4 * node + 3];
+            }
+            packLevel(items, m, nodeCenters, nodeBounds, childCount);
+            System.arraycopy(items, 0, childNodes, childCount, m);
+            childCount += m;
+
+            levelStart = levelEnd;
+            levelEnd = this.nodeCount;
+        }
+
+        // trim arrays to the final number of nodes
+        this.nodeBounds = Arrays.copyOf(this.nodeBounds, 4 * this.nodeCount);
+        this.childStarts = Arrays.copyOf(this.childStarts, this.nodeCount);
+        this.childCounts = Arrays.copyOf(this.childCounts, this.nodeCount);
+        this.childNodes = Arrays.copyOf(this.childNodes, childCount);
+    }
+
+    private static final double[] boundsArray(List<Bounds2D> boundsList)
+    {
+        int n = boundsList.size();
+        double[] res = new double[4 * n];
+        for (int i = 0; i < n; i++)
+        {
+            Bounds2D box = boundsList.get(i);
+            if (!box.isBounded())
+            {
+                throw new IllegalArgumentException("Can not index unbounded box at index " + i);
+            }
+            res[4 * i] = box.minX();
+            res[4 * i + 1] = box.minY();
+            res[4 * i + 2] = box.maxX();
+            res[4 * i + 3] = box.maxY();
+        }
+        return res;
+    }
+
+    /**
+     * Reorders the items according to the STR algorithm, and creates the
+     * nodes grouping consecutive items.
+     *
+     * @param items
+     *            the indices of the items (boxes or nodes) to pack
+     * @param m
+     *            the number of items
+     * @param centers
+     *            the coordinates of the item centers, indexed by item
+     * @param bounds
+     *            the bounds of the items, indexed by item
+     * @param childOffset
+     *            the position of the first item within the itemOrder or the
+     *            childNodes array
+     */
+    private void packLevel(int[] items, int m, double[] centers, double[] bounds, int childOffset)
+    {
+        int groupCount = (m + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceCount = (int) Math.ceil(Math.sqrt(groupCount));
+        int sliceSize = sliceCount * NODE_CAPACITY;
+
+        sortByKey(items, 0, m - 1, centers, 0);
+        for (int s = 0; s < m; s += sliceSize)
+        {
+            int sliceEnd = Math.min(s + sliceSize, m);
+            sortByKey(items, s, sliceEnd - 1, centers, 1);
+            for (int g = s; g < sliceEnd; g += NODE_CAPACITY)
+            {
+                int node = this.nodeCount++;
+                childStarts[node] = childOffset + g;
+                childCounts[node] = Math.min(NODE_CAPACITY, sliceEnd - g);
+
+                double xmin = Double.POSITIVE_INFINITY, ymin = Double.POSITIVE_INFINITY;
+                double xmax = Double.NEGATIVE_INFINITY, ymax = Double.NEGATIVE_INFINITY;
+                for (int i = g; i < g + childCounts[node]; i++)
+                {
+                    int k = 4 * items[i];
+                    xmin = Math.min(xmin, bounds[k]);
+                    ymin = Math.min(ymin, bounds[k + 1]);
+                    xmax = Math.max(xmax, bounds[k + 2]);
+                    ymax = Math.max(ymax, bounds[k + 3]);
+                }
+                int offset = 4 * node;
+                nodeBounds[offset] = xmin;
+                nodeBounds[offset + 1] = ymin;
+                nodeBounds[offset + 2] = xmax;
+                nodeBounds[offset + 3] = ymax;
+            }
+        }
+    }
+
+    /**
+     * Sorts the items between indices left and right (inclusive) according
+     * to the specified coordinate of their center (quicksort algorithm).
+     */
+    private static final void sortByKey(int[] items, int left, int right, double[] centers, int dim)
+    {
+        while (right - left > 16)
+        {
+            // choose the median of three as pivot
+            int mid = (left + right) >>> 1;
+            double a = centers[2 * items[left] + dim];
+            double b = centers[2 * items[mid] + dim];
+            double c = centers[2 * items[right] + dim];
+            double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+
+            // Hoare partition
+            int i = left, j = right;
+            while (i <= j)
+            {
+                while (centers[2 * items[i] + dim] < pivot) i++;
+                while (centers[2 * items[j] + dim] > pivot) j--;
+                if (i <= j)
+                {
+                    int tmp = items[i];
+                    items[i] = items[j];
+                    items[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+
+            // recurse on the smallest part, and iterate on the largest one
+            if (j - left < right - i)
+            {
+                sortByKey(items, left, j, centers, dim);
+                left = i;
+            }
+            else
+            {
+                sortByKey(items, i, right, centers, dim);
+                right = j;
+            }
+        }
+
+        // insertion sort for small ranges
+        for (int i = left + 1; i <= right; i++)
+        {
+            int item = items[i];
+            double key = centers[2 * item + dim];
+            int j = i - 1;
+            while (j >= left && centers[2 * items[j] + dim] > key)
+            {
+                items[j + 1] = items[j];
+                j--;
+            }
+            items[j + 1] = item;
+        }
+    }
+
+
+    // ===================================================================
+    // Queries
+
+    /**
+     * Finds the items whose bounds intersect the query box. Boxes that only
+     * touch the query box are included.
+     *
+     * @param box
+     *            the query box
+     * @return the indices of the intersecting items, in increasing order
+     */
+    public int[] intersecting(Bounds2D box)
+    {
+        return intersecting(box.minX(), box.maxX(), box.minY(), box.maxY());
+    }
+
+    /**
+     * Finds the items whose bounds intersect the query box specified by its
+     * extents. Boxes that only touch the query box are included.
+     *
+     * @param xmin
+     *            the minimum x-coordinate of the query box
+     * @param xmax
+     *            the maximum x-coordinate of the query box
+     * @param ymin
+     *            the minimum y-coordinate of the query box
+     * @param ymax
+     *            the maximum y-coordinate of the query box
+     * @return the indices of the intersecting items, in increasing order
+     */
+    public int[] intersecting(double xmin, double xmax, double ymin, double ymax)
+    {
+        ItemList res = new ItemList();
+        forEachIntersecting(xmin, xmax, ymin, ymax, res);
+        int[] items = Arrays.copyOf(res.values, res.size);
+        Arrays.sort(items);
+        return items;
+    }
+
+    /**
+     * Calls the consumer for each item whose bounds intersect the query box,
+     * in no particular order, without allocating the array of results. Boxes
+     * that only touch the query box are included.
+     *
+     * @param xmin
+     *            the minimum x-coordinate of the query box
+     * @param xmax
+     *            the maximum x-coordinate of the query box
+     * @param ymin
+     *            the minimum y-coordinate of the query box
+     * @param ymax
+     *            the maximum y-coordinate of the query box
+     * @param consumer
+     *            the consumer of the indices of the intersecting items
+     */
+    public void forEachIntersecting(double xmin, double xmax, double ymin, double ymax, IntConsumer consumer)
+    {
+        if (itemCount == 0)
+        {
+            return;
+        }
+
+        // depth-first traversal, using an explicit stack of nodes
+        int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = nodeCount - 1;
+        while (stackSize > 0)
+        {
+            int node = stack[--stackSize];
+            if (!intersects(nodeBounds, node, xmin, xmax, ymin, ymax))
+            {
+                continue;
+            }
+
+            int start = childStarts[node];
+            int end = start + childCounts[node];
+            if (node < leafCount)
+            {
+                for (int i = start; i < end; i++)
+                {
+                    int item = itemOrder[i];
+                    if (intersects(itemBounds, item, xmin, xmax, ymin, ymax))
+                    {
+                        consumer.accept(item);
+                    }
+                }
+            }
+            else
+            {
+                for (int i = start; i < end; i++)
+                {
+                    if (stackSize == stack.length)
+                    {
+                        stack = Arrays.copyOf(stack, 2 * stackSize);
+                    }
+                    stack[stackSize++] = childNodes[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer for each pair of distinct items whose bounds
+     * intersect, by traversing pairs of nodes of the tree with intersecting
+     * bounds. Each pair is reported once, in no particular order. Boxes that
+     * only touch are included.
+     *
+     * @param consumer
+     *            the consumer of the indices of the intersecting items
+     */
+    public void forEachIntersectingPair(PairConsumer consumer)
+    {
+        if (itemCount == 0)
+        {
+            return;
+        }
+
+        // depth-first traversal of pairs of nodes, using an explicit stack
+        int[] stack = new int[128];
+        int stackSize = 0;
+        int root = nodeCount - 1;
+        stack[stackSize++] = root;
+        stack[stackSize++] = root;
+        while (stackSize > 0)
+        {
+            int node2 = stack[--stackSize];
+            int node1 = stack[--stackSize];
+            if (node1 != node2 && !intersects(nodeBounds, node1, nodeBounds, node2))
+            {
+                continue;
+            }
+
+            int start1 = childStarts[node1];
+            int end1 = start1 + childCounts[node1];
+            int start2 = childStarts[node2];
+            int end2 = start2 + childCounts[node2];
+            boolean leaf1 = node1 < leafCount;
+            boolean leaf2 = node2 < leafCount;
+            if (leaf1 && leaf2)
+            {
+                // test the items of the two leaves
+                for (int i = start1; i < end1; i++)
+                {
+                    int item1 = itemOrder[i];
+                    for (int j = node1 == node2 ? i + 1 : start2; j < end2; j++)
+                    {
+                        int item2 = itemOrder[j];
+                        if (intersects(itemBounds, item1, itemBounds, item2))
+                        {
+                            consumer.accept(item1, item2);
+                        }
+                    }
+                }
+                continue;
+            }
+
+            // ensure enough capacity for the pairs of children
+            int maxPush = 2 * NODE_CAPACITY * NODE_CAPACITY;
+            if (stackSize + maxPush > stack.length)
+            {
+                stack = Arrays.copyOf(stack, 2 * (stackSize + maxPush));
+            }
+
+            if (node1 == node2)
+            {
+                // pairs of children of the same node
+                for (int i = start1; i < end1; i++)
+                {
+                    for (int j = i; j < end1; j++)
+                    {
+                        stack[stackSize++] = childNodes[i];
+                        stack[stackSize++] = childNodes[j];
+                    }
+                }
+            }
+            else if (leaf1)
+            {
+                for (int j = start2; j < end2; j++)
+                {
+                    stack[stackSize++] = node1;
+                    stack[stackSize++] = childNodes[j];
+                }
+            }
+            else
+            {
+                for (int i = start1; i < end1; i++)
+                {
+                    stack[stackSize++] = childNodes[i];
+                    stack[stackSize++] = node2;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the k items closest to the query point, using a best-first
+     * traversal of the tree. Items with an infinite distance are ignored.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @param k
+     *            the number of items to find
+     * @param distance
+     *            the squared distance between the query point and an item
+     * @return the indices of the k closest items (or of all the items at
+     *         finite distance if there are less than k), by increasing
+     *         distance
+     */
+    public int[] nearestItems(double x, double y, int k, ItemDistance distance)
+    {
+        if (k < 0)
+        {
+            throw new IllegalArgumentException("The number of items must be positive");
+        }
+        k = Math.min(k, itemCount);
+        int[] res = new int[k];
+        if (k == 0)
+        {
+            return res;
+        }
+
+        // the queue contains both nodes (positive values) and items (encoded
+        // as negative values), sorted by squared distance
+        MinHeap queue = new MinHeap();
+        queue.push(0.0, nodeCount - 1);
+        int count = 0;
+        while (count < k && queue.size > 0)
+        {
+            int item = queue.pop();
+            if (item < 0)
+            {
+                res[count++] = -1 - item;
+                continue;
+            }
+
+            int start = childStarts[item];
+            int end = start + childCounts[item];
+            if (item < leafCount)
+            {
+                for (int i = start; i < end; i++)
+                {
+                    int index = itemOrder[i];
+                    double dist = distance.distanceSq(index, x, y);
+                    if (dist < Double.POSITIVE_INFINITY)
+                    {
+                        queue.push(dist, -1 - index);
+                    }
+                }
+            }
+            else
+            {
+                for (int i = start; i < end; i++)
+                {
+                    int child = childNodes[i];
+                    queue.push(boxDistanceSq(nodeBounds, child, x, y), child);
+                }
+            }
+        }
+        return count == k ? res : Arrays.copyOf(res, count);
+    }
+
+    /**
+     * Finds all the items within the specified distance of the query point.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @param radius
+     *            the maximal distance between the point and the items
+     * @param distance
+     *            the squared distance between the query point and an item
+     * @return the indices of the items within the radius, in increasing
+     *         order
+     */
+    public int[] itemsWithin(double x, double y, double radius, ItemDistance distance)
+    {
+        if (itemCount == 0)
+        {
+            return new int[0];
+        }
+        double r2 = radius * radius;
+        int[] res = new int[16];
+        int count = 0;
+
+        // depth-first traversal, using an explicit stack of nodes
+        int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = nodeCount - 1;
+        while (stackSize > 0)
+        {
+            int node = stack[--stackSize];
+            if (boxDistanceSq(nodeBounds, node, x, y) > r2)
+            {
+                continue;
+            }
+
+            int start = childStarts[node];
+            int end = start + childCounts[node];
+            if (node < leafCount)
+            {
+                for (int i = start; i < end; i++)
+                {
+                    int item = itemOrder[i];
+                    if (distance.distanceSq(item, x, y) <= r2)
+                    {
+                        if (count == res.length)
+                        {
+                            res = Arrays.copyOf(res, 2 * count);
+                        }
+                        res[count++] = item;
+                    }
+                }
+            }
+            else
+            {
+                for (int i = start; i < end; i++)
+                {
+                    if (stackSize == stack.length)
+                    {
+                        stack = Arrays.copyOf(stack, 2 * stackSize);
+                    }
+                    stack[stackSize++] = childNodes[i];
+                }
+            }
+        }
+
+        res = Arrays.copyOf(res, count);
+        Arrays.sort(res);
+        return res;
+    }
+
+    private static final boolean intersects(double[] bounds, int index, double xmin, double xmax, double ymin, double ymax)
+    {
+        int k = 4 * index;
+        return bounds[k] <= xmax && bounds[k + 2] >= xmin && bounds[k + 1] <= ymax && bounds[k + 3] >= ymin;
+    }
+
+    private static final boolean intersects(double[] bounds1, int index1, double[] bounds2, int index2)
+    {
+        int k1 = 4 * index1;
+        int k2 = 4 * index2;
+        return bounds1[k1] <= bounds2[k2 + 2] && bounds1[k1 + 2] >= bounds2[k2]
+                && bounds1[k1 + 1] <= bounds2[k2 + 3] && bounds1[k1 + 3] >= bounds2[k2 + 1];
+    }
+
+    /**
+     * Computes the squared distance between the point and a box (zero if the
+     * point is within the box).
+     */
+    private static final double boxDistanceSq(double[] bounds, int index, double x, double y)
+    {
+        int k = 4 * index;
+        double dx = Math.max(Math.max(bounds[k] - x, x - bounds[k + 2]), 0);
+        double dy = Math.max(Math.max(bounds[k + 1] - y, y - bounds[k + 3]), 0);
+        return dx * dx + dy * dy;
+    }
+
+
+    // ===================================================================
+    // Accessors
+
+    /**
+     * @return the number of indexed boxes
+     */
+    public int itemCount()
+    {
+        return this.itemCount;
+    }
+
+    /**
+     * @return the number of nodes of the tree
+     */
+    public int nodeCount()
+    {
+        return this.nodeCount;
+    }
+
+    /**
+     * @return the bounds of all the indexed boxes, or null if the index is
+     *         empty
+     */
+    public Bounds2D bounds()
+    {
+        if (nodeCount == 0)
+        {
+            return null;
+        }
+        int k = 4 * (nodeCount - 1);
+        return new Bounds2D(nodeBounds[k], nodeBounds[k + 2], nodeBounds[k + 1], nodeBounds[k + 3]);
+    }
+
+
+    // ===================================================================
+    // Inner interfaces and classes
+
+    /**
+     * Computes the squared distance between a query point and an indexed
+     * item. The distance must not be smaller than the distance between the
+     * point and the bounds of the item, so that the traversal can discard the
+     * nodes located farther than the current results.
+     */
+    public interface ItemDistance
+    {
+        /**
+         * @param item
+         *            the index of the item
+         * @param x
+         *            the x-coordinate of the query point
+         * @param y
+         *            the y-coordinate of the query point
+         * @return the squared distance between the point and the item, or
+         *         positive infinity to ignore the item
+         */
+        public double distanceSq(int item, double x, double y);
+    }
+
+    /**
+     * Processes the pairs of items found by a query.
+     */
+    public interface PairConsumer
+    {
+        /**
+         * @param item1
+         *            the index of the first item
+         * @param item2
+         *            the index of the second item
+         */
+        public void accept(int item1, int item2);
+    }
+
+    /**
+     * A growable array of item indices.
+     */
+    private static final class ItemList implements IntConsumer
+    {
+        int[] values = new int[16];
+        int size = 0;
+
+        @Override
+        public void accept(int value)
+        {
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * A binary min-heap of integer items sorted by double keys.
+     */
+    private static final class MinHeap
+    {
+        double[] keys = new double[32];
+        int[] items = new int[32];
+        int size = 0;
+
+        void push(double key, int item)
+        {
+            if (size == keys.length)
+            {
+                keys = Arrays.copyOf(keys, 2 * size);
+                items = Arrays.copyOf(items, 2 * size);
+            }
+
+            // sift up
+            int i = size++;
+            while (i > 0)
+            {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key)
+                {
+                    break;
+                }
+                keys[i] = keys[parent];
+                items[i] = items[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            items[i] = item;
+        }
+
+        int pop()
+        {
+            int res = items[0];
+            size--;
+            double key = keys[size];
+            int item = items[size];
+
+            // sift down
+            int i = 0;
+            while (true)
+            {
+                int child = 2 * i + 1;
+                if (child >= size)
+                {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child])
+                {
+                    child++;
+                }
+                if (key <= keys[child])
+                {
+                    break;
+                }
+                keys[i] = keys[child];
+                items[i] = items[child];
+                i = child;
+            }
+            keys[i] = key;
+            items[i] = item;
+            return res;
+        }
+    }
+}
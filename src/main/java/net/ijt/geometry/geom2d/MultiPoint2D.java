@@ -5,6 +5,8 @@ package net.ijt.geometry.geom2d;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * 
@@ -32,6 +34,26 @@ public class MultiPoint2D implements Geometry2D
     }
     
     
+    // ===================================================================
+    // Accessors
+    
+    /**
+     * @return the number of points
+     */
+    public int pointCount()
+    {
+        return this.points.size();
+    }
+    
+    /**
+     * @return an unmodifiable view of the points
+     */
+    public List<Point2D> points()
+    {
+        return Collections.unmodifiableList(this.points);
+    }
+    
+    
     // ===================================================================
     // Methods implementing Geometry2D
     
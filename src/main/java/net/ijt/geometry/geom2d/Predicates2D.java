@@ -0,0 +1,350 @@
+/**
+ *
+ */
+package net.ijt.geometry.geom2d;
+
+import java.math.BigDecimal;
+
+/**
+ * Robust geometric predicates for planar points given by their coordinates.
+ *
+ * The predicates first evaluate the determinant using floating point
+ * arithmetic, and compare the result with a bound of the rounding error
+ * (following the approach of J.R. Shewchuk, "Adaptive Precision
+ * Floating-Point Arithmetic and Fast Robust Geometric Predicates", 1997). When
+ * the sign of the result can not be certified, the determinant is computed
+ * again using exact arithmetic. As the exact evaluation is only required for
+ * nearly degenerate configurations, the average cost is close to that of the
+ * floating point evaluation.
+ *
+ * @author dlegland
+ *
+ */
+public class Predicates2D
+{
+    /**
+     * Half the machine epsilon for double precision numbers (2^-53).
+     */
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+
+    /**
+     * The relative error bound of the floating point evaluation of the
+     * orientation determinant.
+     */
+    private static final double CCW_ERROR_BOUND = (3.0 + 16.0 * EPSILON) * EPSILON;
+
+    /**
+     * The relative error bound of the floating point evaluation of the
+     * in-circle determinant.
+     */
+    private static final double ICC_ERROR_BOUND = (10.0 + 96.0 * EPSILON) * EPSILON;
+
+    /**
+     * The constant used to split a double value into two halves (2^27 + 1).
+     */
+    private static final double SPLITTER = 134217729.0;
+
+    /**
+     * The bounds of the absolute values that can be multiplied exactly as
+     * expansions, avoiding overflow and underflow (2^-450 and 2^450).
+     */
+    private static final double SPLIT_MIN = Math.scalb(1.0, -450);
+    private static final double SPLIT_MAX = Math.scalb(1.0, 450);
+
+    /**
+     * The smallest absolute value of a non-zero product for which the
+     * relative error bounds hold, as smaller products may underflow (2^-960).
+     */
+    private static final double MIN_PRODUCT = Math.scalb(1.0, -960);
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Predicates2D()
+    {
+    }
+
+    /**
+     * Computes the orientation of the point c with respect to the directed
+     * line going through the points a and b. The sign of the result is always
+     * exact.
+     *
+     * When the configuration is not degenerate, the result approximates twice
+     * the signed area of the triangle (a, b, c). For nearly degenerate
+     * configurations, the result is -1, 0 or +1.
+     *
+     * @param ax
+     *            the x-coordinate of the first point
+     * @param ay
+     *            the y-coordinate of the first point
+     * @param bx
+     *            the x-coordinate of the second point
+     * @param by
+     *            the y-coordinate of the second point
+     * @param cx
+     *            the x-coordinate of the third point
+     * @param cy
+     *            the y-coordinate of the third point
+     * @return a positive value if the points are in counter-clockwise order,
+     *         a negative value if they are in clockwise order, and zero if
+     *         they are collinear.
+     */
+    public static final double orient2d(double ax, double ay, double bx, double by, double cx, double cy)
+    {
+        double acx = ax - cx;
+        double bcy = by - cy;
+        double acy = ay - cy;
+        double bcx = bx - cx;
+        double detLeft = acx * bcy;
+        double detRight = acy * bcx;
+        double det = detLeft - detRight;
+
+        // the error bound does not hold if a product may have underflowed
+        if ((Math.abs(detLeft) < MIN_PRODUCT && acx != 0 && bcy != 0)
+                || (Math.abs(detRight) < MIN_PRODUCT && acy != 0 && bcx != 0))
+        {
+            return orient2dExact(ax, ay, bx, by, cx, cy);
+        }
+
+        // compute the bound of the rounding error
+        double detSum;
+        if (detLeft > 0)
+        {
+            if (detRight <= 0)
+            {
+                return det;
+            }
+            detSum = detLeft + detRight;
+        }
+        else if (detLeft < 0)
+        {
+            if (detRight >= 0)
+            {
+                return det;
+            }
+            detSum = -detLeft - detRight;
+        }
+        else
+        {
+            // the result is exactly -detRight, up to the rounding of the
+            // product, that preserves the sign as underflow was excluded
+            return det;
+        }
+
+        if (det >= CCW_ERROR_BOUND * detSum || -det >= CCW_ERROR_BOUND * detSum)
+        {
+            return det;
+        }
+
+        return orient2dExact(ax, ay, bx, by, cx, cy);
+    }
+
+    /**
+     * Computes the orientation of the point c with respect to the directed
+     * line going through the points a and b, and returns the result as an
+     * integer.
+     *
+     * @see #orient2d(double, double, double, double, double, double)
+     *
+     * @param a
+     *            the first point
+     * @param b
+     *            the second point
+     * @param c
+     *            the third point
+     * @return +1 if the points are in counter-clockwise order, -1 if they are
+     *         in clockwise order, and 0 if they are collinear.
+     */
+    public static final int orientation(Point2D a, Point2D b, Point2D c)
+    {
+        double det = orient2d(a.x(), a.y(), b.x(), b.y(), c.x(), c.y());
+        return det > 0 ? 1 : (det < 0 ? -1 : 0);
+    }
+
+    /**
+     * Evaluates the sign of the orientation determinant using exact
+     * arithmetic.
+     *
+     * When the coordinate differences are computed without rounding error,
+     * which is the most frequent case for degenerate configurations, each
+     * product is computed exactly as the sum of two double values, and the
+     * sign of the determinant is obtained from the difference of the two
+     * products, computed as a non-overlapping expansion (see Shewchuk, 1997).
+     * Otherwise, the differences and the products of double values are
+     * computed exactly using BigDecimal instances.
+     */
+    private static final double orient2dExact(double ax, double ay, double bx, double by, double cx, double cy)
+    {
+        double acx = ax - cx;
+        double bcy = by - cy;
+        double acy = ay - cy;
+        double bcx = bx - cx;
+        if (diffTail(ax, cx, acx) == 0 && diffTail(by, cy, bcy) == 0
+                && diffTail(ay, cy, acy) == 0 && diffTail(bx, cx, bcx) == 0
+                && isSplittable(acx) && isSplittable(bcy)
+                && isSplittable(acy) && isSplittable(bcx))
+        {
+            // exact products, as the sum of a value and its rounding error
+            double p1 = acx * bcy;
+            double p1Tail = productTail(acx, bcy, p1);
+            double p2 = acy * bcx;
+            double p2Tail = productTail(acy, bcx, p2);
+
+            // difference of the two products, as the expansion x3 + x2 + x1 +
+            // x0 of non-overlapping components with increasing magnitudes
+            double i = p1Tail - p2Tail;
+            double x0 = diffTail(p1Tail, p2Tail, i);
+            double j = p1 + i;
+            double jTail = sumTail(p1, i, j);
+            double k = jTail - p2;
+            double x1 = diffTail(jTail, p2, k);
+            double x3 = j + k;
+            double x2 = sumTail(j, k, x3);
+
+            // the sign is given by the largest non-zero component
+            if (x3 != 0) return Math.signum(x3);
+            if (x2 != 0) return Math.signum(x2);
+            if (x1 != 0) return Math.signum(x1);
+            return Math.signum(x0);
+        }
+
+        BigDecimal exactAcx = new BigDecimal(ax).subtract(new BigDecimal(cx));
+        BigDecimal exactBcy = new BigDecimal(by).subtract(new BigDecimal(cy));
+        BigDecimal exactAcy = new BigDecimal(ay).subtract(new BigDecimal(cy));
+        BigDecimal exactBcx = new BigDecimal(bx).subtract(new BigDecimal(cx));
+        return exactAcx.multiply(exactBcy).subtract(exactAcy.multiply(exactBcx)).signum();
+    }
+
+    /**
+     * Checks if a value can be split into two halves and multiplied without
+     * overflow nor underflow of the rounding error.
+     */
+    private static final boolean isSplittable(double value)
+    {
+        double abs = Math.abs(value);
+        return abs == 0 || (abs >= SPLIT_MIN && abs <= SPLIT_MAX);
+    }
+
+    /**
+     * Returns the rounding error of the sum x = a + b.
+     */
+    private static final double sumTail(double a, double b, double x)
+    {
+        double bVirt = x - a;
+        double aVirt = x - bVirt;
+        return (a - aVirt) + (b - bVirt);
+    }
+
+    /**
+     * Returns the rounding error of the difference x = a - b.
+     */
+    private static final double diffTail(double a, double b, double x)
+    {
+        double bVirt = a - x;
+        double aVirt = x + bVirt;
+        return (a - aVirt) + (bVirt - b);
+    }
+
+    /**
+     * Returns the rounding error of the product x = a * b, by splitting each
+     * factor into two halves of 26 bits (Dekker's algorithm).
+     */
+    private static final double productTail(double a, double b, double x)
+    {
+        double c = SPLITTER * a;
+        double aHi = c - (c - a);
+        double aLo = a - aHi;
+        c = SPLITTER * b;
+        double bHi = c - (c - b);
+        double bLo = b - bHi;
+        double err1 = x - aHi * bHi;
+        double err2 = err1 - aLo * bHi;
+        double err3 = err2 - aHi * bLo;
+        return aLo * bLo - err3;
+    }
+
+    /**
+     * Determines whether the point d lies inside the circle going through
+     * the points a, b and c. The sign of the result is always exact.
+     *
+     * @param ax
+     *            the x-coordinate of the first point
+     * @param ay
+     *            the y-coordinate of the first point
+     * @param bx
+     *            the x-coordinate of the second point
+     * @param by
+     *            the y-coordinate of the second point
+     * @param cx
+     *            the x-coordinate of the third point
+     * @param cy
+     *            the y-coordinate of the third point
+     * @param dx
+     *            the x-coordinate of the query point
+     * @param dy
+     *            the y-coordinate of the query point
+     * @return a positive value if d lies inside the circle and the points a,
+     *         b and c are in counter-clockwise order, a negative value if it
+     *         lies outside, and zero if the four points are cocircular. The
+     *         sign is reversed when a, b and c are in clockwise order.
+     */
+    public static final double incircle(double ax, double ay, double bx, double by, double cx, double cy, double dx, double dy)
+    {
+        double adx = ax - dx;
+        double ady = ay - dy;
+        double bdx = bx - dx;
+        double bdy = by - dy;
+        double cdx = cx - dx;
+        double cdy = cy - dy;
+
+        double bdxcdy = bdx * cdy;
+        double cdxbdy = cdx * bdy;
+        double alift = adx * adx + ady * ady;
+
+        double cdxady = cdx * ady;
+        double adxcdy = adx * cdy;
+        double blift = bdx * bdx + bdy * bdy;
+
+        double adxbdy = adx * bdy;
+        double bdxady = bdx * ady;
+        double clift = cdx * cdx + cdy * cdy;
+
+        double det = alift * (bdxcdy - cdxbdy) + blift * (cdxady - adxcdy) + clift * (adxbdy - bdxady);
+
+        // compute the bound of the rounding error
+        double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+                + (Math.abs(cdxady) + Math.abs(adxcdy)) * blift
+                + (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+        double errorBound = ICC_ERROR_BOUND * permanent;
+        if (det > errorBound || -det > errorBound)
+        {
+            return det;
+        }
+
+        return incircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+    }
+
+    /**
+     * Evaluates the sign of the in-circle determinant using exact arithmetic.
+     */
+    private static final double incircleExact(double ax, double ay, double bx, double by, double cx, double cy, double dx, double dy)
+    {
+        BigDecimal dx0 = new BigDecimal(dx);
+        BigDecimal dy0 = new BigDecimal(dy);
+        BigDecimal adx = new BigDecimal(ax).subtract(dx0);
+        BigDecimal ady = new BigDecimal(ay).subtract(dy0);
+        BigDecimal bdx = new BigDecimal(bx).subtract(dx0);
+        BigDecimal bdy = new BigDecimal(by).subtract(dy0);
+        BigDecimal cdx = new BigDecimal(cx).subtract(dx0);
+        BigDecimal cdy = new BigDecimal(cy).subtract(dy0);
+
+        BigDecimal alift = adx.multiply(adx).add(ady.multiply(ady));
+        BigDecimal blift = bdx.multiply(bdx).add(bdy.multiply(bdy));
+        BigDecimal clift = cdx.multiply(cdx).add(cdy.multiply(cdy));
+
+        BigDecimal det = alift.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+                .add(blift.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+                .add(clift.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))));
+        return det.signum();
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ *
+ */
+package net.ijt.geometry.geom3d;
+
+import java.math.BigDecimal;
+
+/**
+ * Robust geometric predicates for 3D points given by their coordinates.
+ *
+ * As for the Predicates2D class, the determinant is first evaluated using
+ * floating point arithmetic, and computed again using exact arithmetic only
+ * when the sign of the result can not be certified by the error bound.
+ *
+ * @see net.ijt.geometry.geom2d.Predicates2D
+ *
+ * @author dlegland
+ *
+ */
+public class Predicates3D
+{
+    /**
+     * Half the machine epsilon for double precision numbers (2^-53).
+     */
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+
+    /**
+     * The relative error bound of the floating point evaluation of the
+     * orientation determinant.
+     */
+    private static final double O3D_ERROR_BOUND = (7.0 + 56.0 * EPSILON) * EPSILON;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Predicates3D()
+    {
+    }
+
+    /**
+     * Computes the orientation of the point d with respect to the plane going
+     * through the points a, b and c. The sign of the result is always exact.
+     *
+     * The result is positive if d lies on the side of the plane pointed by
+     * the normal of the triangle (a, b, c), computed as the cross product of
+     * (b-a) and (c-a). In other words, the result is positive if the triangle
+     * (a, b, c) appears counter-clockwise when viewed from d. When the
+     * configuration is not degenerate, the result approximates six times the
+     * signed volume of the tetrahedron (a, b, c, d). For nearly degenerate
+     * configurations, the result is -1, 0 or +1.
+     *
+     * @param ax
+     *            the x-coordinate of the first point
+     * @param ay
+     *            the y-coordinate of the first point
+     * @param az
+     *            the z-coordinate of the first point
+     * @param bx
+     *            the x-coordinate of the second point
+     * @param by
+     *            the y-coordinate of the second point
+     * @param bz
+     *            the z-coordinate of the second point
+     * @param cx
+     *            the x-coordinate of the third point
+     * @param cy
+     *            the y-coordinate of the third point
+     * @param cz
+     *            the z-coordinate of the third point
+     * @param dx
+     *            the x-coordinate of the query point
+     * @param dy
+     *            the y-coordinate of the query point
+     * @param dz
+     *            the z-coordinate of the query point
+     * @return a positive value if d is above the plane, a negative value if d
+     *         is below the plane, and zero if the four points are coplanar.
+     */
+    public static final double orient3d(double ax, double ay, double az, double bx, double by, double bz,
+            double cx, double cy, double cz, double dx, double dy, double dz)
+    {
+        double adx = ax - dx, ady = ay - dy, adz = az - dz;
+        double bdx = bx - dx, bdy = by - dy, bdz = bz - dz;
+        double cdx = cx - dx, cdy = cy - dy, cdz = cz - dz;
+
+        double bdxcdy = bdx * cdy;
+        double cdxbdy = cdx * bdy;
+        double cdxady = cdx * ady;
+        double adxcdy = adx * cdy;
+        double adxbdy = adx * bdy;
+        double bdxady = bdx * ady;
+
+        // the determinant of (a-d, b-d, c-d) is positive when d is below the
+        // plane, hence the change of sign
+        double det = adz * (cdxbdy - bdxcdy) + bdz * (adxcdy - cdxady) + cdz * (bdxady - adxbdy);
+
+        double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * Math.abs(adz)
+                + (Math.abs(cdxady) + Math.abs(adxcdy)) * Math.abs(bdz)
+                + (Math.abs(adxbdy) + Math.abs(bdxady)) * Math.abs(cdz);
+        double errorBound = O3D_ERROR_BOUND * permanent;
+        if (det > errorBound || -det > errorBound)
+        {
+            return det;
+        }
+
+        return orient3dExact(ax, ay, az, bx, by, bz, cx, cy, cz, dx, dy, dz);
+    }
+
+    /**
+     * Evaluates the sign of the orientation determinant using exact
+     * arithmetic.
+     */
+    private static final double orient3dExact(double ax, double ay, double az, double bx, double by, double bz,
+            double cx, double cy, double cz, double dx, double dy, double dz)
+    {
+        BigDecimal dX = new BigDecimal(dx);
+        BigDecimal dY = new BigDecimal(dy);
+        BigDecimal dZ = new BigDecimal(dz);
+        BigDecimal adx = new BigDecimal(ax).subtract(dX);
+        BigDecimal ady = new BigDecimal(ay).subtract(dY);
+        BigDecimal adz = new BigDecimal(az).subtract(dZ);
+        BigDecimal bdx = new BigDecimal(bx).subtract(dX);
+        BigDecimal bdy = new BigDecimal(by).subtract(dY);
+        BigDecimal bdz = new BigDecimal(bz).subtract(dZ);
+        BigDecimal cdx = new BigDecimal(cx).subtract(dX);
+        BigDecimal cdy = new BigDecimal(cy).subtract(dY);
+        BigDecimal cdz = new BigDecimal(cz).subtract(dZ);
+
+        BigDecimal det = adz.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+                .add(bdz.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+                .add(cdz.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))));
+        return -det.signum();
+    }
+}
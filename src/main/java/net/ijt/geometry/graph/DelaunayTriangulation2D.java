@@ -0,0 +1,1370 @@
+/**
+ *
+ */
+package net.ijt.geometry.graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import net.ijt.geometry.geom2d.Bounds2D;
+import net.ijt.geometry.geom2d.MultiPoint2D;
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.geom2d.Predicates2D;
+import net.ijt.geometry.polygon2d.Polygon2D;
+
+/**
+ * The Delaunay triangulation of a set of planar points, with optional
+ * constraint edges, that can be converted into a graph, an array of triangle
+ * vertex indices, or the cells of the Voronoi diagram.
+ *
+ * The triangulation is computed incrementally with the Bowyer-Watson
+ * algorithm: for each new point, the triangles whose circumcircle contains
+ * the point are removed, and the resulting cavity is connected to the new
+ * point. The triangle containing the point is found by walking from the last
+ * created triangle, and the points are inserted following a Hilbert curve,
+ * so that the walks remain short, leading to an expected complexity of
+ * <code>O(n log n)</code>. The convex hull is closed by "ghost" triangles
+ * incident to a vertex at infinity, avoiding the use of a bounding triangle.
+ * The orientation and in-circle tests use robust predicates.
+ *
+ * Constraint edges can be added once the triangulation is computed. The
+ * edges crossing a constraint are flipped until the constraint becomes an
+ * edge of the triangulation, and the Delaunay criterion is then restored for
+ * the other new edges (algorithm of Sloan, 1993).
+ *
+ * Points with identical coordinates are inserted only once. If all the
+ * points are collinear, the triangulation contains no triangle, and the
+ * edges join consecutive points along the line.
+ *
+ * <pre>
+ * <code>
+ * DelaunayTriangulation2D dt = DelaunayTriangulation2D.create(points);
+ * SimpleGraph2D graph = dt.graph();
+ * List&lt;Polygon2D&gt; cells = dt.voronoiCells(new Bounds2D(0, 100, 0, 100));
+ * </code>
+ * </pre>
+ *
+ * @author dlegland
+ *
+ */
+public class DelaunayTriangulation2D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The index of the vertex at infinity, shared by the ghost triangles.
+     */
+    private static final int GHOST = -1;
+
+
+    // ===================================================================
+    // Static factories
+
+    /**
+     * Computes the Delaunay triangulation of a collection of points.
+     *
+     * @param points
+     *            the points to triangulate
+     * @return the Delaunay triangulation of the points
+     */
+    public static final DelaunayTriangulation2D create(Collection<? extends Point2D> points)
+    {
+        int n = points.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int i = 0;
+        for (Point2D p : points)
+        {
+            xs[i] = p.x();
+            ys[i] = p.y();
+            i++;
+        }
+        return new DelaunayTriangulation2D(xs, ys);
+    }
+
+    /**
+     * Computes the Delaunay triangulation of a set of points.
+     *
+     * @param points
+     *            the points to triangulate
+     * @return the Delaunay triangulation of the points
+     */
+    public static final DelaunayTriangulation2D create(MultiPoint2D points)
+    {
+        return create(points.points());
+    }
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The coordinates of the vertices.
+     */
+    final double[] xs;
+    final double[] ys;
+
+    /**
+     * The number of vertices.
+     */
+    final int vertexCount;
+
+    /**
+     * For each vertex, the index of the first vertex with the same
+     * coordinates (the vertex itself if it is not a duplicate).
+     */
+    final int[] representatives;
+
+    /**
+     * The vertex indices of the triangles, three per triangle, in
+     * counter-clockwise order. For ghost triangles, the vertex at infinity
+     * is at the third position. The half-edge <code>3*t+k</code> of triangle
+     * <code>t</code> starts at its k-th vertex.
+     */
+    int[] triangleVertices;
+
+    /**
+     * The index of the opposite half-edge of each half-edge.
+     */
+    int[] twins;
+
+    /**
+     * The constraint flag of each half-edge.
+     */
+    boolean[] constrained;
+
+    /**
+     * The number of triangles, including ghost triangles.
+     */
+    int triangleCount = 0;
+
+    /**
+     * A half-edge starting from each vertex, or -1.
+     */
+    final int[] vertexEdges;
+
+    /**
+     * The triangle used as starting point for locating new points.
+     */
+    int lastTriangle = 0;
+
+    /**
+     * For collinear point sets, the vertex indices sorted along the line,
+     * without duplicates. Null if the triangulation contains triangles.
+     */
+    int[] collinearOrder = null;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Computes the Delaunay triangulation of a set of points given by their
+     * coordinates.
+     *
+     * @param xcoords
+     *            the x-coordinates of the points
+     * @param ycoords
+     *            the y-coordinates of the points
+     */
+    public DelaunayTriangulation2D(double[] xcoords, double[] ycoords)
+    {
+        if (xcoords.length != ycoords.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        int n = xcoords.length;
+        this.xs = Arrays.copyOf(xcoords, n);
+        this.ys = Arrays.copyOf(ycoords, n);
+        this.vertexCount = n;
+        this.representatives = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            representatives[i] = i;
+        }
+        this.vertexEdges = new int[n];
+        Arrays.fill(vertexEdges, -1);
+
+        int maxTriangles = 2 * n + 4;
+        this.triangleVertices = new int[3 * maxTriangles];
+        this.twins = new int[3 * maxTriangles];
+        this.constrained = new boolean[3 * maxTriangles];
+
+        int[] order = hilbertOrder(xs, ys);
+        if (!initTriangle(order))
+        {
+            computeCollinearOrder();
+            return;
+        }
+
+        int[] cavityMarks = new int[maxTriangles];
+        int[] fanTriangles = new int[n + 1];
+        for (int k = 0; k < n; k++)
+        {
+            int v = order[k];
+            if (vertexEdges[v] == -1)
+            {
+                insertVertex(v, k + 1, cavityMarks, fanTriangles);
+            }
+        }
+    }
+
+    /**
+     * Creates the first triangle from three non collinear points, together
+     * with the three ghost triangles around it.
+     *
+     * @return false if all the points are collinear
+     */
+    private boolean initTriangle(int[] order)
+    {
+        int n = order.length;
+        if (n < 3)
+        {
+            return false;
+        }
+
+        // find three non collinear vertices
+        int a = order[0];
+        int b = -1;
+        int c = -1;
+        int k = 1;
+        for (; k < n; k++)
+        {
+            if (xs[order[k]] != xs[a] || ys[order[k]] != ys[a])
+            {
+                b = order[k];
+                break;
+            }
+        }
+        for (k++; k < n; k++)
+        {
+            if (orient(a, b, order[k]) != 0)
+            {
+                c = order[k];
+                break;
+            }
+        }
+        if (c == -1)
+        {
+            return false;
+        }
+        if (orient(a, b, c) < 0)
+        {
+            int tmp = b;
+            b = c;
+            c = tmp;
+        }
+
+        int t0 = addTriangle(a, b, c);
+        int g1 = addTriangle(b, a, GHOST);
+        int g2 = addTriangle(c, b, GHOST);
+        int g3 = addTriangle(a, c, GHOST);
+        link(3 * t0, 3 * g1);
+        link(3 * t0 + 1, 3 * g2);
+        link(3 * t0 + 2, 3 * g3);
+        link(3 * g1 + 1, 3 * g3 + 2);
+        link(3 * g1 + 2, 3 * g2 + 1);
+        link(3 * g3 + 1, 3 * g2 + 2);
+        vertexEdges[a] = 3 * t0;
+        vertexEdges[b] = 3 * t0 + 1;
+        vertexEdges[c] = 3 * t0 + 2;
+        this.lastTriangle = t0;
+        return true;
+    }
+
+    /**
+     * Sorts the vertices of a collinear point set along the line, and
+     * identifies the duplicate vertices.
+     */
+    private void computeCollinearOrder()
+    {
+        Integer[] order = new Integer[vertexCount];
+        for (int i = 0; i < vertexCount; i++)
+        {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> {
+            int res = Double.compare(xs[i1], xs[i2]);
+            return res != 0 ? res : Double.compare(ys[i1], ys[i2]);
+        });
+
+        int[] res = new int[vertexCount];
+        int count = 0;
+        for (int k = 0; k < vertexCount; k++)
+        {
+            int v = order[k];
+            if (count > 0 && xs[res[count - 1]] == xs[v] && ys[res[count - 1]] == ys[v])
+            {
+                representatives[v] = res[count - 1];
+                continue;
+            }
+            res[count++] = v;
+        }
+        this.collinearOrder = Arrays.copyOf(res, count);
+    }
+
+
+    // ===================================================================
+    // Insertion of vertices
+
+    /**
+     * Inserts a vertex using the Bowyer-Watson algorithm.
+     *
+     * @param v
+     *            the index of the vertex to insert
+     * @param stamp
+     *            a value identifying the current insertion, used for marking
+     *            the triangles of the cavity
+     */
+    private void insertVertex(int v, int stamp, int[] cavityMarks, int[] fanTriangles)
+    {
+        double x = xs[v];
+        double y = ys[v];
+        int t = locate(x, y);
+
+        if (!isGhost(t))
+        {
+            // check duplicate vertices
+            for (int k = 0; k < 3; k++)
+            {
+                int w = triangleVertices[3 * t + k];
+                if (xs[w] == x && ys[w] == y)
+                {
+                    representatives[v] = w;
+                    return;
+                }
+            }
+        }
+        else
+        {
+            // point collinear with a hull edge: find a hull edge visible from
+            // the point
+            while (!inConflict(t, x, y))
+            {
+                t = twins[3 * t + 1] / 3;
+            }
+        }
+
+        // collect the triangles of the cavity, and the half-edges of its
+        // boundary
+        IntList cavity = new IntList();
+        IntList boundary = new IntList();
+        cavity.add(t);
+        cavityMarks[t] = stamp;
+        for (int i = 0; i < cavity.size; i++)
+        {
+            int tc = cavity.values[i];
+            for (int k = 0; k < 3; k++)
+            {
+                int e = 3 * tc + k;
+                int tn = twins[e] / 3;
+                if (cavityMarks[tn] == stamp)
+                {
+                    continue;
+                }
+                if (inConflict(tn, x, y))
+                {
+                    cavityMarks[tn] = stamp;
+                    cavity.add(tn);
+                }
+                else
+                {
+                    boundary.add(e);
+                }
+            }
+        }
+
+        // store the vertices and the outer half-edges of the new triangles
+        int nb = boundary.size;
+        int[] sources = new int[nb];
+        int[] targets = new int[nb];
+        int[] outers = new int[nb];
+        for (int i = 0; i < nb; i++)
+        {
+            int e = boundary.values[i];
+            sources[i] = triangleVertices[e];
+            targets[i] = triangleVertices[next(e)];
+            outers[i] = twins[e];
+        }
+
+        // create the new triangles, reusing the slots of the cavity
+        int[] newTriangles = new int[nb];
+        for (int i = 0; i < nb; i++)
+        {
+            int a = sources[i];
+            int b = targets[i];
+            int tn;
+            if (i < cavity.size)
+            {
+                tn = cavity.values[i];
+                setTriangle(tn, a, b, v);
+            }
+            else
+            {
+                tn = addTriangle(a, b, v);
+            }
+            newTriangles[i] = tn;
+            fanTriangles[a == GHOST ? vertexCount : a] = tn;
+            linkOuter(edgeFrom(tn, a), outers[i]);
+        }
+
+        // link the new triangles around the new vertex
+        for (int i = 0; i < nb; i++)
+        {
+            int tn = newTriangles[i];
+            int b = targets[i];
+            int tb = fanTriangles[b == GHOST ? vertexCount : b];
+            link(edgeFrom(tn, b), edgeFrom(tb, v));
+            constrained[edgeFrom(tn, b)] = false;
+            constrained[edgeFrom(tb, v)] = false;
+
+            if (sources[i] != GHOST)
+            {
+                vertexEdges[sources[i]] = edgeFrom(tn, sources[i]);
+            }
+            if (!isGhost(tn))
+            {
+                vertexEdges[v] = edgeFrom(tn, v);
+                this.lastTriangle = tn;
+            }
+        }
+    }
+
+    /**
+     * Finds the triangle containing the point by walking from the last
+     * triangle, or a ghost triangle if the point is outside of the convex
+     * hull.
+     */
+    private int locate(double x, double y)
+    {
+        int t = this.lastTriangle;
+        if (isGhost(t))
+        {
+            t = twins[3 * t] / 3;
+        }
+
+        int start = 0;
+        walk: while (!isGhost(t))
+        {
+            // rotate the first tested edge to avoid systematic paths
+            start = start == 2 ? 0 : start + 1;
+            for (int i = 0; i < 3; i++)
+            {
+                int e = 3 * t + (start + i) % 3;
+                int a = triangleVertices[e];
+                int b = triangleVertices[next(e)];
+                if (Predicates2D.orient2d(xs[a], ys[a], xs[b], ys[b], x, y) < 0)
+                {
+                    t = twins[e] / 3;
+                    continue walk;
+                }
+            }
+            return t;
+        }
+        return t;
+    }
+
+    /**
+     * Checks if the point is within the circumcircle of the triangle. For
+     * ghost triangles, the circumcircle degenerates to the open half-plane
+     * on the outer side of the hull edge, plus the edge itself.
+     */
+    private boolean inConflict(int t, double x, double y)
+    {
+        int a = triangleVertices[3 * t];
+        int b = triangleVertices[3 * t + 1];
+        int c = triangleVertices[3 * t + 2];
+        if (c == GHOST)
+        {
+            double det = Predicates2D.orient2d(xs[a], ys[a], xs[b], ys[b], x, y);
+            if (det != 0)
+            {
+                return det > 0;
+            }
+            // collinear case: check if the point is strictly within the edge
+            return (x - xs[a]) * (x - xs[b]) + (y - ys[a]) * (y - ys[b]) < 0;
+        }
+        return Predicates2D.incircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], x, y) > 0;
+    }
+
+
+    // ===================================================================
+    // Constraint edges
+
+    /**
+     * Adds a constraint edge between two vertices. The edges of the
+     * triangulation crossing the constraint are replaced, and the Delaunay
+     * criterion is restored for the edges that are not constrained. If the
+     * constraint goes through other vertices, it is split into several
+     * constraint edges.
+     *
+     * @param v1
+     *            the index of the first vertex
+     * @param v2
+     *            the index of the second vertex
+     * @throws IllegalArgumentException
+     *             if the constraint crosses another constraint edge
+     */
+    public void addConstraint(int v1, int v2)
+    {
+        int a = representatives[v1];
+        int b = representatives[v2];
+        if (a == b)
+        {
+            return;
+        }
+        if (collinearOrder != null)
+        {
+            // all edges of collinear point sets are already constrained
+            int[] neighbors = neighbors(a);
+            if (Arrays.binarySearch(neighbors, b) < 0)
+            {
+                throw new IllegalArgumentException("Constraint edge must join consecutive collinear vertices");
+            }
+            return;
+        }
+        insertConstraint(a, b);
+    }
+
+    private void insertConstraint(int a, int b)
+    {
+        while (a != b)
+        {
+            // find the triangle around vertex a crossed by the segment
+            int e0 = vertexEdges[a];
+            int e = e0;
+            int crossing = -1;
+            int throughVertex = -1;
+            do
+            {
+                int w = triangleVertices[next(e)];
+                int x = triangleVertices[prev(e)];
+                if (w != GHOST)
+                {
+                    double ow = orient(a, w, b);
+                    if (ow == 0 && dot(a, w, b) > 0)
+                    {
+                        throughVertex = w;
+                        break;
+                    }
+                    if (x != GHOST && ow > 0 && orient(a, x, b) < 0)
+                    {
+                        crossing = next(e);
+                        break;
+                    }
+                }
+                e = twins[prev(e)];
+            } while (e != e0);
+
+            if (throughVertex != -1)
+            {
+                // the segment follows an existing edge
+                e = findEdge(a, throughVertex);
+                constrained[e] = true;
+                constrained[twins[e]] = true;
+                a = throughVertex;
+                continue;
+            }
+            if (crossing == -1)
+            {
+                throw new RuntimeException("Could not find the triangle crossed by the constraint");
+            }
+
+            // collect the edges crossed by the segment, up to the next vertex
+            // located on the segment
+            IntList crossedEdges = new IntList();
+            int h = crossing;
+            int end;
+            while (true)
+            {
+                if (constrained[h])
+                {
+                    throw new IllegalArgumentException("Constraint edges can not cross each other");
+                }
+                crossedEdges.add(triangleVertices[h]);
+                crossedEdges.add(triangleVertices[next(h)]);
+
+                int f = twins[h];
+                int y = triangleVertices[prev(f)];
+                double oy = orient(a, b, y);
+                if (y == b || oy == 0)
+                {
+                    end = y;
+                    break;
+                }
+                h = oy < 0 ? prev(f) : next(f);
+            }
+
+            flipCrossedEdges(a, end, crossedEdges);
+            e = findEdge(a, end);
+            constrained[e] = true;
+            constrained[twins[e]] = true;
+            a = end;
+        }
+    }
+
+    /**
+     * Flips the edges crossing the segment (a,b) until the segment becomes
+     * an edge, and restores the Delaunay criterion for the new edges.
+     *
+     * @param crossedEdges
+     *            the vertex pairs of the edges crossing the segment
+     */
+    private void flipCrossedEdges(int a, int b, IntList crossedEdges)
+    {
+        // queue of edges, stored as vertex pairs
+        IntList queue = crossedEdges;
+        int head = 0;
+        IntList newEdges = new IntList();
+        while (head < queue.size)
+        {
+            int u = queue.values[head++];
+            int v = queue.values[head++];
+            int h = findEdge(u, v);
+            int c = triangleVertices[prev(h)];
+            int d = triangleVertices[prev(twins[h])];
+
+            // flip only if the quadrilateral is strictly convex
+            if (orient(c, d, u) * orient(c, d, v) >= 0)
+            {
+                queue.add(u);
+                queue.add(v);
+                continue;
+            }
+            flip(h);
+
+            if (orient(a, b, c) * orient(a, b, d) < 0)
+            {
+                // the new edge still crosses the segment
+                queue.add(c);
+                queue.add(d);
+            }
+            else
+            {
+                newEdges.add(c);
+                newEdges.add(d);
+            }
+        }
+
+        // restore the Delaunay criterion for the new edges
+        boolean swapped = true;
+        while (swapped)
+        {
+            swapped = false;
+            for (int i = 0; i < newEdges.size; i += 2)
+            {
+                int u = newEdges.values[i];
+                int v = newEdges.values[i + 1];
+                if ((u == a && v == b) || (u == b && v == a))
+                {
+                    continue;
+                }
+                int h = findEdge(u, v);
+                int c = triangleVertices[prev(h)];
+                int d = triangleVertices[prev(twins[h])];
+                if (c == GHOST || d == GHOST || constrained[h])
+                {
+                    continue;
+                }
+                if (Predicates2D.incircle(xs[u], ys[u], xs[v], ys[v], xs[c], ys[c], xs[d], ys[d]) > 0)
+                {
+                    flip(h);
+                    newEdges.values[i] = c;
+                    newEdges.values[i + 1] = d;
+                    swapped = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Flips the edge between two real triangles, replacing the triangles
+     * (a,b,c) and (b,a,d) by the triangles (c,a,d) and (d,b,c).
+     */
+    private void flip(int h)
+    {
+        int f = twins[h];
+        int t1 = h / 3;
+        int t2 = f / 3;
+        int a = triangleVertices[h];
+        int b = triangleVertices[next(h)];
+        int c = triangleVertices[prev(h)];
+        int d = triangleVertices[prev(f)];
+
+        int outerBC = twins[next(h)];
+        int outerCA = twins[prev(h)];
+        int outerAD = twins[next(f)];
+        int outerDB = twins[prev(f)];
+
+        setTriangle(t1, c, a, d);
+        setTriangle(t2, d, b, c);
+        linkOuter(3 * t1, outerCA);
+        linkOuter(3 * t1 + 1, outerAD);
+        linkOuter(3 * t2, outerDB);
+        linkOuter(3 * t2 + 1, outerBC);
+        link(3 * t1 + 2, 3 * t2 + 2);
+        constrained[3 * t1 + 2] = false;
+        constrained[3 * t2 + 2] = false;
+
+        vertexEdges[c] = 3 * t1;
+        vertexEdges[a] = 3 * t1 + 1;
+        vertexEdges[d] = 3 * t1 + 2;
+        vertexEdges[b] = 3 * t2 + 1;
+    }
+
+
+    // ===================================================================
+    // Conversion methods
+
+    /**
+     * Returns the vertex indices of the triangles, as triplets of vertex
+     * indices in counter-clockwise order.
+     *
+     * @return the vertex index triplets of the triangles
+     */
+    public int[] triangles()
+    {
+        int[] res = new int[3 * triangleCount];
+        int count = 0;
+        for (int t = 0; t < triangleCount; t++)
+        {
+            if (!isGhost(t))
+            {
+                System.arraycopy(triangleVertices, 3 * t, res, count, 3);
+                count += 3;
+            }
+        }
+        return Arrays.copyOf(res, count);
+    }
+
+    /**
+     * Converts this triangulation into a graph. The vertices of the graph
+     * correspond to the input points, and each edge of the triangulation is
+     * added once.
+     *
+     * @return the graph of the edges of the triangulation
+     */
+    public SimpleGraph2D graph()
+    {
+        int[] edges = edges();
+        SimpleGraph2D graph = new SimpleGraph2D(vertexCount, edges.length / 2);
+        for (int i = 0; i < vertexCount; i++)
+        {
+            graph.addVertex(new Point2D(xs[i], ys[i]));
+        }
+        for (int i = 0; i < edges.length; i += 2)
+        {
+            graph.addEdge(edges[i], edges[i + 1]);
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the edges of the triangulation, as pairs of vertex indices.
+     *
+     * @return the vertex index pairs of the edges
+     */
+    public int[] edges()
+    {
+        IntList res = new IntList();
+        if (collinearOrder != null)
+        {
+            for (int i = 1; i < collinearOrder.length; i++)
+            {
+                res.add(collinearOrder[i - 1]);
+                res.add(collinearOrder[i]);
+            }
+        }
+        else
+        {
+            for (int t = 0; t < triangleCount; t++)
+            {
+                if (isGhost(t))
+                {
+                    continue;
+                }
+                for (int k = 0; k < 3; k++)
+                {
+                    int e = 3 * t + k;
+                    int u = triangleVertices[e];
+                    int v = triangleVertices[next(e)];
+                    if (u < v || isGhost(twins[e] / 3))
+                    {
+                        res.add(u);
+                        res.add(v);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(res.values, res.size);
+    }
+
+    /**
+     * Returns the indices of the vertices adjacent to the specified vertex.
+     * Duplicate vertices share the neighbors of the first vertex with the
+     * same coordinates.
+     *
+     * @param index
+     *            the vertex index
+     * @return the indices of the adjacent vertices, in increasing order
+     */
+    public int[] neighbors(int index)
+    {
+        int v = representatives[index];
+        IntList res = new IntList();
+        if (collinearOrder != null)
+        {
+            for (int i = 0; i < collinearOrder.length; i++)
+            {
+                if (collinearOrder[i] == v)
+                {
+                    if (i > 0) res.add(collinearOrder[i - 1]);
+                    if (i < collinearOrder.length - 1) res.add(collinearOrder[i + 1]);
+                    break;
+                }
+            }
+        }
+        else
+        {
+            int e0 = vertexEdges[v];
+            int e = e0;
+            do
+            {
+                int w = triangleVertices[next(e)];
+                if (w != GHOST)
+                {
+                    res.add(w);
+                }
+                e = twins[prev(e)];
+            } while (e != e0);
+        }
+        int[] array = Arrays.copyOf(res.values, res.size);
+        Arrays.sort(array);
+        return array;
+    }
+
+    /**
+     * Computes the nearest neighbor of each vertex, using the fact that the
+     * nearest neighbor graph is a subgraph of the Delaunay triangulation.
+     * Duplicate vertices are nearest neighbors of each other.
+     *
+     * @return the index of the nearest other vertex of each vertex, or -1 if
+     *         the point set contains a single point
+     */
+    public int[] nearestNeighbors()
+    {
+        int[] res = new int[vertexCount];
+        Arrays.fill(res, -1);
+        for (int i = 0; i < vertexCount; i++)
+        {
+            if (representatives[i] != i)
+            {
+                // duplicate vertex
+                res[i] = representatives[i];
+                res[representatives[i]] = i;
+            }
+        }
+
+        for (int i = 0; i < vertexCount; i++)
+        {
+            if (res[i] != -1)
+            {
+                continue;
+            }
+            double minDist = Double.POSITIVE_INFINITY;
+            for (int j : neighbors(i))
+            {
+                double dist = Math.hypot(xs[j] - xs[i], ys[j] - ys[i]);
+                if (dist < minDist)
+                {
+                    minDist = dist;
+                    res[i] = j;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Computes the cells of the Voronoi diagram of the points, clipped by the
+     * specified bounds. The circumcenters of the triangles are computed once,
+     * and the cell of each vertex within the hull is the polygon of the
+     * circumcenters of the triangles around the vertex, clipped by the bounds
+     * only when it is not contained within them. The cells of the vertices
+     * on the hull are unbounded, and are obtained by clipping the bounding
+     * rectangle by the bisectors with the adjacent vertices.
+     *
+     * @param bounds
+     *            the bounds used for clipping the cells
+     * @return the Voronoi cell of each point, in the order of the points.
+     *         Empty polygons are returned for cells outside of the bounds.
+     * @throws IllegalStateException
+     *             if constraint edges were added to the triangulation
+     */
+    public List<Polygon2D> voronoiCells(Bounds2D bounds)
+    {
+        if (hasConstraints())
+        {
+            throw new IllegalStateException("Voronoi cells can not be computed from a constrained triangulation");
+        }
+
+        // the circumcenter of each finite triangle
+        double[] centersX = new double[triangleCount];
+        double[] centersY = new double[triangleCount];
+        for (int t = 0; t < triangleCount; t++)
+        {
+            if (!isGhost(t))
+            {
+                computeCircumcenter(t, centersX, centersY);
+            }
+        }
+
+        Polygon2D[] cells = new Polygon2D[vertexCount];
+        ConvexClipper clipper = new ConvexClipper();
+        for (int i = 0; i < vertexCount; i++)
+        {
+            int v = representatives[i];
+            if (cells[v] == null)
+            {
+                cells[v] = voronoiCell(v, bounds, centersX, centersY, clipper);
+            }
+            cells[i] = cells[v];
+        }
+        return Arrays.asList(cells);
+    }
+
+    private Polygon2D voronoiCell(int v, Bounds2D bounds, double[] centersX, double[] centersY, ConvexClipper clipper)
+    {
+        double xmin = bounds.minX();
+        double xmax = bounds.maxX();
+        double ymin = bounds.minY();
+        double ymax = bounds.maxY();
+
+        // collect the circumcenters of the triangles around the vertex, in
+        // counter-clockwise order
+        boolean onHull = collinearOrder != null;
+        boolean inside = true;
+        clipper.clear();
+        if (!onHull)
+        {
+            int e0 = vertexEdges[v];
+            int e = e0;
+            do
+            {
+                int t = e / 3;
+                if (isGhost(t))
+                {
+                    onHull = true;
+                    break;
+                }
+                double x = centersX[t];
+                double y = centersY[t];
+                inside = inside && x >= xmin && x <= xmax && y >= ymin && y <= ymax;
+                if (clipper.size == 0 || x != clipper.xs[clipper.size - 1] || y != clipper.ys[clipper.size - 1])
+                {
+                    // triangles with the same circumcircle share their center
+                    clipper.add(x, y);
+                }
+                e = twins[prev(e)];
+            } while (e != e0);
+        }
+
+        if (onHull)
+        {
+            // clip the bounding rectangle by the bisectors with the neighbors
+            clipper.clear();
+            clipper.add(xmin, ymin);
+            clipper.add(xmax, ymin);
+            clipper.add(xmax, ymax);
+            clipper.add(xmin, ymax);
+            double x0 = xs[v];
+            double y0 = ys[v];
+            for (int w : neighbors(v))
+            {
+                // keep the points closer to v than to w:
+                // (pw - pv) . q <= (|pw|^2 - |pv|^2) / 2
+                double nx = xs[w] - x0;
+                double ny = ys[w] - y0;
+                clipper.clip(nx, ny, (nx * (xs[w] + x0) + ny * (ys[w] + y0)) / 2);
+            }
+        }
+        else if (!inside)
+        {
+            clipper.clip(-1, 0, -xmin);
+            clipper.clip(1, 0, xmax);
+            clipper.clip(0, -1, -ymin);
+            clipper.clip(0, 1, ymax);
+        }
+        return clipper.polygon();
+    }
+
+    /**
+     * Computes the center of the circle circumscribed to a finite triangle.
+     */
+    private void computeCircumcenter(int t, double[] centersX, double[] centersY)
+    {
+        int a = triangleVertices[3 * t];
+        int b = triangleVertices[3 * t + 1];
+        int c = triangleVertices[3 * t + 2];
+        double bx = xs[b] - xs[a];
+        double by = ys[b] - ys[a];
+        double cx = xs[c] - xs[a];
+        double cy = ys[c] - ys[a];
+        double b2 = bx * bx + by * by;
+        double c2 = cx * cx + cy * cy;
+        double d = 2 * (bx * cy - by * cx);
+        centersX[t] = xs[a] + (cy * b2 - by * c2) / d;
+        centersY[t] = ys[a] + (bx * c2 - cx * b2) / d;
+    }
+
+    /**
+     * Checks if at least one constraint edge was added to the triangulation.
+     */
+    private boolean hasConstraints()
+    {
+        if (collinearOrder != null)
+        {
+            return false;
+        }
+        for (int e = 0; e < 3 * triangleCount; e++)
+        {
+            if (constrained[e])
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    // ===================================================================
+    // Accessors
+
+    /**
+     * @return the number of vertices, including duplicate vertices
+     */
+    public int vertexCount()
+    {
+        return this.vertexCount;
+    }
+
+    /**
+     * @return the number of triangles
+     */
+    public int triangleCount()
+    {
+        int count = 0;
+        for (int t = 0; t < triangleCount; t++)
+        {
+            if (!isGhost(t))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the edge between two vertices is a constraint edge.
+     *
+     * @param v1
+     *            the index of the first vertex
+     * @param v2
+     *            the index of the second vertex
+     * @return true if the two vertices are joined by a constraint edge
+     */
+    public boolean isConstrained(int v1, int v2)
+    {
+        if (collinearOrder != null)
+        {
+            // edges of collinear point sets can not be modified
+            return Arrays.binarySearch(neighbors(v1), representatives[v2]) >= 0;
+        }
+        int e = findEdge(representatives[v1], representatives[v2]);
+        return e != -1 && constrained[e];
+    }
+
+
+    // ===================================================================
+    // Management of triangle arrays
+
+    private int addTriangle(int a, int b, int c)
+    {
+        int t = triangleCount++;
+        if (3 * triangleCount > triangleVertices.length)
+        {
+            int size = 2 * triangleVertices.length;
+            triangleVertices = Arrays.copyOf(triangleVertices, size);
+            twins = Arrays.copyOf(twins, size);
+            constrained = Arrays.copyOf(constrained, size);
+        }
+        setTriangle(t, a, b, c);
+        return t;
+    }
+
+    /**
+     * Sets the vertices of a triangle, rotating them such that the vertex at
+     * infinity is at the last position.
+     */
+    private void setTriangle(int t, int a, int b, int c)
+    {
+        if (a == GHOST)
+        {
+            setTriangle(t, b, c, a);
+            return;
+        }
+        if (b == GHOST)
+        {
+            setTriangle(t, c, a, b);
+            return;
+        }
+        triangleVertices[3 * t] = a;
+        triangleVertices[3 * t + 1] = b;
+        triangleVertices[3 * t + 2] = c;
+    }
+
+    private void link(int e1, int e2)
+    {
+        twins[e1] = e2;
+        twins[e2] = e1;
+    }
+
+    /**
+     * Links a half-edge with a half-edge outside of the modified region,
+     * keeping its constraint flag.
+     */
+    private void linkOuter(int e, int outer)
+    {
+        link(e, outer);
+        constrained[e] = constrained[outer];
+    }
+
+    /**
+     * Finds the half-edge of the triangle starting from the specified vertex.
+     */
+    private int edgeFrom(int t, int v)
+    {
+        if (triangleVertices[3 * t] == v) return 3 * t;
+        if (triangleVertices[3 * t + 1] == v) return 3 * t + 1;
+        return 3 * t + 2;
+    }
+
+    /**
+     * Finds the half-edge going from vertex u to vertex v, or -1.
+     */
+    private int findEdge(int u, int v)
+    {
+        int e0 = vertexEdges[u];
+        int e = e0;
+        do
+        {
+            if (triangleVertices[next(e)] == v)
+            {
+                return e;
+            }
+            e = twins[prev(e)];
+        } while (e != e0);
+        return -1;
+    }
+
+    private boolean isGhost(int t)
+    {
+        return triangleVertices[3 * t + 2] == GHOST;
+    }
+
+    private static final int next(int e)
+    {
+        return e % 3 == 2 ? e - 2 : e + 1;
+    }
+
+    private static final int prev(int e)
+    {
+        return e % 3 == 0 ? e + 2 : e - 1;
+    }
+
+    private double orient(int a, int b, int c)
+    {
+        return Math.signum(Predicates2D.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]));
+    }
+
+    private double dot(int a, int b, int c)
+    {
+        return (xs[b] - xs[a]) * (xs[c] - xs[a]) + (ys[b] - ys[a]) * (ys[c] - ys[a]);
+    }
+
+
+    // ===================================================================
+    // Hilbert curve ordering
+
+    /**
+     * Sorts the vertex indices according to the position of the vertices
+     * along a Hilbert curve.
+     */
+    private static final int[] hilbertOrder(double[] xs, double[] ys)
+    {
+        int n = xs.length;
+        double xmin = Double.POSITIVE_INFINITY, ymin = Double.POSITIVE_INFINITY;
+        double xmax = Double.NEGATIVE_INFINITY, ymax = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++)
+        {
+            xmin = Math.min(xmin, xs[i]);
+            xmax = Math.max(xmax, xs[i]);
+            ymin = Math.min(ymin, ys[i]);
+            ymax = Math.max(ymax, ys[i]);
+        }
+        double size = Math.max(xmax - xmin, ymax - ymin);
+        double scale = size > 0 ? 32767 / size : 0;
+
+        // sort keys combining Hilbert index and vertex index
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++)
+        {
+            int hx = (int) ((xs[i] - xmin) * scale);
+            int hy = (int) ((ys[i] - ymin) * scale);
+            keys[i] = (hilbertIndex(hx, hy) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Computes the index of a cell along the Hilbert curve covering a grid
+     * of 32768 x 32768 cells.
+     */
+    private static final long hilbertIndex(int x, int y)
+    {
+        long d = 0;
+        for (int s = 1 << 14; s > 0; s >>= 1)
+        {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+
+            // rotate the quadrant
+            if (ry == 0)
+            {
+                if (rx == 1)
+                {
+                    x = 0x7FFF - x;
+                    y = 0x7FFF - y;
+                }
+                int tmp = x;
+                x = y;
+                y = tmp;
+            }
+        }
+        return d;
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * A convex polygon that can be clipped by half-planes, using
+     * Sutherland-Hodgman clipping. The vertex buffers are reused between
+     * successive polygons.
+     */
+    private static final class ConvexClipper
+    {
+        double[] xs = new double[16];
+        double[] ys = new double[16];
+        double[] tmpX = new double[16];
+        double[] tmpY = new double[16];
+        int size = 0;
+
+        void clear()
+        {
+            size = 0;
+        }
+
+        void add(double x, double y)
+        {
+            ensureCapacity(size + 1);
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        /**
+         * Keeps the part of the polygon containing the points q such that
+         * n.q &lt;= offset.
+         */
+        void clip(double nx, double ny, double offset)
+        {
+            // clipping a convex polygon adds at most one vertex
+            ensureCapacity(size + 1);
+            int count = 0;
+            for (int i = 0; i < size; i++)
+            {
+                int j = i + 1 == size ? 0 : i + 1;
+                double di = nx * xs[i] + ny * ys[i] - offset;
+                double dj = nx * xs[j] + ny * ys[j] - offset;
+                if (di <= 0)
+                {
+                    tmpX[count] = xs[i];
+                    tmpY[count] = ys[i];
+                    count++;
+                }
+                if ((di < 0 && dj > 0) || (di > 0 && dj < 0))
+                {
+                    double t = di / (di - dj);
+                    tmpX[count] = xs[i] + t * (xs[j] - xs[i]);
+                    tmpY[count] = ys[i] + t * (ys[j] - ys[i]);
+                    count++;
+                }
+            }
+
+            double[] swap = xs;
+            xs = tmpX;
+            tmpX = swap;
+            swap = ys;
+            ys = tmpY;
+            tmpY = swap;
+            size = count;
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (capacity > xs.length)
+            {
+                capacity = Math.max(capacity, 2 * xs.length);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                tmpX = new double[capacity];
+                tmpY = new double[capacity];
+            }
+        }
+
+        Polygon2D polygon()
+        {
+            return Polygon2D.create(Arrays.copyOf(xs, size), Arrays.copyOf(ys, size));
+        }
+    }
+
+    /**
+     * A growable list of integers.
+     */
+    private static final class IntList
+    {
+        int[] values = new int[16];
+        int size = 0;
+
+        void add(int value)
+        {
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,852 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+import net.ijt.geometry.geom3d.Bounds3D;
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Vector3D;
+
+/**
+ * A triangular mesh whose vertex coordinates and face vertex indices are
+ * stored outside of the Java heap, within NIO buffers. The buffers can be
+ * direct buffers, or views on a memory-mapped file, in which case the
+ * operating system pages data in on demand. This makes it possible to process
+ * meshes larger than the heap without copying their content.
+ *
+ * As a single buffer can not contain more than 2^31 elements, the storage is
+ * split into chunks of fixed size. Vertex coordinates are stored either in
+ * double or in single precision, as (x1, y1, z1, x2, y2, z2, ...). Face
+ * vertex indices are stored as (iv11, iv12, iv13, iv21, iv22, iv23, ...).
+ *
+ * Specificities of this implementation:
+ * <ul>
+ * <li>All faces are triangles.</li>
+ * <li>Vertices and faces can be added up to the capacity of the mesh, but can
+ * not be removed.</li>
+ * <li>No management of edges.</li>
+ * <li>Vertices and faces are indexed.</li>
+ * </ul>
+ *
+ * <pre>
+ * <code>
+ * // allocate off-heap storage, and populate the mesh
+ * BufferTriMesh3D mesh = BufferTriMesh3D.allocateDirect(nVertices, nFaces);
+ * mesh.addVertex(new Point3D(x, y, z));
+ * ...
+ * mesh.addFace(iv1, iv2, iv3);
+ *
+ * // or map an existing file
+ * BufferTriMesh3D mesh = new BinaryMeshReader(file).mapMesh();
+ * double area = mesh.surfaceArea();
+ * </code>
+ * </pre>
+ *
+ * @see net.ijt.geometry.mesh3d.io.BinaryMeshReader#mapMesh()
+ *
+ * @author dlegland
+ *
+ */
+public class BufferTriMesh3D implements Mesh3D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The binary logarithm of the number of elements within a chunk.
+     */
+    public static final int CHUNK_BITS = 27;
+
+    /**
+     * The number of elements (coordinates or indices) within each chunk,
+     * except the last one.
+     */
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The chunks of vertex coordinates, when stored in double precision, or
+     * null.
+     */
+    DoubleBuffer[] doubleCoords;
+
+    /**
+     * The chunks of vertex coordinates, when stored in single precision, or
+     * null.
+     */
+    FloatBuffer[] floatCoords;
+
+    /**
+     * The chunks of face vertex indices.
+     */
+    IntBuffer[] faces;
+
+    /**
+     * The number of vertices.
+     */
+    int vertexCount;
+
+    /**
+     * The number of faces.
+     */
+    int faceCount;
+
+    /**
+     * The maximum number of vertices that can be stored.
+     */
+    int vertexCapacity;
+
+    /**
+     * The maximum number of faces that can be stored.
+     */
+    int faceCapacity;
+
+
+    // ===================================================================
+    // Static factories
+
+    /**
+     * Creates a new empty mesh, whose storage is allocated within direct
+     * buffers. Vertex coordinates are stored in double precision.
+     *
+     * @param vertexCapacity
+     *            the maximum number of vertices
+     * @param faceCapacity
+     *            the maximum number of faces
+     * @return a new empty mesh
+     */
+    public static final BufferTriMesh3D allocateDirect(int vertexCapacity, int faceCapacity)
+    {
+        long nCoords = 3L * vertexCapacity;
+        DoubleBuffer[] coordChunks = new DoubleBuffer[chunkCount(nCoords)];
+        for (int i = 0; i < coordChunks.length; i++)
+        {
+            int size = (int) Math.min(CHUNK_SIZE, nCoords - ((long) i << CHUNK_BITS));
+            coordChunks[i] = ByteBuffer.allocateDirect(8 * size).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+
+        long nIndices = 3L * faceCapacity;
+        IntBuffer[] faceChunks = new IntBuffer[chunkCount(nIndices)];
+        for (int i = 0; i < faceChunks.length; i++)
+        {
+            int size = (int) Math.min(CHUNK_SIZE, nIndices - ((long) i << CHUNK_BITS));
+            faceChunks[i] = ByteBuffer.allocateDirect(4 * size).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+
+        BufferTriMesh3D mesh = new BufferTriMesh3D(coordChunks, null, faceChunks, vertexCapacity, faceCapacity);
+        mesh.vertexCount = 0;
+        mesh.faceCount = 0;
+        return mesh;
+    }
+
+    /**
+     * Returns the number of chunks necessary to store the specified number of
+     * elements.
+     *
+     * @param elementCount
+     *            the number of elements
+     * @return the number of chunks
+     */
+    public static final int chunkCount(long elementCount)
+    {
+        return (int) ((elementCount + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+    }
+
+    /**
+     * Splits a buffer into chunks of CHUNK_SIZE elements, sharing the content
+     * of the original buffer.
+     */
+    private static final DoubleBuffer[] split(DoubleBuffer buffer)
+    {
+        int n = buffer.limit();
+        DoubleBuffer[] chunks = new DoubleBuffer[chunkCount(n)];
+        for (int i = 0; i < chunks.length; i++)
+        {
+            DoubleBuffer dup = buffer.duplicate();
+            dup.position(i << CHUNK_BITS);
+            dup.limit((int) Math.min(n, (long) (i + 1) << CHUNK_BITS));
+            chunks[i] = dup.slice();
+        }
+        return chunks;
+    }
+
+    private static final FloatBuffer[] split(FloatBuffer buffer)
+    {
+        int n = buffer.limit();
+        FloatBuffer[] chunks = new FloatBuffer[chunkCount(n)];
+        for (int i = 0; i < chunks.length; i++)
+        {
+            FloatBuffer dup = buffer.duplicate();
+            dup.position(i << CHUNK_BITS);
+            dup.limit((int) Math.min(n, (long) (i + 1) << CHUNK_BITS));
+            chunks[i] = dup.slice();
+        }
+        return chunks;
+    }
+
+    private static final IntBuffer[] split(IntBuffer buffer)
+    {
+        int n = buffer.limit();
+        IntBuffer[] chunks = new IntBuffer[chunkCount(n)];
+        for (int i = 0; i < chunks.length; i++)
+        {
+            IntBuffer dup = buffer.duplicate();
+            dup.position(i << CHUNK_BITS);
+            dup.limit((int) Math.min(n, (long) (i + 1) << CHUNK_BITS));
+            chunks[i] = dup.slice();
+        }
+        return chunks;
+    }
+
+
+    // ===================================================================
+    // Constructors
+
+    /**
+     * Creates a new mesh from a buffer of vertex coordinates in double
+     * precision, and a buffer of face vertex indices. Buffers are not copied.
+     *
+     * @param vertexCoords
+     *            the coordinates of the vertices, stored as (x1, y1, z1, x2,
+     *            y2, z2, ...)
+     * @param faceVertexIndices
+     *            the indices of the vertices of each face, stored as (iv11,
+     *            iv12, iv13, iv21, iv22, iv23, ...)
+     */
+    public BufferTriMesh3D(DoubleBuffer vertexCoords, IntBuffer faceVertexIndices)
+    {
+        this(split(vertexCoords), null, split(faceVertexIndices), vertexCoords.limit() / 3, faceVertexIndices.limit() / 3);
+    }
+
+    /**
+     * Creates a new mesh from a buffer of vertex coordinates in single
+     * precision, and a buffer of face vertex indices. Buffers are not copied.
+     *
+     * @param vertexCoords
+     *            the coordinates of the vertices, stored as (x1, y1, z1, x2,
+     *            y2, z2, ...)
+     * @param faceVertexIndices
+     *            the indices of the vertices of each face, stored as (iv11,
+     *            iv12, iv13, iv21, iv22, iv23, ...)
+     */
+    public BufferTriMesh3D(FloatBuffer vertexCoords, IntBuffer faceVertexIndices)
+    {
+        this(null, split(vertexCoords), split(faceVertexIndices), vertexCoords.limit() / 3, faceVertexIndices.limit() / 3);
+    }
+
+    /**
+     * Creates a new mesh from chunks of vertex coordinates and of face vertex
+     * indices. Each chunk must contain CHUNK_SIZE elements, except the last
+     * one. Exactly one of the coordinate chunk arrays must be non null.
+     *
+     * @param doubleCoords
+     *            the chunks of vertex coordinates in double precision, or null
+     * @param floatCoords
+     *            the chunks of vertex coordinates in single precision, or null
+     * @param faceVertexIndices
+     *            the chunks of face vertex indices
+     * @param vertexCount
+     *            the number of vertices
+     * @param faceCount
+     *            the number of faces
+     */
+    public BufferTriMesh3D(DoubleBuffer[] doubleCoords, FloatBuffer[] floatCoords, IntBuffer[] faceVertexIndices, int vertexCount, int faceCount)
+    {
+        if ((doubleCoords == null) == (floatCoords == null))
+        {
+            throw new IllegalArgumentException("Requires either double or float coordinate chunks");
+        }
+        this.doubleCoords = doubleCoords;
+        this.floatCoords = floatCoords;
+        this.faces = faceVertexIndices;
+        this.vertexCount = vertexCount;
+        this.faceCount = faceCount;
+        this.vertexCapacity = vertexCount;
+        this.faceCapacity = faceCount;
+    }
+
+
+    // ===================================================================
+    // Methods specific to BufferTriMesh3D
+
+    /**
+     * Returns a coordinate of a vertex.
+     *
+     * @param vertexIndex
+     *            the index of the vertex
+     * @param dim
+     *            the index of the coordinate, between 0 and 2
+     * @return the coordinate of the vertex
+     */
+    public double vertexCoordinate(int vertexIndex, int dim)
+    {
+        long i = 3L * vertexIndex + dim;
+        int chunk = (int) (i >>> CHUNK_BITS);
+        int offset = (int) (i & CHUNK_MASK);
+        return doubleCoords != null ? doubleCoords[chunk].get(offset) : floatCoords[chunk].get(offset);
+    }
+
+    /**
+     * Returns the index of one of the vertices of a face.
+     *
+     * @param faceIndex
+     *            the index of the face
+     * @param k
+     *            the index of the vertex within the face, between 0 and 2
+     * @return the index of the vertex
+     */
+    public int faceVertexIndex(int faceIndex, int k)
+    {
+        long i = 3L * faceIndex + k;
+        return faces[(int) (i >>> CHUNK_BITS)].get((int) (i & CHUNK_MASK));
+    }
+
+    @Override
+    public Point3D vertexPosition(int index)
+    {
+        return new Point3D(vertexCoordinate(index, 0), vertexCoordinate(index, 1), vertexCoordinate(index, 2));
+    }
+
+    @Override
+    public void vertexCoordinates(int index, double[] coords)
+    {
+        coords[0] = vertexCoordinate(index, 0);
+        coords[1] = vertexCoordinate(index, 1);
+        coords[2] = vertexCoordinate(index, 2);
+    }
+
+    @Override
+    public double[] vertexCoordinates()
+    {
+        double[] coords = new double[Math.multiplyExact(3, vertexCount)];
+        int offset = 0;
+        for (int c = 0; offset < coords.length; c++)
+        {
+            // use duplicates to keep the buffer positions unchanged
+            int n = Math.min(CHUNK_SIZE, coords.length - offset);
+            if (doubleCoords != null)
+            {
+                doubleCoords[c].duplicate().get(coords, offset, n);
+            }
+            else
+            {
+                FloatBuffer buffer = floatCoords[c];
+                for (int j = 0; j < n; j++)
+                {
+                    coords[offset + j] = buffer.get(j);
+                }
+            }
+            offset += n;
+        }
+        return coords;
+    }
+
+    @Override
+    public int faceVertexIndices(int index, int[] indices)
+    {
+        indices[0] = faceVertexIndex(index, 0);
+        indices[1] = faceVertexIndex(index, 1);
+        indices[2] = faceVertexIndex(index, 2);
+        return 3;
+    }
+
+    @Override
+    public int[] faceVertexIndices()
+    {
+        int[] indices = new int[Math.multiplyExact(3, faceCount)];
+        int offset = 0;
+        for (int c = 0; offset < indices.length; c++)
+        {
+            int n = Math.min(CHUNK_SIZE, indices.length - offset);
+            faces[c].duplicate().get(indices, offset, n);
+            offset += n;
+        }
+        return indices;
+    }
+
+    public Triangle3D getFacePolygon(int faceIndex)
+    {
+        return new Triangle3D(
+                vertexPosition(faceVertexIndex(faceIndex, 0)),
+                vertexPosition(faceVertexIndex(faceIndex, 1)),
+                vertexPosition(faceVertexIndex(faceIndex, 2)));
+    }
+
+    /**
+     * Adds a new face to the mesh, given the indices of its vertices.
+     *
+     * @param iv1
+     *            the index of the first vertex
+     * @param iv2
+     *            the index of the second vertex
+     * @param iv3
+     *            the index of the third vertex
+     * @return the index of the new face
+     */
+    public int addFace(int iv1, int iv2, int iv3)
+    {
+        if (faceCount >= faceCapacity)
+        {
+            throw new RuntimeException("Face capacity of the mesh is reached: " + faceCapacity);
+        }
+        setIndex(3L * faceCount, iv1);
+        setIndex(3L * faceCount + 1, iv2);
+        setIndex(3L * faceCount + 2, iv3);
+        return faceCount++;
+    }
+
+    private void setCoordinate(long i, double value)
+    {
+        int chunk = (int) (i >>> CHUNK_BITS);
+        int offset = (int) (i & CHUNK_MASK);
+        if (doubleCoords != null)
+        {
+            doubleCoords[chunk].put(offset, value);
+        }
+        else
+        {
+            floatCoords[chunk].put(offset, (float) value);
+        }
+    }
+
+    private void setIndex(long i, int value)
+    {
+        faces[(int) (i >>> CHUNK_BITS)].put((int) (i & CHUNK_MASK), value);
+    }
+
+    /**
+     * Computes the surface area of the mesh. Faces are processed in parallel
+     * for large meshes.
+     *
+     * @return the surface area of the mesh
+     */
+    public double surfaceArea()
+    {
+        return Meshes3D.surfaceArea(this);
+    }
+
+    /**
+     * Finds the index of the closest vertex to the input point. Vertices are
+     * processed in parallel for large meshes.
+     *
+     * @param point
+     *            a query point
+     * @return the index of the vertex the closest to query point
+     */
+    public int findClosestVertexIndex(Point3D point)
+    {
+        return Meshes3D.findClosestVertexIndex(this, point);
+    }
+
+
+    // ===================================================================
+    // Topological queries
+
+    @Override
+    public Collection<Edge> vertexEdges(Mesh3D.Vertex vertex)
+    {
+        throw new UnsupportedOperationException("This implementation does not support edges");
+    }
+
+    @Override
+    public Collection<Mesh3D.Face> vertexFaces(Mesh3D.Vertex vertex)
+    {
+        int index = getVertex(vertex).index;
+        ArrayList<Mesh3D.Face> vertexFaces = new ArrayList<Mesh3D.Face>(6);
+        for (int iFace = 0; iFace < faceCount; iFace++)
+        {
+            if (faceVertexIndex(iFace, 0) == index || faceVertexIndex(iFace, 1) == index || faceVertexIndex(iFace, 2) == index)
+            {
+                vertexFaces.add(new Face(iFace));
+            }
+        }
+        return vertexFaces;
+    }
+
+    @Override
+    public Collection<? extends Mesh3D.Vertex> vertexNeighbors(Mesh3D.Vertex vertex)
+    {
+        int index = getVertex(vertex).index;
+
+        // identifies indices of neighbor vertices by iterating over faces
+        TreeSet<Integer> neighInds = new TreeSet<>();
+        for (int iFace = 0; iFace < faceCount; iFace++)
+        {
+            int iv1 = faceVertexIndex(iFace, 0);
+            int iv2 = faceVertexIndex(iFace, 1);
+            int iv3 = faceVertexIndex(iFace, 2);
+            if (iv1 == index || iv2 == index || iv3 == index)
+            {
+                if (iv1 != index) neighInds.add(iv1);
+                if (iv2 != index) neighInds.add(iv2);
+                if (iv3 != index) neighInds.add(iv3);
+            }
+        }
+
+        // convert to vertex collection
+        ArrayList<Mesh3D.Vertex> vertices = new ArrayList<Mesh3D.Vertex>(neighInds.size());
+        for (int ind : neighInds)
+        {
+            vertices.add(new Vertex(ind));
+        }
+        return vertices;
+    }
+
+    @Override
+    public Collection<Mesh3D.Vertex> edgeVertices(Edge edge)
+    {
+        throw new UnsupportedOperationException("This implementation does not support edges");
+    }
+
+    @Override
+    public Collection<Mesh3D.Face> edgeFaces(Edge edge)
+    {
+        throw new UnsupportedOperationException("This implementation does not support edges");
+    }
+
+    @Override
+    public Collection<Mesh3D.Vertex> faceVertices(Mesh3D.Face face)
+    {
+        int index = getFace(face).index;
+        ArrayList<Mesh3D.Vertex> verts = new ArrayList<Mesh3D.Vertex>(3);
+        verts.add(new Vertex(faceVertexIndex(index, 0)));
+        verts.add(new Vertex(faceVertexIndex(index, 1)));
+        verts.add(new Vertex(faceVertexIndex(index, 2)));
+        return verts;
+    }
+
+    @Override
+    public Collection<Edge> faceEdges(Mesh3D.Face face)
+    {
+        throw new UnsupportedOperationException("This implementation does not support edges");
+    }
+
+
+    // ===================================================================
+    // Management of vertices
+
+    @Override
+    public int vertexCount()
+    {
+        return vertexCount;
+    }
+
+    @Override
+    public Iterable<Mesh3D.Vertex> vertices()
+    {
+        return new Iterable<Mesh3D.Vertex>() {
+            @Override
+            public Iterator<Mesh3D.Vertex> iterator()
+            {
+                return new VertexIterator();
+            }
+        };
+    }
+
+    @Override
+    public Vertex addVertex(Point3D position)
+    {
+        if (vertexCount >= vertexCapacity)
+        {
+            throw new RuntimeException("Vertex capacity of the mesh is reached: " + vertexCapacity);
+        }
+        setCoordinate(3L * vertexCount, position.x());
+        setCoordinate(3L * vertexCount + 1, position.y());
+        setCoordinate(3L * vertexCount + 2, position.z());
+        return new Vertex(vertexCount++);
+    }
+
+    @Override
+    public void removeVertex(Mesh3D.Vertex vertex)
+    {
+        throw new UnsupportedOperationException("This implementation does not support element removal");
+    }
+
+    public Vertex getVertex(int index)
+    {
+        return new Vertex(index);
+    }
+
+    /**
+     * Cast to local Vertex class
+     *
+     * @param vertex
+     *            the Vertex instance
+     * @return the same instance casted to local Vertex implementation
+     */
+    private Vertex getVertex(Mesh3D.Vertex vertex)
+    {
+        if (!(vertex instanceof Vertex))
+        {
+            throw new IllegalArgumentException("Vertex should be an instance of inner Vertex implementation");
+        }
+        return (Vertex) vertex;
+    }
+
+
+    // ===================================================================
+    // Management of edges
+
+    @Override
+    public int edgeCount()
+    {
+        return 0;
+    }
+
+    public Iterable<Mesh3D.Edge> edges()
+    {
+        throw new UnsupportedOperationException("This implementation does not support edges");
+    }
+
+    @Override
+    public Edge addEdge(Mesh3D.Vertex v1, Mesh3D.Vertex v2)
+    {
+        throw new UnsupportedOperationException("This implementation does not support edges");
+    }
+
+    @Override
+    public void removeEdge(Edge edge)
+    {
+        throw new UnsupportedOperationException("This implementation does not support edges");
+    }
+
+
+    // ===================================================================
+    // Management of faces
+
+    @Override
+    public Iterable<Mesh3D.Face> faces()
+    {
+        return new Iterable<Mesh3D.Face>() {
+            @Override
+            public Iterator<Mesh3D.Face> iterator()
+            {
+                return new FaceIterator();
+            }
+        };
+    }
+
+    @Override
+    public int faceCount()
+    {
+        return faceCount;
+    }
+
+    @Override
+    public void removeFace(Mesh3D.Face face)
+    {
+        throw new UnsupportedOperationException("This implementation does not support element removal");
+    }
+
+    public Face getFace(int index)
+    {
+        return new Face(index);
+    }
+
+    /**
+     * Cast to local Face class
+     *
+     * @param face
+     *            the Face instance
+     * @return the same instance casted to local Face implementation
+     */
+    private Face getFace(Mesh3D.Face face)
+    {
+        if (!(face instanceof Face))
+        {
+            throw new IllegalArgumentException("Face should be an instance of inner Face implementation");
+        }
+        return (Face) face;
+    }
+
+
+    // ===================================================================
+    // Implementation of the Geometry3D interface
+
+    @Override
+    public boolean contains(Point3D point, double eps)
+    {
+        for (int iFace = 0; iFace < faceCount; iFace++)
+        {
+            if (getFacePolygon(iFace).contains(point, eps))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public double distance(double x, double y, double z)
+    {
+        return Meshes3D.distance(this, x, y, z);
+    }
+
+    @Override
+    public Bounds3D bounds()
+    {
+        return Meshes3D.bounds(this);
+    }
+
+    @Override
+    public boolean isBounded()
+    {
+        return true;
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    public class Vertex implements Mesh3D.Vertex
+    {
+        // the index of the vertex
+        int index;
+
+        public Vertex(int index)
+        {
+            this.index = index;
+        }
+
+        @Override
+        public Point3D position()
+        {
+            return vertexPosition(index);
+        }
+
+        @Override
+        public Vector3D normal()
+        {
+            Vector3D normal = new Vector3D();
+            for (Mesh3D.Face face : vertexFaces(this))
+            {
+                normal = normal.plus(face.normal());
+            }
+            return normal.normalize();
+        }
+
+        @Override
+        public Mesh3D mesh()
+        {
+            return BufferTriMesh3D.this;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Vertex))
+            {
+                return false;
+            }
+            Vertex that = (Vertex) obj;
+            return this.mesh() == that.mesh() && this.index == that.index;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.index + 17;
+        }
+    }
+
+    private class VertexIterator implements Iterator<Mesh3D.Vertex>
+    {
+        int index = 0;
+        @Override
+        public boolean hasNext()
+        {
+            return index < vertexCount;
+        }
+
+        @Override
+        public Vertex next()
+        {
+            return new Vertex(index++);
+        }
+    }
+
+    public class Face implements Mesh3D.Face
+    {
+        /**
+         * The index of the face, used to retrieve vertex indices within the
+         * face buffer.
+         */
+        int index;
+
+        public Face(int index)
+        {
+            this.index = index;
+        }
+
+        @Override
+        public Triangle3D polygon()
+        {
+            return getFacePolygon(index);
+        }
+
+        @Override
+        public Vector3D normal()
+        {
+            Point3D p1 = vertexPosition(faceVertexIndex(index, 0));
+            Vector3D v12 = new Vector3D(p1, vertexPosition(faceVertexIndex(index, 1)));
+            Vector3D v13 = new Vector3D(p1, vertexPosition(faceVertexIndex(index, 2)));
+            return Vector3D.crossProduct(v12, v13);
+        }
+
+        @Override
+        public Mesh3D mesh()
+        {
+            return BufferTriMesh3D.this;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Face))
+            {
+                return false;
+            }
+            Face that = (Face) obj;
+            return this.mesh() == that.mesh() && this.index == that.index;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = 1;
+            hash = hash * 17 + index;
+            return hash;
+        }
+    }
+
+    private class FaceIterator implements Iterator<Mesh3D.Face>
+    {
+        int index = 0;
+        @Override
+        public boolean hasNext()
+        {
+            return index < faceCount;
+        }
+
+        @Override
+        public Mesh3D.Face next()
+        {
+            return new Face(index++);
+        }
+    }
+}
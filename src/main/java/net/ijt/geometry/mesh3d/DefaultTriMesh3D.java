@@ -6,6 +6,7 @@ package net.ijt.geometry.mesh3d;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -76,21 +77,7 @@ public class DefaultTriMesh3D implements Mesh3D
      */
     public double surfaceArea()
     {
-        double surf = 0;
-        
-        // Computes the sum of the norm of the cross products.
-        for (int[] faceIndices : faces)
-        {
-            Point3D v1 = this.vertexPositions.get(faceIndices[0]);
-            Point3D v2 = this.vertexPositions.get(faceIndices[1]);
-            Point3D v3 = this.vertexPositions.get(faceIndices[2]);
-            
-            Vector3D v12 = new Vector3D(v1, v2);
-            Vector3D v13 = new Vector3D(v1, v3);
-            surf += Vector3D.crossProduct(v12,  v13).norm();
-        }
-
-        return surf / 2;
+        return Meshes3D.surfaceArea(this);
     }
 
 
@@ -106,18 +93,7 @@ public class DefaultTriMesh3D implements Mesh3D
      */
     public int findClosestVertexIndex(Point3D point)
     {
-        double minDist = Double.POSITIVE_INFINITY;
-        int index = -1;
-        for (int i = 0; i < vertexPositions.size(); i++)
-        {
-            double dist = vertexPositions.get(i).distance(point);
-            if (dist < minDist)
-            {
-                minDist = dist;
-                index = i;
-            }
-        }
-        return index;
+        return Meshes3D.findClosestVertexIndex(this, point);
     }
     
     
@@ -247,11 +223,35 @@ public class DefaultTriMesh3D implements Mesh3D
     }
   
 
+    @Override
     public Point3D vertexPosition(int index)
     {
         return vertexPositions.get(index);
     }
 
+    @Override
+    public void vertexCoordinates(int index, double[] coords)
+    {
+        Point3D pos = vertexPositions.get(index);
+        coords[0] = pos.x();
+        coords[1] = pos.y();
+        coords[2] = pos.z();
+    }
+
+    @Override
+    public double[] vertexCoordinates()
+    {
+        double[] coords = new double[Math.multiplyExact(3, vertexPositions.size())];
+        int i = 0;
+        for (Point3D pos : vertexPositions)
+        {
+            coords[i++] = pos.x();
+            coords[i++] = pos.y();
+            coords[i++] = pos.z();
+        }
+        return coords;
+    }
+
     /**
      * Adds a vertex to the mesh and returns the index associated to its
      * position.
@@ -286,7 +286,7 @@ public class DefaultTriMesh3D implements Mesh3D
      */
     public Collection<Point3D> vertexPositions()
     {
-        return this.vertexPositions();
+        return Collections.unmodifiableList(vertexPositions);
     }
 
     public Vertex getVertex(int index)
@@ -613,6 +613,30 @@ public class DefaultTriMesh3D implements Mesh3D
         return new Face(index);
     }
 
+    @Override
+    public int faceVertexIndices(int index, int[] indices)
+    {
+        int[] inds = faces.get(index);
+        indices[0] = inds[0];
+        indices[1] = inds[1];
+        indices[2] = inds[2];
+        return 3;
+    }
+
+    @Override
+    public int[] faceVertexIndices()
+    {
+        int[] indices = new int[Math.multiplyExact(3, faces.size())];
+        int i = 0;
+        for (int[] inds : faces)
+        {
+            indices[i++] = inds[0];
+            indices[i++] = inds[1];
+            indices[i++] = inds[2];
+        }
+        return indices;
+    }
+
     public Triangle3D getFacePolygon(int faceIndex)
     {
         int[] inds = faces.get(faceIndex);
@@ -704,19 +728,7 @@ public class DefaultTriMesh3D implements Mesh3D
     @Override
     public double distance(double x, double y, double z)
     {
-        double distMin = Double.POSITIVE_INFINITY;
-        
-        for (int[] inds : faces)
-        {
-            Point3D p1 = this.vertexPositions.get(inds[0]);
-            Point3D p2 = this.vertexPositions.get(inds[1]);
-            Point3D p3 = this.vertexPositions.get(inds[2]);
-            
-            double dist = new Triangle3D(p1, p2, p3).distance(x, y, z);
-            distMin = Math.min(distMin,  dist);
-        }
-        
-        return distMin;
+        return Meshes3D.distance(this, x, y, z);
     }
     
     /* (non-Javadoc)
@@ -725,27 +737,7 @@ public class DefaultTriMesh3D implements Mesh3D
     @Override
     public Bounds3D bounds()
     {
-        // initialize to extreme values
-        double xmin = Double.POSITIVE_INFINITY;
-        double ymin = Double.POSITIVE_INFINITY;
-        double zmin = Double.POSITIVE_INFINITY;
-        double xmax = Double.NEGATIVE_INFINITY;
-        double ymax = Double.NEGATIVE_INFINITY;
-        double zmax = Double.NEGATIVE_INFINITY;
-        
-        // compute min max in each direction
-        for (Point3D vertex : this.vertexPositions)
-        {
-            xmin = Math.min(xmin, vertex.x());
-            xmax = Math.max(xmax, vertex.x());
-            ymin = Math.min(ymin, vertex.y());
-            ymax = Math.max(ymax, vertex.y());
-            zmin = Math.min(zmin, vertex.z());
-            zmax = Math.max(zmax, vertex.z());
-        }
-        
-        // create the resulting box
-        return new Bounds3D(xmin, xmax, ymin, ymax, zmin, zmax);
+        return Meshes3D.bounds(this);
     }
     
     /* (non-Javadoc)
@@ -0,0 +1,110 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A spliterator over a range of element indices, that stops splitting when
+ * the sub-ranges become smaller than a minimal size. This ensures that each
+ * task of a parallel stream processes enough elements to amortize the cost of
+ * task creation.
+ *
+ * @see Mesh3D#vertexIndexStream()
+ * @see Mesh3D#faceIndexStream()
+ *
+ * @author dlegland
+ *
+ */
+class IndexSpliterator implements Spliterator.OfInt
+{
+    /**
+     * The index of the next element to process.
+     */
+    int from;
+
+    /**
+     * The index after the last element to process.
+     */
+    final int to;
+
+    /**
+     * The minimal number of elements within a split.
+     */
+    final int minSize;
+
+    /**
+     * Creates a new spliterator over a range of indices.
+     *
+     * @param from
+     *            the first index (inclusive)
+     * @param to
+     *            the last index (exclusive)
+     * @param minSize
+     *            the minimal number of elements within each split
+     */
+    IndexSpliterator(int from, int to, int minSize)
+    {
+        this.from = from;
+        this.to = to;
+        this.minSize = Math.max(minSize, 1);
+    }
+
+    @Override
+    public OfInt trySplit()
+    {
+        int size = to - from;
+        if (size < 2 * minSize)
+        {
+            return null;
+        }
+        int mid = from + (size >>> 1);
+        IndexSpliterator prefix = new IndexSpliterator(from, mid, minSize);
+        this.from = mid;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action)
+    {
+        if (from < to)
+        {
+            action.accept(from++);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action)
+    {
+        int i = from;
+        from = to;
+        for (; i < to; i++)
+        {
+            action.accept(i);
+        }
+    }
+
+    @Override
+    public long estimateSize()
+    {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics()
+    {
+        return ORDERED | SIZED | SUBSIZED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super Integer> getComparator()
+    {
+        // indices are sorted in natural order
+        return null;
+    }
+}
@@ -4,6 +4,11 @@
 package net.ijt.geometry.mesh3d;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 import net.ijt.geometry.geom3d.Geometry3D;
 import net.ijt.geometry.geom3d.LineSegment3D;
@@ -19,6 +24,16 @@ import net.ijt.geometry.geom3d.Vector3D;
  */
 public interface Mesh3D extends Geometry3D
 {
+    // ===================================================================
+    // Constants
+
+    /**
+     * The number of elements above which the streams returned by
+     * vertexIndexStream() and faceIndexStream() are processed in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+
     // ===================================================================
     // Geometric queries
     
@@ -195,7 +210,216 @@ public interface Mesh3D extends Geometry3D
      */
     public void removeFace(Face face);
 
-    
+
+    // ===================================================================
+    // Index-based access
+
+    /**
+     * Returns the stream of vertex indices, from 0 to vertexCount()-1. The
+     * index of a vertex corresponds to its position within the iteration
+     * order of <code>vertices()</code>.
+     *
+     * @return the stream of vertex indices
+     */
+    public default IntStream vertexIndices()
+    {
+        return IntStream.range(0, vertexCount());
+    }
+
+    /**
+     * Returns the stream of face indices, from 0 to faceCount()-1. The index
+     * of a face corresponds to its position within the iteration order of
+     * <code>faces()</code>.
+     *
+     * @return the stream of face indices
+     */
+    public default IntStream faceIndices()
+    {
+        return IntStream.range(0, faceCount());
+    }
+
+    /**
+     * Returns a stream of vertex indices suitable for parallel processing.
+     * The stream is parallel if the number of vertices is at least
+     * PARALLEL_THRESHOLD, and is split into ranges containing at least
+     * PARALLEL_THRESHOLD / 2 vertices. Otherwise, the stream is sequential.
+     *
+     * @return the stream of vertex indices
+     */
+    public default IntStream vertexIndexStream()
+    {
+        int n = vertexCount();
+        return StreamSupport.intStream(new IndexSpliterator(0, n, PARALLEL_THRESHOLD / 2), n >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Returns a stream of face indices suitable for parallel processing. The
+     * stream is parallel if the number of faces is at least
+     * PARALLEL_THRESHOLD, and is split into ranges containing at least
+     * PARALLEL_THRESHOLD / 2 faces. Otherwise, the stream is sequential.
+     *
+     * @return the stream of face indices
+     */
+    public default IntStream faceIndexStream()
+    {
+        int n = faceCount();
+        return StreamSupport.intStream(new IndexSpliterator(0, n, PARALLEL_THRESHOLD / 2), n >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Returns the position of the vertex with the specified index. The
+     * default implementation iterates over the vertices, and should be
+     * overridden by implementations providing indexed access.
+     *
+     * @param index
+     *            the index of the vertex
+     * @return the position of the vertex
+     */
+    public default Point3D vertexPosition(int index)
+    {
+        int i = 0;
+        for (Vertex vertex : vertices())
+        {
+            if (i++ == index)
+            {
+                return vertex.position();
+            }
+        }
+        throw new IndexOutOfBoundsException("Invalid vertex index: " + index);
+    }
+
+    /**
+     * Copies the coordinates of the vertex with the specified index into the
+     * specified array, avoiding the creation of intermediate objects when
+     * overridden by implementations.
+     *
+     * @param index
+     *            the index of the vertex
+     * @param coords
+     *            the array used to store the (x, y, z) coordinates, with at
+     *            least three elements
+     */
+    public default void vertexCoordinates(int index, double[] coords)
+    {
+        Point3D pos = vertexPosition(index);
+        coords[0] = pos.x();
+        coords[1] = pos.y();
+        coords[2] = pos.z();
+    }
+
+    /**
+     * Copies the indices of the vertices of the face with the specified index
+     * into the specified array. The default implementation iterates over
+     * faces and vertices, and should be overridden by implementations
+     * providing indexed access.
+     *
+     * @param index
+     *            the index of the face
+     * @param indices
+     *            the array used to store the vertex indices, large enough to
+     *            contain the vertices of the face (three elements for
+     *            triangular meshes)
+     * @return the number of vertices of the face
+     */
+    public default int faceVertexIndices(int index, int[] indices)
+    {
+        // retrieve the face
+        Face face = null;
+        int i = 0;
+        for (Face f : faces())
+        {
+            if (i++ == index)
+            {
+                face = f;
+                break;
+            }
+        }
+        if (face == null)
+        {
+            throw new IndexOutOfBoundsException("Invalid face index: " + index);
+        }
+
+        // retrieve the index of each face vertex
+        int nfv = 0;
+        for (Vertex v : faceVertices(face))
+        {
+            int iv = 0;
+            for (Vertex v2 : vertices())
+            {
+                if (v2.equals(v)) break;
+                iv++;
+            }
+            indices[nfv++] = iv;
+        }
+        return nfv;
+    }
+
+
+    /**
+     * Returns the coordinates of the vertices, packed into a single array as
+     * (x1, y1, z1, x2, y2, z2, ...). The default implementation iterates once
+     * over the vertices, and can be overridden by implementations storing
+     * coordinates within arrays or buffers.
+     *
+     * @return the array of vertex coordinates, with 3 * vertexCount()
+     *         elements
+     */
+    public default double[] vertexCoordinates()
+    {
+        double[] coords = new double[Math.multiplyExact(3, vertexCount())];
+        int i = 0;
+        for (Vertex vertex : vertices())
+        {
+            Point3D pos = vertex.position();
+            coords[i++] = pos.x();
+            coords[i++] = pos.y();
+            coords[i++] = pos.z();
+        }
+        return coords;
+    }
+
+    /**
+     * Returns the indices of the vertices of each face of a triangular mesh,
+     * packed into a single array as (iv11, iv12, iv13, iv21, iv22, iv23,
+     * ...). The default implementation maps each vertex to its index within
+     * the iteration order of <code>vertices()</code>, then iterates once over
+     * the faces. It can be overridden by implementations storing face vertex
+     * indices.
+     *
+     * @return the array of face vertex indices, with 3 * faceCount() elements
+     * @throws IllegalArgumentException
+     *             if the mesh contains a face that is not a triangle
+     */
+    public default int[] faceVertexIndices()
+    {
+        Map<Vertex, Integer> vertexIndices = new HashMap<>(vertexCount());
+        int index = 0;
+        for (Vertex vertex : vertices())
+        {
+            vertexIndices.put(vertex, index++);
+        }
+
+        int[] indices = new int[Math.multiplyExact(3, faceCount())];
+        int i = 0;
+        for (Face face : faces())
+        {
+            Iterator<? extends Vertex> iter = faceVertices(face).iterator();
+            for (int k = 0; k < 3; k++)
+            {
+                if (!iter.hasNext())
+                {
+                    throw new IllegalArgumentException("Requires a mesh with triangular faces");
+                }
+                indices[i++] = vertexIndices.get(iter.next());
+            }
+            if (iter.hasNext())
+            {
+                throw new IllegalArgumentException("Requires a mesh with triangular faces");
+            }
+        }
+        return indices;
+    }
+
     // ===================================================================
     // Inner interfaces
 
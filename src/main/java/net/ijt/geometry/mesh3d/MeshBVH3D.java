@@ -0,0 +1,435 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d;
+
+import java.util.Arrays;
+
+import net.ijt.geometry.geom3d.Bounds3D;
+
+/**
+ * A bounding volume hierarchy (BVH) over the faces of a triangular mesh, used
+ * to accelerate spatial queries such as intersection tests, ray casting or
+ * distance computations.
+ *
+ * The hierarchy is a binary tree of axis-aligned bounding boxes, stored
+ * within flattened primitive arrays. Nodes are split at the median of the
+ * face centroids along the direction of largest extent, until each leaf
+ * contains at most four faces. As the faces are reordered during the
+ * construction, each node (leaf or internal) covers a contiguous range of
+ * the face order array.
+ *
+ * The root node has index 0. The tree is not modified after its
+ * construction, and can be shared between threads.
+ *
+ * @author dlegland
+ *
+ */
+public class MeshBVH3D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The maximum number of faces within a leaf node.
+     */
+    public static final int MAX_LEAF_SIZE = 4;
+
+
+    // ===================================================================
+    // Static factories
+
+    /**
+     * Computes the bounding volume hierarchy of a triangular mesh.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @return the bounding volume hierarchy of the mesh faces
+     */
+    public static final MeshBVH3D create(Mesh3D mesh)
+    {
+        return new MeshBVH3D(Meshes3D.vertexCoordinates(mesh), Meshes3D.faceVertexIndices(mesh));
+    }
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The coordinates of the mesh vertices, as (x1, y1, z1, x2, y2, z2, ...).
+     */
+    final double[] coords;
+
+    /**
+     * The vertex indices of the mesh faces, as (iv11, iv12, iv13, iv21, ...).
+     */
+    final int[] faces;
+
+    /**
+     * The indices of the faces, ordered such that each node covers a
+     * contiguous range.
+     */
+    int[] faceOrder;
+
+    /**
+     * The bounds of each node, stored as (xmin, ymin, zmin, xmax, ymax, zmax).
+     */
+    double[] nodeBounds;
+
+    /**
+     * The index of the first child of each node, or -1 for leaf nodes.
+     */
+    int[] leftChildren;
+
+    /**
+     * The index of the second child of each node, or -1 for leaf nodes.
+     */
+    int[] rightChildren;
+
+    /**
+     * The index of the first face of each node within the faceOrder array.
+     */
+    int[] nodeStarts;
+
+    /**
+     * The number of faces covered by each node.
+     */
+    int[] nodeSizes;
+
+    /**
+     * The number of nodes.
+     */
+    int nodeCount;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new bounding volume hierarchy from the packed arrays of
+     * vertex coordinates and face vertex indices. The arrays are not copied,
+     * and must not be modified during the lifetime of the hierarchy.
+     *
+     * @param vertexCoords
+     *            the coordinates of the vertices, stored as (x1, y1, z1, x2,
+     *            y2, z2, ...)
+     * @param faceVertexIndices
+     *            the indices of the vertices of each face, stored as (iv11,
+     *            iv12, iv13, iv21, iv22, iv23, ...)
+     */
+    public MeshBVH3D(double[] vertexCoords, int[] faceVertexIndices)
+    {
+        this.coords = vertexCoords;
+        this.faces = faceVertexIndices;
+        int nf = faceVertexIndices.length / 3;
+
+        // compute face centroids (multiplied by three)
+        double[] centroids = new double[3 * nf];
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            int i1 = 3 * faces[3 * iFace];
+            int i2 = 3 * faces[3 * iFace + 1];
+            int i3 = 3 * faces[3 * iFace + 2];
+            for (int d = 0; d < 3; d++)
+            {
+                centroids[3 * iFace + d] = coords[i1 + d] + coords[i2 + d] + coords[i3 + d];
+            }
+        }
+
+        this.faceOrder = new int[nf];
+        for (int i = 0; i < nf; i++)
+        {
+            this.faceOrder[i] = i;
+        }
+
+        // allocate node arrays for the worst case: as leaves contain at least
+        // two faces, the number of nodes is lower than the number of faces
+        int maxNodes = Math.max(nf, 1);
+        this.nodeBounds = new double[6 * maxNodes];
+        this.leftChildren = new int[maxNodes];
+        this.rightChildren = new int[maxNodes];
+        this.nodeStarts = new int[maxNodes];
+        this.nodeSizes = new int[maxNodes];
+
+        this.nodeCount = 0;
+        buildNode(0, nf, centroids);
+
+        // trim arrays to the final number of nodes
+        this.nodeBounds = Arrays.copyOf(this.nodeBounds, 6 * this.nodeCount);
+        this.leftChildren = Arrays.copyOf(this.leftChildren, this.nodeCount);
+        this.rightChildren = Arrays.copyOf(this.rightChildren, this.nodeCount);
+        this.nodeStarts = Arrays.copyOf(this.nodeStarts, this.nodeCount);
+        this.nodeSizes = Arrays.copyOf(this.nodeSizes, this.nodeCount);
+    }
+
+    /**
+     * Creates the node covering the specified range of the face order array,
+     * and recursively creates its children.
+     *
+     * @return the index of the created node
+     */
+    private int buildNode(int start, int size, double[] centroids)
+    {
+        int node = this.nodeCount++;
+        this.nodeStarts[node] = start;
+        this.nodeSizes[node] = size;
+        computeNodeBounds(node);
+
+        if (size <= MAX_LEAF_SIZE)
+        {
+            this.leftChildren[node] = -1;
+            this.rightChildren[node] = -1;
+            return node;
+        }
+
+        // choose the split direction from the extent of the centroids
+        double[] cmin = new double[] {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] cmax = new double[] {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = start; i < start + size; i++)
+        {
+            int iFace = this.faceOrder[i];
+            for (int d = 0; d < 3; d++)
+            {
+                double c = centroids[3 * iFace + d];
+                cmin[d] = Math.min(cmin[d], c);
+                cmax[d] = Math.max(cmax[d], c);
+            }
+        }
+        int axis = 0;
+        for (int d = 1; d < 3; d++)
+        {
+            if (cmax[d] - cmin[d] > cmax[axis] - cmin[axis])
+            {
+                axis = d;
+            }
+        }
+
+        // partition faces around the median centroid
+        int mid = start + size / 2;
+        select(start, start + size - 1, mid, centroids, axis);
+
+        this.leftChildren[node] = buildNode(start, mid - start, centroids);
+        this.rightChildren[node] = buildNode(mid, start + size - mid, centroids);
+        return node;
+    }
+
+    private void computeNodeBounds(int node)
+    {
+        double xmin = Double.POSITIVE_INFINITY, ymin = Double.POSITIVE_INFINITY, zmin = Double.POSITIVE_INFINITY;
+        double xmax = Double.NEGATIVE_INFINITY, ymax = Double.NEGATIVE_INFINITY, zmax = Double.NEGATIVE_INFINITY;
+        int start = this.nodeStarts[node];
+        for (int i = start; i < start + this.nodeSizes[node]; i++)
+        {
+            int iFace = this.faceOrder[i];
+            for (int k = 0; k < 3; k++)
+            {
+                int iv = 3 * this.faces[3 * iFace + k];
+                double x = this.coords[iv], y = this.coords[iv + 1], z = this.coords[iv + 2];
+                xmin = Math.min(xmin, x);
+                xmax = Math.max(xmax, x);
+                ymin = Math.min(ymin, y);
+                ymax = Math.max(ymax, y);
+                zmin = Math.min(zmin, z);
+                zmax = Math.max(zmax, z);
+            }
+        }
+        int offset = 6 * node;
+        this.nodeBounds[offset] = xmin;
+        this.nodeBounds[offset + 1] = ymin;
+        this.nodeBounds[offset + 2] = zmin;
+        this.nodeBounds[offset + 3] = xmax;
+        this.nodeBounds[offset + 4] = ymax;
+        this.nodeBounds[offset + 5] = zmax;
+    }
+
+    /**
+     * Reorders the faces between indices left and right (inclusive) such
+     * that the face at index k has its centroid at the k-th position along
+     * the axis (quickselect algorithm).
+     */
+    private void select(int left, int right, int k, double[] centroids, int axis)
+    {
+        int[] order = this.faceOrder;
+        while (right > left)
+        {
+            // choose the median of three as pivot
+            int mid = (left + right) >>> 1;
+            double a = centroids[3 * order[left] + axis];
+            double b = centroids[3 * order[mid] + axis];
+            double c = centroids[3 * order[right] + axis];
+            double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+
+            // Hoare partition
+            int i = left, j = right;
+            while (i <= j)
+            {
+                while (centroids[3 * order[i] + axis] < pivot) i++;
+                while (centroids[3 * order[j] + axis] > pivot) j--;
+                if (i <= j)
+                {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+
+            if (k <= j)
+            {
+                right = j;
+            }
+            else if (k >= i)
+            {
+                left = i;
+            }
+            else
+            {
+                return;
+            }
+        }
+    }
+
+
+    // ===================================================================
+    // Accessors
+
+    /**
+     * @return the coordinates of the mesh vertices, as (x1, y1, z1, x2, y2,
+     *         z2, ...). The array must not be modified.
+     */
+    public double[] vertexCoordinates()
+    {
+        return this.coords;
+    }
+
+    /**
+     * @return the vertex indices of the mesh faces, as (iv11, iv12, iv13,
+     *         iv21, ...). The array must not be modified.
+     */
+    public int[] faceVertexIndices()
+    {
+        return this.faces;
+    }
+
+    /**
+     * @return the number of nodes of the hierarchy
+     */
+    public int nodeCount()
+    {
+        return this.nodeCount;
+    }
+
+    /**
+     * @param node
+     *            the index of the node
+     * @return true if the node has no children
+     */
+    public boolean isLeaf(int node)
+    {
+        return this.leftChildren[node] < 0;
+    }
+
+    /**
+     * @param node
+     *            the index of the node
+     * @return the index of the first child of the node, or -1 for leaves
+     */
+    public int leftChild(int node)
+    {
+        return this.leftChildren[node];
+    }
+
+    /**
+     * @param node
+     *            the index of the node
+     * @return the index of the second child of the node, or -1 for leaves
+     */
+    public int rightChild(int node)
+    {
+        return this.rightChildren[node];
+    }
+
+    /**
+     * @param node
+     *            the index of the node
+     * @return the number of faces covered by the node and its descendants
+     */
+    public int nodeFaceCount(int node)
+    {
+        return this.nodeSizes[node];
+    }
+
+    /**
+     * @param node
+     *            the index of the node
+     * @param i
+     *            the index of the face within the node, between 0 and
+     *            nodeFaceCount(node)-1
+     * @return the index of the i-th face covered by the node
+     */
+    public int nodeFace(int node, int i)
+    {
+        return this.faceOrder[this.nodeStarts[node] + i];
+    }
+
+    /**
+     * @param node
+     *            the index of the node
+     * @param dim
+     *            the dimension, between 0 and 2
+     * @return the lower bound of the node along the specified dimension
+     */
+    public double nodeMin(int node, int dim)
+    {
+        return this.nodeBounds[6 * node + dim];
+    }
+
+    /**
+     * @param node
+     *            the index of the node
+     * @param dim
+     *            the dimension, between 0 and 2
+     * @return the upper bound of the node along the specified dimension
+     */
+    public double nodeMax(int node, int dim)
+    {
+        return this.nodeBounds[6 * node + 3 + dim];
+    }
+
+    /**
+     * @param node
+     *            the index of the node
+     * @return the bounds of the node
+     */
+    public Bounds3D nodeBounds(int node)
+    {
+        int i = 6 * node;
+        double[] b = this.nodeBounds;
+        return new Bounds3D(b[i], b[i + 3], b[i + 1], b[i + 4], b[i + 2], b[i + 5]);
+    }
+
+    /**
+     * Checks if the bounds of a node of this hierarchy overlap the bounds of
+     * a node of another hierarchy. Boxes that only touch are considered as
+     * overlapping.
+     *
+     * @param node
+     *            the index of the node within this hierarchy
+     * @param that
+     *            the other hierarchy
+     * @param thatNode
+     *            the index of the node within the other hierarchy
+     * @return true if the bounding boxes of the two nodes overlap
+     */
+    public boolean overlaps(int node, MeshBVH3D that, int thatNode)
+    {
+        double[] b1 = this.nodeBounds;
+        double[] b2 = that.nodeBounds;
+        int i = 6 * node;
+        int j = 6 * thatNode;
+        return b1[i] <= b2[j + 3] && b2[j] <= b1[i + 3]
+                && b1[i + 1] <= b2[j + 4] && b2[j + 1] <= b1[i + 4]
+                && b1[i + 2] <= b2[j + 5] && b2[j + 2] <= b1[i + 5];
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Vector3D;
+
+/**
+ * Computes the intersections of rays with a triangular mesh, using a
+ * bounding volume hierarchy to restrict the number of ray-triangle tests.
+ *
+ * For each ray, the engine finds the closest face hit by the ray, and the
+ * position of the hit along the ray, expressed in units of the direction
+ * vector (corresponding to the Euclidean distance when directions are
+ * normalized). Rays are given as packed arrays of origins and directions,
+ * and processed in parallel by chunks. Each chunk uses a single traversal
+ * stack, so that no memory is allocated for individual rays.
+ *
+ * A minimal distance can be specified to ignore the hits located close to the
+ * ray origin, for example when casting rays from the surface of the mesh
+ * along the inverted normals to measure thickness.
+ *
+ * <pre>
+ * <code>
+ * MeshRayCaster caster = new MeshRayCaster(mesh);
+ * double[] dists = new double[nRays];
+ * int[] faces = new int[nRays];
+ * caster.castRays(origins, directions, dists, faces);
+ * </code>
+ * </pre>
+ *
+ * @see MeshBVH3D
+ * @see Triangle3D#rayIntersection(double[], int, int, int, double, double,
+ *      double, double, double, double)
+ *
+ * @author dlegland
+ *
+ */
+public class MeshRayCaster
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The number of rays processed sequentially within a parallel task.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The bounding volume hierarchy of the mesh faces.
+     */
+    final MeshBVH3D bvh;
+
+
+    // ===================================================================
+    // Constructors
+
+    /**
+     * Creates a new ray casting engine for the specified triangular mesh.
+     *
+     * @param mesh
+     *            the triangular mesh
+     */
+    public MeshRayCaster(Mesh3D mesh)
+    {
+        this(MeshBVH3D.create(mesh));
+    }
+
+    /**
+     * Creates a new ray casting engine from the bounding volume hierarchy of
+     * a mesh.
+     *
+     * @param bvh
+     *            the bounding volume hierarchy of the mesh faces
+     */
+    public MeshRayCaster(MeshBVH3D bvh)
+    {
+        this.bvh = bvh;
+    }
+
+
+    // ===================================================================
+    // Ray casting methods
+
+    /**
+     * Computes the position of the first intersection of a ray with the mesh.
+     *
+     * @param origin
+     *            the origin of the ray
+     * @param direction
+     *            the direction of the ray
+     * @return the position of the closest hit along the ray, in units of the
+     *         direction vector, or Double.POSITIVE_INFINITY if the ray does
+     *         not hit the mesh
+     */
+    public double castRay(Point3D origin, Vector3D direction)
+    {
+        double[] dist = new double[1];
+        castRay(origin, direction, dist);
+        return dist[0];
+    }
+
+    /**
+     * Identifies the first face of the mesh hit by a ray, for example for
+     * picking.
+     *
+     * @param origin
+     *            the origin of the ray
+     * @param direction
+     *            the direction of the ray
+     * @return the index of the first face hit by the ray, or -1 if the ray
+     *         does not hit the mesh
+     */
+    public int pickFace(Point3D origin, Vector3D direction)
+    {
+        return castRay(origin, direction, new double[1]);
+    }
+
+    private int castRay(Point3D origin, Vector3D direction, double[] dist)
+    {
+        double[] origins = new double[] {origin.x(), origin.y(), origin.z()};
+        double[] directions = new double[] {direction.x(), direction.y(), direction.z()};
+        int[] faces = new int[1];
+        castRays(origins, directions, 0.0, dist, faces);
+        return faces[0];
+    }
+
+    /**
+     * Casts a collection of rays against the mesh.
+     *
+     * @param origins
+     *            the coordinates of ray origins, as (x1, y1, z1, x2, y2, z2,
+     *            ...)
+     * @param directions
+     *            the coordinates of ray directions, as (dx1, dy1, dz1, dx2,
+     *            dy2, dz2, ...)
+     * @param hitDistances
+     *            the array used to store the position of the closest hit
+     *            along each ray, in units of the direction vector, or
+     *            Double.POSITIVE_INFINITY if the ray does not hit the mesh
+     * @param hitFaces
+     *            the array used to store the index of the closest face hit
+     *            by each ray, or -1 if the ray does not hit the mesh
+     */
+    public void castRays(double[] origins, double[] directions, double[] hitDistances, int[] hitFaces)
+    {
+        castRays(origins, directions, 0.0, hitDistances, hitFaces);
+    }
+
+    /**
+     * Casts a collection of rays against the mesh, ignoring the hits closer
+     * than the specified distance to the origin of each ray.
+     *
+     * @param origins
+     *            the coordinates of ray origins, as (x1, y1, z1, x2, y2, z2,
+     *            ...)
+     * @param directions
+     *            the coordinates of ray directions, as (dx1, dy1, dz1, dx2,
+     *            dy2, dz2, ...)
+     * @param minDistance
+     *            the minimal position of a hit along the ray, in units of
+     *            the direction vector. Hits with a position lower or equal
+     *            to this value are ignored.
+     * @param hitDistances
+     *            the array used to store the position of the closest hit
+     *            along each ray, or Double.POSITIVE_INFINITY if the ray does
+     *            not hit the mesh
+     * @param hitFaces
+     *            the array used to store the index of the closest face hit
+     *            by each ray, or -1 if the ray does not hit the mesh
+     */
+    public void castRays(double[] origins, double[] directions, double minDistance, double[] hitDistances, int[] hitFaces)
+    {
+        int nRays = origins.length / 3;
+        if (directions.length != origins.length)
+        {
+            throw new IllegalArgumentException("Origin and direction arrays must have the same length");
+        }
+        if (hitDistances.length < nRays || hitFaces.length < nRays)
+        {
+            throw new IllegalArgumentException("Result arrays must have at least as many elements as the number of rays");
+        }
+
+        int nChunks = (nRays + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, nChunks).parallel().forEach(chunk -> {
+            int[] stack = new int[64];
+            int end = Math.min(nRays, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++)
+            {
+                stack = castRay(origins, directions, i, minDistance, hitDistances, hitFaces, stack);
+            }
+        });
+    }
+
+    /**
+     * Casts a single ray, and stores the results within the arrays.
+     *
+     * @return the traversal stack, that may have been enlarged
+     */
+    private int[] castRay(double[] origins, double[] directions, int index, double minDistance, double[] hitDistances, int[] hitFaces, int[] stack)
+    {
+        double ox = origins[3 * index];
+        double oy = origins[3 * index + 1];
+        double oz = origins[3 * index + 2];
+        double dx = directions[3 * index];
+        double dy = directions[3 * index + 1];
+        double dz = directions[3 * index + 2];
+        double invDx = 1.0 / dx;
+        double invDy = 1.0 / dy;
+        double invDz = 1.0 / dz;
+
+        double[] coords = bvh.coords;
+        int[] faces = bvh.faces;
+        double bestDist = Double.POSITIVE_INFINITY;
+        int bestFace = -1;
+
+        int stackSize = 0;
+        if (bvh.nodeCount > 0)
+        {
+            stack[stackSize++] = 0;
+        }
+        while (stackSize > 0)
+        {
+            int node = stack[--stackSize];
+            if (entryDistance(node, ox, oy, oz, invDx, invDy, invDz, bestDist) == Double.POSITIVE_INFINITY)
+            {
+                continue;
+            }
+
+            if (bvh.isLeaf(node))
+            {
+                int start = bvh.nodeStarts[node];
+                int end = start + bvh.nodeSizes[node];
+                for (int i = start; i < end; i++)
+                {
+                    int iFace = bvh.faceOrder[i];
+                    double t = Triangle3D.rayIntersection(coords,
+                            3 * faces[3 * iFace], 3 * faces[3 * iFace + 1], 3 * faces[3 * iFace + 2],
+                            ox, oy, oz, dx, dy, dz);
+                    if (t > minDistance && t < bestDist)
+                    {
+                        bestDist = t;
+                        bestFace = iFace;
+                    }
+                }
+                continue;
+            }
+
+            // push the farthest child first, so that the closest one is
+            // processed first
+            int left = bvh.leftChildren[node];
+            int right = bvh.rightChildren[node];
+            double tLeft = entryDistance(left, ox, oy, oz, invDx, invDy, invDz, bestDist);
+            double tRight = entryDistance(right, ox, oy, oz, invDx, invDy, invDz, bestDist);
+            if (stackSize + 2 > stack.length)
+            {
+                stack = Arrays.copyOf(stack, 2 * stack.length);
+            }
+            if (tLeft <= tRight)
+            {
+                if (tRight < Double.POSITIVE_INFINITY) stack[stackSize++] = right;
+                if (tLeft < Double.POSITIVE_INFINITY) stack[stackSize++] = left;
+            }
+            else
+            {
+                if (tLeft < Double.POSITIVE_INFINITY) stack[stackSize++] = left;
+                if (tRight < Double.POSITIVE_INFINITY) stack[stackSize++] = right;
+            }
+        }
+
+        hitDistances[index] = bestDist;
+        hitFaces[index] = bestFace;
+        return stack;
+    }
+
+    /**
+     * Computes the position where the ray enters the bounding box of the
+     * node, using the slab method. Returns Double.POSITIVE_INFINITY if the
+     * ray misses the box, or enters it after the specified maximal distance.
+     */
+    private double entryDistance(int node, double ox, double oy, double oz, double invDx, double invDy, double invDz, double maxDist)
+    {
+        double[] b = bvh.nodeBounds;
+        int i = 6 * node;
+        double tmin = 0;
+        double tmax = maxDist;
+
+        // process each slab, taking care of directions parallel to the slab
+        for (int d = 0; d < 3; d++)
+        {
+            double o = d == 0 ? ox : (d == 1 ? oy : oz);
+            double inv = d == 0 ? invDx : (d == 1 ? invDy : invDz);
+            double lo = b[i + d];
+            double hi = b[i + 3 + d];
+            if (Double.isInfinite(inv))
+            {
+                if (o < lo || o > hi) return Double.POSITIVE_INFINITY;
+                continue;
+            }
+            double t1 = (lo - o) * inv;
+            double t2 = (hi - o) * inv;
+            tmin = Math.max(tmin, Math.min(t1, t2));
+            tmax = Math.min(tmax, Math.max(t1, t2));
+        }
+
+        return tmin <= tmax ? tmin : Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,356 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d;
+
+import java.util.stream.IntStream;
+
+/**
+ * Computes the generalized winding number of a triangular mesh around query
+ * points, and uses it to decide whether points are inside the mesh.
+ *
+ * The generalized winding number is the sum of the solid angles subtended
+ * by the mesh faces, divided by 4 * pi. It equals one for points inside a
+ * closed mesh whose faces are oriented towards the outside, and zero for
+ * points outside. For meshes with small holes or defects, it varies smoothly
+ * and thresholding at 0.5 still gives a robust inside / outside
+ * classification (Jacobson et al., 2013).
+ *
+ * The computation uses a bounding volume hierarchy over the mesh faces. As
+ * in the Barnes-Hut algorithm, the contribution of clusters of faces located
+ * far enough from the query point is approximated by a dipole, computed from
+ * the area-weighted normal and the center of the cluster (Barill et al.,
+ * 2018), resulting in a logarithmic cost per query. Nearby faces are
+ * evaluated exactly using the formula of Van Oosterom and Strackee.
+ *
+ * <pre>
+ * <code>
+ * MeshWindingNumber wn = new MeshWindingNumber(mesh);
+ * boolean inside = wn.isInside(x, y, z);
+ * boolean[] insides = wn.isInside(pointCoords);
+ * </code>
+ * </pre>
+ *
+ * @see MeshBVH3D
+ *
+ * @author dlegland
+ *
+ */
+public class MeshWindingNumber
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The default ratio between the distance to a cluster and its radius
+     * above which the cluster is approximated.
+     */
+    public static final double DEFAULT_ACCURACY = 2.0;
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The bounding volume hierarchy of the mesh faces.
+     */
+    final MeshBVH3D bvh;
+
+    /**
+     * The ratio between the distance to a cluster and its radius above which
+     * the cluster is approximated.
+     */
+    final double accuracy;
+
+    /**
+     * The sum of the area-weighted normals of the faces within each node,
+     * stored as (nx, ny, nz) triplets.
+     */
+    double[] nodeNormals;
+
+    /**
+     * The area-weighted centroid of the faces within each node, stored as
+     * (x, y, z) triplets.
+     */
+    double[] nodeCenters;
+
+    /**
+     * The radius of the sphere centered on the node center that contains all
+     * the faces of the node.
+     */
+    double[] nodeRadii;
+
+
+    // ===================================================================
+    // Constructors
+
+    /**
+     * Creates a new winding number evaluator for the specified triangular
+     * mesh, using the default accuracy.
+     *
+     * @param mesh
+     *            the triangular mesh
+     */
+    public MeshWindingNumber(Mesh3D mesh)
+    {
+        this(MeshBVH3D.create(mesh), DEFAULT_ACCURACY);
+    }
+
+    /**
+     * Creates a new winding number evaluator from the bounding volume
+     * hierarchy of a mesh.
+     *
+     * @param bvh
+     *            the bounding volume hierarchy of the mesh faces
+     * @param accuracy
+     *            the ratio between the distance to a cluster of faces and its
+     *            radius above which the cluster is approximated. Larger
+     *            values result in more accurate but slower computations.
+     */
+    public MeshWindingNumber(MeshBVH3D bvh, double accuracy)
+    {
+        if (accuracy <= 1)
+        {
+            throw new IllegalArgumentException("Accuracy must be greater than 1");
+        }
+        this.bvh = bvh;
+        this.accuracy = accuracy;
+        computeNodeMoments();
+    }
+
+    /**
+     * Computes the area-weighted normal, the center and the radius of each
+     * node, from the leaves to the root.
+     */
+    private void computeNodeMoments()
+    {
+        int nNodes = bvh.nodeCount;
+        this.nodeNormals = new double[3 * nNodes];
+        this.nodeCenters = new double[3 * nNodes];
+        this.nodeRadii = new double[nNodes];
+        double[] areas = new double[nNodes];
+        double[] coords = bvh.coords;
+        int[] faces = bvh.faces;
+
+        // children are always created after their parent, so iterating in
+        // reverse order ensures children are processed first
+        for (int node = nNodes - 1; node >= 0; node--)
+        {
+            double nx = 0, ny = 0, nz = 0;
+            double cx = 0, cy = 0, cz = 0;
+            double area = 0;
+
+            if (bvh.isLeaf(node))
+            {
+                int start = bvh.nodeStarts[node];
+                int end = start + bvh.nodeSizes[node];
+                for (int i = start; i < end; i++)
+                {
+                    int iFace = bvh.faceOrder[i];
+                    int i1 = 3 * faces[3 * iFace];
+                    int i2 = 3 * faces[3 * iFace + 1];
+                    int i3 = 3 * faces[3 * iFace + 2];
+                    double e1x = coords[i2] - coords[i1], e1y = coords[i2 + 1] - coords[i1 + 1], e1z = coords[i2 + 2] - coords[i1 + 2];
+                    double e2x = coords[i3] - coords[i1], e2y = coords[i3 + 1] - coords[i1 + 1], e2z = coords[i3 + 2] - coords[i1 + 2];
+                    double fnx = 0.5 * (e1y * e2z - e1z * e2y);
+                    double fny = 0.5 * (e1z * e2x - e1x * e2z);
+                    double fnz = 0.5 * (e1x * e2y - e1y * e2x);
+                    double fa = Math.sqrt(fnx * fnx + fny * fny + fnz * fnz);
+                    nx += fnx;
+                    ny += fny;
+                    nz += fnz;
+                    cx += fa * (coords[i1] + coords[i2] + coords[i3]) / 3;
+                    cy += fa * (coords[i1 + 1] + coords[i2 + 1] + coords[i3 + 1]) / 3;
+                    cz += fa * (coords[i1 + 2] + coords[i2 + 2] + coords[i3 + 2]) / 3;
+                    area += fa;
+                }
+            }
+            else
+            {
+                int left = bvh.leftChildren[node];
+                int right = bvh.rightChildren[node];
+                for (int child : new int[] {left, right})
+                {
+                    nx += nodeNormals[3 * child];
+                    ny += nodeNormals[3 * child + 1];
+                    nz += nodeNormals[3 * child + 2];
+                    cx += areas[child] * nodeCenters[3 * child];
+                    cy += areas[child] * nodeCenters[3 * child + 1];
+                    cz += areas[child] * nodeCenters[3 * child + 2];
+                    area += areas[child];
+                }
+            }
+
+            // normalize the center, or use the center of the box for
+            // degenerate nodes
+            if (area > 0)
+            {
+                cx /= area;
+                cy /= area;
+                cz /= area;
+            }
+            else
+            {
+                cx = (bvh.nodeMin(node, 0) + bvh.nodeMax(node, 0)) * 0.5;
+                cy = (bvh.nodeMin(node, 1) + bvh.nodeMax(node, 1)) * 0.5;
+                cz = (bvh.nodeMin(node, 2) + bvh.nodeMax(node, 2)) * 0.5;
+            }
+
+            nodeNormals[3 * node] = nx;
+            nodeNormals[3 * node + 1] = ny;
+            nodeNormals[3 * node + 2] = nz;
+            nodeCenters[3 * node] = cx;
+            nodeCenters[3 * node + 1] = cy;
+            nodeCenters[3 * node + 2] = cz;
+            areas[node] = area;
+
+            // the radius is bounded by the distance from the center to the
+            // farthest corner of the node box
+            double dx = Math.max(cx - bvh.nodeMin(node, 0), bvh.nodeMax(node, 0) - cx);
+            double dy = Math.max(cy - bvh.nodeMin(node, 1), bvh.nodeMax(node, 1) - cy);
+            double dz = Math.max(cz - bvh.nodeMin(node, 2), bvh.nodeMax(node, 2) - cz);
+            nodeRadii[node] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+    }
+
+
+    // ===================================================================
+    // Queries
+
+    /**
+     * Checks if the specified point is inside the mesh, by thresholding the
+     * generalized winding number at 0.5.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @param z
+     *            the z-coordinate of the query point
+     * @return true if the point is inside the mesh
+     */
+    public boolean isInside(double x, double y, double z)
+    {
+        return windingNumber(x, y, z) > 0.5;
+    }
+
+    /**
+     * Computes the generalized winding number of the mesh around the
+     * specified point.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @param z
+     *            the z-coordinate of the query point
+     * @return the generalized winding number, close to 1 for points inside
+     *         the mesh, and close to 0 for points outside
+     */
+    public double windingNumber(double x, double y, double z)
+    {
+        if (bvh.nodeCount == 0)
+        {
+            return 0.0;
+        }
+        return nodeSolidAngle(0, x, y, z) / (4 * Math.PI);
+    }
+
+    /**
+     * Checks if each point of a collection is inside the mesh. Points are
+     * processed in parallel.
+     *
+     * @param points
+     *            the coordinates of the query points, as (x1, y1, z1, x2, y2,
+     *            z2, ...)
+     * @return an array of booleans, with one element per point
+     */
+    public boolean[] isInside(double[] points)
+    {
+        double[] wn = windingNumbers(points);
+        boolean[] res = new boolean[wn.length];
+        for (int i = 0; i < wn.length; i++)
+        {
+            res[i] = wn[i] > 0.5;
+        }
+        return res;
+    }
+
+    /**
+     * Computes the generalized winding number of the mesh around each point
+     * of a collection. Points are processed in parallel.
+     *
+     * @param points
+     *            the coordinates of the query points, as (x1, y1, z1, x2, y2,
+     *            z2, ...)
+     * @return the array of winding numbers, with one element per point
+     */
+    public double[] windingNumbers(double[] points)
+    {
+        int n = points.length / 3;
+        double[] res = new double[n];
+        IntStream.range(0, n).parallel().forEach(i -> res[i] = windingNumber(points[3 * i], points[3 * i + 1], points[3 * i + 2]));
+        return res;
+    }
+
+
+    // ===================================================================
+    // Implementation
+
+    /**
+     * Computes the solid angle subtended by the faces of a node.
+     */
+    private double nodeSolidAngle(int node, double x, double y, double z)
+    {
+        // approximate far clusters by a dipole
+        double dx = nodeCenters[3 * node] - x;
+        double dy = nodeCenters[3 * node + 1] - y;
+        double dz = nodeCenters[3 * node + 2] - z;
+        double d2 = dx * dx + dy * dy + dz * dz;
+        double r = nodeRadii[node] * accuracy;
+        if (d2 > r * r)
+        {
+            double d = Math.sqrt(d2);
+            return (nodeNormals[3 * node] * dx + nodeNormals[3 * node + 1] * dy + nodeNormals[3 * node + 2] * dz) / (d2 * d);
+        }
+
+        if (!bvh.isLeaf(node))
+        {
+            return nodeSolidAngle(bvh.leftChildren[node], x, y, z) + nodeSolidAngle(bvh.rightChildren[node], x, y, z);
+        }
+
+        // exact evaluation for the faces of the leaf
+        double[] coords = bvh.coords;
+        int[] faces = bvh.faces;
+        double sum = 0;
+        int start = bvh.nodeStarts[node];
+        int end = start + bvh.nodeSizes[node];
+        for (int i = start; i < end; i++)
+        {
+            int iFace = bvh.faceOrder[i];
+            sum += triangleSolidAngle(coords, 3 * faces[3 * iFace], 3 * faces[3 * iFace + 1], 3 * faces[3 * iFace + 2], x, y, z);
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the signed solid angle subtended by a triangle, using the
+     * formula of Van Oosterom and Strackee (1983).
+     */
+    private static final double triangleSolidAngle(double[] coords, int i1, int i2, int i3, double x, double y, double z)
+    {
+        double ax = coords[i1] - x, ay = coords[i1 + 1] - y, az = coords[i1 + 2] - z;
+        double bx = coords[i2] - x, by = coords[i2 + 1] - y, bz = coords[i2 + 2] - z;
+        double cx = coords[i3] - x, cy = coords[i3 + 1] - y, cz = coords[i3 + 2] - z;
+        double la = Math.sqrt(ax * ax + ay * ay + az * az);
+        double lb = Math.sqrt(bx * bx + by * by + bz * bz);
+        double lc = Math.sqrt(cx * cx + cy * cy + cz * cz);
+
+        double det = ax * (by * cz - bz * cy) - ay * (bx * cz - bz * cx) + az * (bx * cy - by * cx);
+        double denom = la * lb * lc
+                + (ax * bx + ay * by + az * bz) * lc
+                + (bx * cx + by * cy + bz * cz) * la
+                + (cx * ax + cy * ay + cz * az) * lb;
+        return 2 * Math.atan2(det, denom);
+    }
+}
@@ -3,7 +3,16 @@
  */
 package net.ijt.geometry.mesh3d;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.ijt.geometry.geom3d.Bounds3D;
+import net.ijt.geometry.geom3d.Ellipsoid3D;
 import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Sphere3D;
+import net.ijt.geometry.geom3d.Vector3D;
+import net.ijt.geometry.mesh3d.process.Subdivision;
 
 /**
  * A collection of static methods for working with 3D meshes
@@ -12,6 +21,27 @@ import net.ijt.geometry.geom3d.Point3D;
  */
 public class Meshes3D
 {
+    /**
+     * The maximum number of templates kept within the cache.
+     */
+    private static final int MAX_CACHED_TEMPLATES = 16;
+    
+    /**
+     * The cache of unit templates used by shape generators, indexed by a key
+     * built from the shape type and the discretization parameters. The least
+     * recently used template is discarded when the cache is full.
+     */
+    private static final Map<String, MeshTemplate> templates = Collections.synchronizedMap(
+            new LinkedHashMap<String, MeshTemplate>(2 * MAX_CACHED_TEMPLATES, 0.75f, true)
+            {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MeshTemplate> eldest)
+                {
+                    return size() > MAX_CACHED_TEMPLATES;
+                }
+            });
     
     /**
      * Private constructor to prevent instantiation.
@@ -20,6 +50,182 @@ public class Meshes3D
     {
     }
     
+    /**
+     * Returns the coordinates of the vertices of a mesh, packed into a single
+     * array as (x1, y1, z1, x2, y2, z2, ...).
+     * 
+     * @see Mesh3D#vertexCoordinates()
+     * 
+     * @param mesh
+     *            the mesh
+     * @return the array of vertex coordinates, with 3 * vertexCount() elements
+     */
+    public static final double[] vertexCoordinates(Mesh3D mesh)
+    {
+        return mesh.vertexCoordinates();
+    }
+    
+    /**
+     * Returns the indices of the vertices of each face of a triangular mesh,
+     * packed into a single array as (iv11, iv12, iv13, iv21, iv22, iv23, ...).
+     * Vertex indices follow the iteration order of <code>mesh.vertices()</code>.
+     * 
+     * @see Mesh3D#faceVertexIndices()
+     * 
+     * @param mesh
+     *            the triangular mesh
+     * @return the array of face vertex indices, with 3 * faceCount() elements
+     * @throws IllegalArgumentException
+     *             if the mesh contains a face that is not a triangle
+     */
+    public static final int[] faceVertexIndices(Mesh3D mesh)
+    {
+        return mesh.faceVertexIndices();
+    }
+    
+    
+    // ===================================================================
+    // Aggregate queries
+    
+    /**
+     * Computes the surface area of a triangular mesh. Faces are processed in
+     * parallel for large meshes.
+     * 
+     * @param mesh
+     *            the triangular mesh
+     * @return the surface area of the mesh
+     */
+    public static final double surfaceArea(Mesh3D mesh)
+    {
+        Reduction res = mesh.faceIndexStream().collect(() -> new Reduction(0.0), (acc, iFace) -> {
+            mesh.faceVertexIndices(iFace, acc.inds);
+            mesh.vertexCoordinates(acc.inds[0], acc.p1);
+            mesh.vertexCoordinates(acc.inds[1], acc.p2);
+            mesh.vertexCoordinates(acc.inds[2], acc.p3);
+            double e1x = acc.p2[0] - acc.p1[0], e1y = acc.p2[1] - acc.p1[1], e1z = acc.p2[2] - acc.p1[2];
+            double e2x = acc.p3[0] - acc.p1[0], e2y = acc.p3[1] - acc.p1[1], e2z = acc.p3[2] - acc.p1[2];
+            double nx = e1y * e2z - e1z * e2y;
+            double ny = e1z * e2x - e1x * e2z;
+            double nz = e1x * e2y - e1y * e2x;
+            acc.values[0] += Math.sqrt(nx * nx + ny * ny + nz * nz);
+        }, (acc1, acc2) -> acc1.values[0] += acc2.values[0]);
+        return res.values[0] / 2;
+    }
+    
+    /**
+     * Computes the bounds of the vertices of a mesh. Vertices are processed in
+     * parallel for large meshes.
+     * 
+     * @param mesh
+     *            the mesh
+     * @return the bounds of the mesh vertices
+     */
+    public static final Bounds3D bounds(Mesh3D mesh)
+    {
+        double inf = Double.POSITIVE_INFINITY;
+        Reduction res = mesh.vertexIndexStream().collect(() -> new Reduction(inf, -inf, inf, -inf, inf, -inf), (acc, iv) -> {
+            mesh.vertexCoordinates(iv, acc.p1);
+            for (int d = 0; d < 3; d++)
+            {
+                acc.values[2 * d] = Math.min(acc.values[2 * d], acc.p1[d]);
+                acc.values[2 * d + 1] = Math.max(acc.values[2 * d + 1], acc.p1[d]);
+            }
+        }, (acc1, acc2) -> {
+            for (int d = 0; d < 3; d++)
+            {
+                acc1.values[2 * d] = Math.min(acc1.values[2 * d], acc2.values[2 * d]);
+                acc1.values[2 * d + 1] = Math.max(acc1.values[2 * d + 1], acc2.values[2 * d + 1]);
+            }
+        });
+        double[] v = res.values;
+        return new Bounds3D(v[0], v[1], v[2], v[3], v[4], v[5]);
+    }
+    
+    /**
+     * Computes the distance between a point and the closest face of a
+     * triangular mesh. Faces are processed in parallel for large meshes.
+     * 
+     * @param mesh
+     *            the triangular mesh
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @param z
+     *            the z-coordinate of the query point
+     * @return the distance between the point and the mesh
+     */
+    public static final double distance(Mesh3D mesh, double x, double y, double z)
+    {
+        // values contain the squared distance to the closest face
+        Reduction res = mesh.faceIndexStream().collect(() -> new Reduction(Double.POSITIVE_INFINITY), (acc, iFace) -> {
+            mesh.faceVertexIndices(iFace, acc.inds);
+            mesh.vertexCoordinates(acc.inds[0], acc.p1);
+            mesh.vertexCoordinates(acc.inds[1], acc.p2);
+            mesh.vertexCoordinates(acc.inds[2], acc.p3);
+            acc.values[0] = Math.min(acc.values[0], Triangle3D.distanceSquared(acc.p1, acc.p2, acc.p3, x, y, z));
+        }, (acc1, acc2) -> acc1.values[0] = Math.min(acc1.values[0], acc2.values[0]));
+        return Math.sqrt(res.values[0]);
+    }
+    
+    /**
+     * Finds the index of the vertex of a mesh closest to a query point.
+     * Vertices are processed in parallel for large meshes. In case of ties,
+     * the vertex with the lowest index is returned.
+     * 
+     * @param mesh
+     *            the mesh
+     * @param point
+     *            the query point
+     * @return the index of the closest vertex, or -1 if the mesh is empty
+     */
+    public static final int findClosestVertexIndex(Mesh3D mesh, Point3D point)
+    {
+        double x = point.x(), y = point.y(), z = point.z();
+        
+        // values contain the squared distance and the index of the closest vertex
+        Reduction res = mesh.vertexIndexStream().collect(() -> new Reduction(Double.POSITIVE_INFINITY, -1), (acc, iv) -> {
+            mesh.vertexCoordinates(iv, acc.p1);
+            double dx = acc.p1[0] - x, dy = acc.p1[1] - y, dz = acc.p1[2] - z;
+            double d2 = dx * dx + dy * dy + dz * dz;
+            if (d2 < acc.values[0])
+            {
+                acc.values[0] = d2;
+                acc.values[1] = iv;
+            }
+        }, (acc1, acc2) -> {
+            // the second container always contains larger indices
+            if (acc2.values[0] < acc1.values[0])
+            {
+                acc1.values[0] = acc2.values[0];
+                acc1.values[1] = acc2.values[1];
+            }
+        });
+        return (int) res.values[1];
+    }
+    
+    /**
+     * Mutable container for parallel reductions, that also contains the
+     * buffers used to retrieve element data without allocation.
+     */
+    private static final class Reduction
+    {
+        final double[] values;
+        final int[] inds = new int[3];
+        final double[] p1 = new double[3];
+        final double[] p2 = new double[3];
+        final double[] p3 = new double[3];
+        
+        Reduction(double... initialValues)
+        {
+            this.values = initialValues;
+        }
+    }
+    
+    
+    // ===================================================================
+    // Basic shapes
+    
     /**
      * Creates a basic tetrahedron whose vertices correspond to four corners of
      * the unit cube, including the origin.
@@ -64,4 +270,503 @@ public class Meshes3D
         mesh.addFace(0, 3, 5);
         return mesh;
     }
+
+    
+    // ===================================================================
+    // Shape generators
+    
+    /**
+     * Creates an icosphere, obtained by recursive subdivision of an
+     * icosahedron, with all vertices projected onto the unit sphere centered
+     * at the origin. The resulting mesh contains (10 * 4^level + 2) vertices
+     * and (20 * 4^level) faces.
+     * 
+     * @param level
+     *            the number of subdivision levels (0 returns the icosahedron)
+     * @return a new mesh representing the unit sphere
+     */
+    public static final Mesh3D createIcosphere(int level)
+    {
+        MeshTemplate template = icosphereTemplate(level);
+        return new SimpleTriMesh3D(template.coords, template.faces);
+    }
+    
+    /**
+     * Creates a mesh of the unit sphere centered at the origin, based on a
+     * longitude / latitude grid. The two poles are located on the z-axis.
+     * The resulting mesh contains (2 + nMeridians * (nParallels - 1))
+     * vertices and (2 * nMeridians * (nParallels - 1)) faces.
+     * 
+     * @param nMeridians
+     *            the number of meridians, at least 3
+     * @param nParallels
+     *            the number of latitude bands between the poles, at least 2
+     * @return a new mesh representing the unit sphere
+     */
+    public static final Mesh3D createUVSphere(int nMeridians, int nParallels)
+    {
+        MeshTemplate template = uvSphereTemplate(nMeridians, nParallels);
+        return new SimpleTriMesh3D(template.coords, template.faces);
+    }
+    
+    /**
+     * Converts a sphere into a triangular mesh, by transforming the unit
+     * icosphere with the specified subdivision level.
+     * 
+     * @see #createIcosphere(int)
+     * 
+     * @param sphere
+     *            the sphere to convert
+     * @param level
+     *            the number of subdivision levels of the icosphere
+     * @return a new mesh representing the sphere
+     */
+    public static final Mesh3D createMesh(Sphere3D sphere, int level)
+    {
+        MeshTemplate template = icosphereTemplate(level);
+        double r = sphere.radius();
+        Point3D center = sphere.center();
+        double[][] mat = new double[][] {
+            {r, 0, 0, center.x()}, 
+            {0, r, 0, center.y()}, 
+            {0, 0, r, center.z()}};
+        return new SimpleTriMesh3D(transformCoords(template.coords, mat), template.faces);
+    }
+    
+    /**
+     * Converts an ellipsoid into a triangular mesh, by transforming the unit
+     * icosphere with the specified subdivision level.
+     * 
+     * @see #createIcosphere(int)
+     * 
+     * @param elli
+     *            the ellipsoid to convert
+     * @param level
+     *            the number of subdivision levels of the icosphere
+     * @return a new mesh representing the ellipsoid
+     */
+    public static final Mesh3D createMesh(Ellipsoid3D elli, int level)
+    {
+        MeshTemplate template = icosphereTemplate(level);
+        
+        // concatenate scaling, rotation and translation
+        double[] radii = elli.radiusList();
+        double[][] rot = elli.orientation().affineMatrix();
+        Point3D center = elli.center();
+        double[][] mat = new double[3][4];
+        for (int i = 0; i < 3; i++)
+        {
+            for (int j = 0; j < 3; j++)
+            {
+                mat[i][j] = rot[i][j] * radii[j];
+            }
+        }
+        mat[0][3] = center.x();
+        mat[1][3] = center.y();
+        mat[2][3] = center.z();
+        return new SimpleTriMesh3D(transformCoords(template.coords, mat), template.faces);
+    }
+    
+    /**
+     * Creates a closed cylinder between two points. Each cap is triangulated
+     * as a fan around its center. The resulting mesh contains (2 * nSides +
+     * 2) vertices and (4 * nSides) faces.
+     * 
+     * @param p1
+     *            the center of the first cap
+     * @param p2
+     *            the center of the second cap
+     * @param radius
+     *            the radius of the cylinder
+     * @param nSides
+     *            the number of vertices around each cap, at least 3
+     * @return a new mesh representing the cylinder
+     */
+    public static final Mesh3D createCylinder(Point3D p1, Point3D p2, double radius, int nSides)
+    {
+        MeshTemplate template = cylinderTemplate(nSides);
+        
+        // compute a direct orthogonal basis, with third vector along the axis
+        Vector3D w = new Vector3D(p1, p2);
+        if (w.norm() == 0)
+        {
+            throw new IllegalArgumentException("Cylinder extremities must be distinct");
+        }
+        Vector3D[] basis = orthonormalBasis(w);
+        Vector3D u = basis[0].times(radius);
+        Vector3D v = basis[1].times(radius);
+        double[][] mat = new double[][] {
+            {u.x(), v.x(), w.x(), p1.x()}, 
+            {u.y(), v.y(), w.y(), p1.y()}, 
+            {u.z(), v.z(), w.z(), p1.z()}};
+        return new SimpleTriMesh3D(transformCoords(template.coords, mat), template.faces);
+    }
+    
+    /**
+     * Creates a torus around an axis. The resulting mesh contains (nMajor *
+     * nMinor) vertices and (2 * nMajor * nMinor) faces.
+     * 
+     * As the shape of the torus depends on the ratio of the radii, the cached
+     * template contains the face indices and the trigonometric tables, and the
+     * vertex coordinates are computed within the local basis of the torus.
+     * 
+     * @param center
+     *            the center of the torus
+     * @param normal
+     *            the direction of the axis of the torus
+     * @param majorRadius
+     *            the distance between the center of the torus and the center
+     *            of the tube
+     * @param minorRadius
+     *            the radius of the tube
+     * @param nMajor
+     *            the number of vertices along the major circle, at least 3
+     * @param nMinor
+     *            the number of vertices along the minor circle, at least 3
+     * @return a new mesh representing the torus
+     */
+    public static final Mesh3D createTorus(Point3D center, Vector3D normal, double majorRadius, double minorRadius, int nMajor, int nMinor)
+    {
+        MeshTemplate template = torusTemplate(nMajor, nMinor);
+        
+        // compute a direct orthogonal basis, with third vector along the axis
+        if (normal.norm() == 0)
+        {
+            throw new IllegalArgumentException("Torus normal must be non null");
+        }
+        Vector3D[] basis = orthonormalBasis(normal);
+        Vector3D u = basis[0];
+        Vector3D v = basis[1];
+        Vector3D w = basis[2];
+        
+        // the trigonometric tables of major and minor circles
+        double[] cosSin = template.coords;
+        int offset = 2 * nMajor;
+        
+        double[] coords = new double[3 * nMajor * nMinor];
+        int pos = 0;
+        for (int i = 0; i < nMajor; i++)
+        {
+            double cosPhi = cosSin[2 * i];
+            double sinPhi = cosSin[2 * i + 1];
+            for (int j = 0; j < nMinor; j++)
+            {
+                double cosPsi = cosSin[offset + 2 * j];
+                double sinPsi = cosSin[offset + 2 * j + 1];
+                
+                // local coordinates
+                double rho = majorRadius + minorRadius * cosPsi;
+                double x = rho * cosPhi;
+                double y = rho * sinPhi;
+                double z = minorRadius * sinPsi;
+                
+                coords[pos++] = center.x() + x * u.x() + y * v.x() + z * w.x();
+                coords[pos++] = center.y() + x * u.y() + y * v.y() + z * w.y();
+                coords[pos++] = center.z() + x * u.z() + y * v.z() + z * w.z();
+            }
+        }
+        return new SimpleTriMesh3D(coords, template.faces);
+    }
+    
+    
+    // ===================================================================
+    // Computation of templates
+    
+    private static final MeshTemplate icosphereTemplate(int level)
+    {
+        if (level < 0)
+        {
+            throw new IllegalArgumentException("Subdivision level must be positive or zero");
+        }
+        String key = "icosphere:" + level;
+        MeshTemplate template = templates.get(key);
+        if (template != null)
+        {
+            return template;
+        }
+        
+        // start from previous level, or from icosahedron
+        template = level == 0 ? createIcosahedronTemplate() : subdivideOnSphere(icosphereTemplate(level - 1));
+        templates.putIfAbsent(key, template);
+        return template;
+    }
+    
+    private static final MeshTemplate createIcosahedronTemplate()
+    {
+        double t = (1.0 + Math.sqrt(5.0)) / 2.0;
+        double[] coords = new double[] {
+                -1,  t,  0,    1,  t,  0,   -1, -t,  0,    1, -t,  0, 
+                 0, -1,  t,    0,  1,  t,    0, -1, -t,    0,  1, -t, 
+                 t,  0, -1,    t,  0,  1,   -t,  0, -1,   -t,  0,  1};
+        double norm = Math.hypot(1, t);
+        for (int i = 0; i < coords.length; i++)
+        {
+            coords[i] /= norm;
+        }
+        
+        int[] faces = new int[] {
+                 0, 11,  5,    0,  5,  1,    0,  1,  7,    0,  7, 10,    0, 10, 11, 
+                 1,  5,  9,    5, 11,  4,   11, 10,  2,   10,  7,  6,    7,  1,  8, 
+                 3,  9,  4,    3,  4,  2,    3,  2,  6,    3,  6,  8,    3,  8,  9, 
+                 4,  9,  5,    2,  4, 11,    6,  2, 10,    8,  6,  7,    9,  8,  1};
+        return new MeshTemplate(coords, faces);
+    }
+    
+    /**
+     * Splits each face into four faces using the midpoint subdivision, and
+     * projects the new vertices onto the unit sphere.
+     */
+    private static final MeshTemplate subdivideOnSphere(MeshTemplate template)
+    {
+        Subdivision algo = new Subdivision(Subdivision.Scheme.MIDPOINT);
+        SimpleTriMesh3D mesh = algo.process(new SimpleTriMesh3D(template.coords, template.faces));
+        
+        double[] coords = mesh.vertexCoordinates();
+        for (int i = 0; i < coords.length; i += 3)
+        {
+            double norm = Math.sqrt(coords[i] * coords[i] + coords[i + 1] * coords[i + 1] + coords[i + 2] * coords[i + 2]);
+            coords[i] /= norm;
+            coords[i + 1] /= norm;
+            coords[i + 2] /= norm;
+        }
+        return new MeshTemplate(coords, mesh.faceVertexIndices());
+    }
+    
+    private static final MeshTemplate uvSphereTemplate(int nMeridians, int nParallels)
+    {
+        if (nMeridians < 3 || nParallels < 2)
+        {
+            throw new IllegalArgumentException("Requires at least 3 meridians and 2 parallels");
+        }
+        String key = "uvsphere:" + nMeridians + ":" + nParallels;
+        MeshTemplate template = templates.get(key);
+        if (template != null)
+        {
+            return template;
+        }
+        
+        // vertices: north pole, rings from north to south, and south pole
+        int nRings = nParallels - 1;
+        int nv = 2 + nMeridians * nRings;
+        double[] coords = new double[3 * nv];
+        coords[2] = 1.0;
+        int pos = 3;
+        for (int k = 1; k <= nRings; k++)
+        {
+            double theta = k * Math.PI / nParallels;
+            double sinTheta = Math.sin(theta);
+            double cosTheta = Math.cos(theta);
+            for (int j = 0; j < nMeridians; j++)
+            {
+                double phi = j * 2 * Math.PI / nMeridians;
+                coords[pos++] = Math.cos(phi) * sinTheta;
+                coords[pos++] = Math.sin(phi) * sinTheta;
+                coords[pos++] = cosTheta;
+            }
+        }
+        coords[pos + 2] = -1.0;
+        
+        // faces, oriented towards the outside
+        int southPole = nv - 1;
+        int[] faces = new int[6 * nMeridians * nRings];
+        pos = 0;
+        for (int j = 0; j < nMeridians; j++)
+        {
+            int j2 = (j + 1) % nMeridians;
+            
+            // north cap
+            faces[pos++] = 0;
+            faces[pos++] = 1 + j;
+            faces[pos++] = 1 + j2;
+            
+            // bands between consecutive rings
+            for (int k = 0; k < nRings - 1; k++)
+            {
+                int up = 1 + k * nMeridians;
+                int lo = up + nMeridians;
+                faces[pos++] = up + j;
+                faces[pos++] = lo + j;
+                faces[pos++] = lo + j2;
+                faces[pos++] = up + j;
+                faces[pos++] = lo + j2;
+                faces[pos++] = up + j2;
+            }
+            
+            // south cap
+            int last = 1 + (nRings - 1) * nMeridians;
+            faces[pos++] = southPole;
+            faces[pos++] = last + j2;
+            faces[pos++] = last + j;
+        }
+        
+        template = new MeshTemplate(coords, faces);
+        templates.putIfAbsent(key, template);
+        return template;
+    }
+    
+    /**
+     * Creates the template of a unit cylinder, with radius 1, and with axis
+     * between the origin and the point (0,0,1).
+     */
+    private static final MeshTemplate cylinderTemplate(int nSides)
+    {
+        if (nSides < 3)
+        {
+            throw new IllegalArgumentException("Requires at least three sides");
+        }
+        String key = "cylinder:" + nSides;
+        MeshTemplate template = templates.get(key);
+        if (template != null)
+        {
+            return template;
+        }
+        
+        // vertices: bottom ring, top ring, bottom center, top center
+        double[] coords = new double[3 * (2 * nSides + 2)];
+        for (int i = 0; i < nSides; i++)
+        {
+            double theta = i * 2 * Math.PI / nSides;
+            double cosTheta = Math.cos(theta);
+            double sinTheta = Math.sin(theta);
+            coords[3 * i] = cosTheta;
+            coords[3 * i + 1] = sinTheta;
+            coords[3 * (nSides + i)] = cosTheta;
+            coords[3 * (nSides + i) + 1] = sinTheta;
+            coords[3 * (nSides + i) + 2] = 1.0;
+        }
+        int bottom = 2 * nSides;
+        int top = bottom + 1;
+        coords[3 * top + 2] = 1.0;
+        
+        // faces, oriented towards the outside
+        int[] faces = new int[12 * nSides];
+        int pos = 0;
+        for (int i = 0; i < nSides; i++)
+        {
+            int i2 = (i + 1) % nSides;
+            faces[pos++] = i;
+            faces[pos++] = i2;
+            faces[pos++] = nSides + i2;
+            faces[pos++] = i;
+            faces[pos++] = nSides + i2;
+            faces[pos++] = nSides + i;
+            faces[pos++] = bottom;
+            faces[pos++] = i2;
+            faces[pos++] = i;
+            faces[pos++] = top;
+            faces[pos++] = nSides + i;
+            faces[pos++] = nSides + i2;
+        }
+        
+        template = new MeshTemplate(coords, faces);
+        templates.putIfAbsent(key, template);
+        return template;
+    }
+    
+    /**
+     * Creates the template of a torus. The coordinates array contains the
+     * cosine and sine of the angles along the major circle, followed by the
+     * cosine and sine of the angles along the minor circle.
+     */
+    private static final MeshTemplate torusTemplate(int nMajor, int nMinor)
+    {
+        if (nMajor < 3 || nMinor < 3)
+        {
+            throw new IllegalArgumentException("Requires at least three vertices along each circle");
+        }
+        String key = "torus:" + nMajor + ":" + nMinor;
+        MeshTemplate template = templates.get(key);
+        if (template != null)
+        {
+            return template;
+        }
+        
+        // trigonometric tables
+        double[] cosSin = new double[2 * (nMajor + nMinor)];
+        for (int i = 0; i < nMajor; i++)
+        {
+            double phi = i * 2 * Math.PI / nMajor;
+            cosSin[2 * i] = Math.cos(phi);
+            cosSin[2 * i + 1] = Math.sin(phi);
+        }
+        for (int j = 0; j < nMinor; j++)
+        {
+            double psi = j * 2 * Math.PI / nMinor;
+            cosSin[2 * (nMajor + j)] = Math.cos(psi);
+            cosSin[2 * (nMajor + j) + 1] = Math.sin(psi);
+        }
+        
+        // faces, oriented towards the outside
+        int[] faces = new int[6 * nMajor * nMinor];
+        int pos = 0;
+        for (int i = 0; i < nMajor; i++)
+        {
+            int i2 = (i + 1) % nMajor;
+            for (int j = 0; j < nMinor; j++)
+            {
+                int j2 = (j + 1) % nMinor;
+                faces[pos++] = i * nMinor + j;
+                faces[pos++] = i2 * nMinor + j;
+                faces[pos++] = i2 * nMinor + j2;
+                faces[pos++] = i * nMinor + j;
+                faces[pos++] = i2 * nMinor + j2;
+                faces[pos++] = i * nMinor + j2;
+            }
+        }
+        
+        template = new MeshTemplate(cosSin, faces);
+        templates.putIfAbsent(key, template);
+        return template;
+    }
+    
+    /**
+     * Applies an affine transform given by a 3-by-4 matrix to a packed array
+     * of coordinates, and returns the result in a new array.
+     */
+    private static final double[] transformCoords(double[] coords, double[][] mat)
+    {
+        double[] res = new double[coords.length];
+        for (int i = 0; i < coords.length; i += 3)
+        {
+            double x = coords[i];
+            double y = coords[i + 1];
+            double z = coords[i + 2];
+            res[i]     = mat[0][0] * x + mat[0][1] * y + mat[0][2] * z + mat[0][3];
+            res[i + 1] = mat[1][0] * x + mat[1][1] * y + mat[1][2] * z + mat[1][3];
+            res[i + 2] = mat[2][0] * x + mat[2][1] * y + mat[2][2] * z + mat[2][3];
+        }
+        return res;
+    }
+    
+    /**
+     * Computes a direct orthonormal basis (u, v, w) such that w is collinear
+     * to the specified vector.
+     */
+    private static final Vector3D[] orthonormalBasis(Vector3D vect)
+    {
+        Vector3D w = vect.normalize();
+        
+        // choose the axis that is the least collinear to w
+        Vector3D ref = Math.abs(w.x()) < 0.9 ? Vector3D.E_1 : Vector3D.E_2;
+        Vector3D u = Vector3D.crossProduct(ref, w).normalize();
+        Vector3D v = Vector3D.crossProduct(w, u);
+        return new Vector3D[] {u, v, w};
+    }
+    
+    /**
+     * The vertex coordinates and face vertex indices of a shape template.
+     * Arrays are reused for each mesh created from the template, and must not
+     * be modified.
+     */
+    private static final class MeshTemplate
+    {
+        final double[] coords;
+        final int[] faces;
+        
+        MeshTemplate(double[] coords, int[] faces)
+        {
+            this.coords = coords;
+            this.faces = faces;
+        }
+    }
 }
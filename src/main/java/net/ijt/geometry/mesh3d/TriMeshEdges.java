@@ -0,0 +1,340 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d;
+
+import java.util.Arrays;
+
+/**
+ * Edge topology of a triangular mesh, stored within primitive arrays.
+ *
+ * Edges are identified from the array of face vertex indices, using a hash
+ * table whose keys are obtained by packing the indices of the two vertices of
+ * each edge into a single long value. Each edge is indexed in the order of
+ * its first appearance within the faces. The structure also stores, for each
+ * face, the indices of its three edges, and for each edge the list of
+ * adjacent faces. Non-manifold edges (with more than two adjacent faces) are
+ * supported.
+ *
+ * The structure is computed in linear time with the number of faces.
+ *
+ * @author dlegland
+ *
+ */
+public class TriMeshEdges
+{
+    // ===================================================================
+    // Static factories
+
+    /**
+     * Computes the edge topology of a triangular mesh.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @return the edge topology of the mesh
+     */
+    public static final TriMeshEdges compute(Mesh3D mesh)
+    {
+        return new TriMeshEdges(Meshes3D.faceVertexIndices(mesh));
+    }
+
+
+    // ===================================================================
+    // Constants
+
+    /**
+     * The maximum size of the allocated arrays, as some virtual machines
+     * reserve header words within arrays.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The indices of the source and target vertices of each edge, with
+     * source index lower than target index.
+     */
+    int[] edgeVertices;
+
+    /**
+     * The number of edges.
+     */
+    int edgeCount;
+
+    /**
+     * For each face, the index of the edges joining vertices (v1,v2), (v2,v3)
+     * and (v3,v1).
+     */
+    int[] faceEdges;
+
+    /**
+     * For each edge, the offset of its adjacent faces within the
+     * edgeFaceIndices array. Contains edgeCount + 1 elements.
+     */
+    int[] edgeFaceOffsets;
+
+    /**
+     * The indices of the faces adjacent to each edge, grouped by edge.
+     */
+    int[] edgeFaceIndices;
+
+    /**
+     * The keys of the edge hash table, obtained by packing source and target
+     * vertex indices. Empty slots contain -1.
+     */
+    long[] hashKeys;
+
+    /**
+     * The edge indices associated to each key of the hash table.
+     */
+    int[] hashValues;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Computes the edge topology from the packed array of face vertex
+     * indices.
+     *
+     * @param faces
+     *            the indices of the vertices of each face, stored as (iv11,
+     *            iv12, iv13, iv21, iv22, iv23, ...)
+     */
+    public TriMeshEdges(int[] faces)
+    {
+        int nf = faces.length / 3;
+
+        // allocate a hash table with a load factor lower than 0.5, assuming
+        // the number of edges is lower than 3 times the number of faces
+        long capacity = Long.highestOneBit(Math.max(6L * nf, 8) - 1) << 1;
+        this.hashKeys = new long[arraySize(capacity, nf)];
+        Arrays.fill(this.hashKeys, -1L);
+        this.hashValues = new int[this.hashKeys.length];
+
+        // identify edges of each face
+        this.edgeVertices = new int[arraySize(Math.max(2L * (3L * nf / 2 + 3), 8), nf)];
+        this.faceEdges = new int[3 * nf];
+        int[] edgeFaceCounts = new int[this.edgeVertices.length / 2];
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            for (int k = 0; k < 3; k++)
+            {
+                int iv1 = faces[3 * iFace + k];
+                int iv2 = faces[3 * iFace + (k + 1) % 3];
+                int edge = findOrAddEdge(Math.min(iv1, iv2), Math.max(iv1, iv2));
+                if (edge >= edgeFaceCounts.length)
+                {
+                    edgeFaceCounts = Arrays.copyOf(edgeFaceCounts, this.edgeVertices.length / 2);
+                }
+                this.faceEdges[3 * iFace + k] = edge;
+                edgeFaceCounts[edge]++;
+            }
+        }
+        this.edgeVertices = Arrays.copyOf(this.edgeVertices, 2 * this.edgeCount);
+
+        // compute offsets of edge faces
+        this.edgeFaceOffsets = new int[this.edgeCount + 1];
+        for (int edge = 0; edge < this.edgeCount; edge++)
+        {
+            this.edgeFaceOffsets[edge + 1] = this.edgeFaceOffsets[edge] + edgeFaceCounts[edge];
+        }
+
+        // populate the indices of faces adjacent to each edge
+        this.edgeFaceIndices = new int[3 * nf];
+        int[] pos = Arrays.copyOf(this.edgeFaceOffsets, this.edgeCount);
+        for (int i = 0; i < 3 * nf; i++)
+        {
+            this.edgeFaceIndices[pos[this.faceEdges[i]]++] = i / 3;
+        }
+    }
+
+    /**
+     * Returns the index of the edge with the specified vertex indices, adding
+     * it to the edge arrays if necessary.
+     */
+    private int findOrAddEdge(int iv1, int iv2)
+    {
+        long key = packKey(iv1, iv2);
+        int mask = this.hashKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.hashKeys[slot] != -1L)
+        {
+            if (this.hashKeys[slot] == key)
+            {
+                return this.hashValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // add new edge
+        int edge = this.edgeCount++;
+        if (2 * edge + 1 >= this.edgeVertices.length)
+        {
+            if (this.edgeVertices.length == MAX_ARRAY_SIZE)
+            {
+                throw new IllegalArgumentException("Too many edges to compute the edge topology: " + this.edgeCount);
+            }
+            long newLength = Math.min(2L * this.edgeVertices.length, MAX_ARRAY_SIZE);
+            this.edgeVertices = Arrays.copyOf(this.edgeVertices, (int) newLength);
+        }
+        this.edgeVertices[2 * edge] = iv1;
+        this.edgeVertices[2 * edge + 1] = iv2;
+        this.hashKeys[slot] = key;
+        this.hashValues[slot] = edge;
+        return edge;
+    }
+
+    /**
+     * Checks that an array of the specified size can be allocated, and
+     * returns the size as an int.
+     */
+    private static final int arraySize(long size, int faceCount)
+    {
+        if (size > MAX_ARRAY_SIZE)
+        {
+            throw new IllegalArgumentException("Too many faces to compute the edge topology: " + faceCount);
+        }
+        return (int) size;
+    }
+
+    private static final long packKey(int iv1, int iv2)
+    {
+        return (((long) iv1) << 32) | (iv2 & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Mixes the bits of the key (finalization step of MurmurHash3).
+     */
+    private static final int hash(long key)
+    {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+
+    // ===================================================================
+    // Edge queries
+
+    /**
+     * @return the number of edges.
+     */
+    public int edgeCount()
+    {
+        return this.edgeCount;
+    }
+
+    /**
+     * Returns the index of the edge joining the two vertices.
+     *
+     * @param iv1
+     *            the index of the first vertex
+     * @param iv2
+     *            the index of the second vertex
+     * @return the index of the edge joining the two vertices, or -1 if the
+     *         vertices are not adjacent.
+     */
+    public int edgeIndex(int iv1, int iv2)
+    {
+        long key = packKey(Math.min(iv1, iv2), Math.max(iv1, iv2));
+        int mask = this.hashKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.hashKeys[slot] != -1L)
+        {
+            if (this.hashKeys[slot] == key)
+            {
+                return this.hashValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @param edgeIndex
+     *            the index of the edge
+     * @return the index of the first vertex of the edge (the lower index)
+     */
+    public int edgeSource(int edgeIndex)
+    {
+        return this.edgeVertices[2 * edgeIndex];
+    }
+
+    /**
+     * @param edgeIndex
+     *            the index of the edge
+     * @return the index of the second vertex of the edge (the greater index)
+     */
+    public int edgeTarget(int edgeIndex)
+    {
+        return this.edgeVertices[2 * edgeIndex + 1];
+    }
+
+    /**
+     * @param edgeIndex
+     *            the index of the edge
+     * @return the number of faces adjacent to the edge
+     */
+    public int edgeFaceCount(int edgeIndex)
+    {
+        return this.edgeFaceOffsets[edgeIndex + 1] - this.edgeFaceOffsets[edgeIndex];
+    }
+
+    /**
+     * @param edgeIndex
+     *            the index of the edge
+     * @param i
+     *            the index of the adjacent face, between 0 and
+     *            edgeFaceCount(edgeIndex)-1
+     * @return the index of the i-th face adjacent to the edge
+     */
+    public int edgeFace(int edgeIndex, int i)
+    {
+        return this.edgeFaceIndices[this.edgeFaceOffsets[edgeIndex] + i];
+    }
+
+    /**
+     * @param edgeIndex
+     *            the index of the edge
+     * @return true if the edge is adjacent to exactly one face
+     */
+    public boolean isBoundary(int edgeIndex)
+    {
+        return edgeFaceCount(edgeIndex) == 1;
+    }
+
+    /**
+     * @param edgeIndex
+     *            the index of the edge
+     * @return true if the edge is adjacent to more than two faces
+     */
+    public boolean isNonManifold(int edgeIndex)
+    {
+        return edgeFaceCount(edgeIndex) > 2;
+    }
+
+
+    // ===================================================================
+    // Face queries
+
+    /**
+     * Returns the index of one of the edges of a face. The edge with index k
+     * joins the k-th and the (k+1)-th vertices of the face.
+     *
+     * @param faceIndex
+     *            the index of the face
+     * @param k
+     *            the index of the edge within the face, between 0 and 2
+     * @return the index of the edge
+     */
+    public int faceEdge(int faceIndex, int k)
+    {
+        return this.faceEdges[3 * faceIndex + k];
+    }
+}
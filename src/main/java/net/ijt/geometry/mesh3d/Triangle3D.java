@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.Collection;
 
 import net.ijt.geometry.geom3d.Bounds3D;
+import net.ijt.geometry.geom3d.LineSegment3D;
 import net.ijt.geometry.geom3d.Plane3D;
 import net.ijt.geometry.geom3d.Point3D;
 import net.ijt.geometry.geom3d.Polygon3D;
@@ -72,6 +73,412 @@ public class Triangle3D implements Polygon3D
 
         return new double[] {s / det, t / det};
     }
+
+    /**
+     * Checks if this triangle intersects the other triangle. Triangles that
+     * only touch at a vertex or along an edge are considered as intersecting,
+     * as well as overlapping coplanar triangles.
+     * 
+     * @param that
+     *            the other triangle
+     * @return true if the two triangles intersect
+     */
+    public boolean intersects(Triangle3D that)
+    {
+        return intersection(this.coordinates(), that.coordinates(), new double[6], new int[2]) != DISJOINT;
+    }
+    
+    /**
+     * Computes the intersection of this triangle with another triangle. If
+     * the triangles are not coplanar, the intersection is either empty or a
+     * line segment (possibly with zero length).
+     * 
+     * @param that
+     *            the other triangle
+     * @return the line segment corresponding to the intersection, or null if
+     *         the triangles do not intersect or are coplanar
+     */
+    public LineSegment3D intersection(Triangle3D that)
+    {
+        double[] seg = new double[6];
+        if (intersection(this.coordinates(), that.coordinates(), seg, new int[2]) != SEGMENT)
+        {
+            return null;
+        }
+        return new LineSegment3D(new Point3D(seg[0], seg[1], seg[2]), new Point3D(seg[3], seg[4], seg[5]));
+    }
+    
+    /**
+     * Computes the intersection of this triangle with a ray, using the
+     * algorithm of Möller and Trumbore (1997).
+     * 
+     * @param origin
+     *            the origin of the ray
+     * @param direction
+     *            the direction of the ray
+     * @return the position of the intersection along the ray, in units of
+     *         the direction vector, or Double.POSITIVE_INFINITY if the ray
+     *         does not intersect the triangle
+     */
+    public double rayIntersection(Point3D origin, Vector3D direction)
+    {
+        return rayIntersection(this.coordinates(), 0, 3, 6, 
+                origin.x(), origin.y(), origin.z(), 
+                direction.x(), direction.y(), direction.z());
+    }
+    
+    private double[] coordinates()
+    {
+        return new double[] {
+                p1.x(), p1.y(), p1.z(), 
+                p2.x(), p2.y(), p2.z(), 
+                p3.x(), p3.y(), p3.z()};
+    }
+    
+    
+    // ===================================================================
+    // Static computation of triangle-triangle intersection
+
+    /**
+     * Result code of triangle intersection indicating disjoint triangles.
+     */
+    public static final int DISJOINT = 0;
+    
+    /**
+     * Result code of triangle intersection indicating non-coplanar triangles
+     * intersecting along a line segment.
+     */
+    public static final int SEGMENT = 1;
+    
+    /**
+     * Result code of triangle intersection indicating overlapping coplanar
+     * triangles.
+     */
+    public static final int COPLANAR = 2;
+    
+    /**
+     * Relative tolerance used to decide whether a vertex lies within the
+     * plane of the other triangle.
+     */
+    private static final double PLANE_TOLERANCE = 1e-12;
+    
+    /**
+     * Computes the intersection of two triangles given by the coordinates of
+     * their vertices, using the interval overlap method of Möller (1997).
+     * 
+     * The method does not allocate memory, making it suitable for processing
+     * large number of triangle pairs. When the triangles intersect along a
+     * segment, the coordinates of its extremities are stored within the
+     * <code>segment</code> array, and the origin of each extremity is
+     * described by a code within the <code>codes</code> array:
+     * <ul>
+     * <li>0 to 2: the k-th vertex of the first triangle</li>
+     * <li>3 to 5: the intersection of the k-th edge of the first triangle
+     * (joining vertices k and k+1) with the second triangle</li>
+     * <li>6 to 8: the k-th vertex of the second triangle</li>
+     * <li>9 to 11: the intersection of the k-th edge of the second triangle
+     * with the first triangle</li>
+     * </ul>
+     * 
+     * @param tri1
+     *            the coordinates of the first triangle, as (x1, y1, z1, x2,
+     *            y2, z2, x3, y3, z3)
+     * @param tri2
+     *            the coordinates of the second triangle
+     * @param segment
+     *            an array with at least six elements used to store the
+     *            extremities of the intersection segment
+     * @param codes
+     *            an array with at least two elements used to store the origin
+     *            of each extremity
+     * @return one of DISJOINT, SEGMENT, or COPLANAR
+     */
+    public static final int intersection(double[] tri1, double[] tri2, double[] segment, int[] codes)
+    {
+        // length scale of the triangles, used for tolerance
+        double scale = Math.sqrt(Math.max(maxSquaredEdgeLength(tri1), maxSquaredEdgeLength(tri2)));
+        
+        // signed distances of the vertices of first triangle to the plane of
+        // second triangle (multiplied by the norm of the normal)
+        double n2x = normalX(tri2), n2y = normalY(tri2), n2z = normalZ(tri2);
+        double tol2 = PLANE_TOLERANCE * scale * Math.sqrt(n2x * n2x + n2y * n2y + n2z * n2z);
+        double d10 = planeDistance(tri1, 0, tri2, n2x, n2y, n2z, tol2);
+        double d11 = planeDistance(tri1, 3, tri2, n2x, n2y, n2z, tol2);
+        double d12 = planeDistance(tri1, 6, tri2, n2x, n2y, n2z, tol2);
+        if (sameSide(d10, d11, d12))
+        {
+            return DISJOINT;
+        }
+        
+        // signed distances of the vertices of second triangle to the plane of
+        // first triangle
+        double n1x = normalX(tri1), n1y = normalY(tri1), n1z = normalZ(tri1);
+        double tol1 = PLANE_TOLERANCE * scale * Math.sqrt(n1x * n1x + n1y * n1y + n1z * n1z);
+        double d20 = planeDistance(tri2, 0, tri1, n1x, n1y, n1z, tol1);
+        double d21 = planeDistance(tri2, 3, tri1, n1x, n1y, n1z, tol1);
+        double d22 = planeDistance(tri2, 6, tri1, n1x, n1y, n1z, tol1);
+        if (sameSide(d20, d21, d22))
+        {
+            return DISJOINT;
+        }
+        
+        // check degenerate triangles
+        if (tol1 == 0 || tol2 == 0)
+        {
+            return DISJOINT;
+        }
+        
+        // case of coplanar triangles
+        if (d10 == 0 && d11 == 0 && d12 == 0)
+        {
+            return coplanarIntersects(tri1, tri2, n1x, n1y, n1z) ? COPLANAR : DISJOINT;
+        }
+        
+        // compute the segments of each triangle crossing the plane of the
+        // other triangle, using the output arrays as buffers
+        int na = crossingSegment(tri1, d10, d11, d12, segment, codes, 0);
+        if (na == 0) return DISJOINT;
+        double a0x = segment[0], a0y = segment[1], a0z = segment[2];
+        double a1x = segment[3], a1y = segment[4], a1z = segment[5];
+        int codeA0 = codes[0], codeA1 = codes[1];
+        int nb = crossingSegment(tri2, d20, d21, d22, segment, codes, 6);
+        if (nb == 0) return DISJOINT;
+        double b0x = segment[0], b0y = segment[1], b0z = segment[2];
+        double b1x = segment[3], b1y = segment[4], b1z = segment[5];
+        int codeB0 = codes[0], codeB1 = codes[1];
+        
+        // direction of the intersection line of the two planes
+        double dx = n1y * n2z - n1z * n2y;
+        double dy = n1z * n2x - n1x * n2z;
+        double dz = n1x * n2y - n1y * n2x;
+        
+        // project the segments onto the intersection line, and order
+        // extremities by increasing projection
+        double ta0 = dx * a0x + dy * a0y + dz * a0z;
+        double ta1 = dx * a1x + dy * a1y + dz * a1z;
+        double tb0 = dx * b0x + dy * b0y + dz * b0z;
+        double tb1 = dx * b1x + dy * b1y + dz * b1z;
+        if (ta1 < ta0)
+        {
+            double tmp = ta0; ta0 = ta1; ta1 = tmp;
+            tmp = a0x; a0x = a1x; a1x = tmp;
+            tmp = a0y; a0y = a1y; a1y = tmp;
+            tmp = a0z; a0z = a1z; a1z = tmp;
+            int itmp = codeA0; codeA0 = codeA1; codeA1 = itmp;
+        }
+        if (tb1 < tb0)
+        {
+            double tmp = tb0; tb0 = tb1; tb1 = tmp;
+            tmp = b0x; b0x = b1x; b1x = tmp;
+            tmp = b0y; b0y = b1y; b1y = tmp;
+            tmp = b0z; b0z = b1z; b1z = tmp;
+            int itmp = codeB0; codeB0 = codeB1; codeB1 = itmp;
+        }
+        
+        // check overlap of the two intervals
+        if (ta1 < tb0 || tb1 < ta0)
+        {
+            return DISJOINT;
+        }
+        
+        // the intersection starts at the greatest of the lower bounds, and
+        // ends at the lowest of the upper bounds
+        if (ta0 >= tb0)
+        {
+            segment[0] = a0x; segment[1] = a0y; segment[2] = a0z;
+            codes[0] = codeA0;
+        }
+        else
+        {
+            segment[0] = b0x; segment[1] = b0y; segment[2] = b0z;
+            codes[0] = codeB0;
+        }
+        if (ta1 <= tb1)
+        {
+            segment[3] = a1x; segment[4] = a1y; segment[5] = a1z;
+            codes[1] = codeA1;
+        }
+        else
+        {
+            segment[3] = b1x; segment[4] = b1y; segment[5] = b1z;
+            codes[1] = codeB1;
+        }
+        return SEGMENT;
+    }
+    
+    private static final double maxSquaredEdgeLength(double[] tri)
+    {
+        double res = 0;
+        for (int k = 0; k < 3; k++)
+        {
+            int i = 3 * k;
+            int j = 3 * ((k + 1) % 3);
+            double dx = tri[j] - tri[i];
+            double dy = tri[j + 1] - tri[i + 1];
+            double dz = tri[j + 2] - tri[i + 2];
+            res = Math.max(res, dx * dx + dy * dy + dz * dz);
+        }
+        return res;
+    }
+    
+    private static final double normalX(double[] tri)
+    {
+        return (tri[4] - tri[1]) * (tri[8] - tri[2]) - (tri[5] - tri[2]) * (tri[7] - tri[1]);
+    }
+    
+    private static final double normalY(double[] tri)
+    {
+        return (tri[5] - tri[2]) * (tri[6] - tri[0]) - (tri[3] - tri[0]) * (tri[8] - tri[2]);
+    }
+    
+    private static final double normalZ(double[] tri)
+    {
+        return (tri[3] - tri[0]) * (tri[7] - tri[1]) - (tri[4] - tri[1]) * (tri[6] - tri[0]);
+    }
+    
+    /**
+     * Computes the distance of the vertex at the specified offset to the plane
+     * containing the reference triangle, snapped to zero if below the
+     * tolerance.
+     */
+    private static final double planeDistance(double[] tri, int offset, double[] ref, double nx, double ny, double nz, double tol)
+    {
+        double d = nx * (tri[offset] - ref[0]) + ny * (tri[offset + 1] - ref[1]) + nz * (tri[offset + 2] - ref[2]);
+        return Math.abs(d) <= tol ? 0.0 : d;
+    }
+    
+    private static final boolean sameSide(double d0, double d1, double d2)
+    {
+        return (d0 > 0 && d1 > 0 && d2 > 0) || (d0 < 0 && d1 < 0 && d2 < 0);
+    }
+    
+    /**
+     * Computes the extremities of the intersection of a triangle with a plane,
+     * given the signed distances of its vertices. Returns the number of
+     * distinct extremities (one or two), and stores the coordinates in the
+     * first six elements of the coords array. If only one extremity is found,
+     * it is duplicated.
+     */
+    private static final int crossingSegment(double[] tri, double d0, double d1, double d2, double[] coords, int[] codes, int codeOffset)
+    {
+        int n = 0;
+        for (int k = 0; k < 3 && n < 2; k++)
+        {
+            if (select(k, d0, d1, d2) == 0)
+            {
+                coords[3 * n] = tri[3 * k];
+                coords[3 * n + 1] = tri[3 * k + 1];
+                coords[3 * n + 2] = tri[3 * k + 2];
+                codes[n++] = codeOffset + k;
+            }
+        }
+        for (int k = 0; k < 3 && n < 2; k++)
+        {
+            int k2 = (k + 1) % 3;
+            double dk = select(k, d0, d1, d2);
+            double dk2 = select(k2, d0, d1, d2);
+            if ((dk < 0 && dk2 > 0) || (dk > 0 && dk2 < 0))
+            {
+                double t = dk / (dk - dk2);
+                for (int d = 0; d < 3; d++)
+                {
+                    coords[3 * n + d] = tri[3 * k + d] + t * (tri[3 * k2 + d] - tri[3 * k + d]);
+                }
+                codes[n++] = codeOffset + 3 + k;
+            }
+        }
+        if (n == 1)
+        {
+            coords[3] = coords[0];
+            coords[4] = coords[1];
+            coords[5] = coords[2];
+            codes[1] = codes[0];
+        }
+        return n;
+    }
+    
+    private static final double select(int k, double d0, double d1, double d2)
+    {
+        return k == 0 ? d0 : (k == 1 ? d1 : d2);
+    }
+    
+    /**
+     * Checks if two coplanar triangles overlap, by projecting them onto the
+     * coordinate plane that maximizes their area.
+     */
+    private static final boolean coplanarIntersects(double[] tri1, double[] tri2, double nx, double ny, double nz)
+    {
+        // choose the two coordinates to keep
+        double ax = Math.abs(nx), ay = Math.abs(ny), az = Math.abs(nz);
+        int i0, i1;
+        if (ax >= ay && ax >= az)
+        {
+            i0 = 1; i1 = 2;
+        }
+        else if (ay >= az)
+        {
+            i0 = 0; i1 = 2;
+        }
+        else
+        {
+            i0 = 0; i1 = 1;
+        }
+        
+        // test edge-edge intersections
+        for (int k = 0; k < 3; k++)
+        {
+            int k2 = (k + 1) % 3;
+            for (int l = 0; l < 3; l++)
+            {
+                int l2 = (l + 1) % 3;
+                if (segmentsIntersect2d(
+                        tri1[3 * k + i0], tri1[3 * k + i1], tri1[3 * k2 + i0], tri1[3 * k2 + i1], 
+                        tri2[3 * l + i0], tri2[3 * l + i1], tri2[3 * l2 + i0], tri2[3 * l2 + i1]))
+                {
+                    return true;
+                }
+            }
+        }
+        
+        // test inclusion of one triangle within the other
+        return pointInTriangle2d(tri1[i0], tri1[i1], tri2, i0, i1) || pointInTriangle2d(tri2[i0], tri2[i1], tri1, i0, i1);
+    }
+    
+    private static final boolean segmentsIntersect2d(double x1, double y1, double x2, double y2, double x3, double y3, double x4, double y4)
+    {
+        double o1 = orient2d(x1, y1, x2, y2, x3, y3);
+        double o2 = orient2d(x1, y1, x2, y2, x4, y4);
+        double o3 = orient2d(x3, y3, x4, y4, x1, y1);
+        double o4 = orient2d(x3, y3, x4, y4, x2, y2);
+        if (((o1 > 0 && o2 < 0) || (o1 < 0 && o2 > 0)) && ((o3 > 0 && o4 < 0) || (o3 < 0 && o4 > 0)))
+        {
+            return true;
+        }
+        
+        // collinear or touching configurations
+        return (o1 == 0 && onSegment2d(x1, y1, x2, y2, x3, y3))
+                || (o2 == 0 && onSegment2d(x1, y1, x2, y2, x4, y4))
+                || (o3 == 0 && onSegment2d(x3, y3, x4, y4, x1, y1))
+                || (o4 == 0 && onSegment2d(x3, y3, x4, y4, x2, y2));
+    }
+    
+    private static final boolean onSegment2d(double x1, double y1, double x2, double y2, double x, double y)
+    {
+        return Math.min(x1, x2) <= x && x <= Math.max(x1, x2) && Math.min(y1, y2) <= y && y <= Math.max(y1, y2);
+    }
+    
+    private static final boolean pointInTriangle2d(double x, double y, double[] tri, int i0, int i1)
+    {
+        double o1 = orient2d(tri[i0], tri[i1], tri[3 + i0], tri[3 + i1], x, y);
+        double o2 = orient2d(tri[3 + i0], tri[3 + i1], tri[6 + i0], tri[6 + i1], x, y);
+        double o3 = orient2d(tri[6 + i0], tri[6 + i1], tri[i0], tri[i1], x, y);
+        return (o1 >= 0 && o2 >= 0 && o3 >= 0) || (o1 <= 0 && o2 <= 0 && o3 <= 0);
+    }
+    
+    private static final double orient2d(double x1, double y1, double x2, double y2, double x, double y)
+    {
+        return (x2 - x1) * (y - y1) - (y2 - y1) * (x - x1);
+    }
     
     
     // ===================================================================
@@ -113,20 +520,68 @@ public class Triangle3D implements Polygon3D
     @Override
     public double distance(double x, double y, double z)
     {
-        // triangle origin and direction vectors
-        double x1 = p1.x();
-        double y1 = p1.y();
-        double z1 = p1.z();
-        Vector3D v12 = new Vector3D(p1, p2);
-        Vector3D v13 = new Vector3D(p1, p3);
+        double[] c1 = new double[] {p1.x(), p1.y(), p1.z()};
+        double[] c2 = new double[] {p2.x(), p2.y(), p2.z()};
+        double[] c3 = new double[] {p3.x(), p3.y(), p3.z()};
+        return Math.sqrt(distanceSquared(c1, c2, c3, x, y, z));
+    }
+
+    @Override
+    public Bounds3D bounds()
+    {
+        double xmin = Math.min(Math.min(p1.x(), p2.x()), p3.x());
+        double xmax = Math.max(Math.max(p1.x(), p2.x()), p3.x());
+        double ymin = Math.min(Math.min(p1.y(), p2.y()), p3.y());
+        double ymax = Math.max(Math.max(p1.y(), p2.y()), p3.y());
+        double zmin = Math.min(Math.min(p1.z(), p2.z()), p3.z());
+        double zmax = Math.max(Math.max(p1.z(), p2.z()), p3.z());
+
+        return new Bounds3D(xmin, xmax, ymin, ymax, zmin, zmax);
+    }
+
+    @Override
+    public boolean isBounded()
+    {
+        return true;
+    }
+    
+    
+    // ===================================================================
+    // Static computation of point-triangle distance
+
+    /**
+     * Computes the squared distance between a point and a triangle given by
+     * the coordinates of its vertices, without creating intermediate
+     * objects. This method is intended for computations over the faces of
+     * large meshes.
+     * 
+     * @param p1
+     *            the (x, y, z) coordinates of the first vertex
+     * @param p2
+     *            the (x, y, z) coordinates of the second vertex
+     * @param p3
+     *            the (x, y, z) coordinates of the third vertex
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @param z
+     *            the z-coordinate of the query point
+     * @return the squared distance between the point and the triangle
+     */
+    public static final double distanceSquared(double[] p1, double[] p2, double[] p3, double x, double y, double z)
+    {
+        // triangle direction vectors
+        double v12x = p2[0] - p1[0], v12y = p2[1] - p1[1], v12z = p2[2] - p1[2];
+        double v13x = p3[0] - p1[0], v13y = p3[1] - p1[1], v13z = p3[2] - p1[2];
 
         // identify coefficients of second order equation
-        double a = dotProduct(v12, v12);
-        double b = dotProduct(v12, v13);
-        double c = dotProduct(v13, v13);
-        Vector3D diffP = new Vector3D(x1 - x, y1 - y, z1 - z);
-        double d = dotProduct(v12, diffP);
-        double e = dotProduct(v13, diffP);
+        double a = v12x * v12x + v12y * v12y + v12z * v12z;
+        double b = v12x * v13x + v12y * v13y + v12z * v13z;
+        double c = v13x * v13x + v13y * v13y + v13z * v13z;
+        double dx = p1[0] - x, dy = p1[1] - y, dz = p1[2] - z;
+        double d = v12x * dx + v12y * dy + v12z * dz;
+        double e = v13x * dx + v13y * dy + v13z * dz;
         // f = dot(diffP, diffP, 2);
 
         // compute position of projected point in the plane of the triangle
@@ -299,32 +754,95 @@ public class Triangle3D implements Polygon3D
             }
         }
 
-        // compute coordinates of closest point on plane
-        Point3D proj = p1.plus(v12.times(s)).plus(v13.times(t));
-
-        // distance between point and closest point on plane
-        double dist = proj.distance(x, y, z);
-        
-        return dist;
+        // vector from query point to closest point on triangle
+        double px = dx + s * v12x + t * v13x;
+        double py = dy + s * v12y + t * v13y;
+        double pz = dz + s * v12z + t * v13z;
+        return px * px + py * py + pz * pz;
     }
 
-    @Override
-    public Bounds3D bounds()
-    {
-        double xmin = Math.min(Math.min(p1.x(), p2.x()), p3.x());
-        double xmax = Math.max(Math.max(p1.x(), p2.x()), p3.x());
-        double ymin = Math.min(Math.min(p1.y(), p2.y()), p3.y());
-        double ymax = Math.max(Math.max(p1.y(), p2.y()), p3.y());
-        double zmin = Math.min(Math.min(p1.z(), p2.z()), p3.z());
-        double zmax = Math.max(Math.max(p1.z(), p2.z()), p3.z());
 
-        return new Bounds3D(xmin, xmax, ymin, ymax, zmin, zmax);
-    }
+    // ===================================================================
+    // Static computation of ray-triangle intersection
 
-    @Override
-    public boolean isBounded()
+    /**
+     * Computes the intersection of a ray with a triangle whose vertex
+     * coordinates are stored within an array, using the algorithm of Möller
+     * and Trumbore (1997). The method does not allocate memory.
+     * 
+     * Rays that are parallel to the plane of the triangle are considered as
+     * not intersecting. Intersections located behind the ray origin (with
+     * negative position) are discarded.
+     * 
+     * @param coords
+     *            the array containing the vertex coordinates
+     * @param i1
+     *            the offset of the coordinates of the first vertex within the
+     *            array
+     * @param i2
+     *            the offset of the coordinates of the second vertex
+     * @param i3
+     *            the offset of the coordinates of the third vertex
+     * @param ox
+     *            the x-coordinate of the ray origin
+     * @param oy
+     *            the y-coordinate of the ray origin
+     * @param oz
+     *            the z-coordinate of the ray origin
+     * @param dx
+     *            the x-coordinate of the ray direction
+     * @param dy
+     *            the y-coordinate of the ray direction
+     * @param dz
+     *            the z-coordinate of the ray direction
+     * @return the position of the intersection along the ray, in units of
+     *         the direction vector, or Double.POSITIVE_INFINITY if there is
+     *         no intersection
+     */
+    public static final double rayIntersection(double[] coords, int i1, int i2, int i3, 
+            double ox, double oy, double oz, double dx, double dy, double dz)
     {
-        return true;
+        // triangle edges
+        double e1x = coords[i2] - coords[i1];
+        double e1y = coords[i2 + 1] - coords[i1 + 1];
+        double e1z = coords[i2 + 2] - coords[i1 + 2];
+        double e2x = coords[i3] - coords[i1];
+        double e2y = coords[i3 + 1] - coords[i1 + 1];
+        double e2z = coords[i3 + 2] - coords[i1 + 2];
+        
+        // p = d x e2
+        double px = dy * e2z - dz * e2y;
+        double py = dz * e2x - dx * e2z;
+        double pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (det == 0)
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+        double invDet = 1.0 / det;
+        
+        // first barycentric coordinate
+        double sx = ox - coords[i1];
+        double sy = oy - coords[i1 + 1];
+        double sz = oz - coords[i1 + 2];
+        double u = (sx * px + sy * py + sz * pz) * invDet;
+        if (u < 0 || u > 1)
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+        
+        // second barycentric coordinate, q = s x e1
+        double qx = sy * e1z - sz * e1y;
+        double qy = sz * e1x - sx * e1z;
+        double qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (v < 0 || u + v > 1)
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+        
+        // position along the ray
+        double t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+        return t >= 0 ? t : Double.POSITIVE_INFINITY;
     }
-    
 }
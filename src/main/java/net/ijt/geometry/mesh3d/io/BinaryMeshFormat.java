@@ -0,0 +1,72 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.io;
+
+/**
+ * Constants describing the binary mesh format shared by BinaryMeshWriter and
+ * BinaryMeshReader.
+ *
+ * A file is composed of a 32-bytes header, followed by the block of vertex
+ * coordinates and the block of face vertex indices. All values are stored in
+ * little-endian order. The header contains:
+ * <ul>
+ * <li>bytes 0-3: the magic string "IJTM"</li>
+ * <li>bytes 4-5: the format version, as an unsigned short</li>
+ * <li>bytes 6-7: the flags, as an unsigned short</li>
+ * <li>bytes 8-11: the number of vertices, as an int</li>
+ * <li>bytes 12-15: the number of faces, as an int</li>
+ * <li>bytes 16-23: the length in bytes of the coordinate block, as a
+ * long</li>
+ * <li>bytes 24-31: the length in bytes of the index block, as a long</li>
+ * </ul>
+ *
+ * Without flags, the coordinate block contains 3 doubles per vertex, and the
+ * index block contains 3 ints per face. With the FLOAT_COORDINATES flag,
+ * coordinates are stored as floats. With the DELTA_INDICES flag, the
+ * difference of each index with the previous one is stored as a zig-zag
+ * variable-length integer. With the DEFLATE flag, each block is compressed
+ * independently using the Deflate algorithm.
+ *
+ * @author dlegland
+ *
+ */
+final class BinaryMeshFormat
+{
+    /**
+     * The magic bytes at the beginning of each file.
+     */
+    static final byte[] MAGIC = new byte[] {'I', 'J', 'T', 'M'};
+
+    /**
+     * The current version of the format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the header, in bytes.
+     */
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * Flag indicating that vertex coordinates are stored as floats.
+     */
+    static final int FLOAT_COORDINATES = 0x01;
+
+    /**
+     * Flag indicating that face vertex indices are delta and varint encoded.
+     */
+    static final int DELTA_INDICES = 0x02;
+
+    /**
+     * Flag indicating that each block is compressed with Deflate.
+     */
+    static final int DEFLATE = 0x04;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BinaryMeshFormat()
+    {
+    }
+}
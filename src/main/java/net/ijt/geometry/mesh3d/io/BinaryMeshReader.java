@@ -0,0 +1,355 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.mesh3d.BufferTriMesh3D;
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+
+/**
+ * Reads a triangular mesh from a binary file written by a BinaryMeshWriter.
+ *
+ * The <code>readMesh()</code> method decodes the file into a new
+ * SimpleTriMesh3D, whatever the options used for writing. Files that are
+ * neither compressed nor delta-encoded can also be memory-mapped using the
+ * <code>mapMesh()</code> method, that wraps the content of the file into a
+ * mesh without copying. As the mapped data are paged in on demand by the
+ * operating system, this makes it possible to process meshes larger than the
+ * heap.
+ *
+ * <pre>
+ * <code>
+ * BinaryMeshReader reader = new BinaryMeshReader(new File("mesh.ijtm"));
+ * BufferTriMesh3D mesh = reader.mapMesh();
+ * </code>
+ * </pre>
+ *
+ * @see BinaryMeshWriter
+ *
+ * @author dlegland
+ *
+ */
+public class BinaryMeshReader implements MeshReader
+{
+    // ===================================================================
+    // Class variables
+
+    File file;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new reader for the specified file.
+     *
+     * @param file
+     *            the file to read
+     */
+    public BinaryMeshReader(File file)
+    {
+        this.file = file;
+    }
+
+
+    // ===================================================================
+    // Reading methods
+
+    @Override
+    public Mesh3D readMesh() throws IOException
+    {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"))
+        {
+            FileChannel channel = raf.getChannel();
+            Header header = readHeader(channel);
+            boolean compressed = (header.flags & BinaryMeshFormat.DEFLATE) != 0;
+
+            SimpleTriMesh3D mesh = new SimpleTriMesh3D(header.vertexCount, header.faceCount);
+
+            // read vertex coordinates
+            channel.position(BinaryMeshFormat.HEADER_SIZE);
+            BlockInput block = new BlockInput(Channels.newInputStream(channel), compressed);
+            boolean floatCoords = (header.flags & BinaryMeshFormat.FLOAT_COORDINATES) != 0;
+            for (int iv = 0; iv < header.vertexCount; iv++)
+            {
+                double x, y, z;
+                if (floatCoords)
+                {
+                    x = block.readFloat();
+                    y = block.readFloat();
+                    z = block.readFloat();
+                }
+                else
+                {
+                    x = block.readDouble();
+                    y = block.readDouble();
+                    z = block.readDouble();
+                }
+                mesh.addVertex(new Point3D(x, y, z));
+            }
+            block.close();
+
+            // read face vertex indices
+            channel.position(BinaryMeshFormat.HEADER_SIZE + header.coordBlockLength);
+            block = new BlockInput(Channels.newInputStream(channel), compressed);
+            boolean deltaIndices = (header.flags & BinaryMeshFormat.DELTA_INDICES) != 0;
+            int[] inds = new int[3];
+            int previous = 0;
+            for (int iFace = 0; iFace < header.faceCount; iFace++)
+            {
+                for (int k = 0; k < 3; k++)
+                {
+                    int index = deltaIndices ? previous + block.readVarInt() : block.readInt();
+                    if (index < 0 || index >= header.vertexCount)
+                    {
+                        throw new RuntimeException("Invalid vertex index in face " + iFace + ": " + index);
+                    }
+                    inds[k] = index;
+                    previous = index;
+                }
+                mesh.addFace(inds[0], inds[1], inds[2]);
+            }
+            block.close();
+
+            return mesh;
+        }
+    }
+
+    /**
+     * Maps the content of the file into memory, and returns a read-only mesh
+     * that wraps the mapped buffers without copying. Files larger than 2GB
+     * are mapped by chunks. The file must have been written without
+     * compression and without delta encoding of indices.
+     *
+     * @return a read-only mesh backed by the content of the file
+     * @throws IOException
+     *             if a problem occurred during file mapping
+     */
+    public BufferTriMesh3D mapMesh() throws IOException
+    {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"))
+        {
+            FileChannel channel = raf.getChannel();
+            Header header = readHeader(channel);
+            if ((header.flags & (BinaryMeshFormat.DEFLATE | BinaryMeshFormat.DELTA_INDICES)) != 0)
+            {
+                throw new RuntimeException("Can only map files without compression nor delta encoding of indices");
+            }
+
+            boolean floatCoords = (header.flags & BinaryMeshFormat.FLOAT_COORDINATES) != 0;
+            long coordLength = 3L * header.vertexCount * (floatCoords ? 4 : 8);
+            long indexLength = 3L * header.faceCount * 4;
+            if (header.coordBlockLength != coordLength || header.indexBlockLength != indexLength)
+            {
+                throw new RuntimeException("Block lengths do not match the number of vertices and faces");
+            }
+
+            // map each chunk independently, as a single mapping can not
+            // exceed 2GB. Mappings remain valid after the channel is closed.
+            int elemSize = floatCoords ? 4 : 8;
+            long nCoords = 3L * header.vertexCount;
+            int nCoordChunks = BufferTriMesh3D.chunkCount(nCoords);
+            DoubleBuffer[] doubleChunks = floatCoords ? null : new DoubleBuffer[nCoordChunks];
+            FloatBuffer[] floatChunks = floatCoords ? new FloatBuffer[nCoordChunks] : null;
+            for (int c = 0; c < nCoordChunks; c++)
+            {
+                long first = (long) c * BufferTriMesh3D.CHUNK_SIZE;
+                long size = Math.min(BufferTriMesh3D.CHUNK_SIZE, nCoords - first);
+                ByteBuffer chunk = mapChunk(channel, BinaryMeshFormat.HEADER_SIZE + first * elemSize, size * elemSize);
+                if (floatCoords)
+                {
+                    floatChunks[c] = chunk.asFloatBuffer();
+                }
+                else
+                {
+                    doubleChunks[c] = chunk.asDoubleBuffer();
+                }
+            }
+
+            long indexStart = BinaryMeshFormat.HEADER_SIZE + coordLength;
+            long nIndices = 3L * header.faceCount;
+            IntBuffer[] faceChunks = new IntBuffer[BufferTriMesh3D.chunkCount(nIndices)];
+            for (int c = 0; c < faceChunks.length; c++)
+            {
+                long first = (long) c * BufferTriMesh3D.CHUNK_SIZE;
+                long size = Math.min(BufferTriMesh3D.CHUNK_SIZE, nIndices - first);
+                faceChunks[c] = mapChunk(channel, indexStart + first * 4, size * 4).asIntBuffer();
+            }
+
+            return new BufferTriMesh3D(doubleChunks, floatChunks, faceChunks, header.vertexCount, header.faceCount);
+        }
+    }
+
+    private static final ByteBuffer mapChunk(FileChannel channel, long position, long size) throws IOException
+    {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+
+    // ===================================================================
+    // Utility methods
+
+    private static final Header readHeader(FileChannel channel) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryMeshFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.position(0);
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer) < 0)
+            {
+                throw new RuntimeException("Not a valid binary mesh file");
+            }
+        }
+        buffer.flip();
+
+        for (int i = 0; i < BinaryMeshFormat.MAGIC.length; i++)
+        {
+            if (buffer.get() != BinaryMeshFormat.MAGIC[i])
+            {
+                throw new RuntimeException("Not a valid binary mesh file");
+            }
+        }
+        int version = buffer.getShort() & 0xFFFF;
+        if (version != BinaryMeshFormat.VERSION)
+        {
+            throw new RuntimeException("Unsupported binary mesh format version: " + version);
+        }
+
+        Header header = new Header();
+        header.flags = buffer.getShort() & 0xFFFF;
+        header.vertexCount = buffer.getInt();
+        header.faceCount = buffer.getInt();
+        header.coordBlockLength = buffer.getLong();
+        header.indexBlockLength = buffer.getLong();
+        if (header.vertexCount < 0 || header.faceCount < 0 || header.coordBlockLength < 0 || header.indexBlockLength < 0)
+        {
+            throw new RuntimeException("Not a valid binary mesh file");
+        }
+        return header;
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * The content of the file header.
+     */
+    private static class Header
+    {
+        int flags;
+        int vertexCount;
+        int faceCount;
+        long coordBlockLength;
+        long indexBlockLength;
+    }
+
+    /**
+     * Reads little-endian values from a block of the file, optionally
+     * compressed.
+     */
+    private static class BlockInput
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        Inflater inflater = null;
+        InputStream in;
+
+        BlockInput(InputStream fileStream, boolean compressed)
+        {
+            if (compressed)
+            {
+                this.inflater = new Inflater();
+                this.in = new InflaterInputStream(fileStream, inflater, 1 << 16);
+            }
+            else
+            {
+                this.in = fileStream;
+            }
+            buffer.limit(0);
+        }
+
+        double readDouble() throws IOException
+        {
+            ensureAvailable(8);
+            return buffer.getDouble();
+        }
+
+        float readFloat() throws IOException
+        {
+            ensureAvailable(4);
+            return buffer.getFloat();
+        }
+
+        int readInt() throws IOException
+        {
+            ensureAvailable(4);
+            return buffer.getInt();
+        }
+
+        /**
+         * Reads a signed integer encoded with zig-zag and LEB128 encodings.
+         */
+        int readVarInt() throws IOException
+        {
+            int v = 0;
+            for (int shift = 0; shift < 35; shift += 7)
+            {
+                ensureAvailable(1);
+                byte b = buffer.get();
+                v |= (b & 0x7F) << shift;
+                if (b >= 0)
+                {
+                    return (v >>> 1) ^ -(v & 1);
+                }
+            }
+            throw new RuntimeException("Invalid variable-length integer");
+        }
+
+        private void ensureAvailable(int n) throws IOException
+        {
+            if (buffer.remaining() >= n)
+            {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < n)
+            {
+                int count = in.read(buffer.array(), buffer.position(), buffer.remaining());
+                if (count < 0)
+                {
+                    throw new EOFException("Unexpected end of block");
+                }
+                buffer.position(buffer.position() + count);
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Releases the inflater, if any. The file stream is not closed.
+         */
+        void close()
+        {
+            if (inflater != null)
+            {
+                inflater.end();
+            }
+        }
+    }
+}
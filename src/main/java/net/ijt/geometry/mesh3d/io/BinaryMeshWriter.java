@@ -0,0 +1,325 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.io;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import net.ijt.geometry.mesh3d.Mesh3D;
+
+/**
+ * Writes a triangular mesh into a compact binary file, that can be read back
+ * with a BinaryMeshReader.
+ *
+ * By default, coordinates are stored as raw doubles and indices as raw ints,
+ * making it possible to memory-map the resulting file. Several options allow
+ * to reduce the file size:
+ * <ul>
+ * <li>float coordinates: coordinates are stored in single precision</li>
+ * <li>delta indices: indices are encoded as variable-length differences with
+ * the previous index, which is efficient for meshes with good locality</li>
+ * <li>compression: each block is compressed using the Deflate algorithm</li>
+ * </ul>
+ *
+ * <pre>
+ * <code>
+ * BinaryMeshWriter writer = new BinaryMeshWriter(new File("mesh.ijtm"));
+ * writer.setFloatCoordinates(true);
+ * writer.setCompressed(true);
+ * writer.writeMesh(mesh);
+ * </code>
+ * </pre>
+ *
+ * @see BinaryMeshReader
+ *
+ * @author dlegland
+ *
+ */
+public class BinaryMeshWriter implements MeshWriter
+{
+    // ===================================================================
+    // Class variables
+
+    File file;
+
+    /**
+     * Stores coordinates as floats instead of doubles.
+     */
+    boolean floatCoordinates = false;
+
+    /**
+     * Encodes face vertex indices as variable-length differences.
+     */
+    boolean deltaIndices = false;
+
+    /**
+     * Compresses each block using the Deflate algorithm.
+     */
+    boolean compressed = false;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new writer for the specified file.
+     *
+     * @param file
+     *            the file to write
+     */
+    public BinaryMeshWriter(File file)
+    {
+        this.file = file;
+    }
+
+
+    // ===================================================================
+    // Setters
+
+    /**
+     * @param floatCoordinates
+     *            if true, vertex coordinates are stored in single precision
+     */
+    public void setFloatCoordinates(boolean floatCoordinates)
+    {
+        this.floatCoordinates = floatCoordinates;
+    }
+
+    /**
+     * @param deltaIndices
+     *            if true, face vertex indices are stored as variable-length
+     *            differences with the previous index
+     */
+    public void setDeltaIndices(boolean deltaIndices)
+    {
+        this.deltaIndices = deltaIndices;
+    }
+
+    /**
+     * @param compressed
+     *            if true, coordinate and index blocks are compressed using the
+     *            Deflate algorithm
+     */
+    public void setCompressed(boolean compressed)
+    {
+        this.compressed = compressed;
+    }
+
+
+    // ===================================================================
+    // Implementation of the MeshWriter interface
+
+    @Override
+    public void writeMesh(Mesh3D mesh) throws IOException
+    {
+        int nv = mesh.vertexCount();
+        int nf = mesh.faceCount();
+
+        int flags = 0;
+        if (floatCoordinates) flags |= BinaryMeshFormat.FLOAT_COORDINATES;
+        if (deltaIndices) flags |= BinaryMeshFormat.DELTA_INDICES;
+        if (compressed) flags |= BinaryMeshFormat.DEFLATE;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+        {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            OutputStream fileStream = Channels.newOutputStream(channel);
+            channel.position(BinaryMeshFormat.HEADER_SIZE);
+
+            // write the coordinate block
+            // (use index-based access, to avoid copying off-heap meshes into
+            // the heap)
+            BlockOutput block = new BlockOutput(fileStream, compressed);
+            double[] coords = new double[3];
+            for (int iv = 0; iv < nv; iv++)
+            {
+                mesh.vertexCoordinates(iv, coords);
+                for (double v : coords)
+                {
+                    if (floatCoordinates)
+                    {
+                        block.writeFloat((float) v);
+                    }
+                    else
+                    {
+                        block.writeDouble(v);
+                    }
+                }
+            }
+            long coordBlockLength = block.finish();
+
+            // write the index block
+            block = new BlockOutput(fileStream, compressed);
+            int[] indices = new int[3];
+            int previous = 0;
+            for (int iFace = 0; iFace < nf; iFace++)
+            {
+                if (mesh.faceVertexIndices(iFace, indices) != 3)
+                {
+                    throw new IllegalArgumentException("Requires a mesh with triangular faces");
+                }
+                for (int index : indices)
+                {
+                    if (deltaIndices)
+                    {
+                        block.writeVarInt(index - previous);
+                        previous = index;
+                    }
+                    else
+                    {
+                        block.writeInt(index);
+                    }
+                }
+            }
+            long indexBlockLength = block.finish();
+
+            // write the header, now that the block lengths are known
+            ByteBuffer header = ByteBuffer.allocate(BinaryMeshFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(BinaryMeshFormat.MAGIC);
+            header.putShort((short) BinaryMeshFormat.VERSION);
+            header.putShort((short) flags);
+            header.putInt(nv);
+            header.putInt(nf);
+            header.putLong(coordBlockLength);
+            header.putLong(indexBlockLength);
+            header.flip();
+            channel.position(0);
+            while (header.hasRemaining())
+            {
+                channel.write(header);
+            }
+        }
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * Writes little-endian values into a block of the file, optionally
+     * compressed, and counts the number of bytes written to the file.
+     */
+    private static class BlockOutput
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        CountingOutputStream counter;
+        Deflater deflater = null;
+        OutputStream out;
+
+        BlockOutput(OutputStream fileStream, boolean compressed)
+        {
+            this.counter = new CountingOutputStream(fileStream);
+            if (compressed)
+            {
+                this.deflater = new Deflater();
+                this.out = new DeflaterOutputStream(counter, deflater, 1 << 16);
+            }
+            else
+            {
+                this.out = counter;
+            }
+        }
+
+        void writeDouble(double value) throws IOException
+        {
+            ensureRemaining(8);
+            buffer.putDouble(value);
+        }
+
+        void writeFloat(float value) throws IOException
+        {
+            ensureRemaining(4);
+            buffer.putFloat(value);
+        }
+
+        void writeInt(int value) throws IOException
+        {
+            ensureRemaining(4);
+            buffer.putInt(value);
+        }
+
+        /**
+         * Writes a signed integer using zig-zag encoding followed by LEB128
+         * encoding, resulting in 1 to 5 bytes.
+         */
+        void writeVarInt(int value) throws IOException
+        {
+            ensureRemaining(5);
+            int v = (value << 1) ^ (value >> 31);
+            while ((v & ~0x7F) != 0)
+            {
+                buffer.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buffer.put((byte) v);
+        }
+
+        private void ensureRemaining(int n) throws IOException
+        {
+            if (buffer.remaining() < n)
+            {
+                flushBuffer();
+            }
+        }
+
+        private void flushBuffer() throws IOException
+        {
+            out.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+
+        /**
+         * Flushes the remaining data, and returns the number of bytes written
+         * to the file.
+         */
+        long finish() throws IOException
+        {
+            flushBuffer();
+            if (deflater != null)
+            {
+                ((DeflaterOutputStream) out).finish();
+                deflater.end();
+            }
+            out.flush();
+            return counter.count;
+        }
+    }
+
+    /**
+     * Counts the bytes written to the underlying stream.
+     */
+    private static class CountingOutputStream extends FilterOutputStream
+    {
+        long count = 0;
+
+        CountingOutputStream(OutputStream out)
+        {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -8,15 +8,9 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
 
-import net.ijt.geometry.geom3d.Point3D;
 import net.ijt.geometry.mesh3d.Mesh3D;
-import net.ijt.geometry.mesh3d.Mesh3D.Face;
-import net.ijt.geometry.mesh3d.Mesh3D.Vertex;
 
 /**
  * @author dlegland
@@ -59,26 +53,23 @@ public class OffMeshWriter implements MeshWriter
         writer.println("OFF");
         writer.printf("%d %d\n", nv, nf);
 
-        // iterate over vertices to print their coordinates and to create map to indices
-        Map<Vertex, Integer> vertexIndices = new HashMap<>();
-        int index = 0;
-        for (Vertex vertex : mesh.vertices())
+        // print the coordinates of each vertex
+        double[] coords = new double[3];
+        for (int iv = 0; iv < nv; iv++)
         {
-            Point3D pos = vertex.position();
-            writer.printf(Locale.ENGLISH, "%f %f %f\n", pos.x(), pos.y(), pos.z());
-            
-            vertexIndices.put(vertex, index++);
+            mesh.vertexCoordinates(iv, coords);
+            writer.printf(Locale.ENGLISH, "%f %f %f\n", coords[0], coords[1], coords[2]);
         }
 
         // print vertex indices of each face
-        for (Face face : mesh.faces())
+        int[] indices = new int[3];
+        for (int iFace = 0; iFace < nf; iFace++)
         {
-            Collection<? extends Vertex> vertices = mesh.faceVertices(face);
-            writer.printf("%d", vertices.size());
-            
-            for (Vertex v : vertices)
+            int nfv = mesh.faceVertexIndices(iFace, indices);
+            writer.printf("%d", nfv);
+            for (int i = 0; i < nfv; i++)
             {
-                writer.printf(" %d", vertexIndices.get(v));
+                writer.printf(" %d", indices[i]);
             }
             writer.println();
         }
@@ -0,0 +1,263 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+
+/**
+ * Computes the connected components of a triangular mesh. Two faces belong to
+ * the same component if they can be joined by a sequence of faces sharing a
+ * vertex.
+ *
+ * The components are identified using a union-find structure over vertex
+ * indices stored within primitive arrays, resulting in a complexity close to
+ * linear with the number of faces.
+ *
+ * Components are labeled from 0 to (n-1), in the order of the first face of
+ * each component. Vertices that do not belong to any face are labeled with
+ * -1.
+ *
+ * <pre>
+ * <code>
+ * Mesh3D mesh = ...
+ * ConnectedComponents algo = new ConnectedComponents();
+ * Collection&lt;SimpleTriMesh3D&gt; components = algo.process(mesh);
+ * </code>
+ * </pre>
+ *
+ * @author dlegland
+ *
+ */
+public class ConnectedComponents
+{
+    /**
+     * Empty constructor.
+     */
+    public ConnectedComponents()
+    {
+    }
+
+    /**
+     * Splits the mesh into its connected components. Each component is
+     * returned as a new mesh, containing only the vertices referenced by its
+     * faces, with vertex indices remapped accordingly.
+     *
+     * @param mesh
+     *            the triangular mesh to split
+     * @return the list of connected components, in the order of the label of
+     *         each component
+     */
+    public ArrayList<SimpleTriMesh3D> process(Mesh3D mesh)
+    {
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        int nv = coords.length / 3;
+        int nf = faces.length / 3;
+
+        int[] vertexLabels = computeVertexLabels(faces, nv);
+        int nLabels = 0;
+        for (int label : vertexLabels)
+        {
+            nLabels = Math.max(nLabels, label + 1);
+        }
+
+        // remap vertex indices within each component, in the order of first
+        // appearance within the faces, and count elements of each component
+        int[] vertexCounts = new int[nLabels];
+        int[] faceCounts = new int[nLabels];
+        int[] newIndices = new int[nv];
+        Arrays.fill(newIndices, -1);
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            int label = vertexLabels[faces[3 * iFace]];
+            faceCounts[label]++;
+            for (int k = 0; k < 3; k++)
+            {
+                int iv = faces[3 * iFace + k];
+                if (newIndices[iv] == -1)
+                {
+                    newIndices[iv] = vertexCounts[label]++;
+                }
+            }
+        }
+
+        // allocate the exact size of arrays of each component
+        double[][] compCoords = new double[nLabels][];
+        int[][] compFaces = new int[nLabels][];
+        for (int label = 0; label < nLabels; label++)
+        {
+            compCoords[label] = new double[3 * vertexCounts[label]];
+            compFaces[label] = new int[3 * faceCounts[label]];
+        }
+
+        // populate the arrays of each component
+        for (int iv = 0; iv < nv; iv++)
+        {
+            int label = vertexLabels[iv];
+            if (label < 0) continue;
+            System.arraycopy(coords, 3 * iv, compCoords[label], 3 * newIndices[iv], 3);
+        }
+        int[] facePos = new int[nLabels];
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            int label = vertexLabels[faces[3 * iFace]];
+            int[] inds = compFaces[label];
+            int pos = facePos[label];
+            inds[pos++] = newIndices[faces[3 * iFace]];
+            inds[pos++] = newIndices[faces[3 * iFace + 1]];
+            inds[pos++] = newIndices[faces[3 * iFace + 2]];
+            facePos[label] = pos;
+        }
+
+        // convert to meshes
+        ArrayList<SimpleTriMesh3D> res = new ArrayList<SimpleTriMesh3D>(nLabels);
+        for (int label = 0; label < nLabels; label++)
+        {
+            res.add(new SimpleTriMesh3D(compCoords[label], compFaces[label]));
+        }
+        return res;
+    }
+
+    /**
+     * Computes the label of the connected component each face belongs to.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @return an array of labels, with as many elements as the number of faces
+     */
+    public int[] faceLabels(Mesh3D mesh)
+    {
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        int[] vertexLabels = computeVertexLabels(faces, mesh.vertexCount());
+
+        int nf = faces.length / 3;
+        int[] labels = new int[nf];
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            labels[iFace] = vertexLabels[faces[3 * iFace]];
+        }
+        return labels;
+    }
+
+    /**
+     * Computes the label of the connected component each vertex belongs to.
+     * Vertices that are not referenced by any face are labeled with -1.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @return an array of labels, with as many elements as the number of
+     *         vertices
+     */
+    public int[] vertexLabels(Mesh3D mesh)
+    {
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        return computeVertexLabels(faces, mesh.vertexCount());
+    }
+
+    /**
+     * Computes the number of connected components within the mesh.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @return the number of connected components
+     */
+    public int componentCount(Mesh3D mesh)
+    {
+        int count = 0;
+        for (int label : vertexLabels(mesh))
+        {
+            count = Math.max(count, label + 1);
+        }
+        return count;
+    }
+
+    /**
+     * Computes the labels of the vertices from the array of face vertex
+     * indices, using a union-find structure.
+     *
+     * @param faces
+     *            the packed array of face vertex indices
+     * @param nv
+     *            the number of vertices
+     * @return the label of each vertex, or -1 for isolated vertices
+     */
+    private static final int[] computeVertexLabels(int[] faces, int nv)
+    {
+        // initialize each vertex as its own parent
+        int[] parents = new int[nv];
+        int[] sizes = new int[nv];
+        for (int iv = 0; iv < nv; iv++)
+        {
+            parents[iv] = iv;
+            sizes[iv] = 1;
+        }
+
+        // merge the vertices of each face
+        int nf = faces.length / 3;
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            int iv1 = faces[3 * iFace];
+            union(parents, sizes, iv1, faces[3 * iFace + 1]);
+            union(parents, sizes, iv1, faces[3 * iFace + 2]);
+        }
+
+        // assign labels to roots, in the order of face iteration
+        int[] rootLabels = new int[nv];
+        Arrays.fill(rootLabels, -1);
+        int nLabels = 0;
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            int root = find(parents, faces[3 * iFace]);
+            if (rootLabels[root] == -1)
+            {
+                rootLabels[root] = nLabels++;
+            }
+        }
+
+        // propagate labels to vertices (isolated vertices keep label -1)
+        int[] labels = new int[nv];
+        for (int iv = 0; iv < nv; iv++)
+        {
+            labels[iv] = rootLabels[find(parents, iv)];
+        }
+        return labels;
+    }
+
+    /**
+     * Finds the root of the specified element, using path halving.
+     */
+    private static final int find(int[] parents, int i)
+    {
+        while (parents[i] != i)
+        {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    /**
+     * Merges the sets containing the two elements, attaching the smaller tree
+     * to the root of the larger one.
+     */
+    private static final void union(int[] parents, int[] sizes, int i, int j)
+    {
+        int ri = find(parents, i);
+        int rj = find(parents, j);
+        if (ri == rj) return;
+        if (sizes[ri] < sizes[rj])
+        {
+            int tmp = ri;
+            ri = rj;
+            rj = tmp;
+        }
+        parents[rj] = ri;
+        sizes[ri] += sizes[rj];
+    }
+}
@@ -0,0 +1,486 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.MeshBVH3D;
+import net.ijt.geometry.mesh3d.TriMeshEdges;
+import net.ijt.geometry.mesh3d.Triangle3D;
+import net.ijt.geometry.polyline3d.LineString3D;
+
+/**
+ * Computes the intersection between two triangular meshes.
+ *
+ * Candidate pairs of faces are identified by a simultaneous traversal of the
+ * bounding volume hierarchies of the two meshes, and each candidate pair is
+ * tested using the triangle-triangle intersection of the Triangle3D class.
+ * Pairs of sub-trees are processed in parallel using the common fork-join
+ * pool.
+ *
+ * The intersection segments are chained into polylines by identifying their
+ * extremities from the mesh elements they originate from (for example, the
+ * intersection of a given edge of the first mesh with a given face of the
+ * second mesh), making chaining independent of numerical tolerance.
+ *
+ * Coplanar overlapping faces are detected by the intersection test, but do
+ * not contribute to the intersection curves.
+ *
+ * <pre>
+ * <code>
+ * MeshIntersection algo = new MeshIntersection();
+ * if (algo.intersects(mesh1, mesh2))
+ * {
+ *     Collection&lt;LineString3D&gt; curves = algo.process(mesh1, mesh2);
+ * }
+ * </code>
+ * </pre>
+ *
+ * @see net.ijt.geometry.mesh3d.MeshBVH3D
+ * @see net.ijt.geometry.mesh3d.Triangle3D#intersection(double[], double[],
+ *      double[], int[])
+ *
+ * @author dlegland
+ *
+ */
+public class MeshIntersection
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The number of candidate faces (summed over the two nodes) below which a
+     * pair of nodes is processed sequentially.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 512;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Empty constructor.
+     */
+    public MeshIntersection()
+    {
+    }
+
+
+    // ===================================================================
+    // Processing methods
+
+    /**
+     * Checks whether the two triangular meshes intersect. Meshes that touch
+     * at a vertex or along an edge are considered as intersecting. The
+     * traversal stops as soon as an intersecting pair of faces is found.
+     *
+     * @param mesh1
+     *            the first triangular mesh
+     * @param mesh2
+     *            the second triangular mesh
+     * @return true if at least one face of the first mesh intersects a face
+     *         of the second mesh
+     */
+    public boolean intersects(Mesh3D mesh1, Mesh3D mesh2)
+    {
+        return intersects(MeshBVH3D.create(mesh1), MeshBVH3D.create(mesh2));
+    }
+
+    /**
+     * Checks whether the two triangular meshes, given by their bounding
+     * volume hierarchies, intersect.
+     *
+     * @param bvh1
+     *            the hierarchy of the first mesh
+     * @param bvh2
+     *            the hierarchy of the second mesh
+     * @return true if at least one face of the first mesh intersects a face
+     *         of the second mesh
+     */
+    public boolean intersects(MeshBVH3D bvh1, MeshBVH3D bvh2)
+    {
+        AtomicBoolean found = new AtomicBoolean(false);
+        ForkJoinPool.commonPool().invoke(new PairTask(bvh1, 0, bvh2, 0, found));
+        return found.get();
+    }
+
+    /**
+     * Computes the intersection curves of two triangular meshes. Closed
+     * curves are returned as polylines whose last vertex is the same as the
+     * first one.
+     *
+     * @param mesh1
+     *            the first triangular mesh
+     * @param mesh2
+     *            the second triangular mesh
+     * @return the list of polylines corresponding to the intersection of the
+     *         two meshes
+     */
+    public ArrayList<LineString3D> process(Mesh3D mesh1, Mesh3D mesh2)
+    {
+        return process(MeshBVH3D.create(mesh1), MeshBVH3D.create(mesh2));
+    }
+
+    /**
+     * Computes the intersection curves of two triangular meshes, given by
+     * their bounding volume hierarchies.
+     *
+     * @param bvh1
+     *            the hierarchy of the first mesh
+     * @param bvh2
+     *            the hierarchy of the second mesh
+     * @return the list of polylines corresponding to the intersection of the
+     *         two meshes
+     */
+    public ArrayList<LineString3D> process(MeshBVH3D bvh1, MeshBVH3D bvh2)
+    {
+        SegmentBuffer segments = ForkJoinPool.commonPool().invoke(new PairTask(bvh1, 0, bvh2, 0, null));
+        if (segments == null)
+        {
+            return new ArrayList<LineString3D>(0);
+        }
+
+        // identify the extremities of the segments from mesh elements
+        TriMeshEdges edges1 = new TriMeshEdges(bvh1.faceVertexIndices());
+        TriMeshEdges edges2 = new TriMeshEdges(bvh2.faceVertexIndices());
+        long[] keys = new long[2 * segments.count];
+        for (int i = 0; i < 2 * segments.count; i++)
+        {
+            keys[i] = endPointKey(segments, i, bvh1.faceVertexIndices(), edges1, bvh2.faceVertexIndices(), edges2);
+        }
+        return chainSegments(segments, keys);
+    }
+
+
+    // ===================================================================
+    // Chaining of segments
+
+    private static final int KEY_VERTEX1 = 0;
+    private static final int KEY_EDGE1 = 1;
+    private static final int KEY_VERTEX2 = 2;
+    private static final int KEY_EDGE2 = 3;
+
+    /**
+     * Computes the key identifying the extremity of a segment from the mesh
+     * elements it originates from.
+     */
+    private static final long endPointKey(SegmentBuffer segments, int endPoint, int[] faces1, TriMeshEdges edges1, int[] faces2, TriMeshEdges edges2)
+    {
+        int seg = endPoint / 2;
+        int face1 = segments.faces[2 * seg];
+        int face2 = segments.faces[2 * seg + 1];
+        int code = segments.codes[endPoint];
+        int k = code % 3;
+        switch (code / 3)
+        {
+            case 0: return packKey(KEY_VERTEX1, faces1[3 * face1 + k], 0);
+            case 1: return packKey(KEY_EDGE1, edges1.faceEdge(face1, k), face2);
+            case 2: return packKey(KEY_VERTEX2, faces2[3 * face2 + k], 0);
+            default: return packKey(KEY_EDGE2, face1, edges2.faceEdge(face2, k));
+        }
+    }
+
+    private static final long packKey(int type, int index1, int index2)
+    {
+        return (((long) type) << 62) | (((long) index1) << 31) | index2;
+    }
+
+    /**
+     * Chains the segments sharing an extremity into polylines.
+     */
+    private static final ArrayList<LineString3D> chainSegments(SegmentBuffer segments, long[] keys)
+    {
+        // associate each extremity to another extremity with the same key
+        int nEnds = keys.length;
+        int[] partners = new int[nEnds];
+        Arrays.fill(partners, -1);
+        HashMap<Long, Integer> openEnds = new HashMap<Long, Integer>(nEnds);
+        for (int i = 0; i < nEnds; i++)
+        {
+            // ignore degenerate segments
+            if (keys[i] == keys[i ^ 1]) continue;
+
+            Integer other = openEnds.remove(keys[i]);
+            if (other == null)
+            {
+                openEnds.put(keys[i], i);
+            }
+            else
+            {
+                partners[i] = other;
+                partners[other] = i;
+            }
+        }
+
+        ArrayList<LineString3D> res = new ArrayList<LineString3D>();
+        boolean[] visited = new boolean[segments.count];
+
+        // first process open curves, starting from extremities without partner
+        for (int i = 0; i < nEnds; i++)
+        {
+            if (partners[i] == -1 && !visited[i / 2] && keys[i] != keys[i ^ 1])
+            {
+                res.add(walkCurve(segments, partners, visited, i));
+            }
+        }
+
+        // then process closed curves
+        for (int seg = 0; seg < segments.count; seg++)
+        {
+            if (!visited[seg] && keys[2 * seg] != keys[2 * seg + 1])
+            {
+                res.add(walkCurve(segments, partners, visited, 2 * seg));
+            }
+        }
+        return res;
+    }
+
+    private static final LineString3D walkCurve(SegmentBuffer segments, int[] partners, boolean[] visited, int endPoint)
+    {
+        LineString3D curve = new LineString3D();
+        curve.vertices().add(segments.point(endPoint));
+        while (endPoint != -1 && !visited[endPoint / 2])
+        {
+            visited[endPoint / 2] = true;
+            int other = endPoint ^ 1;
+            curve.vertices().add(segments.point(other));
+            endPoint = partners[other];
+        }
+        return curve;
+    }
+
+
+    // ===================================================================
+    // Traversal of the hierarchies
+
+    /**
+     * Processes a pair of nodes of the two hierarchies. If the flag is not
+     * null, the task only checks the existence of an intersection and returns
+     * null. Otherwise, the task returns the intersection segments, or null if
+     * there is none.
+     */
+    @SuppressWarnings("serial")
+    private static final class PairTask extends RecursiveTask<SegmentBuffer>
+    {
+        final MeshBVH3D bvh1;
+        final int node1;
+        final MeshBVH3D bvh2;
+        final int node2;
+        final AtomicBoolean found;
+
+        PairTask(MeshBVH3D bvh1, int node1, MeshBVH3D bvh2, int node2, AtomicBoolean found)
+        {
+            this.bvh1 = bvh1;
+            this.node1 = node1;
+            this.bvh2 = bvh2;
+            this.node2 = node2;
+            this.found = found;
+        }
+
+        @Override
+        protected SegmentBuffer compute()
+        {
+            if (!bvh1.overlaps(node1, bvh2, node2))
+            {
+                return null;
+            }
+            if (found != null && found.get())
+            {
+                return null;
+            }
+
+            // small pairs of nodes are processed sequentially
+            if (bvh1.nodeFaceCount(node1) + bvh2.nodeFaceCount(node2) <= SEQUENTIAL_THRESHOLD)
+            {
+                Traversal traversal = new Traversal(bvh1, bvh2, found);
+                traversal.process(node1, node2);
+                return traversal.segments.count > 0 ? traversal.segments : null;
+            }
+
+            // otherwise split the largest node, and process children in
+            // parallel
+            PairTask task1, task2;
+            if (splitFirst(bvh1, node1, bvh2, node2))
+            {
+                task1 = new PairTask(bvh1, bvh1.leftChild(node1), bvh2, node2, found);
+                task2 = new PairTask(bvh1, bvh1.rightChild(node1), bvh2, node2, found);
+            }
+            else
+            {
+                task1 = new PairTask(bvh1, node1, bvh2, bvh2.leftChild(node2), found);
+                task2 = new PairTask(bvh1, node1, bvh2, bvh2.rightChild(node2), found);
+            }
+            task2.fork();
+            SegmentBuffer res1 = task1.compute();
+            SegmentBuffer res2 = task2.join();
+            if (res1 == null) return res2;
+            if (res2 == null) return res1;
+            res1.addAll(res2);
+            return res1;
+        }
+    }
+
+    /**
+     * Returns true if the first node should be split, i.e. if it is not a
+     * leaf, and it is larger than the second node or the second node is a
+     * leaf.
+     */
+    private static final boolean splitFirst(MeshBVH3D bvh1, int node1, MeshBVH3D bvh2, int node2)
+    {
+        if (bvh1.isLeaf(node1)) return false;
+        if (bvh2.isLeaf(node2)) return true;
+        return bvh1.nodeFaceCount(node1) >= bvh2.nodeFaceCount(node2);
+    }
+
+    /**
+     * Sequential traversal of a pair of nodes, with buffers for triangle
+     * coordinates and intersection results.
+     */
+    private static final class Traversal
+    {
+        final MeshBVH3D bvh1;
+        final MeshBVH3D bvh2;
+        final AtomicBoolean found;
+        final SegmentBuffer segments = new SegmentBuffer();
+
+        final double[] tri1 = new double[9];
+        final double[] tri2 = new double[9];
+        final double[] seg = new double[6];
+        final int[] codes = new int[2];
+
+        Traversal(MeshBVH3D bvh1, MeshBVH3D bvh2, AtomicBoolean found)
+        {
+            this.bvh1 = bvh1;
+            this.bvh2 = bvh2;
+            this.found = found;
+        }
+
+        /**
+         * Processes a pair of nodes, returning false if the traversal should
+         * stop.
+         */
+        boolean process(int node1, int node2)
+        {
+            if (!bvh1.overlaps(node1, bvh2, node2))
+            {
+                return true;
+            }
+
+            if (bvh1.isLeaf(node1) && bvh2.isLeaf(node2))
+            {
+                return processLeaves(node1, node2);
+            }
+
+            if (splitFirst(bvh1, node1, bvh2, node2))
+            {
+                return process(bvh1.leftChild(node1), node2) && process(bvh1.rightChild(node1), node2);
+            }
+            else
+            {
+                return process(node1, bvh2.leftChild(node2)) && process(node1, bvh2.rightChild(node2));
+            }
+        }
+
+        private boolean processLeaves(int node1, int node2)
+        {
+            if (found != null && found.get())
+            {
+                return false;
+            }
+
+            for (int i = 0; i < bvh1.nodeFaceCount(node1); i++)
+            {
+                int face1 = bvh1.nodeFace(node1, i);
+                copyTriangle(bvh1, face1, tri1);
+                for (int j = 0; j < bvh2.nodeFaceCount(node2); j++)
+                {
+                    int face2 = bvh2.nodeFace(node2, j);
+                    copyTriangle(bvh2, face2, tri2);
+                    int res = Triangle3D.intersection(tri1, tri2, seg, codes);
+                    if (res == Triangle3D.DISJOINT)
+                    {
+                        continue;
+                    }
+                    if (found != null)
+                    {
+                        found.set(true);
+                        return false;
+                    }
+                    if (res == Triangle3D.SEGMENT)
+                    {
+                        segments.add(seg, codes, face1, face2);
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static final void copyTriangle(MeshBVH3D bvh, int face, double[] tri)
+        {
+            double[] coords = bvh.vertexCoordinates();
+            int[] faces = bvh.faceVertexIndices();
+            for (int k = 0; k < 3; k++)
+            {
+                System.arraycopy(coords, 3 * faces[3 * face + k], tri, 3 * k, 3);
+            }
+        }
+    }
+
+    /**
+     * A growable buffer of intersection segments, storing the coordinates of
+     * the extremities, their codes, and the indices of the pair of faces.
+     */
+    private static final class SegmentBuffer
+    {
+        double[] coords = new double[6 * 16];
+        int[] codes = new int[2 * 16];
+        int[] faces = new int[2 * 16];
+        int count = 0;
+
+        void add(double[] seg, int[] segCodes, int face1, int face2)
+        {
+            ensureCapacity(count + 1);
+            System.arraycopy(seg, 0, coords, 6 * count, 6);
+            codes[2 * count] = segCodes[0];
+            codes[2 * count + 1] = segCodes[1];
+            faces[2 * count] = face1;
+            faces[2 * count + 1] = face2;
+            count++;
+        }
+
+        void addAll(SegmentBuffer that)
+        {
+            ensureCapacity(count + that.count);
+            System.arraycopy(that.coords, 0, coords, 6 * count, 6 * that.count);
+            System.arraycopy(that.codes, 0, codes, 2 * count, 2 * that.count);
+            System.arraycopy(that.faces, 0, faces, 2 * count, 2 * that.count);
+            count += that.count;
+        }
+
+        void ensureCapacity(int n)
+        {
+            int capacity = codes.length / 2;
+            if (n > capacity)
+            {
+                int newSize = Math.max(n, 2 * capacity);
+                coords = Arrays.copyOf(coords, 6 * newSize);
+                codes = Arrays.copyOf(codes, 2 * newSize);
+                faces = Arrays.copyOf(faces, 2 * newSize);
+            }
+        }
+
+        Point3D point(int endPoint)
+        {
+            int i = 3 * endPoint;
+            return new Point3D(coords[i], coords[i + 1], coords[i + 2]);
+        }
+    }
+}
@@ -0,0 +1,546 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+import net.ijt.geometry.mesh3d.TriMeshEdges;
+import net.ijt.geometry.polyline3d.LinearRing3D;
+
+/**
+ * Repairs common defects of triangular meshes.
+ *
+ * The repair pipeline is composed of the following steps:
+ * <ol>
+ * <li>propagation of a consistent orientation of faces, using a breadth-first
+ * traversal of face adjacency. Each closed component is then oriented such
+ * that its signed volume is positive, i.e. with normals pointing outward. As
+ * the signed volume of an open surface depends on the origin, open
+ * components keep the orientation of the majority of their faces.</li>
+ * <li>identification of non-manifold edges, i.e. edges adjacent to more than
+ * two faces. Such edges are reported rather than throwing an exception, and
+ * orientation is not propagated through them.</li>
+ * <li>extraction of boundary loops, i.e. closed chains of edges adjacent to a
+ * single face.</li>
+ * <li>filling of holes whose boundary loop contains a limited number of
+ * vertices, using ear-clipping triangulation.</li>
+ * </ol>
+ *
+ * All steps rely on the edge topology computed by the {@link TriMeshEdges}
+ * class, and run in linear time with the number of faces (ear-clipping is
+ * quadratic with the number of vertices of each filled hole).
+ *
+ * <pre>
+ * <code>
+ * Mesh3D mesh = ...
+ * MeshRepair algo = new MeshRepair(20);
+ * int[] edges = algo.nonManifoldEdges(mesh);
+ * SimpleTriMesh3D repaired = algo.process(mesh);
+ * </code>
+ * </pre>
+ *
+ * @author dlegland
+ *
+ */
+public class MeshRepair
+{
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The maximum number of vertices of the boundary loops to fill.
+     */
+    int maxHoleSize;
+
+
+    // ===================================================================
+    // Constructors
+
+    /**
+     * Creates a new repair operator that fills all the holes of the mesh.
+     */
+    public MeshRepair()
+    {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new repair operator that fills the holes with at most the
+     * specified number of boundary vertices.
+     *
+     * @param maxHoleSize
+     *            the maximum number of vertices of the boundary loops to
+     *            fill. Use zero to disable hole filling.
+     */
+    public MeshRepair(int maxHoleSize)
+    {
+        this.maxHoleSize = maxHoleSize;
+    }
+
+
+    // ===================================================================
+    // Processing methods
+
+    /**
+     * Applies the full repair pipeline to the mesh: orientation of faces and
+     * filling of small holes. The orientation is updated once the holes are
+     * filled, such that the components closed by the filling are oriented
+     * outward.
+     *
+     * @param mesh
+     *            the triangular mesh to repair
+     * @return a new mesh with consistently oriented faces and filled holes
+     */
+    public SimpleTriMesh3D process(Mesh3D mesh)
+    {
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        int[] faces = orientFaces(coords, Meshes3D.faceVertexIndices(mesh));
+        faces = orientFaces(coords, fillHoles(coords, faces));
+        return new SimpleTriMesh3D(coords, faces);
+    }
+
+    /**
+     * Computes a new mesh whose faces are consistently oriented within each
+     * connected component. Each closed component is oriented such that its
+     * signed volume is positive, and each open component keeps the
+     * orientation of the majority of its faces.
+     *
+     * @param mesh
+     *            the triangular mesh to orient
+     * @return a new mesh with the same vertices and consistently oriented
+     *         faces
+     */
+    public SimpleTriMesh3D orient(Mesh3D mesh)
+    {
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        int[] faces = orientFaces(coords, Meshes3D.faceVertexIndices(mesh));
+        return new SimpleTriMesh3D(coords, faces);
+    }
+
+    /**
+     * Identifies the non-manifold edges of the mesh, i.e. the edges adjacent
+     * to more than two faces.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @return the indices of the vertices of the non-manifold edges, stored
+     *         as (iv11, iv12, iv21, iv22, ...). Returns an empty array if the
+     *         mesh is manifold.
+     */
+    public int[] nonManifoldEdges(Mesh3D mesh)
+    {
+        TriMeshEdges edges = new TriMeshEdges(Meshes3D.faceVertexIndices(mesh));
+        int ne = edges.edgeCount();
+        int[] res = new int[16];
+        int n = 0;
+        for (int edge = 0; edge < ne; edge++)
+        {
+            if (edges.isNonManifold(edge))
+            {
+                if (n + 2 > res.length)
+                {
+                    res = Arrays.copyOf(res, 2 * res.length);
+                }
+                res[n++] = edges.edgeSource(edge);
+                res[n++] = edges.edgeTarget(edge);
+            }
+        }
+        return Arrays.copyOf(res, n);
+    }
+
+    /**
+     * Extracts the boundary loops of the mesh, i.e. the closed chains of
+     * edges adjacent to a single face. The vertices of each loop follow the
+     * orientation of the adjacent faces, that are expected to be
+     * consistently oriented.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @return the list of boundary loops
+     */
+    public ArrayList<LinearRing3D> boundaryLoops(Mesh3D mesh)
+    {
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+
+        ArrayList<int[]> loops = boundaryLoops(faces, new TriMeshEdges(faces), coords.length / 3);
+        ArrayList<LinearRing3D> rings = new ArrayList<LinearRing3D>(loops.size());
+        for (int[] loop : loops)
+        {
+            LinearRing3D ring = new LinearRing3D(loop.length);
+            for (int iv : loop)
+            {
+                ring.vertices().add(new Point3D(coords[3 * iv], coords[3 * iv + 1], coords[3 * iv + 2]));
+            }
+            rings.add(ring);
+        }
+        return rings;
+    }
+
+    /**
+     * Fills the holes of the mesh whose boundary contains at most the maximum
+     * hole size. The faces of the mesh are expected to be consistently
+     * oriented.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @return a new mesh containing the faces of the original mesh, and the
+     *         faces used to fill the holes
+     */
+    public SimpleTriMesh3D fillHoles(Mesh3D mesh)
+    {
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        int[] faces = fillHoles(coords, Meshes3D.faceVertexIndices(mesh));
+        return new SimpleTriMesh3D(coords, faces);
+    }
+
+
+    // ===================================================================
+    // Implementation of the orientation step
+
+    /**
+     * Propagates a consistent orientation of the faces within each connected
+     * component, by breadth-first traversal of the adjacency between faces
+     * through manifold edges. The signed volume is used only for closed
+     * components, whose edges are all shared by two faces.
+     */
+    private int[] orientFaces(double[] coords, int[] faces)
+    {
+        faces = faces.clone();
+        int nf = faces.length / 3;
+        TriMeshEdges edges = new TriMeshEdges(faces);
+
+        boolean[] visited = new boolean[nf];
+        int[] queue = new int[nf];
+        for (int seed = 0; seed < nf; seed++)
+        {
+            if (visited[seed]) continue;
+
+            // breadth-first traversal of the component containing the seed
+            int head = 0, tail = 0;
+            boolean closed = true;
+            int flipCount = 0;
+            queue[tail++] = seed;
+            visited[seed] = true;
+            while (head < tail)
+            {
+                int face = queue[head++];
+                for (int k = 0; k < 3; k++)
+                {
+                    int edge = edges.faceEdge(face, k);
+                    if (edges.edgeFaceCount(edge) != 2)
+                    {
+                        // do not propagate through boundary or non-manifold edges
+                        closed = false;
+                        continue;
+                    }
+
+                    int neigh = edges.edgeFace(edge, 0);
+                    if (neigh == face) neigh = edges.edgeFace(edge, 1);
+                    if (visited[neigh]) continue;
+
+                    // the neighbor face must traverse the edge in the opposite direction
+                    // (face vertices may have been permuted, so use edge vertices)
+                    int iv1 = edges.edgeSource(edge);
+                    int iv2 = edges.edgeTarget(edge);
+                    if (hasDirectedEdge(faces, face, iv1, iv2) == hasDirectedEdge(faces, neigh, iv1, iv2))
+                    {
+                        flipFace(faces, neigh);
+                        flipCount++;
+                    }
+                    visited[neigh] = true;
+                    queue[tail++] = neigh;
+                }
+            }
+
+            // orient closed components outward, and open components as most
+            // of their original faces
+            boolean flip = closed ? signedVolume(coords, faces, queue, tail) < 0 : 2 * flipCount > tail;
+            if (flip)
+            {
+                for (int i = 0; i < tail; i++)
+                {
+                    flipFace(faces, queue[i]);
+                }
+            }
+        }
+
+        return faces;
+    }
+
+    private static final boolean hasDirectedEdge(int[] faces, int face, int iv1, int iv2)
+    {
+        for (int k = 0; k < 3; k++)
+        {
+            if (faces[3 * face + k] == iv1 && faces[3 * face + (k + 1) % 3] == iv2)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final void flipFace(int[] faces, int face)
+    {
+        int tmp = faces[3 * face + 1];
+        faces[3 * face + 1] = faces[3 * face + 2];
+        faces[3 * face + 2] = tmp;
+    }
+
+    /**
+     * Computes the signed volume enclosed by a subset of faces, using the
+     * divergence theorem.
+     */
+    private static final double signedVolume(double[] coords, int[] faces, int[] faceIndices, int nFaces)
+    {
+        double vol = 0;
+        for (int i = 0; i < nFaces; i++)
+        {
+            int face = faceIndices[i];
+            int i1 = 3 * faces[3 * face];
+            int i2 = 3 * faces[3 * face + 1];
+            int i3 = 3 * faces[3 * face + 2];
+
+            // triple product of the three vertex positions
+            double cx = coords[i2 + 1] * coords[i3 + 2] - coords[i2 + 2] * coords[i3 + 1];
+            double cy = coords[i2 + 2] * coords[i3] - coords[i2] * coords[i3 + 2];
+            double cz = coords[i2] * coords[i3 + 1] - coords[i2 + 1] * coords[i3];
+            vol += coords[i1] * cx + coords[i1 + 1] * cy + coords[i1 + 2] * cz;
+        }
+        return vol / 6;
+    }
+
+
+    // ===================================================================
+    // Implementation of boundary extraction and hole filling
+
+    /**
+     * Extracts the boundary loops as arrays of vertex indices, following the
+     * orientation of the adjacent faces.
+     */
+    private static final ArrayList<int[]> boundaryLoops(int[] faces, TriMeshEdges edges, int nv)
+    {
+        int nf = faces.length / 3;
+
+        // count the boundary edges starting from each vertex
+        int[] offsets = new int[nv + 1];
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            for (int k = 0; k < 3; k++)
+            {
+                if (edges.isBoundary(edges.faceEdge(iFace, k)))
+                {
+                    offsets[faces[3 * iFace + k] + 1]++;
+                }
+            }
+        }
+        for (int iv = 0; iv < nv; iv++)
+        {
+            offsets[iv + 1] += offsets[iv];
+        }
+
+        // store the target vertex of each boundary edge, grouped by source vertex
+        int nEdges = offsets[nv];
+        int[] targets = new int[nEdges];
+        int[] pos = Arrays.copyOf(offsets, nv);
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            for (int k = 0; k < 3; k++)
+            {
+                if (edges.isBoundary(edges.faceEdge(iFace, k)))
+                {
+                    targets[pos[faces[3 * iFace + k]]++] = faces[3 * iFace + (k + 1) % 3];
+                }
+            }
+        }
+
+        // chain the boundary edges, using the next unused edge of each vertex
+        int[] nextUnused = Arrays.copyOf(offsets, nv);
+        ArrayList<int[]> loops = new ArrayList<int[]>();
+        int[] buffer = new int[16];
+        for (int start = 0; start < nv; start++)
+        {
+            while (nextUnused[start] < offsets[start + 1])
+            {
+                int n = 0;
+                int current = start;
+                while (nextUnused[current] < offsets[current + 1])
+                {
+                    if (n == buffer.length)
+                    {
+                        buffer = Arrays.copyOf(buffer, 2 * n);
+                    }
+                    buffer[n++] = current;
+                    current = targets[nextUnused[current]++];
+                }
+                loops.add(Arrays.copyOf(buffer, n));
+            }
+        }
+        return loops;
+    }
+
+    /**
+     * Fills the holes whose boundary loops are small enough, and returns the
+     * new array of face vertex indices.
+     */
+    private int[] fillHoles(double[] coords, int[] faces)
+    {
+        if (this.maxHoleSize < 3)
+        {
+            return faces;
+        }
+
+        ArrayList<int[]> loops = boundaryLoops(faces, new TriMeshEdges(faces), coords.length / 3);
+
+        // count the number of new faces
+        int nNewFaces = 0;
+        for (int[] loop : loops)
+        {
+            if (loop.length >= 3 && loop.length <= this.maxHoleSize)
+            {
+                nNewFaces += loop.length - 2;
+            }
+        }
+
+        int[] res = Arrays.copyOf(faces, faces.length + 3 * nNewFaces);
+        int pos = faces.length;
+        for (int[] loop : loops)
+        {
+            if (loop.length >= 3 && loop.length <= this.maxHoleSize)
+            {
+                // reverse the loop, such that new faces are consistent with adjacent faces
+                int n = loop.length;
+                int[] hole = new int[n];
+                for (int i = 0; i < n; i++)
+                {
+                    hole[i] = loop[n - 1 - i];
+                }
+                pos = earClipping(coords, hole, res, pos);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Triangulates a loop of vertices by ear clipping, after projection onto
+     * the plane orthogonal to the average normal of the loop. The new faces
+     * are written into the face array, starting at the specified position.
+     * Returns the position after the last written face.
+     */
+    private static final int earClipping(double[] coords, int[] loop, int[] faces, int pos)
+    {
+        int n = loop.length;
+
+        // compute average normal of the loop using Newell's method
+        double nx = 0, ny = 0, nz = 0;
+        for (int i = 0; i < n; i++)
+        {
+            int i1 = 3 * loop[i];
+            int i2 = 3 * loop[(i + 1) % n];
+            nx += (coords[i1 + 1] - coords[i2 + 1]) * (coords[i1 + 2] + coords[i2 + 2]);
+            ny += (coords[i1 + 2] - coords[i2 + 2]) * (coords[i1] + coords[i2]);
+            nz += (coords[i1] - coords[i2]) * (coords[i1 + 1] + coords[i2 + 1]);
+        }
+
+        // compute two direction vectors orthogonal to the normal
+        double ux, uy, uz;
+        if (Math.abs(nx) < Math.abs(ny) && Math.abs(nx) < Math.abs(nz))
+        {
+            ux = 0; uy = nz; uz = -ny;
+        }
+        else if (Math.abs(ny) < Math.abs(nz))
+        {
+            ux = -nz; uy = 0; uz = nx;
+        }
+        else
+        {
+            ux = ny; uy = -nx; uz = 0;
+        }
+        double vx = ny * uz - nz * uy;
+        double vy = nz * ux - nx * uz;
+        double vz = nx * uy - ny * ux;
+
+        // project vertices onto the plane, such that the loop is counter-clockwise
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            int iv = 3 * loop[i];
+            xs[i] = coords[iv] * ux + coords[iv + 1] * uy + coords[iv + 2] * uz;
+            ys[i] = coords[iv] * vx + coords[iv + 1] * vy + coords[iv + 2] * vz;
+        }
+
+        // doubly-linked list of the remaining vertices
+        int[] prev = new int[n];
+        int[] next = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            prev[i] = (i + n - 1) % n;
+            next[i] = (i + 1) % n;
+        }
+
+        int remaining = n;
+        int current = 0;
+        int nFailures = 0;
+        while (remaining > 3)
+        {
+            int i0 = prev[current];
+            int i2 = next[current];
+            if (isEar(xs, ys, next, i0, current, i2) || nFailures > remaining)
+            {
+                // clip the ear (or force clipping if no ear can be found)
+                faces[pos++] = loop[i0];
+                faces[pos++] = loop[current];
+                faces[pos++] = loop[i2];
+                next[i0] = i2;
+                prev[i2] = i0;
+                remaining--;
+                nFailures = 0;
+                current = i2;
+            }
+            else
+            {
+                current = next[current];
+                nFailures++;
+            }
+        }
+
+        // add the last triangle
+        faces[pos++] = loop[prev[current]];
+        faces[pos++] = loop[current];
+        faces[pos++] = loop[next[current]];
+        return pos;
+    }
+
+    /**
+     * Checks if the vertex i1 is a convex vertex, and that no other vertex of
+     * the loop is contained within the triangle (i0, i1, i2).
+     */
+    private static final boolean isEar(double[] xs, double[] ys, int[] next, int i0, int i1, int i2)
+    {
+        if (cross(xs, ys, i0, i1, i2) <= 0)
+        {
+            return false;
+        }
+
+        for (int i = next[i2]; i != i0; i = next[i])
+        {
+            if (cross(xs, ys, i0, i1, i) >= 0 && cross(xs, ys, i1, i2, i) >= 0 && cross(xs, ys, i2, i0, i) >= 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final double cross(double[] xs, double[] ys, int i0, int i1, int i2)
+    {
+        return (xs[i1] - xs[i0]) * (ys[i2] - ys[i0]) - (ys[i1] - ys[i0]) * (xs[i2] - xs[i0]);
+    }
+}
@@ -0,0 +1,408 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.geom3d.Plane3D;
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Vector3D;
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.polygon2d.LineString2D;
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.Polyline2D;
+
+/**
+ * Computes the intersection of a triangular mesh with a plane, or with a
+ * stack of parallel planes, and returns the contours expressed within the
+ * two-dimensional coordinate system of the plane (as given by the
+ * <code>projection2d</code> method of Plane3D).
+ *
+ * When slicing with a stack of planes, each face is assigned to the range of
+ * planes it crosses, so that the contours of all planes are obtained in time
+ * proportional to the number of faces plus the size of the output. Planes are
+ * then processed in parallel. Vertices and faces are read through the
+ * index-based accessors of the mesh, without copying the mesh into arrays,
+ * so that out-of-core meshes such as BufferTriMesh3D can be sliced with a
+ * memory footprint proportional to the number of faces crossing the planes.
+ *
+ * To avoid degenerate configurations, vertices lying exactly within a plane
+ * are considered to be above the plane. Each contour point is identified by
+ * the mesh edge it belongs to, so that contours are chained without
+ * numerical tolerance. Closed contours are returned as LinearRing2D, and open
+ * contours (when the mesh is not closed) as LineString2D. For a closed mesh
+ * whose faces are oriented towards the outside, rings are oriented
+ * counter-clockwise within the plane coordinate system.
+ *
+ * <pre>
+ * <code>
+ * // slice a mesh with each z-plane of an image
+ * Plane3D plane = new Plane3D(new Point3D(0, 0, 0), new Vector3D(1, 0, 0), new Vector3D(0, 1, 0));
+ * MeshSlicer slicer = new MeshSlicer();
+ * ArrayList&lt;ArrayList&lt;Polyline2D&gt;&gt; contours = slicer.processStack(mesh, plane, 1.0, imagePlus.getNSlices());
+ * </code>
+ * </pre>
+ *
+ * @author dlegland
+ *
+ */
+public class MeshSlicer
+{
+    /**
+     * Empty constructor.
+     */
+    public MeshSlicer()
+    {
+    }
+
+
+    // ===================================================================
+    // Processing methods
+
+    /**
+     * Computes the intersection of a triangular mesh with a plane.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @param plane
+     *            the slicing plane
+     * @return the list of contours, in the coordinate system of the plane
+     */
+    public ArrayList<Polyline2D> process(Mesh3D mesh, Plane3D plane)
+    {
+        return processStack(mesh, plane, new double[] {0.0}).get(0);
+    }
+
+    /**
+     * Computes the intersection of a triangular mesh with a stack of
+     * regularly spaced parallel planes. The k-th plane is obtained by
+     * translating the reference plane by (k * spacing) along its unit normal.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @param plane
+     *            the reference plane, corresponding to the first slice
+     * @param spacing
+     *            the distance between two consecutive planes, positive
+     * @param planeCount
+     *            the number of planes
+     * @return for each plane, the list of contours in the coordinate system
+     *         of the plane
+     */
+    public ArrayList<ArrayList<Polyline2D>> processStack(Mesh3D mesh, Plane3D plane, double spacing, int planeCount)
+    {
+        if (spacing <= 0)
+        {
+            throw new IllegalArgumentException("Spacing between planes must be positive");
+        }
+        double[] offsets = new double[planeCount];
+        for (int k = 0; k < planeCount; k++)
+        {
+            offsets[k] = k * spacing;
+        }
+        return processStack(mesh, plane, offsets);
+    }
+
+    /**
+     * Computes the intersection of a triangular mesh with a stack of parallel
+     * planes. Each plane is obtained by translating the reference plane along
+     * its unit normal by the corresponding offset. As the planes are
+     * parallel, contours of all planes are expressed within the same 2D
+     * coordinate system.
+     *
+     * @param mesh
+     *            the triangular mesh
+     * @param plane
+     *            the reference plane
+     * @param offsets
+     *            the signed distance of each plane to the reference plane, in
+     *            increasing order
+     * @return for each plane, the list of contours in the coordinate system
+     *         of the plane
+     */
+    public ArrayList<ArrayList<Polyline2D>> processStack(Mesh3D mesh, Plane3D plane, double[] offsets)
+    {
+        for (int k = 1; k < offsets.length; k++)
+        {
+            if (offsets[k] <= offsets[k - 1])
+            {
+                throw new IllegalArgumentException("Plane offsets must be sorted in increasing order");
+            }
+        }
+
+        PlaneFrame frame = new PlaneFrame(plane);
+
+        // for each face, identify the range of planes it crosses, and count
+        // the faces crossing each plane. A plane with offset h is crossed if
+        // hmin < h <= hmax.
+        int nf = mesh.faceCount();
+        int nPlanes = offsets.length;
+        int[] offsetsCSR = new int[nPlanes + 1];
+        int[] range = new int[2];
+        int[] indices = new int[3];
+        double[] pos = new double[3];
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            planeRange(mesh, iFace, frame, offsets, range, indices, pos);
+            for (int k = range[0]; k <= range[1]; k++)
+            {
+                offsetsCSR[k + 1]++;
+            }
+        }
+
+        // bucket faces by plane, computing plane ranges again rather than
+        // storing them for each face
+        for (int k = 0; k < nPlanes; k++)
+        {
+            offsetsCSR[k + 1] = Math.addExact(offsetsCSR[k + 1], offsetsCSR[k]);
+        }
+        int[] planeFaces = new int[offsetsCSR[nPlanes]];
+        int[] bucketPos = Arrays.copyOf(offsetsCSR, nPlanes);
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            planeRange(mesh, iFace, frame, offsets, range, indices, pos);
+            for (int k = range[0]; k <= range[1]; k++)
+            {
+                planeFaces[bucketPos[k]++] = iFace;
+            }
+        }
+
+        // compute the contours of each plane in parallel
+        return IntStream.range(0, nPlanes).parallel()
+                .mapToObj(k -> slice(mesh, frame, offsets[k], planeFaces, offsetsCSR[k], offsetsCSR[k + 1]))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Computes the indices of the first and last planes crossed by a face,
+     * and stores them in the <code>range</code> array. The last index is
+     * lower than the first one if the face does not cross any plane.
+     */
+    private static final void planeRange(Mesh3D mesh, int iFace, PlaneFrame frame, double[] offsets, int[] range,
+            int[] indices, double[] pos)
+    {
+        mesh.faceVertexIndices(iFace, indices);
+        double hmin = Double.POSITIVE_INFINITY;
+        double hmax = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < 3; k++)
+        {
+            mesh.vertexCoordinates(indices[k], pos);
+            double h = frame.height(pos);
+            hmin = Math.min(hmin, h);
+            hmax = Math.max(hmax, h);
+        }
+        range[0] = firstGreater(offsets, hmin);
+        range[1] = firstGreater(offsets, hmax) - 1;
+    }
+
+    /**
+     * Returns the index of the first offset strictly greater than the value,
+     * or the number of offsets if there is none.
+     */
+    private static final int firstGreater(double[] offsets, double value)
+    {
+        int lo = 0, hi = offsets.length;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (offsets[mid] > value)
+            {
+                hi = mid;
+            }
+            else
+            {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+
+    // ===================================================================
+    // Computation of contours for a single plane
+
+    /**
+     * Computes the contours of a single plane, from the list of faces
+     * crossing the plane. Each mesh edge crossing the plane is identified by
+     * the indices of its two vertices, packed into a long value.
+     */
+    private static final ArrayList<Polyline2D> slice(Mesh3D mesh, PlaneFrame frame, double h,
+            int[] planeFaces, int start, int end)
+    {
+        int nSegs = end - start;
+
+        // for each face, the segment goes from the edge where the face goes
+        // below the plane to the edge where it goes above, following the face
+        // orientation
+        long[] startEdges = new long[nSegs];
+        long[] endEdges = new long[nSegs];
+        double[] startPoints = new double[Math.multiplyExact(2, nSegs)];
+        double[] endPoints = new double[Math.multiplyExact(2, nSegs)];
+        int[] indices = new int[3];
+        double[][] pos = new double[3][3];
+        double[] heights = new double[3];
+        for (int i = 0; i < nSegs; i++)
+        {
+            int iFace = planeFaces[start + i];
+            mesh.faceVertexIndices(iFace, indices);
+            for (int k = 0; k < 3; k++)
+            {
+                mesh.vertexCoordinates(indices[k], pos[k]);
+                heights[k] = frame.height(pos[k]);
+            }
+
+            for (int k = 0; k < 3; k++)
+            {
+                int k2 = (k + 1) % 3;
+                boolean above1 = heights[k] >= h;
+                boolean above2 = heights[k2] >= h;
+                if (above1 && !above2)
+                {
+                    startEdges[i] = edgeKey(indices[k], indices[k2]);
+                    crossingPoint(indices, pos, heights, k, k2, h, frame, startPoints, i);
+                }
+                else if (!above1 && above2)
+                {
+                    endEdges[i] = edgeKey(indices[k], indices[k2]);
+                    crossingPoint(indices, pos, heights, k, k2, h, frame, endPoints, i);
+                }
+            }
+        }
+
+        // index segments by their starting edge
+        HashMap<Long, Integer> segmentsByStart = new HashMap<Long, Integer>(2 * nSegs);
+        for (int i = 0; i < nSegs; i++)
+        {
+            segmentsByStart.put(startEdges[i], i);
+        }
+
+        // identify segments that do not follow any other segment, for
+        // starting open contours
+        boolean[] hasPrevious = new boolean[nSegs];
+        for (int i = 0; i < nSegs; i++)
+        {
+            Integer next = segmentsByStart.get(endEdges[i]);
+            if (next != null)
+            {
+                hasPrevious[next] = true;
+            }
+        }
+
+        ArrayList<Polyline2D> res = new ArrayList<Polyline2D>();
+        boolean[] visited = new boolean[nSegs];
+
+        // open contours
+        for (int i = 0; i < nSegs; i++)
+        {
+            if (visited[i] || hasPrevious[i]) continue;
+            LineString2D curve = new LineString2D();
+            curve.addVertex(new Point2D(startPoints[2 * i], startPoints[2 * i + 1]));
+            int seg = i;
+            while (seg != -1 && !visited[seg])
+            {
+                visited[seg] = true;
+                curve.addVertex(new Point2D(endPoints[2 * seg], endPoints[2 * seg + 1]));
+                Integer next = segmentsByStart.get(endEdges[seg]);
+                seg = next == null ? -1 : next;
+            }
+            res.add(curve);
+        }
+
+        // closed contours
+        for (int i = 0; i < nSegs; i++)
+        {
+            if (visited[i]) continue;
+            LinearRing2D ring = new LinearRing2D();
+            int seg = i;
+            while (seg != -1 && !visited[seg])
+            {
+                visited[seg] = true;
+                ring.addVertex(new Point2D(endPoints[2 * seg], endPoints[2 * seg + 1]));
+                Integer next = segmentsByStart.get(endEdges[seg]);
+                seg = next == null ? -1 : next;
+            }
+            res.add(ring);
+        }
+
+        return res;
+    }
+
+    /**
+     * Packs the indices of the two vertices of an edge into a long value that
+     * does not depend on the edge orientation.
+     */
+    private static final long edgeKey(int iv1, int iv2)
+    {
+        return ((long) Math.min(iv1, iv2) << 32) | (Math.max(iv1, iv2) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Computes the position of the intersection of the edge between the k1-th
+     * and k2-th vertices of a face with the plane, and stores it at the
+     * specified index of the result array. The position is interpolated from
+     * the lower index vertex such that the result does not depend on the
+     * face.
+     */
+    private static final void crossingPoint(int[] indices, double[][] pos, double[] heights, int k1, int k2, double h,
+            PlaneFrame frame, double[] res, int index)
+    {
+        if (indices[k2] < indices[k1])
+        {
+            int tmp = k1;
+            k1 = k2;
+            k2 = tmp;
+        }
+        double t = (h - heights[k1]) / (heights[k2] - heights[k1]);
+        double x1 = frame.projX(pos[k1]);
+        double y1 = frame.projY(pos[k1]);
+        res[2 * index] = x1 + t * (frame.projX(pos[k2]) - x1);
+        res[2 * index + 1] = y1 + t * (frame.projY(pos[k2]) - y1);
+    }
+
+
+    // ===================================================================
+    // Inner class
+
+    /**
+     * The coordinate system of the reference plane, used to compute the
+     * height of vertices along the unit normal and their projection onto the
+     * plane.
+     */
+    private static final class PlaneFrame
+    {
+        final double ox, oy, oz;
+        final Vector3D n, u1, u2;
+
+        PlaneFrame(Plane3D plane)
+        {
+            Point3D origin = plane.origin();
+            this.ox = origin.x();
+            this.oy = origin.y();
+            this.oz = origin.z();
+            this.n = plane.normal().normalize();
+            this.u1 = plane.directionVector1().normalize();
+            this.u2 = plane.directionVector2().normalize();
+        }
+
+        double height(double[] p)
+        {
+            return (p[0] - ox) * n.x() + (p[1] - oy) * n.y() + (p[2] - oz) * n.z();
+        }
+
+        double projX(double[] p)
+        {
+            return (p[0] - ox) * u1.x() + (p[1] - oy) * u1.y() + (p[2] - oz) * u1.z();
+        }
+
+        double projY(double[] p)
+        {
+            return (p[0] - ox) * u2.x() + (p[1] - oy) * u2.y() + (p[2] - oz) * u2.z();
+        }
+    }
+}
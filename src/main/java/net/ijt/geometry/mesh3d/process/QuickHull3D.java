@@ -0,0 +1,671 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Predicates3D;
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+
+/**
+ * Computes the convex hull of a set of 3D points using the QuickHull
+ * algorithm, and returns the result as a triangular mesh.
+ *
+ * The algorithm starts from a tetrahedron built on extreme points, and
+ * assigns each remaining point to a face it lies above (its "conflict
+ * list"). Then, while a face has a non-empty conflict list, the point of the
+ * list the furthest from the face is added to the hull: the faces visible
+ * from that point are removed, and replaced by a cone of new faces joining
+ * the point to the horizon. The points in the conflict lists of the removed
+ * faces are reassigned to the new faces, or discarded if they are inside the
+ * new hull. The expected complexity is <code>O(n log n)</code>.
+ *
+ * The hull is stored during computation as a half-edge structure. The
+ * visibility tests use the robust orientation predicate of the Predicates3D
+ * class, so that coplanar points (as obtained from voxel surfaces) are
+ * processed consistently. For large inputs, the initial assignment of points
+ * to the faces of the tetrahedron is performed in parallel.
+ *
+ * The faces of the resulting mesh are oriented towards the outside. Points
+ * lying on the faces or on the edges of the hull may or may not be vertices
+ * of the result.
+ *
+ * <pre>
+ * <code>
+ * SimpleTriMesh3D hull = new QuickHull3D().process(points);
+ * </code>
+ * </pre>
+ *
+ * @see net.ijt.geometry.geom3d.Predicates3D
+ *
+ * @author dlegland
+ *
+ */
+public class QuickHull3D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The number of points above which the initial partition of points is
+     * computed in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 15;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Empty constructor.
+     */
+    public QuickHull3D()
+    {
+    }
+
+
+    // ===================================================================
+    // Methods
+
+    /**
+     * Computes the convex hull of a collection of points.
+     *
+     * @param points
+     *            the points, at least four of them not being coplanar
+     * @return the convex hull of the points, as a triangular mesh
+     */
+    public SimpleTriMesh3D process(Collection<? extends Point3D> points)
+    {
+        double[] coords = new double[3 * points.size()];
+        int i = 0;
+        for (Point3D point : points)
+        {
+            coords[i++] = point.x();
+            coords[i++] = point.y();
+            coords[i++] = point.z();
+        }
+        return process(coords);
+    }
+
+    /**
+     * Computes the convex hull of the vertices of a mesh.
+     *
+     * @param mesh
+     *            the mesh
+     * @return the convex hull of the mesh vertices, as a triangular mesh
+     */
+    public SimpleTriMesh3D process(Mesh3D mesh)
+    {
+        return process(Meshes3D.vertexCoordinates(mesh));
+    }
+
+    /**
+     * Computes the convex hull of a set of points given by their packed
+     * coordinates.
+     *
+     * @param coords
+     *            the coordinates of the points, packed as (x1, y1, z1, x2,
+     *            y2, z2, ...)
+     * @return the convex hull of the points, as a triangular mesh
+     */
+    public SimpleTriMesh3D process(double[] coords)
+    {
+        if (coords.length % 3 != 0)
+        {
+            throw new IllegalArgumentException("The length of the coordinate array must be a multiple of 3");
+        }
+        if (coords.length < 12)
+        {
+            throw new IllegalArgumentException("Requires at least four points");
+        }
+        return new Hull(coords).compute();
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * Stores the state of the convex hull during computation.
+     */
+    private static final class Hull
+    {
+        final double[] coords;
+        final int nPoints;
+
+        /**
+         * The list of all the faces created during the computation,
+         * including the deleted ones.
+         */
+        ArrayList<Face> faces = new ArrayList<Face>();
+
+        /**
+         * The stamp used to mark faces when computing the visible region.
+         */
+        int stamp = 0;
+
+        Hull(double[] coords)
+        {
+            this.coords = coords;
+            this.nPoints = coords.length / 3;
+        }
+
+        SimpleTriMesh3D compute()
+        {
+            Face[] initialFaces = createInitialSimplex();
+            partitionPoints(initialFaces);
+
+            // process faces until no one has conflict points. New faces are
+            // appended to the list, and will be processed later.
+            for (int i = 0; i < faces.size(); i++)
+            {
+                Face face = faces.get(i);
+                if (!face.deleted && face.conflicts.size > 0)
+                {
+                    addPoint(face);
+                }
+            }
+
+            return createMesh();
+        }
+
+        /**
+         * Creates the initial tetrahedron from extreme points.
+         */
+        private Face[] createInitialSimplex()
+        {
+            // find extreme points along each axis
+            int[] minInds = new int[3];
+            int[] maxInds = new int[3];
+            for (int i = 1; i < nPoints; i++)
+            {
+                for (int d = 0; d < 3; d++)
+                {
+                    double v = coords[3 * i + d];
+                    if (v < coords[3 * minInds[d] + d]) minInds[d] = i;
+                    if (v > coords[3 * maxInds[d] + d]) maxInds[d] = i;
+                }
+            }
+
+            // the two first vertices are the most distant pair of extremes
+            int i0 = minInds[0];
+            int i1 = maxInds[0];
+            double maxDist = distanceSq(i0, i1);
+            for (int d = 1; d < 3; d++)
+            {
+                double dist = distanceSq(minInds[d], maxInds[d]);
+                if (dist > maxDist)
+                {
+                    maxDist = dist;
+                    i0 = minInds[d];
+                    i1 = maxInds[d];
+                }
+            }
+            if (maxDist == 0)
+            {
+                throw new IllegalArgumentException("Can not compute the hull of identical points");
+            }
+
+            // the third vertex is the most distant from the line (i0, i1)
+            double ux = coords[3 * i1] - coords[3 * i0];
+            double uy = coords[3 * i1 + 1] - coords[3 * i0 + 1];
+            double uz = coords[3 * i1 + 2] - coords[3 * i0 + 2];
+            int i2 = -1;
+            maxDist = 0;
+            for (int i = 0; i < nPoints; i++)
+            {
+                double vx = coords[3 * i] - coords[3 * i0];
+                double vy = coords[3 * i + 1] - coords[3 * i0 + 1];
+                double vz = coords[3 * i + 2] - coords[3 * i0 + 2];
+                double cx = uy * vz - uz * vy;
+                double cy = uz * vx - ux * vz;
+                double cz = ux * vy - uy * vx;
+                double dist = cx * cx + cy * cy + cz * cz;
+                if (dist > maxDist)
+                {
+                    maxDist = dist;
+                    i2 = i;
+                }
+            }
+            if (i2 == -1)
+            {
+                throw new IllegalArgumentException("Can not compute the hull of collinear points");
+            }
+
+            // the fourth vertex is the most distant from the plane (i0, i1, i2)
+            int i3 = -1;
+            maxDist = 0;
+            for (int i = 0; i < nPoints; i++)
+            {
+                double dist = Math.abs(orient(i0, i1, i2, i));
+                if (dist > maxDist)
+                {
+                    maxDist = dist;
+                    i3 = i;
+                }
+            }
+            if (i3 == -1)
+            {
+                throw new IllegalArgumentException("Can not compute the hull of coplanar points");
+            }
+
+            // orient the base triangle such that the fourth vertex is below
+            if (orient(i0, i1, i2, i3) > 0)
+            {
+                int tmp = i1;
+                i1 = i2;
+                i2 = tmp;
+            }
+
+            Face[] simplex = new Face[] {
+                    createFace(i0, i1, i2),
+                    createFace(i0, i3, i1),
+                    createFace(i1, i3, i2),
+                    createFace(i2, i3, i0) };
+
+            // link the opposite half-edges
+            for (Face f1 : simplex)
+            {
+                HalfEdge e1 = f1.edge;
+                do
+                {
+                    for (Face f2 : simplex)
+                    {
+                        HalfEdge e2 = f2.edge;
+                        do
+                        {
+                            if (e2.tail() == e1.vertex && e2.vertex == e1.tail())
+                            {
+                                e1.twin = e2;
+                            }
+                            e2 = e2.next;
+                        } while (e2 != f2.edge);
+                    }
+                    e1 = e1.next;
+                } while (e1 != f1.edge);
+            }
+
+            return simplex;
+        }
+
+        /**
+         * Assigns each point to the face of the initial simplex it is the
+         * most distant from, among the faces it lies above.
+         */
+        private void partitionPoints(Face[] initialFaces)
+        {
+            IntStream stream = IntStream.range(0, nPoints);
+            if (nPoints >= PARALLEL_THRESHOLD)
+            {
+                stream = stream.parallel();
+            }
+            int[] assignment = stream.map(i -> findConflictFace(initialFaces, i)).toArray();
+
+            for (int i = 0; i < nPoints; i++)
+            {
+                if (assignment[i] >= 0)
+                {
+                    initialFaces[assignment[i]].conflicts.add(i);
+                }
+            }
+        }
+
+        /**
+         * Returns the index of the face the point is the most distant from,
+         * among the faces the point lies above, or -1 if the point is not
+         * above any face.
+         */
+        private int findConflictFace(Face[] candidates, int index)
+        {
+            int best = -1;
+            double maxDist = 0;
+            for (int k = 0; k < candidates.length; k++)
+            {
+                Face face = candidates[k];
+                if (face.isVisible(index))
+                {
+                    double dist = face.distance(index);
+                    if (best == -1 || dist > maxDist)
+                    {
+                        best = k;
+                        maxDist = dist;
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds to the hull the conflict point of the face that is the most
+         * distant from the face.
+         */
+        private void addPoint(Face face)
+        {
+            // select the point the most distant from the face
+            IntList conflicts = face.conflicts;
+            int eye = conflicts.data[0];
+            double maxDist = face.distance(eye);
+            for (int k = 1; k < conflicts.size; k++)
+            {
+                double dist = face.distance(conflicts.data[k]);
+                if (dist > maxDist)
+                {
+                    maxDist = dist;
+                    eye = conflicts.data[k];
+                }
+            }
+
+            // Identify the faces visible from the eye point, by propagating
+            // from the current face. Visible faces are marked with the
+            // current stamp, invisible faces with its opposite.
+            stamp++;
+            ArrayList<Face> visibleFaces = new ArrayList<Face>();
+            visibleFaces.add(face);
+            face.mark = stamp;
+            int horizonSize = 0;
+            for (int k = 0; k < visibleFaces.size(); k++)
+            {
+                HalfEdge edge = visibleFaces.get(k).edge;
+                do
+                {
+                    Face neigh = edge.twin.face;
+                    if (neigh.mark != stamp && neigh.mark != -stamp)
+                    {
+                        if (neigh.isVisible(eye))
+                        {
+                            neigh.mark = stamp;
+                            visibleFaces.add(neigh);
+                        }
+                        else
+                        {
+                            neigh.mark = -stamp;
+                        }
+                    }
+                    if (neigh.mark == -stamp)
+                    {
+                        horizonSize++;
+                    }
+                    edge = edge.next;
+                } while (edge != visibleFaces.get(k).edge);
+            }
+
+            // compute the horizon, as a cycle of half-edges of visible faces
+            // whose opposite faces are not visible
+            HalfEdge first = null;
+            for (Face visible : visibleFaces)
+            {
+                HalfEdge edge = visible.edge;
+                do
+                {
+                    if (edge.twin.face.mark != stamp)
+                    {
+                        first = edge;
+                        break;
+                    }
+                    edge = edge.next;
+                } while (edge != visible.edge);
+                if (first != null) break;
+            }
+            ArrayList<HalfEdge> horizon = new ArrayList<HalfEdge>(horizonSize);
+            HalfEdge edge = first;
+            do
+            {
+                horizon.add(edge);
+                // turn around the head vertex until reaching an horizon edge
+                HalfEdge next = edge.next;
+                while (next.twin.face.mark == stamp)
+                {
+                    next = next.twin.next;
+                }
+                edge = next;
+            } while (edge != first && horizon.size() <= horizonSize);
+            if (horizon.size() != horizonSize)
+            {
+                throw new IllegalStateException("The region visible from point " + eye + " is not simply connected");
+            }
+
+            // create the cone of new faces joining horizon edges to eye point
+            int nh = horizon.size();
+            Face[] newFaces = new Face[nh];
+            for (int k = 0; k < nh; k++)
+            {
+                HalfEdge hedge = horizon.get(k);
+                Face newFace = createFace(hedge.tail(), hedge.vertex, eye);
+                newFace.edge.twin = hedge.twin;
+                hedge.twin.twin = newFace.edge;
+                newFaces[k] = newFace;
+            }
+            for (int k = 0; k < nh; k++)
+            {
+                HalfEdge e1 = newFaces[k].edge.next;
+                HalfEdge e2 = newFaces[(k + 1) % nh].edge.prev;
+                e1.twin = e2;
+                e2.twin = e1;
+            }
+
+            // remove visible faces, and reassign their conflict points
+            for (Face visible : visibleFaces)
+            {
+                visible.deleted = true;
+                IntList points = visible.conflicts;
+                for (int k = 0; k < points.size; k++)
+                {
+                    int index = points.data[k];
+                    if (index == eye) continue;
+                    int iFace = findConflictFace(newFaces, index);
+                    if (iFace >= 0)
+                    {
+                        newFaces[iFace].conflicts.add(index);
+                    }
+                }
+                visible.conflicts = null;
+            }
+        }
+
+        /**
+         * Creates a triangular face, and adds it to the list of faces.
+         */
+        private Face createFace(int i0, int i1, int i2)
+        {
+            HalfEdge e0 = new HalfEdge(i1);
+            HalfEdge e1 = new HalfEdge(i2);
+            HalfEdge e2 = new HalfEdge(i0);
+            e0.next = e1; e1.next = e2; e2.next = e0;
+            e0.prev = e2; e1.prev = e0; e2.prev = e1;
+
+            Face face = new Face(this, e0);
+            e0.face = face; e1.face = face; e2.face = face;
+            faces.add(face);
+            return face;
+        }
+
+        /**
+         * Converts the faces of the hull into a mesh, keeping only the
+         * vertices used by faces.
+         */
+        private SimpleTriMesh3D createMesh()
+        {
+            int[] vertexMap = new int[nPoints];
+            Arrays.fill(vertexMap, -1);
+            int nv = 0;
+            int nf = 0;
+            for (Face face : faces)
+            {
+                if (face.deleted) continue;
+                HalfEdge edge = face.edge;
+                do
+                {
+                    if (vertexMap[edge.vertex] == -1)
+                    {
+                        vertexMap[edge.vertex] = nv++;
+                    }
+                    edge = edge.next;
+                } while (edge != face.edge);
+                nf++;
+            }
+
+            double[] vertexCoords = new double[3 * nv];
+            for (int i = 0; i < nPoints; i++)
+            {
+                if (vertexMap[i] >= 0)
+                {
+                    System.arraycopy(coords, 3 * i, vertexCoords, 3 * vertexMap[i], 3);
+                }
+            }
+            int[] faceVertexIndices = new int[3 * nf];
+            int iFace = 0;
+            for (Face face : faces)
+            {
+                if (face.deleted) continue;
+                faceVertexIndices[3 * iFace] = vertexMap[face.edge.tail()];
+                faceVertexIndices[3 * iFace + 1] = vertexMap[face.edge.vertex];
+                faceVertexIndices[3 * iFace + 2] = vertexMap[face.edge.next.vertex];
+                iFace++;
+            }
+            return new SimpleTriMesh3D(vertexCoords, faceVertexIndices);
+        }
+
+        private double orient(int i0, int i1, int i2, int i3)
+        {
+            return Predicates3D.orient3d(
+                    coords[3 * i0], coords[3 * i0 + 1], coords[3 * i0 + 2],
+                    coords[3 * i1], coords[3 * i1 + 1], coords[3 * i1 + 2],
+                    coords[3 * i2], coords[3 * i2 + 1], coords[3 * i2 + 2],
+                    coords[3 * i3], coords[3 * i3 + 1], coords[3 * i3 + 2]);
+        }
+
+        private double distanceSq(int i0, int i1)
+        {
+            double dx = coords[3 * i1] - coords[3 * i0];
+            double dy = coords[3 * i1 + 1] - coords[3 * i0 + 1];
+            double dz = coords[3 * i1 + 2] - coords[3 * i0 + 2];
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /**
+     * A triangular face of the hull, with the list of points located above
+     * it.
+     */
+    private static final class Face
+    {
+        final Hull hull;
+
+        /**
+         * The half-edge from the first vertex to the second vertex.
+         */
+        final HalfEdge edge;
+
+        /**
+         * The unit normal and the offset of the supporting plane, used to
+         * compute distances.
+         */
+        final double nx, ny, nz, offset;
+
+        IntList conflicts = new IntList();
+        boolean deleted = false;
+        int mark = 0;
+
+        Face(Hull hull, HalfEdge edge)
+        {
+            this.hull = hull;
+            this.edge = edge;
+
+            double[] coords = hull.coords;
+            int i0 = 3 * edge.prev.vertex;
+            int i1 = 3 * edge.vertex;
+            int i2 = 3 * edge.next.vertex;
+            double ux = coords[i1] - coords[i0];
+            double uy = coords[i1 + 1] - coords[i0 + 1];
+            double uz = coords[i1 + 2] - coords[i0 + 2];
+            double vx = coords[i2] - coords[i0];
+            double vy = coords[i2 + 1] - coords[i0 + 1];
+            double vz = coords[i2 + 2] - coords[i0 + 2];
+            double cx = uy * vz - uz * vy;
+            double cy = uz * vx - ux * vz;
+            double cz = ux * vy - uy * vx;
+            double norm = Math.sqrt(cx * cx + cy * cy + cz * cz);
+            if (norm > 0)
+            {
+                cx /= norm;
+                cy /= norm;
+                cz /= norm;
+            }
+            this.nx = cx;
+            this.ny = cy;
+            this.nz = cz;
+            this.offset = cx * coords[i0] + cy * coords[i0 + 1] + cz * coords[i0 + 2];
+        }
+
+        /**
+         * Checks if the point with the specified index is strictly above the
+         * face.
+         */
+        boolean isVisible(int index)
+        {
+            return hull.orient(edge.prev.vertex, edge.vertex, edge.next.vertex, index) > 0;
+        }
+
+        /**
+         * Computes the (approximate) signed distance of a point to the plane
+         * of the face.
+         */
+        double distance(int index)
+        {
+            double[] coords = hull.coords;
+            return nx * coords[3 * index] + ny * coords[3 * index + 1] + nz * coords[3 * index + 2] - offset;
+        }
+    }
+
+    /**
+     * An half-edge of the hull, oriented counter-clockwise around its face
+     * when seen from outside.
+     */
+    private static final class HalfEdge
+    {
+        /**
+         * The index of the head vertex.
+         */
+        final int vertex;
+
+        HalfEdge next;
+        HalfEdge prev;
+        HalfEdge twin;
+        Face face;
+
+        HalfEdge(int vertex)
+        {
+            this.vertex = vertex;
+        }
+
+        int tail()
+        {
+            return prev.vertex;
+        }
+    }
+
+    /**
+     * A growable list of point indices.
+     */
+    private static final class IntList
+    {
+        int[] data = new int[4];
+        int size = 0;
+
+        void add(int value)
+        {
+            if (size == data.length)
+            {
+                data = Arrays.copyOf(data, 2 * size);
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -3,15 +3,11 @@
  */
 package net.ijt.geometry.mesh3d.process;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.Arrays;
 
-import net.ijt.geometry.geom3d.Point3D;
 import net.ijt.geometry.mesh3d.Mesh3D;
 import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
-import net.ijt.geometry.mesh3d.Mesh3D.Face;
-import net.ijt.geometry.mesh3d.Mesh3D.Vertex;
+import net.ijt.geometry.mesh3d.TriMeshEdges;
 
 /**
  * Smoothes a mesh
@@ -28,56 +24,68 @@ public class Smooth
     {
     }
     
+    /**
+     * Smoothes a triangular mesh, by replacing the position of each vertex
+     * by the average of its position and of the positions of its neighbors.
+     * 
+     * @param mesh
+     *            the triangular mesh to smooth
+     * @return a new mesh with the same topology as the input mesh
+     */
     public Mesh3D process(Mesh3D mesh)
     {
         // number of elements in the input mesh
         int nv = mesh.vertexCount();
         int nf = mesh.faceCount();
 
-        // create result mesh (assuming triangular mesh)
-        SimpleTriMesh3D result = new SimpleTriMesh3D(nv, nf);
+        // retrieve vertex coordinates and face vertex indices
+        double[] coords = new double[3 * nv];
+        double[] pos = new double[3];
+        for (int iv = 0; iv < nv; iv++)
+        {
+            mesh.vertexCoordinates(iv, pos);
+            System.arraycopy(pos, 0, coords, 3 * iv, 3);
+        }
+        int[] faces = new int[3 * nf];
+        int[] inds = new int[3];
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            if (mesh.faceVertexIndices(iFace, inds) != 3)
+            {
+                throw new IllegalArgumentException("Requires a mesh with triangular faces");
+            }
+            System.arraycopy(inds, 0, faces, 3 * iFace, 3);
+        }
 
-        // keep correspondence between vertices of the two meshes
-        Map<Mesh3D.Vertex, Mesh3D.Vertex> vertexMap = new HashMap<>();
+        // initialize averages with position of each vertex
+        double[] sums = coords.clone();
+        int[] counts = new int[nv];
+        Arrays.fill(counts, 1);
         
-        // Iterate over vertices
-        for (Mesh3D.Vertex vertex : mesh.vertices())
+        // neighbor vertices are the vertices sharing an edge
+        TriMeshEdges edges = new TriMeshEdges(faces);
+        for (int iEdge = 0; iEdge < edges.edgeCount(); iEdge++)
         {
-            // initialize average with position of current vertex
-            Point3D pos = vertex.position();
-            double xm = pos.x(), ym = pos.y(), zm = pos.z();
-            int nn = 1;
-            
-            // iterate over neighbors
-            for (Vertex neigh : mesh.vertexNeighbors(vertex))
+            int iv1 = edges.edgeSource(iEdge);
+            int iv2 = edges.edgeTarget(iEdge);
+            for (int d = 0; d < 3; d++)
             {
-                pos = neigh.position();
-                xm += pos.x(); 
-                ym += pos.y(); 
-                zm += pos.z();
-                nn++;
+                sums[3 * iv1 + d] += coords[3 * iv2 + d];
+                sums[3 * iv2 + d] += coords[3 * iv1 + d];
             }
-            
-            // divide by number of neighbors
-            xm /= nn;
-            ym /= nn;
-            zm /= nn;
-            
-            // add the new vertex, and keep correspondence with initial vertex
-            Vertex newVertex = result.addVertex(new Point3D(xm, ym, zm));
-            vertexMap.put(vertex, newVertex);
+            counts[iv1]++;
+            counts[iv2]++;
         }
         
-        // also add faces, using vertex correspondence
-        for (Face face : mesh.faces())
+        // divide by number of neighbors
+        for (int iv = 0; iv < nv; iv++)
         {
-            Iterator<? extends Vertex> iter = mesh.faceVertices(face).iterator();
-            Vertex v1 = vertexMap.get(iter.next());
-            Vertex v2 = vertexMap.get(iter.next());
-            Vertex v3 = vertexMap.get(iter.next());
-            result.addFace(v1, v2, v3);
+            for (int d = 0; d < 3; d++)
+            {
+                sums[3 * iv + d] /= counts[iv];
+            }
         }
         
-        return result;
+        return new SimpleTriMesh3D(sums, faces);
     }
 }
@@ -0,0 +1,300 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+import net.ijt.geometry.mesh3d.TriMeshEdges;
+
+/**
+ * Subdivides each triangular face of a mesh into four triangles, by creating
+ * a new vertex on each edge.
+ *
+ * Two schemes are available:
+ * <ul>
+ * <li>MIDPOINT: new vertices are placed at the middle of each edge, and
+ * original vertices are not moved. The shape of the mesh is preserved.</li>
+ * <li>LOOP: the scheme proposed by Charles Loop, where new vertices are
+ * computed as a weighted average of the vertices around each edge, and the
+ * original vertices are smoothed according to their neighbors. Boundary edges
+ * and vertices use the one-dimensional cubic B-spline rules.</li>
+ * </ul>
+ *
+ * Edges are identified using the packed-edge-key hash of the
+ * {@link TriMeshEdges} class, ensuring exactly one new vertex is created for
+ * each edge. Each level of subdivision results in (V + E) vertices and (4 * F)
+ * faces, and is computed directly within primitive arrays, without creating
+ * intermediate meshes.
+ *
+ * <pre>
+ * <code>
+ * Mesh3D mesh = Meshes3D.createOctahedron();
+ * Subdivision algo = new Subdivision(Subdivision.Scheme.LOOP, 3);
+ * SimpleTriMesh3D refined = algo.process(mesh);
+ * </code>
+ * </pre>
+ *
+ * @author dlegland
+ *
+ */
+public class Subdivision
+{
+    // ===================================================================
+    // Inner enumeration
+
+    /**
+     * The different schemes for computing the position of new vertices.
+     */
+    public enum Scheme
+    {
+        /** New vertices at the middle of edges, original vertices unchanged. */
+        MIDPOINT,
+        /** Loop subdivision scheme, resulting in smooth surfaces. */
+        LOOP
+    }
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The scheme used to compute vertex positions.
+     */
+    Scheme scheme;
+
+    /**
+     * The number of subdivision levels to apply.
+     */
+    int levelCount;
+
+
+    // ===================================================================
+    // Constructors
+
+    /**
+     * Creates a new subdivision operator that applies a single subdivision
+     * level.
+     *
+     * @param scheme
+     *            the scheme used to compute vertex positions
+     */
+    public Subdivision(Scheme scheme)
+    {
+        this(scheme, 1);
+    }
+
+    /**
+     * Creates a new subdivision operator.
+     *
+     * @param scheme
+     *            the scheme used to compute vertex positions
+     * @param levelCount
+     *            the number of subdivision levels to apply
+     */
+    public Subdivision(Scheme scheme, int levelCount)
+    {
+        if (levelCount < 0)
+        {
+            throw new IllegalArgumentException("Number of subdivision levels must be positive");
+        }
+        this.scheme = scheme;
+        this.levelCount = levelCount;
+    }
+
+
+    // ===================================================================
+    // Processing methods
+
+    /**
+     * Applies the subdivision to the specified triangular mesh.
+     *
+     * @param mesh
+     *            the triangular mesh to subdivide
+     * @return a new mesh with four times as many faces per subdivision level
+     */
+    public SimpleTriMesh3D process(Mesh3D mesh)
+    {
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+
+        for (int level = 0; level < this.levelCount; level++)
+        {
+            int nv = coords.length / 3;
+            TriMeshEdges edges = new TriMeshEdges(faces);
+            coords = this.scheme == Scheme.LOOP ? loopVertices(coords, faces, edges) : midpointVertices(coords, edges);
+            faces = subdivideFaces(faces, edges, nv);
+        }
+
+        return new SimpleTriMesh3D(coords, faces);
+    }
+
+
+    // ===================================================================
+    // Implementation
+
+    /**
+     * Computes the new array of faces, by splitting each face into four
+     * faces. The index of the vertex created on the edge e is given by nv + e.
+     */
+    private static final int[] subdivideFaces(int[] faces, TriMeshEdges edges, int nv)
+    {
+        int nf = faces.length / 3;
+        int[] res = new int[12 * nf];
+        int pos = 0;
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            int v0 = faces[3 * iFace];
+            int v1 = faces[3 * iFace + 1];
+            int v2 = faces[3 * iFace + 2];
+            int m0 = nv + edges.faceEdge(iFace, 0);
+            int m1 = nv + edges.faceEdge(iFace, 1);
+            int m2 = nv + edges.faceEdge(iFace, 2);
+
+            // the three corner faces, then the central face
+            res[pos++] = v0; res[pos++] = m0; res[pos++] = m2;
+            res[pos++] = v1; res[pos++] = m1; res[pos++] = m0;
+            res[pos++] = v2; res[pos++] = m2; res[pos++] = m1;
+            res[pos++] = m0; res[pos++] = m1; res[pos++] = m2;
+        }
+        return res;
+    }
+
+    /**
+     * Computes the coordinates of the subdivided mesh using the midpoint
+     * scheme: original vertices are kept, and the edge vertices are placed at
+     * the middle of each edge.
+     */
+    private static final double[] midpointVertices(double[] coords, TriMeshEdges edges)
+    {
+        int nv = coords.length / 3;
+        int ne = edges.edgeCount();
+        double[] res = new double[3 * (nv + ne)];
+        System.arraycopy(coords, 0, res, 0, 3 * nv);
+
+        for (int edge = 0; edge < ne; edge++)
+        {
+            int i1 = 3 * edges.edgeSource(edge);
+            int i2 = 3 * edges.edgeTarget(edge);
+            int j = 3 * (nv + edge);
+            res[j] = (coords[i1] + coords[i2]) * 0.5;
+            res[j + 1] = (coords[i1 + 1] + coords[i2 + 1]) * 0.5;
+            res[j + 2] = (coords[i1 + 2] + coords[i2 + 2]) * 0.5;
+        }
+        return res;
+    }
+
+    /**
+     * Computes the coordinates of the subdivided mesh using the Loop scheme.
+     */
+    private static final double[] loopVertices(double[] coords, int[] faces, TriMeshEdges edges)
+    {
+        int nv = coords.length / 3;
+        int ne = edges.edgeCount();
+        double[] res = new double[3 * (nv + ne)];
+
+        // accumulate the sum of neighbor coordinates, for all edges and for
+        // boundary edges only
+        double[] sums = new double[3 * nv];
+        int[] valences = new int[nv];
+        double[] boundarySums = new double[3 * nv];
+        int[] boundaryCounts = new int[nv];
+        for (int edge = 0; edge < ne; edge++)
+        {
+            int iv1 = edges.edgeSource(edge);
+            int iv2 = edges.edgeTarget(edge);
+            boolean boundary = edges.edgeFaceCount(edge) != 2;
+            for (int d = 0; d < 3; d++)
+            {
+                sums[3 * iv1 + d] += coords[3 * iv2 + d];
+                sums[3 * iv2 + d] += coords[3 * iv1 + d];
+                if (boundary)
+                {
+                    boundarySums[3 * iv1 + d] += coords[3 * iv2 + d];
+                    boundarySums[3 * iv2 + d] += coords[3 * iv1 + d];
+                }
+            }
+            valences[iv1]++;
+            valences[iv2]++;
+            if (boundary)
+            {
+                boundaryCounts[iv1]++;
+                boundaryCounts[iv2]++;
+            }
+        }
+
+        // update the position of original vertices
+        for (int iv = 0; iv < nv; iv++)
+        {
+            int n = valences[iv];
+            if (boundaryCounts[iv] == 2)
+            {
+                // regular boundary vertex
+                for (int d = 0; d < 3; d++)
+                {
+                    res[3 * iv + d] = 0.75 * coords[3 * iv + d] + 0.125 * boundarySums[3 * iv + d];
+                }
+            }
+            else if (boundaryCounts[iv] == 0 && n > 0)
+            {
+                // interior vertex
+                double c = 0.375 + 0.25 * Math.cos(2 * Math.PI / n);
+                double beta = (0.625 - c * c) / n;
+                for (int d = 0; d < 3; d++)
+                {
+                    res[3 * iv + d] = (1 - n * beta) * coords[3 * iv + d] + beta * sums[3 * iv + d];
+                }
+            }
+            else
+            {
+                // isolated, corner or non-manifold vertex: keep position
+                System.arraycopy(coords, 3 * iv, res, 3 * iv, 3);
+            }
+        }
+
+        // compute the position of edge vertices
+        for (int edge = 0; edge < ne; edge++)
+        {
+            int i1 = 3 * edges.edgeSource(edge);
+            int i2 = 3 * edges.edgeTarget(edge);
+            int j = 3 * (nv + edge);
+            if (edges.edgeFaceCount(edge) == 2)
+            {
+                // interior edge: also use the vertices opposite to the edge
+                int i3 = 3 * oppositeVertex(faces, edges.edgeFace(edge, 0), i1 / 3, i2 / 3);
+                int i4 = 3 * oppositeVertex(faces, edges.edgeFace(edge, 1), i1 / 3, i2 / 3);
+                for (int d = 0; d < 3; d++)
+                {
+                    res[j + d] = 0.375 * (coords[i1 + d] + coords[i2 + d]) + 0.125 * (coords[i3 + d] + coords[i4 + d]);
+                }
+            }
+            else
+            {
+                // boundary or non-manifold edge
+                for (int d = 0; d < 3; d++)
+                {
+                    res[j + d] = 0.5 * (coords[i1 + d] + coords[i2 + d]);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Returns the index of the vertex of the face that does not belong to the
+     * edge (iv1, iv2).
+     */
+    private static final int oppositeVertex(int[] faces, int face, int iv1, int iv2)
+    {
+        for (int k = 0; k < 3; k++)
+        {
+            int iv = faces[3 * face + k];
+            if (iv != iv1 && iv != iv2)
+            {
+                return iv;
+            }
+        }
+        throw new RuntimeException("Face " + face + " is degenerated");
+    }
+}
@@ -3,8 +3,11 @@
  */
 package net.ijt.geometry.polygon2d;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import net.ijt.geometry.geom2d.Bounds2D;
 import net.ijt.geometry.geom2d.LineSegment2D;
@@ -13,6 +16,10 @@ import net.ijt.geometry.geom2d.Point2D;
 /**
  * A polygonal region whose boundary is a single linear ring.
  * 
+ * Vertex coordinates are stored within two arrays of double, that can be
+ * wrapped without copy using the <code>wrap()</code> static factory. Vertex
+ * positions are returned as new instances of Point2D.
+ * 
  * @author dlegland
  * 
  * @see LinearRing2D
@@ -23,10 +30,49 @@ public class DefaultPolygon2D implements Polygon2D
     // Class variables
     
     /**
-     * The inner ordered list of vertices. The last point is connected to the
-     * first one.
+     * The x-coordinates of the vertices. The array may be larger than the
+     * number of vertices. The last vertex is connected to the first one.
+     */
+    protected double[] xcoords;
+    
+    /**
+     * The y-coordinates of the vertices. The array may be larger than the
+     * number of vertices.
      */
-    protected ArrayList<Point2D> vertices;
+    protected double[] ycoords;
+    
+    /**
+     * The number of vertices.
+     */
+    protected int vertexCount;
+    
+    
+    // ===================================================================
+    // Static factories
+    
+    /**
+     * Creates a new polygon that uses the specified arrays for storing
+     * vertex coordinates, without copying them. Subsequent modifications of
+     * the arrays are reflected by the polygon, until vertices are added.
+     * 
+     * @param xcoords
+     *            the x-coordinates of the vertices
+     * @param ycoords
+     *            the y-coordinates of the vertices
+     * @return a new polygon backed by the arrays
+     */
+    public static final DefaultPolygon2D wrap(double[] xcoords, double[] ycoords)
+    {
+        if (xcoords.length != ycoords.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        DefaultPolygon2D poly = new DefaultPolygon2D(0);
+        poly.xcoords = xcoords;
+        poly.ycoords = ycoords;
+        poly.vertexCount = xcoords.length;
+        return poly;
+    }
     
     
     // ===================================================================
@@ -37,13 +83,18 @@ public class DefaultPolygon2D implements Polygon2D
      */
     public DefaultPolygon2D()
     {
-        vertices = new ArrayList<Point2D>();
+        this(10);
     }
     
     public DefaultPolygon2D(Collection<? extends Point2D> points)
     {
-        this.vertices = new ArrayList<Point2D>(points.size());
-        this.vertices.addAll(points);
+        this(points.size());
+        for (Point2D point : points)
+        {
+            this.xcoords[vertexCount] = point.x();
+            this.ycoords[vertexCount] = point.y();
+            vertexCount++;
+        }
     }
 
     /**
@@ -54,13 +105,12 @@ public class DefaultPolygon2D implements Polygon2D
      */
     public DefaultPolygon2D(Point2D... vertices)
     {
-        this.vertices = new ArrayList<Point2D>(vertices.length);
-        for (Point2D vertex : vertices)
-            this.vertices.add(vertex);
+        this(Arrays.asList(vertices));
     }
     
     /**
-     * Constructor from two arrays, one for each coordinate.
+     * Constructor from two arrays, one for each coordinate. The arrays are
+     * copied. To avoid copying, use the <code>wrap()</code> static factory.
      * 
      * @param xcoords
      *            the x coordinate of each vertex
@@ -69,9 +119,13 @@ public class DefaultPolygon2D implements Polygon2D
      */
     public DefaultPolygon2D(double[] xcoords, double[] ycoords)
     {
-        this.vertices = new ArrayList<Point2D>(xcoords.length);
-        for (int i = 0; i < xcoords.length; i++)
-            this.vertices.add(new Point2D(xcoords[i], ycoords[i]));
+        if (xcoords.length != ycoords.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        this.xcoords = Arrays.copyOf(xcoords, xcoords.length);
+        this.ycoords = Arrays.copyOf(ycoords, ycoords.length);
+        this.vertexCount = xcoords.length;
     }
     
     /**
@@ -83,7 +137,9 @@ public class DefaultPolygon2D implements Polygon2D
 	 */
     public DefaultPolygon2D(int nVertices)
     {
-        this.vertices = new ArrayList<Point2D>(nVertices);
+        this.xcoords = new double[nVertices];
+        this.ycoords = new double[nVertices];
+        this.vertexCount = 0;
     }
     
     
@@ -94,7 +150,7 @@ public class DefaultPolygon2D implements Polygon2D
     public Iterable<LinearRing2D> rings()
     {
         ArrayList<LinearRing2D> rings = new ArrayList<LinearRing2D>(1); 
-        rings.add(new LinearRing2D(this.vertices));
+        rings.add(boundary());
         return rings;
     }
 
@@ -102,18 +158,19 @@ public class DefaultPolygon2D implements Polygon2D
     public DefaultPolygon2D complement()
     {
         // create a new collection of vertices in reverse order, keeping first vertex unchanged.
-        int n = this.vertexCount();
-        ArrayList<Point2D> newVertices = new ArrayList<Point2D>(n);
-        newVertices.add(this.vertices.get(0));
+        int n = this.vertexCount;
+        double[] newX = new double[n];
+        double[] newY = new double[n];
+        newX[0] = xcoords[0];
+        newY[0] = ycoords[0];
         for (int i = 1; i < n; i++)
         {
-            newVertices.add(this.vertices.get(n-i));
+            newX[i] = xcoords[n - i];
+            newY[i] = ycoords[n - i];
         }
         
-        // create a new SimplePolygon2D with this new set of vertices
-        DefaultPolygon2D reverse = new DefaultPolygon2D(0);
-        reverse.vertices = newVertices;
-        return reverse;
+        // create a new polygon with this new set of vertices
+        return wrap(newX, newY);
     }
 
     /**
@@ -130,17 +187,18 @@ public class DefaultPolygon2D implements Polygon2D
     public double signedArea() {
         double area = 0;
         
-        // number of vertices
-        int n = this.vertices.size();
-    
         // initialize with the last vertex
-        Point2D prev = this.vertices.get(n-1);
+        double xprev = xcoords[vertexCount - 1];
+        double yprev = ycoords[vertexCount - 1];
         
         // iterate on edges
-        for (Point2D point : vertices)
+        for (int i = 0; i < vertexCount; i++)
         {
-            area += prev.x() * point.y() - prev.y() * point.x();
-            prev = point;
+            double x = xcoords[i];
+            double y = ycoords[i];
+            area += xprev * y - yprev * x;
+            xprev = x;
+            yprev = y;
         }
         
         return area /= 2;
@@ -150,14 +208,27 @@ public class DefaultPolygon2D implements Polygon2D
     // Implementation of the Polygon2D interface
     
     /**
-     * Returns the vertex positions of this polygon. The result is a pointer to the inner
-     * collection of vertex positions.
+     * Returns a read-only view on the vertex positions of this polygon.
+     * Points are created on demand from the coordinate arrays.
      * 
-     * @return a reference to the inner vertex positions array
+     * @return a view on the vertex positions
      */
-    public Iterable<Point2D> vertexPositions() 
+    public List<Point2D> vertexPositions() 
     {
-        return vertices;
+        return new AbstractList<Point2D>()
+        {
+            @Override
+            public Point2D get(int index)
+            {
+                return vertexPosition(index);
+            }
+
+            @Override
+            public int size()
+            {
+                return vertexCount;
+            }
+        };
     }
         
     /**
@@ -165,22 +236,82 @@ public class DefaultPolygon2D implements Polygon2D
      */
     public int vertexCount()
     {
-        return this.vertices.size();
+        return this.vertexCount;
     }
 
     public void addVertex(Point2D vertexPosition)
     {
-        this.vertices.add(vertexPosition);
+        addVertex(vertexPosition.x(), vertexPosition.y());
+    }
+    
+    /**
+     * Adds a vertex at the end of the vertex list of this polygon.
+     * 
+     * @param x
+     *            the x-coordinate of the new vertex
+     * @param y
+     *            the y-coordinate of the new vertex
+     */
+    public void addVertex(double x, double y)
+    {
+        if (vertexCount == xcoords.length)
+        {
+            int newSize = Math.max(2 * vertexCount, 10);
+            this.xcoords = Arrays.copyOf(xcoords, newSize);
+            this.ycoords = Arrays.copyOf(ycoords, newSize);
+        }
+        xcoords[vertexCount] = x;
+        ycoords[vertexCount] = y;
+        vertexCount++;
     }
     
     public void removeVertex(int vertexIndex)
     {
-        this.vertices.remove(vertexIndex);
+        checkVertexIndex(vertexIndex);
+        int n = vertexCount - vertexIndex - 1;
+        System.arraycopy(xcoords, vertexIndex + 1, xcoords, vertexIndex, n);
+        System.arraycopy(ycoords, vertexIndex + 1, ycoords, vertexIndex, n);
+        vertexCount--;
     }
     
     public Point2D vertexPosition(int vertexIndex)
     {
-        return this.vertices.get(vertexIndex);
+        checkVertexIndex(vertexIndex);
+        return new Point2D(xcoords[vertexIndex], ycoords[vertexIndex]);
+    }
+    
+    /**
+     * Returns the x-coordinate of the specified vertex.
+     * 
+     * @param vertexIndex
+     *            the index of the vertex
+     * @return the x-coordinate of the vertex
+     */
+    public double vertexX(int vertexIndex)
+    {
+        checkVertexIndex(vertexIndex);
+        return xcoords[vertexIndex];
+    }
+    
+    /**
+     * Returns the y-coordinate of the specified vertex.
+     * 
+     * @param vertexIndex
+     *            the index of the vertex
+     * @return the y-coordinate of the vertex
+     */
+    public double vertexY(int vertexIndex)
+    {
+        checkVertexIndex(vertexIndex);
+        return ycoords[vertexIndex];
+    }
+    
+    private void checkVertexIndex(int vertexIndex)
+    {
+        if (vertexIndex < 0 || vertexIndex >= vertexCount)
+        {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds: " + vertexIndex);
+        }
     }
     
     /**
@@ -195,9 +326,11 @@ public class DefaultPolygon2D implements Polygon2D
         double minDist = Double.POSITIVE_INFINITY;
         int index = -1;
         
-        for (int i = 0; i < vertices.size(); i++)
+        double x = point.x();
+        double y = point.y();
+        for (int i = 0; i < vertexCount; i++)
         {
-            double dist = vertices.get(i).distance(point);
+            double dist = Math.hypot(xcoords[i] - x, ycoords[i] - y);
             if (dist < minDist)
             {
                 index = i;
@@ -215,7 +348,7 @@ public class DefaultPolygon2D implements Polygon2D
     @Override
     public LinearRing2D boundary()
     {
-        return new LinearRing2D(this.vertices);
+        return LinearRing2D.wrap(Arrays.copyOf(xcoords, vertexCount), Arrays.copyOf(ycoords, vertexCount));
     }
     
     /**
@@ -249,16 +382,15 @@ public class DefaultPolygon2D implements Polygon2D
         int winding = 0;
     
         // initialize with the last vertex
-        Point2D previous = this.vertices.get(vertices.size() - 1);
-        double xprev = previous.x();
-        double yprev = previous.y();
+        double xprev = xcoords[vertexCount - 1];
+        double yprev = ycoords[vertexCount - 1];
     
         // iterate on vertices, keeping coordinates of previous vertex in memory
-        for (Point2D current : vertices)
+        for (int i = 0; i < vertexCount; i++)
         {
             // coordinates of current vertex
-            double xcurr = current.x();
-            double ycurr = current.y();
+            double xcurr = xcoords[i];
+            double ycurr = ycoords[i];
     
             // update area computation
             area += xprev * ycurr - yprev * xcurr;
@@ -282,7 +414,6 @@ public class DefaultPolygon2D implements Polygon2D
             // for next iteration
             xprev = xcurr;
             yprev = ycurr;
-            previous = current;
         }
     
         if (area > 0) 
@@ -332,11 +463,12 @@ public class DefaultPolygon2D implements Polygon2D
     private boolean boundaryContains(Point2D point, double eps)
     {
         // Extract the vertex of the collection
-        Point2D previous = vertices.get(vertices.size() - 1);
+        Point2D previous = vertexPosition(vertexCount - 1);
         
         // iterate over pairs of adjacent vertices
-        for (Point2D current : this.vertices)
+        for (int i = 0; i < vertexCount; i++)
         {
+            Point2D current = vertexPosition(i);
             LineSegment2D edge = new LineSegment2D(previous, current);
             // avoid problem of degenerated line segments
             if (edge.length() == 0)
@@ -362,8 +494,7 @@ public class DefaultPolygon2D implements Polygon2D
             return 0;
         
         // computes distance to boundary
-        LinearRing2D boundary = new LinearRing2D(this.vertices);
-        return boundary.distance(x, y);
+        return boundary().distance(x, y);
     }
     
 
@@ -386,7 +517,18 @@ public class DefaultPolygon2D implements Polygon2D
     @Override
     public Bounds2D bounds()
     {
-        return Bounds2D.of(this.vertices);
+        double xmin = Double.POSITIVE_INFINITY;
+        double xmax = Double.NEGATIVE_INFINITY;
+        double ymin = Double.POSITIVE_INFINITY;
+        double ymax = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < vertexCount; i++)
+        {
+            xmin = Math.min(xmin, xcoords[i]);
+            xmax = Math.max(xmax, xcoords[i]);
+            ymin = Math.min(ymin, ycoords[i]);
+            ymax = Math.max(ymax, ycoords[i]);
+        }
+        return new Bounds2D(xmin, xmax, ymin, ymax);
     }
 
 }
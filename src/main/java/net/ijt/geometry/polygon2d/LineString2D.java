@@ -3,9 +3,12 @@
  */
 package net.ijt.geometry.polygon2d;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import net.ijt.geometry.geom2d.AffineTransform2D;
 import net.ijt.geometry.geom2d.LineSegment2D;
@@ -16,6 +19,11 @@ import net.ijt.geometry.geom2d.Point2D;
  * A LineString2D is an open polyline whose last point is NOT connected to the
  * first one.
  * </p>
+ * <p>
+ * Vertex coordinates are stored within two arrays of double, that can be
+ * wrapped without copy using the <code>wrap()</code> static factory. Vertex
+ * positions are returned as new instances of Point2D.
+ * </p>
  * 
  * @see LinearRing2D
  * 
@@ -26,14 +34,70 @@ public class LineString2D implements Polyline2D
     // ===================================================================
     // Class variables
 
-    private ArrayList<Point2D> vertices;
+    /**
+     * The x-coordinates of the vertices. The array may be larger than the
+     * number of vertices.
+     */
+    private double[] xcoords;
+
+    /**
+     * The y-coordinates of the vertices. The array may be larger than the
+     * number of vertices.
+     */
+    private double[] ycoords;
+
+    /**
+     * The number of vertices.
+     */
+    private int vertexCount;
+
+    /**
+     * The spatial index of the edges, computed on demand, and discarded when
+     * vertices are added or removed.
+     */
+    private volatile SegmentIndex2D segmentIndex = null;
+
+    /**
+     * The curvilinear abscissa of each vertex, computed on demand, and
+     * discarded when vertices are added or removed.
+     */
+    private volatile double[] cumulativeLengths = null;
+
+    // ===================================================================
+    // Static factories
+
+    /**
+     * Creates a new line string that uses the specified arrays for storing
+     * vertex coordinates, without copying them. Subsequent modifications of
+     * the arrays are reflected by the line string, until vertices are added.
+     * The segment index and the cumulative lengths cached by the line string
+     * are not updated by such modifications.
+     * 
+     * @param xcoords
+     *            the x-coordinates of the vertices
+     * @param ycoords
+     *            the y-coordinates of the vertices
+     * @return a new line string backed by the arrays
+     */
+    public static final LineString2D wrap(double[] xcoords, double[] ycoords)
+    {
+        if (xcoords.length != ycoords.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        LineString2D line = new LineString2D(0);
+        line.xcoords = xcoords;
+        line.ycoords = ycoords;
+        line.vertexCount = xcoords.length;
+        return line;
+    }
 
     // ===================================================================
     // Contructors
 
     public LineString2D()
     {
-        this.vertices = new ArrayList<Point2D>();
+        this(10);
     }
 
     /**
@@ -45,44 +109,71 @@ public class LineString2D implements Polyline2D
      */
     public LineString2D(int nVertices)
     {
-        this.vertices = new ArrayList<Point2D>(nVertices);
+        this.xcoords = new double[nVertices];
+        this.ycoords = new double[nVertices];
+        this.vertexCount = 0;
     }
 
     public LineString2D(Point2D... vertices)
     {
-        this.vertices = new ArrayList<Point2D>(vertices.length);
-        for (Point2D vertex : vertices)
-        {
-            this.vertices.add(vertex);
-        }
+        this(Arrays.asList(vertices));
     }
 
     public LineString2D(Collection<? extends Point2D> vertices)
     {
-        this.vertices = new ArrayList<Point2D>(vertices.size());
-        this.vertices.addAll(vertices);
+        this(vertices.size());
+        for (Point2D vertex : vertices)
+        {
+            this.xcoords[vertexCount] = vertex.x();
+            this.ycoords[vertexCount] = vertex.y();
+            vertexCount++;
+        }
     }
 
+    /**
+     * Creates a new line string from the coordinates of the vertices. The
+     * arrays are copied. To avoid copying, use the <code>wrap()</code> static
+     * factory.
+     * 
+     * @param xcoords
+     *            the x-coordinates of the vertices
+     * @param ycoords
+     *            the y-coordinates of the vertices
+     */
     public LineString2D(double[] xcoords, double[] ycoords)
     {
-        this.vertices = new ArrayList<Point2D>(xcoords.length);
-        int n = xcoords.length;
-        this.vertices.ensureCapacity(n);
-        for (int i = 0; i < n; i++)
+        if (xcoords.length != ycoords.length)
         {
-            vertices.add(new Point2D(xcoords[i], ycoords[i]));
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
         }
+        this.xcoords = Arrays.copyOf(xcoords, xcoords.length);
+        this.ycoords = Arrays.copyOf(ycoords, ycoords.length);
+        this.vertexCount = xcoords.length;
     }
 
     // ===================================================================
     // Management of vertices
 
     /**
-     * Returns the inner collection of vertices.
+     * Returns a read-only view on the vertex positions. Points are created
+     * on demand from the coordinate arrays.
      */
-    public Iterable<Point2D> vertexPositions()
+    public List<Point2D> vertexPositions()
     {
-        return vertices;
+        return new AbstractList<Point2D>()
+        {
+            @Override
+            public Point2D get(int index)
+            {
+                return vertexPosition(index);
+            }
+
+            @Override
+            public int size()
+            {
+                return vertexCount;
+            }
+        };
     }
 
     /**
@@ -92,22 +183,86 @@ public class LineString2D implements Polyline2D
      */
     public int vertexCount()
     {
-        return vertices.size();
+        return vertexCount;
     }
 
     public void addVertex(Point2D vertexPosition)
     {
-        this.vertices.add(vertexPosition);
+        addVertex(vertexPosition.x(), vertexPosition.y());
+    }
+
+    /**
+     * Adds a vertex at the end of this line string.
+     * 
+     * @param x
+     *            the x-coordinate of the new vertex
+     * @param y
+     *            the y-coordinate of the new vertex
+     */
+    public void addVertex(double x, double y)
+    {
+        if (vertexCount == xcoords.length)
+        {
+            int newSize = Math.max(2 * vertexCount, 10);
+            this.xcoords = Arrays.copyOf(xcoords, newSize);
+            this.ycoords = Arrays.copyOf(ycoords, newSize);
+        }
+        xcoords[vertexCount] = x;
+        ycoords[vertexCount] = y;
+        vertexCount++;
+        segmentIndex = null;
+        cumulativeLengths = null;
     }
 
     public void removeVertex(int vertexIndex)
     {
-        this.vertices.remove(vertexIndex);
+        checkVertexIndex(vertexIndex);
+        int n = vertexCount - vertexIndex - 1;
+        System.arraycopy(xcoords, vertexIndex + 1, xcoords, vertexIndex, n);
+        System.arraycopy(ycoords, vertexIndex + 1, ycoords, vertexIndex, n);
+        vertexCount--;
+        segmentIndex = null;
+        cumulativeLengths = null;
     }
 
     public Point2D vertexPosition(int vertexIndex)
     {
-        return this.vertices.get(vertexIndex);
+        checkVertexIndex(vertexIndex);
+        return new Point2D(xcoords[vertexIndex], ycoords[vertexIndex]);
+    }
+
+    /**
+     * Returns the x-coordinate of the specified vertex.
+     * 
+     * @param vertexIndex
+     *            the index of the vertex
+     * @return the x-coordinate of the vertex
+     */
+    public double vertexX(int vertexIndex)
+    {
+        checkVertexIndex(vertexIndex);
+        return xcoords[vertexIndex];
+    }
+
+    /**
+     * Returns the y-coordinate of the specified vertex.
+     * 
+     * @param vertexIndex
+     *            the index of the vertex
+     * @return the y-coordinate of the vertex
+     */
+    public double vertexY(int vertexIndex)
+    {
+        checkVertexIndex(vertexIndex);
+        return ycoords[vertexIndex];
+    }
+
+    private void checkVertexIndex(int vertexIndex)
+    {
+        if (vertexIndex < 0 || vertexIndex >= vertexCount)
+        {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds: " + vertexIndex);
+        }
     }
 
     /**
@@ -122,9 +277,11 @@ public class LineString2D implements Polyline2D
         double minDist = Double.POSITIVE_INFINITY;
         int index = -1;
 
-        for (int i = 0; i < vertices.size(); i++)
+        double x = point.x();
+        double y = point.y();
+        for (int i = 0; i < vertexCount; i++)
         {
-            double dist = vertices.get(i).distance(point);
+            double dist = Math.hypot(xcoords[i] - x, ycoords[i] - y);
             if (dist < minDist)
             {
                 index = i;
@@ -138,6 +295,47 @@ public class LineString2D implements Polyline2D
     // ===================================================================
     // Methods implementing the Polyline2D interface
 
+    /**
+     * Returns the spatial index of the edges of this line string. The index is
+     * computed at the first call, and kept until vertices are added or
+     * removed.
+     * 
+     * @return the spatial index of the edges
+     */
+    @Override
+    public SegmentIndex2D segmentIndex()
+    {
+        SegmentIndex2D index = this.segmentIndex;
+        if (index == null)
+        {
+            index = new SegmentIndex2D(xcoords, ycoords, vertexCount, false);
+            this.segmentIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Computes the distance to the closest edge, using the segment index.
+     * 
+     * @param x
+     *            the x-coordinate of the point to test.
+     * @param y
+     *            the y-coordinate of the point to test.
+     * @return the distance to the line string.
+     */
+    @Override
+    public double distance(double x, double y)
+    {
+        return segmentIndex().distance(x, y);
+    }
+
+    @Override
+    public Point2D projection(Point2D point)
+    {
+        Point2D proj = segmentIndex().projection(point.x(), point.y());
+        return proj != null ? proj : vertexPosition(0);
+    }
+
     public LineString2D resampleBySpacing(double spacing)
     {
         // compute vertex number of resulting curve
@@ -147,16 +345,52 @@ public class LineString2D implements Polyline2D
         // adjust step length to avoid last edge to have different size
         double spacing2 = length / nv;
 
-        // create new vertices
-        ArrayList<Point2D> vertices2 = new ArrayList<Point2D>(nv);
+        // compute positions of new vertices, the last vertex being kept
+        int n = Math.max(nv - 1, 0);
+        double[] positions = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            positions[i] = Math.min(i * spacing2, length);
+        }
+
+        double[] xs = new double[n + 1];
+        double[] ys = new double[n + 1];
+        pointsAtLengths(positions, n, xs, ys);
+        xs[n] = xcoords[vertexCount - 1];
+        ys[n] = ycoords[vertexCount - 1];
+        return wrap(xs, ys);
+    }
+
+    /**
+     * Re-samples this line string into a new line string with the specified
+     * number of vertices. The first and last vertices are kept, and all the
+     * edges of the new line string have the same curvilinear length on this
+     * line string.
+     * 
+     * @param nv
+     *            the number of vertices of the new line string, at least two
+     * @return a re-sampled line string.
+     */
+    @Override
+    public LineString2D resampleByCount(int nv)
+    {
+        if (nv < 2)
+        {
+            throw new IllegalArgumentException("Requires at least two vertices");
+        }
+        double length = this.length();
+        double[] positions = new double[nv - 1];
         for (int i = 0; i < nv - 1; i++)
         {
-            double pos = Math.min(i * spacing2, length);
-            vertices2.add(getPointAtLength(pos));
+            positions[i] = i * length / (nv - 1);
         }
-        vertices2.add(this.vertices.get(this.vertices.size() - 1));
 
-        return new LineString2D(vertices2);
+        double[] xs = new double[nv];
+        double[] ys = new double[nv];
+        pointsAtLengths(positions, nv - 1, xs, ys);
+        xs[nv - 1] = xcoords[vertexCount - 1];
+        ys[nv - 1] = ycoords[vertexCount - 1];
+        return wrap(xs, ys);
     }
 
     /**
@@ -167,41 +401,139 @@ public class LineString2D implements Polyline2D
     @Override
     public LineString2D reverse()
     {
-        int n = this.vertexCount();
-        ArrayList<Point2D> newVertices = new ArrayList<Point2D>(n);
+        int n = this.vertexCount;
+        double[] newX = new double[n];
+        double[] newY = new double[n];
         for (int i = 0; i < n; i++)
         {
-            newVertices.add(this.vertices.get(n - 1 - i));
+            newX[i] = xcoords[n - 1 - i];
+            newY[i] = ycoords[n - 1 - i];
         }
 
-        LineString2D reverse = new LineString2D(0);
-        reverse.vertices = newVertices;
-        return reverse;
+        return wrap(newX, newY);
     }
 
     public Point2D getPointAtLength(double pos)
     {
-        double cumSum = 0;
-        Iterator<Point2D> vertexIter = vertices.iterator();
-        Point2D prev = vertexIter.next();
-        while (vertexIter.hasNext())
+        if (vertexCount < 2)
         {
-            Point2D vertex = vertexIter.next();
-            double dist = vertex.distance(prev);
-            cumSum += dist;
-            if (cumSum >= pos)
+            return vertexPosition(0);
+        }
+        double[] cum = cumulativeLengths();
+        double[] xs = new double[1];
+        double[] ys = new double[1];
+        interpolate(cum, edgeIndexAtLength(cum, pos), pos, xs, ys, 0);
+        return new Point2D(xs[0], ys[0]);
+    }
+
+    @Override
+    public List<Point2D> pointsAtLengths(double[] positions)
+    {
+        int n = positions.length;
+        ArrayList<Point2D> points = new ArrayList<Point2D>(n);
+        if (vertexCount < 2)
+        {
+            for (double pos : positions)
             {
-                double pos0 = pos - cumSum + dist;
-                double t1 = pos0 / dist;
-                double t0 = 1 - t1;
+                points.add(getPointAtLength(pos));
+            }
+            return points;
+        }
 
-                double x = prev.x() * t0 + vertex.x() * t1;
-                double y = prev.y() * t0 + vertex.y() * t1;
-                return new Point2D(x, y);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        pointsAtLengths(positions, n, xs, ys);
+        for (int k = 0; k < n; k++)
+        {
+            points.add(new Point2D(xs[k], ys[k]));
+        }
+        return points;
+    }
+
+    /**
+     * Returns the curvilinear abscissa of each vertex, the last element
+     * being the length of the line string.
+     */
+    private double[] cumulativeLengths()
+    {
+        double[] cum = this.cumulativeLengths;
+        if (cum == null)
+        {
+            int ne = Math.max(vertexCount - 1, 0);
+            cum = new double[ne + 1];
+            for (int i = 0; i < ne; i++)
+            {
+                int i1 = i + 1 == vertexCount ? 0 : i + 1;
+                cum[i + 1] = cum[i] + Math.hypot(xcoords[i1] - xcoords[i], ycoords[i1] - ycoords[i]);
+            }
+            this.cumulativeLengths = cum;
+        }
+        return cum;
+    }
+
+    /**
+     * Finds the edge containing the curvilinear abscissa, as the first edge
+     * whose end abscissa is greater than or equal to the position, using
+     * binary search.
+     */
+    private static final int edgeIndexAtLength(double[] cum, double pos)
+    {
+        int lo = 0;
+        int hi = cum.length - 2;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (cum[mid + 1] >= pos)
+            {
+                hi = mid;
+            }
+            else
+            {
+                lo = mid + 1;
             }
-            prev = vertex;
         }
-        return prev;
+        return lo;
+    }
+
+    /**
+     * Computes the coordinates of the point at the given curvilinear
+     * abscissa, located on the specified edge, and stores them at index k of
+     * the result arrays.
+     */
+    private void interpolate(double[] cum, int edge, double pos, double[] xs, double[] ys, int k)
+    {
+        int i1 = edge + 1 == vertexCount ? 0 : edge + 1;
+        double dist = cum[edge + 1] - cum[edge];
+        double t1 = dist > 0 ? Math.max(Math.min((pos - cum[edge]) / dist, 1), 0) : 0;
+        double t0 = 1 - t1;
+        xs[k] = xcoords[edge] * t0 + xcoords[i1] * t1;
+        ys[k] = ycoords[edge] * t0 + ycoords[i1] * t1;
+    }
+
+    /**
+     * Computes the coordinates of the points at the specified curvilinear
+     * abscissas. Positions sorted in increasing order are processed with a
+     * single walk along the edges, and the edge of a position lower than the
+     * previous one is found using binary search.
+     */
+    private void pointsAtLengths(double[] positions, int count, double[] xs, double[] ys)
+    {
+        double[] cum = cumulativeLengths();
+        int lastEdge = cum.length - 2;
+        int edge = 0;
+        for (int k = 0; k < count; k++)
+        {
+            double pos = positions[k];
+            if (pos < cum[edge])
+            {
+                edge = edgeIndexAtLength(cum, pos);
+            }
+            while (edge < lastEdge && cum[edge + 1] < pos)
+            {
+                edge++;
+            }
+            interpolate(cum, edge, pos, xs, ys, k);
+        }
     }
 
     // ===================================================================
@@ -209,7 +541,7 @@ public class LineString2D implements Polyline2D
 
     public Polyline2D.Edge edge(int edgeIndex)
     {
-        if (edgeIndex < 0 || edgeIndex >= vertices.size() - 1)
+        if (edgeIndex < 0 || edgeIndex >= vertexCount - 1)
         { throw new RuntimeException("Edge index out of bounds: " + edgeIndex); }
         return new Edge(edgeIndex);
     }
@@ -238,18 +570,8 @@ public class LineString2D implements Polyline2D
 
     public double length()
     {
-        double cumSum = 0.0;
-        Iterator<Point2D> vertexIter = vertices.iterator();
-        Point2D prev = vertexIter.next();
-        while (vertexIter.hasNext())
-        {
-            Point2D vertex = vertexIter.next();
-            double dist = vertex.distance(prev);
-            cumSum += dist;
-            prev = vertex;
-        }
-
-        return cumSum;
+        double[] cum = cumulativeLengths();
+        return cum[cum.length - 1];
     }
 
     @Override
@@ -263,20 +585,18 @@ public class LineString2D implements Polyline2D
         // index of vertex before point
         int ind0 = (int) Math.floor(t + Double.MIN_VALUE);
         double tl = t - ind0;
-        Point2D p0 = vertices.get(ind0);
 
         // check if equal to last vertex
-        if (t == t1) return p0;
+        if (t == t1) return vertexPosition(ind0);
 
         // index of vertex after point
         int ind1 = ind0 + 1;
-        Point2D p1 = vertices.get(ind1);
 
         // position on line;
-        double x0 = p0.x();
-        double y0 = p0.y();
-        double dx = p1.x() - x0;
-        double dy = p1.y() - y0;
+        double x0 = xcoords[ind0];
+        double y0 = ycoords[ind0];
+        double dx = xcoords[ind1] - x0;
+        double dy = ycoords[ind1] - y0;
         return new Point2D(x0 + tl * dx, y0 + tl * dy);
     }
 
@@ -289,7 +609,7 @@ public class LineString2D implements Polyline2D
     @Override
     public double t1()
     {
-        return vertices.size() - 1;
+        return vertexCount - 1;
     }
 
     @Override
@@ -310,16 +630,19 @@ public class LineString2D implements Polyline2D
      */
     public LineString2D transform(AffineTransform2D trans)
     {
-        int n = this.vertexCount();
-        ArrayList<Point2D> newVertices = new ArrayList<Point2D>(n);
+        int n = this.vertexCount;
+        double[][] mat = trans.affineMatrix();
+        double[] newX = new double[n];
+        double[] newY = new double[n];
         for (int i = 0; i < n; i++)
         {
-            newVertices.add(this.vertices.get(i).transform(trans));
+            double x = xcoords[i];
+            double y = ycoords[i];
+            newX[i] = x * mat[0][0] + y * mat[0][1] + mat[0][2];
+            newY[i] = x * mat[1][0] + y * mat[1][1] + mat[1][2];
         }
 
-        LineString2D res = new LineString2D(0);
-        res.vertices = newVertices;
-        return res;
+        return wrap(newX, newY);
     }
 
     // ===================================================================
@@ -337,7 +660,7 @@ public class LineString2D implements Polyline2D
         @Override
         public Point2D position()
         {
-            return vertices.get(this.index);
+            return vertexPosition(this.index);
         }
     }
 
@@ -365,9 +688,7 @@ public class LineString2D implements Polyline2D
         @Override
         public LineSegment2D curve()
         {
-            Point2D v1 = vertices.get(this.index);
-            Point2D v2 = vertices.get(this.index + 1);
-            return new LineSegment2D(v1, v2);
+            return new LineSegment2D(vertexPosition(this.index), vertexPosition(this.index + 1));
         }
     }
 
@@ -384,7 +705,7 @@ public class LineString2D implements Polyline2D
         @Override
         public boolean hasNext()
         {
-            return index < vertices.size() - 1;
+            return index < vertexCount - 1;
         }
 
         @Override
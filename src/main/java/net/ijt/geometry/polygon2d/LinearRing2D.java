@@ -3,9 +3,12 @@
  */
 package net.ijt.geometry.polygon2d;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import net.ijt.geometry.geom2d.AffineTransform2D;
 import net.ijt.geometry.geom2d.Contour2D;
@@ -25,6 +28,11 @@ import net.ijt.geometry.geom2d.Point2D;
  * <li>it is consistent with the JTS name</li>
  * </ul>
  * </p>
+ * <p>
+ * Vertex coordinates are stored within two arrays of double, that can be
+ * wrapped without copy using the <code>wrap()</code> static factory. Vertex
+ * positions are returned as new instances of Point2D.
+ * </p>
  * 
  * @author dlegland
  */
@@ -33,14 +41,70 @@ public class LinearRing2D implements Polyline2D, Contour2D
     // ===================================================================
     // Class variables
 
-    private ArrayList<Point2D> vertices;
+    /**
+     * The x-coordinates of the vertices. The array may be larger than the
+     * number of vertices.
+     */
+    private double[] xcoords;
+
+    /**
+     * The y-coordinates of the vertices. The array may be larger than the
+     * number of vertices.
+     */
+    private double[] ycoords;
+
+    /**
+     * The number of vertices.
+     */
+    private int vertexCount;
+
+    /**
+     * The spatial index of the edges, computed on demand, and discarded when
+     * vertices are added or removed.
+     */
+    private volatile SegmentIndex2D segmentIndex = null;
+
+    /**
+     * The curvilinear abscissa of each vertex, computed on demand, and
+     * discarded when vertices are added or removed.
+     */
+    private volatile double[] cumulativeLengths = null;
+
+    // ===================================================================
+    // Static factories
+
+    /**
+     * Creates a new linear ring that uses the specified arrays for storing
+     * vertex coordinates, without copying them. Subsequent modifications of
+     * the arrays are reflected by the linear ring, until vertices are added.
+     * The segment index and the cumulative lengths cached by the linear ring
+     * are not updated by such modifications.
+     * 
+     * @param xcoords
+     *            the x-coordinates of the vertices
+     * @param ycoords
+     *            the y-coordinates of the vertices
+     * @return a new linear ring backed by the arrays
+     */
+    public static final LinearRing2D wrap(double[] xcoords, double[] ycoords)
+    {
+        if (xcoords.length != ycoords.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        LinearRing2D ring = new LinearRing2D(0);
+        ring.xcoords = xcoords;
+        ring.ycoords = ycoords;
+        ring.vertexCount = xcoords.length;
+        return ring;
+    }
 
     // ===================================================================
     // Contructors
 
     public LinearRing2D()
     {
-        this.vertices = new ArrayList<Point2D>();
+        this(10);
     }
 
     /**
@@ -52,33 +116,46 @@ public class LinearRing2D implements Polyline2D, Contour2D
      */
     public LinearRing2D(int nVertices)
     {
-        this.vertices = new ArrayList<Point2D>(nVertices);
+        this.xcoords = new double[nVertices];
+        this.ycoords = new double[nVertices];
+        this.vertexCount = 0;
     }
 
     public LinearRing2D(Point2D... vertices)
     {
-        this.vertices = new ArrayList<Point2D>(vertices.length);
-        for (Point2D vertex : vertices)
-        {
-            this.vertices.add(vertex);
-        }
+        this(Arrays.asList(vertices));
     }
 
     public LinearRing2D(Collection<? extends Point2D> vertices)
     {
-        this.vertices = new ArrayList<Point2D>(vertices.size());
-        this.vertices.addAll(vertices);
+        this(vertices.size());
+        for (Point2D vertex : vertices)
+        {
+            this.xcoords[vertexCount] = vertex.x();
+            this.ycoords[vertexCount] = vertex.y();
+            vertexCount++;
+        }
     }
 
+    /**
+     * Creates a new linear ring from the coordinates of the vertices. The
+     * arrays are copied. To avoid copying, use the <code>wrap()</code> static
+     * factory.
+     * 
+     * @param xcoords
+     *            the x-coordinates of the vertices
+     * @param ycoords
+     *            the y-coordinates of the vertices
+     */
     public LinearRing2D(double[] xcoords, double[] ycoords)
     {
-        this.vertices = new ArrayList<Point2D>(xcoords.length);
-        int n = xcoords.length;
-        this.vertices.ensureCapacity(n);
-        for (int i = 0; i < n; i++)
+        if (xcoords.length != ycoords.length)
         {
-            vertices.add(new Point2D(xcoords[i], ycoords[i]));
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
         }
+        this.xcoords = Arrays.copyOf(xcoords, xcoords.length);
+        this.ycoords = Arrays.copyOf(ycoords, ycoords.length);
+        this.vertexCount = xcoords.length;
     }
 
     // ===================================================================
@@ -91,8 +168,9 @@ public class LinearRing2D implements Polyline2D, Contour2D
         int M1 = (int) Math.floor((smoothingSize - 1) / 2);
         int M2 = (int) Math.ceil((smoothingSize - 1) / 2);
 
-        int nv = this.vertices.size();
-        LinearRing2D res = new LinearRing2D(nv);
+        int nv = this.vertexCount;
+        double[] resX = new double[nv];
+        double[] resY = new double[nv];
 
         for (int i = 0; i < nv; i++)
         {
@@ -100,17 +178,15 @@ public class LinearRing2D implements Polyline2D, Contour2D
             double y = 0;
             for (int i2 = i - M1; i2 <= i + M2; i2++)
             {
-                Point2D v = vertices.get((i2 % nv + nv) % nv);
-                x += v.x();
-                y += v.y();
+                int i3 = (i2 % nv + nv) % nv;
+                x += xcoords[i3];
+                y += ycoords[i3];
             }
-            x /= smoothingSize;
-            y /= smoothingSize;
-
-            res.addVertex(new Point2D(x, y));
+            resX[i] = x / smoothingSize;
+            resY[i] = y / smoothingSize;
         }
 
-        return res;
+        return wrap(resX, resY);
     }
 
     /**
@@ -125,9 +201,11 @@ public class LinearRing2D implements Polyline2D, Contour2D
         double minDist = Double.POSITIVE_INFINITY;
         int index = -1;
 
-        for (int i = 0; i < vertices.size(); i++)
+        double x = point.x();
+        double y = point.y();
+        for (int i = 0; i < vertexCount; i++)
         {
-            double dist = vertices.get(i).distance(point);
+            double dist = Math.hypot(xcoords[i] - x, ycoords[i] - y);
             if (dist < minDist)
             {
                 index = i;
@@ -150,15 +228,19 @@ public class LinearRing2D implements Polyline2D, Contour2D
     public double signedArea()
     {
         // start from edge joining last and first vertices
-        Point2D prev = this.vertices.get(this.vertices.size() - 1);
+        double xprev = xcoords[vertexCount - 1];
+        double yprev = ycoords[vertexCount - 1];
 
         // Iterate over all couples of adjacent vertices
         double area = 0;
-        for (Point2D point : this.vertices)
+        for (int i = 0; i < vertexCount; i++)
         {
             // add area of elementary parallelogram
-            area += prev.x() * point.y() - prev.y() * point.x();
-            prev = point;
+            double x = xcoords[i];
+            double y = ycoords[i];
+            area += xprev * y - yprev * x;
+            xprev = x;
+            yprev = y;
         }
 
         // divides by 2 to consider only elementary triangles
@@ -169,11 +251,25 @@ public class LinearRing2D implements Polyline2D, Contour2D
     // Management of vertices
 
     /**
-     * Returns the inner collection of vertices.
+     * Returns a read-only view on the vertex positions. Points are created
+     * on demand from the coordinate arrays.
      */
-    public Iterable<Point2D> vertexPositions()
+    public List<Point2D> vertexPositions()
     {
-        return vertices;
+        return new AbstractList<Point2D>()
+        {
+            @Override
+            public Point2D get(int index)
+            {
+                return vertexPosition(index);
+            }
+
+            @Override
+            public int size()
+            {
+                return vertexCount;
+            }
+        };
     }
 
     /**
@@ -183,27 +279,133 @@ public class LinearRing2D implements Polyline2D, Contour2D
      */
     public int vertexCount()
     {
-        return vertices.size();
+        return vertexCount;
     }
 
     public void addVertex(Point2D vertexPosition)
     {
-        this.vertices.add(vertexPosition);
+        addVertex(vertexPosition.x(), vertexPosition.y());
+    }
+
+    /**
+     * Adds a vertex at the end of this linear ring.
+     * 
+     * @param x
+     *            the x-coordinate of the new vertex
+     * @param y
+     *            the y-coordinate of the new vertex
+     */
+    public void addVertex(double x, double y)
+    {
+        if (vertexCount == xcoords.length)
+        {
+            int newSize = Math.max(2 * vertexCount, 10);
+            this.xcoords = Arrays.copyOf(xcoords, newSize);
+            this.ycoords = Arrays.copyOf(ycoords, newSize);
+        }
+        xcoords[vertexCount] = x;
+        ycoords[vertexCount] = y;
+        vertexCount++;
+        segmentIndex = null;
+        cumulativeLengths = null;
     }
 
     public void removeVertex(int vertexIndex)
     {
-        this.vertices.remove(vertexIndex);
+        checkVertexIndex(vertexIndex);
+        int n = vertexCount - vertexIndex - 1;
+        System.arraycopy(xcoords, vertexIndex + 1, xcoords, vertexIndex, n);
+        System.arraycopy(ycoords, vertexIndex + 1, ycoords, vertexIndex, n);
+        vertexCount--;
+        segmentIndex = null;
+        cumulativeLengths = null;
     }
 
     public Point2D vertexPosition(int vertexIndex)
     {
-        return this.vertices.get(vertexIndex);
+        checkVertexIndex(vertexIndex);
+        return new Point2D(xcoords[vertexIndex], ycoords[vertexIndex]);
+    }
+
+    /**
+     * Returns the x-coordinate of the specified vertex.
+     * 
+     * @param vertexIndex
+     *            the index of the vertex
+     * @return the x-coordinate of the vertex
+     */
+    public double vertexX(int vertexIndex)
+    {
+        checkVertexIndex(vertexIndex);
+        return xcoords[vertexIndex];
+    }
+
+    /**
+     * Returns the y-coordinate of the specified vertex.
+     * 
+     * @param vertexIndex
+     *            the index of the vertex
+     * @return the y-coordinate of the vertex
+     */
+    public double vertexY(int vertexIndex)
+    {
+        checkVertexIndex(vertexIndex);
+        return ycoords[vertexIndex];
+    }
+
+    private void checkVertexIndex(int vertexIndex)
+    {
+        if (vertexIndex < 0 || vertexIndex >= vertexCount)
+        {
+            throw new IndexOutOfBoundsException("Vertex index out of bounds: " + vertexIndex);
+        }
     }
 
     // ===================================================================
     // Methods implementing the Polyline2D interface
 
+    /**
+     * Returns the spatial index of the edges of this linear ring. The index is
+     * computed at the first call, and kept until vertices are added or
+     * removed.
+     * 
+     * @return the spatial index of the edges
+     */
+    @Override
+    public SegmentIndex2D segmentIndex()
+    {
+        SegmentIndex2D index = this.segmentIndex;
+        if (index == null)
+        {
+            index = new SegmentIndex2D(xcoords, ycoords, vertexCount, true);
+            this.segmentIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Computes the distance to the closest edge, using the segment index.
+     * 
+     * @param x
+     *            the x-coordinate of the point to test.
+     * @param y
+     *            the y-coordinate of the point to test.
+     * @return the distance to the linear ring.
+     */
+    @Override
+    public double distance(double x, double y)
+    {
+        return segmentIndex().distance(x, y);
+    }
+
+    @Override
+    public Point2D projection(Point2D point)
+    {
+        Point2D proj = segmentIndex().projection(point.x(), point.y());
+        return proj != null ? proj : vertexPosition(0);
+    }
+
+
     // ===================================================================
     // Methods implementing the Boundary2D interface
 
@@ -213,55 +415,21 @@ public class LinearRing2D implements Polyline2D, Contour2D
         return signedDistance(point.x(), point.y());
     }
 
+    /**
+     * Computes the signed distance of the point to this linear ring. The
+     * distance to the closest edge is computed using the segment index. The
+     * distance is negative if the point is inside the ring.
+     * 
+     * @param x
+     *            the x-coordinate of the point
+     * @param y
+     *            the y-coordinate of the point
+     * @return the signed distance to the linear ring
+     */
     public double signedDistance(double x, double y)
     {
-        double minDist = Double.POSITIVE_INFINITY;
-
-        double area = 0;
-
-        // the winding number counter
-        int winding = 0;
-
-        // initialize iteration with last vertex
-        Point2D p0 = this.vertices.get(this.vertices.size() - 1);
-        Point2D previous = p0;
-        double xprev = previous.x();
-        double yprev = previous.y();
-
-        // iterate over vertex pairs
-        for (Point2D current : this.vertices)
-        {
-            // update distance to nearest edge
-            double dist = new LineSegment2D(previous, current).distance(x, y);
-            minDist = Math.min(dist, minDist);
-
-            // coordinates of current vertex
-            double xcurr = current.x();
-            double ycurr = current.y();
-
-            // update area computation
-            area += xprev * ycurr - yprev * xcurr;
-
-            // update winding number
-            if (yprev <= y)
-            {
-                // detect upward crossing
-                if (ycurr > y) if (isLeft(xprev, yprev, xcurr, ycurr, x, y) > 0) winding++;
-            }
-            else
-            {
-                // detect downward crossing
-                if (ycurr <= y) if (isLeft(xprev, yprev, xcurr, ycurr, x, y) < 0) winding--;
-            }
-
-            // for next iteration
-            xprev = xcurr;
-            yprev = ycurr;
-            previous = current;
-        }
-
-        boolean inside = area > 0 ^ winding == 0;
-        return inside ? -minDist : minDist;
+        double dist = segmentIndex().distance(x, y);
+        return isInside(x, y) ? -dist : dist;
     }
 
     @Override
@@ -279,16 +447,15 @@ public class LinearRing2D implements Polyline2D, Contour2D
         int winding = 0;
 
         // initialize with the last vertex
-        Point2D previous = this.vertices.get(vertices.size() - 1);
-        double xprev = previous.x();
-        double yprev = previous.y();
+        double xprev = xcoords[vertexCount - 1];
+        double yprev = ycoords[vertexCount - 1];
 
         // iterate on vertices, keeping coordinates of previous vertex in memory
-        for (Point2D current : vertices)
+        for (int i = 0; i < vertexCount; i++)
         {
             // coordinates of current vertex
-            double xcurr = current.x();
-            double ycurr = current.y();
+            double xcurr = xcoords[i];
+            double ycurr = ycoords[i];
 
             // update area computation
             area += xprev * ycurr - yprev * xcurr;
@@ -307,7 +474,6 @@ public class LinearRing2D implements Polyline2D, Contour2D
             // for next iteration
             xprev = xcurr;
             yprev = ycurr;
-            previous = current;
         }
 
         if (area > 0)
@@ -350,59 +516,141 @@ public class LinearRing2D implements Polyline2D, Contour2D
     {
         // create a new collection of vertices in reverse order, keeping first
         // vertex unchanged.
-        int n = this.vertexCount();
-        ArrayList<Point2D> newVertices = new ArrayList<Point2D>(n);
-        newVertices.add(this.vertices.get(0));
+        int n = this.vertexCount;
+        double[] newX = new double[n];
+        double[] newY = new double[n];
+        newX[0] = xcoords[0];
+        newY[0] = ycoords[0];
         for (int i = 1; i < n; i++)
         {
-            newVertices.add(this.vertices.get(n - i));
+            newX[i] = xcoords[n - i];
+            newY[i] = ycoords[n - i];
         }
 
-        LinearRing2D reverse = new LinearRing2D(0);
-        reverse.vertices = newVertices;
-        return reverse;
+        return wrap(newX, newY);
     }
 
     public Point2D getPointAtLength(double pos)
     {
-        double cumSum = 0;
-        Iterator<Point2D> vertexIter = vertices.iterator();
-        Point2D prev = vertexIter.next();
-        while (vertexIter.hasNext())
+        if (vertexCount == 0)
         {
-            Point2D vertex = vertexIter.next();
-            double dist = vertex.distance(prev);
-            cumSum += dist;
-            if (cumSum >= pos)
-            {
-                double pos0 = pos - cumSum + dist;
-                double t1 = pos0 / dist;
-                double t0 = 1 - t1;
+            return vertexPosition(0);
+        }
+        double[] cum = cumulativeLengths();
+        double[] xs = new double[1];
+        double[] ys = new double[1];
+        interpolate(cum, edgeIndexAtLength(cum, pos), pos, xs, ys, 0);
+        return new Point2D(xs[0], ys[0]);
+    }
 
-                double x = prev.x() * t0 + vertex.x() * t1;
-                double y = prev.y() * t0 + vertex.y() * t1;
-                return new Point2D(x, y);
+    @Override
+    public List<Point2D> pointsAtLengths(double[] positions)
+    {
+        int n = positions.length;
+        ArrayList<Point2D> points = new ArrayList<Point2D>(n);
+        if (vertexCount == 0)
+        {
+            for (double pos : positions)
+            {
+                points.add(getPointAtLength(pos));
             }
-            prev = vertex;
+            return points;
         }
 
-        // specific processing of last edge
-        Point2D vertex = vertices.get(0);
-        double dist = vertex.distance(prev);
-        cumSum += dist;
-        if (cumSum >= pos)
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        pointsAtLengths(positions, n, xs, ys);
+        for (int k = 0; k < n; k++)
         {
-            double pos0 = pos - cumSum + dist;
-            double t1 = pos0 / dist;
-            double t0 = 1 - t1;
+            points.add(new Point2D(xs[k], ys[k]));
+        }
+        return points;
+    }
 
-            double x = prev.x() * t0 + vertex.x() * t1;
-            double y = prev.y() * t0 + vertex.y() * t1;
-            return new Point2D(x, y);
+    /**
+     * Returns the curvilinear abscissa of each vertex, the last element
+     * being the length of the linear ring (including the closing edge).
+     */
+    private double[] cumulativeLengths()
+    {
+        double[] cum = this.cumulativeLengths;
+        if (cum == null)
+        {
+            int ne = vertexCount;
+            cum = new double[ne + 1];
+            for (int i = 0; i < ne; i++)
+            {
+                int i1 = i + 1 == vertexCount ? 0 : i + 1;
+                cum[i + 1] = cum[i] + Math.hypot(xcoords[i1] - xcoords[i], ycoords[i1] - ycoords[i]);
+            }
+            this.cumulativeLengths = cum;
         }
+        return cum;
+    }
 
-        // otherwise return the first/last vertex
-        return vertex;
+    /**
+     * Finds the edge containing the curvilinear abscissa, as the first edge
+     * whose end abscissa is greater than or equal to the position, using
+     * binary search.
+     */
+    private static final int edgeIndexAtLength(double[] cum, double pos)
+    {
+        int lo = 0;
+        int hi = cum.length - 2;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (cum[mid + 1] >= pos)
+            {
+                hi = mid;
+            }
+            else
+            {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Computes the coordinates of the point at the given curvilinear
+     * abscissa, located on the specified edge, and stores them at index k of
+     * the result arrays.
+     */
+    private void interpolate(double[] cum, int edge, double pos, double[] xs, double[] ys, int k)
+    {
+        int i1 = edge + 1 == vertexCount ? 0 : edge + 1;
+        double dist = cum[edge + 1] - cum[edge];
+        double t1 = dist > 0 ? Math.max(Math.min((pos - cum[edge]) / dist, 1), 0) : 0;
+        double t0 = 1 - t1;
+        xs[k] = xcoords[edge] * t0 + xcoords[i1] * t1;
+        ys[k] = ycoords[edge] * t0 + ycoords[i1] * t1;
+    }
+
+    /**
+     * Computes the coordinates of the points at the specified curvilinear
+     * abscissas. Positions sorted in increasing order are processed with a
+     * single walk along the edges, and the edge of a position lower than the
+     * previous one is found using binary search.
+     */
+    private void pointsAtLengths(double[] positions, int count, double[] xs, double[] ys)
+    {
+        double[] cum = cumulativeLengths();
+        int lastEdge = cum.length - 2;
+        int edge = 0;
+        for (int k = 0; k < count; k++)
+        {
+            double pos = positions[k];
+            if (pos < cum[edge])
+            {
+                edge = edgeIndexAtLength(cum, pos);
+            }
+            while (edge < lastEdge && cum[edge + 1] < pos)
+            {
+                edge++;
+            }
+            interpolate(cum, edge, pos, xs, ys, k);
+        }
     }
 
     // ===================================================================
@@ -410,7 +658,7 @@ public class LinearRing2D implements Polyline2D, Contour2D
 
     public Polyline2D.Edge edge(int edgeIndex)
     {
-        if (edgeIndex < 0 || edgeIndex >= vertices.size())
+        if (edgeIndex < 0 || edgeIndex >= vertexCount)
         { throw new RuntimeException("Edge index out of bounds: " + edgeIndex); }
         return new Edge(edgeIndex);
     }
@@ -445,37 +693,62 @@ public class LinearRing2D implements Polyline2D, Contour2D
         // adjust step length to avoid last edge to have different size
         double spacing2 = length / (nv + 1);
 
-        // create new vertices
-        ArrayList<Point2D> vertices2 = new ArrayList<Point2D>(nv);
+        // compute positions of new vertices
+        double[] positions = new double[nv];
         for (int i = 0; i < nv; i++)
         {
-            double pos = Math.min(i * spacing2, length);
-            vertices2.add(this.getPointAtLength(pos));
+            positions[i] = Math.min(i * spacing2, length);
         }
 
-        return new LinearRing2D(vertices2);
+        double[] xs = new double[nv];
+        double[] ys = new double[nv];
+        pointsAtLengths(positions, nv, xs, ys);
+        return wrap(xs, ys);
     }
 
-    public double length()
+    /**
+     * Re-samples this linear ring into a new linear ring with the specified
+     * number of vertices. The first vertex is kept, and all the edges of the
+     * new linear ring have the same curvilinear length on this ring.
+     * 
+     * @param nv
+     *            the number of vertices of the new linear ring
+     * @return a re-sampled linear ring.
+     */
+    @Override
+    public LinearRing2D resampleByCount(int nv)
     {
-        double cumSum = 0.0;
-        Point2D prev = vertices.get(vertices.size() - 1);
-        Iterator<Point2D> vertexIter = vertices.iterator();
-        while (vertexIter.hasNext())
+        if (nv < 1)
+        {
+            throw new IllegalArgumentException("Requires at least one vertex");
+        }
+        double length = this.length();
+        double[] positions = new double[nv];
+        for (int i = 0; i < nv; i++)
         {
-            Point2D vertex = vertexIter.next();
-            double dist = vertex.distance(prev);
-            cumSum += dist;
-            prev = vertex;
+            positions[i] = i * length / nv;
         }
 
-        return cumSum;
+        double[] xs = new double[nv];
+        double[] ys = new double[nv];
+        pointsAtLengths(positions, nv, xs, ys);
+        return wrap(xs, ys);
+    }
+
+    public double length()
+    {
+        if (vertexCount == 0)
+        {
+            return 0.0;
+        }
+        double[] cum = cumulativeLengths();
+        return cum[cum.length - 1];
     }
 
     @Override
     public Point2D point(double t)
     {
-        int nv = vertices.size();
+        int nv = vertexCount;
         t = Math.min(Math.max(t, 0), nv);
 
         // index of vertex before point
@@ -483,18 +756,16 @@ public class LinearRing2D implements Polyline2D, Contour2D
         double tl = t - ind0;
 
         if (ind0 == nv) ind0 = 0;
-        Point2D p0 = vertices.get(ind0);
 
         // index of vertex after point
         int ind1 = ind0 + 1;
         if (ind1 == nv) ind1 = 0;
-        Point2D p1 = vertices.get(ind1);
 
         // position on line;
-        double x0 = p0.x();
-        double y0 = p0.y();
-        double dx = p1.x() - x0;
-        double dy = p1.y() - y0;
+        double x0 = xcoords[ind0];
+        double y0 = ycoords[ind0];
+        double dx = xcoords[ind1] - x0;
+        double dy = ycoords[ind1] - y0;
 
         return new Point2D(x0 + tl * dx, y0 + tl * dy);
     }
@@ -508,7 +779,7 @@ public class LinearRing2D implements Polyline2D, Contour2D
     @Override
     public double t1()
     {
-        return vertices.size();
+        return vertexCount;
     }
 
     @Override
@@ -529,16 +800,19 @@ public class LinearRing2D implements Polyline2D, Contour2D
      */
     public LinearRing2D transform(AffineTransform2D trans)
     {
-        int n = this.vertexCount();
-        ArrayList<Point2D> newVertices = new ArrayList<Point2D>(n);
+        int n = this.vertexCount;
+        double[][] mat = trans.affineMatrix();
+        double[] newX = new double[n];
+        double[] newY = new double[n];
         for (int i = 0; i < n; i++)
         {
-            newVertices.add(this.vertices.get(i).transform(trans));
+            double x = xcoords[i];
+            double y = ycoords[i];
+            newX[i] = x * mat[0][0] + y * mat[0][1] + mat[0][2];
+            newY[i] = x * mat[1][0] + y * mat[1][1] + mat[1][2];
         }
 
-        LinearRing2D res = new LinearRing2D(0);
-        res.vertices = newVertices;
-        return res;
+        return wrap(newX, newY);
     }
 
     // ===================================================================
@@ -556,7 +830,7 @@ public class LinearRing2D implements Polyline2D, Contour2D
         @Override
         public Point2D position()
         {
-            return vertices.get(this.index);
+            return vertexPosition(this.index);
         }
     }
 
@@ -578,15 +852,13 @@ public class LinearRing2D implements Polyline2D, Contour2D
         @Override
         public Polyline2D.Vertex target()
         {
-            return new Vertex((this.index + 1) % vertices.size());
+            return new Vertex((this.index + 1) % vertexCount);
         }
 
         @Override
         public LineSegment2D curve()
         {
-            Point2D v1 = vertices.get(this.index);
-            Point2D v2 = vertices.get((this.index + 1) % vertices.size());
-            return new LineSegment2D(v1, v2);
+            return new LineSegment2D(vertexPosition(this.index), vertexPosition((this.index + 1) % vertexCount));
         }
     }
 
@@ -603,7 +875,7 @@ public class LinearRing2D implements Polyline2D, Contour2D
         @Override
         public boolean hasNext()
         {
-            return index < vertices.size();
+            return index < vertexCount;
         }
 
         @Override
@@ -0,0 +1,314 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import net.ijt.geometry.geom2d.AffineTransform2D;
+import net.ijt.geometry.geom2d.Bounds2D;
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.geom2d.curve.MultiContourBoundary2D;
+
+/**
+ * A polygonal domain whose boundary is composed of several linear rings, used
+ * for representing polygons with holes or several disjoint polygons.
+ *
+ * As for single polygons, the rings of outer boundaries are expected to be
+ * oriented counter-clockwise, and the rings of holes clockwise. A point is
+ * inside the domain if the sum of the winding numbers of the rings around the
+ * point is positive. If the total signed area is negative, the domain is
+ * unbounded, and contains the points with a winding number greater than or
+ * equal to zero.
+ *
+ * @author dlegland
+ *
+ * @see DefaultPolygon2D
+ */
+public class MultiPolygon2D implements PolygonalDomain2D
+{
+    // ===================================================================
+    // Static factories
+
+    /**
+     * Creates a new polygonal domain from a series of linear rings.
+     *
+     * @param rings
+     *            the rings that compose the boundary of the domain
+     * @return a new polygonal domain
+     */
+    public static final MultiPolygon2D create(LinearRing2D... rings)
+    {
+        return new MultiPolygon2D(Arrays.asList(rings));
+    }
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The rings that compose the boundary of this domain.
+     */
+    ArrayList<LinearRing2D> rings;
+
+
+    // ===================================================================
+    // Constructors
+
+    /**
+     * Creates a new empty polygonal domain.
+     */
+    public MultiPolygon2D()
+    {
+        this.rings = new ArrayList<LinearRing2D>();
+    }
+
+    /**
+     * Creates a new polygonal domain from a collection of linear rings.
+     *
+     * @param rings
+     *            the rings that compose the boundary of the domain
+     */
+    public MultiPolygon2D(Collection<? extends LinearRing2D> rings)
+    {
+        this.rings = new ArrayList<LinearRing2D>(rings);
+    }
+
+
+    // ===================================================================
+    // Management of rings
+
+    /**
+     * Adds a ring to the boundary of this domain.
+     *
+     * @param ring
+     *            the ring to add
+     */
+    public void addRing(LinearRing2D ring)
+    {
+        this.rings.add(ring);
+    }
+
+    /**
+     * @return the number of rings that compose the boundary of this domain
+     */
+    public int ringCount()
+    {
+        return this.rings.size();
+    }
+
+    /**
+     * @param index
+     *            the index of the ring
+     * @return the ring at the specified index
+     */
+    public LinearRing2D ring(int index)
+    {
+        return this.rings.get(index);
+    }
+
+
+    // ===================================================================
+    // Methods implementing the PolygonalDomain2D interface
+
+    @Override
+    public Iterable<LinearRing2D> rings()
+    {
+        return Collections.unmodifiableList(this.rings);
+    }
+
+    @Override
+    public MultiPolygon2D transform(AffineTransform2D trans)
+    {
+        ArrayList<LinearRing2D> res = new ArrayList<LinearRing2D>(rings.size());
+        for (LinearRing2D ring : rings)
+        {
+            res.add(ring.transform(trans));
+        }
+        return new MultiPolygon2D(res);
+    }
+
+    @Override
+    public MultiPolygon2D complement()
+    {
+        ArrayList<LinearRing2D> res = new ArrayList<LinearRing2D>(rings.size());
+        for (LinearRing2D ring : rings)
+        {
+            res.add((LinearRing2D) ring.reverse());
+        }
+        return new MultiPolygon2D(res);
+    }
+
+    /**
+     * Computes the signed area of this domain, as the sum of the signed areas
+     * of the rings.
+     *
+     * @return the signed area of the domain.
+     */
+    @Override
+    public double signedArea()
+    {
+        double area = 0;
+        for (LinearRing2D ring : rings)
+        {
+            area += ring.signedArea();
+        }
+        return area;
+    }
+
+    @Override
+    public List<Point2D> vertexPositions()
+    {
+        ArrayList<Point2D> res = new ArrayList<Point2D>(vertexCount());
+        for (LinearRing2D ring : rings)
+        {
+            res.addAll(ring.vertexPositions());
+        }
+        return res;
+    }
+
+    @Override
+    public int vertexCount()
+    {
+        int count = 0;
+        for (LinearRing2D ring : rings)
+        {
+            count += ring.vertexCount();
+        }
+        return count;
+    }
+
+
+    // ===================================================================
+    // Methods implementing the Domain2D interface
+
+    @Override
+    public MultiContourBoundary2D boundary()
+    {
+        return new MultiContourBoundary2D(rings);
+    }
+
+    @Override
+    public boolean isInside(Point2D point)
+    {
+        return isInside(point.x(), point.y());
+    }
+
+    /**
+     * Returns true if the specified point is inside this domain, using the
+     * sum of the winding numbers of the rings. No specific test is made for
+     * points on the boundary.
+     */
+    @Override
+    public boolean isInside(double x, double y)
+    {
+        int winding = 0;
+        for (LinearRing2D ring : rings)
+        {
+            winding += windingNumber(ring, x, y);
+        }
+        return isBounded() ? winding > 0 : winding >= 0;
+    }
+
+    /**
+     * Computes the winding number of a linear ring around a point.
+     */
+    private static final int windingNumber(LinearRing2D ring, double x, double y)
+    {
+        int n = ring.vertexCount();
+        int winding = 0;
+        double xprev = ring.vertexX(n - 1);
+        double yprev = ring.vertexY(n - 1);
+        for (int i = 0; i < n; i++)
+        {
+            double xcurr = ring.vertexX(i);
+            double ycurr = ring.vertexY(i);
+            double det = (xcurr - xprev) * (y - yprev) - (x - xprev) * (ycurr - yprev);
+            if (yprev <= y)
+            {
+                // detect upward crossing
+                if (ycurr > y && det > 0) winding++;
+            }
+            else
+            {
+                // detect downward crossing
+                if (ycurr <= y && det < 0) winding--;
+            }
+            xprev = xcurr;
+            yprev = ycurr;
+        }
+        return winding;
+    }
+
+
+    // ===================================================================
+    // Implementation of the Geometry2D interface
+
+    /**
+     * Returns true if the specified point is inside this domain, or located
+     * on its boundary.
+     */
+    @Override
+    public boolean contains(Point2D point, double eps)
+    {
+        return isInside(point.x(), point.y()) || boundaryDistance(point.x(), point.y()) <= eps;
+    }
+
+    /**
+     * Returns the distance to the boundary of this domain, or zero if the
+     * point is inside the domain.
+     */
+    @Override
+    public double distance(double x, double y)
+    {
+        return isInside(x, y) ? 0 : boundaryDistance(x, y);
+    }
+
+    private double boundaryDistance(double x, double y)
+    {
+        double minDist = Double.POSITIVE_INFINITY;
+        for (LinearRing2D ring : rings)
+        {
+            minDist = Math.min(minDist, ring.distance(x, y));
+        }
+        return minDist;
+    }
+
+
+    // ===================================================================
+    // Implementation of the Geometry interface
+
+    /**
+     * Returns true if the signed area of this domain is greater than or equal
+     * to zero.
+     */
+    @Override
+    public boolean isBounded()
+    {
+        return this.signedArea() >= 0;
+    }
+
+    @Override
+    public Bounds2D bounds()
+    {
+        double xmin = Double.POSITIVE_INFINITY;
+        double xmax = Double.NEGATIVE_INFINITY;
+        double ymin = Double.POSITIVE_INFINITY;
+        double ymax = Double.NEGATIVE_INFINITY;
+        for (LinearRing2D ring : rings)
+        {
+            for (int i = 0; i < ring.vertexCount(); i++)
+            {
+                xmin = Math.min(xmin, ring.vertexX(i));
+                xmax = Math.max(xmax, ring.vertexX(i));
+                ymin = Math.min(ymin, ring.vertexY(i));
+                ymax = Math.max(ymax, ring.vertexY(i));
+            }
+        }
+        return new Bounds2D(xmin, xmax, ymin, ymax);
+    }
+}
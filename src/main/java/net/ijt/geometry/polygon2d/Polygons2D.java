@@ -6,7 +6,10 @@ package net.ijt.geometry.polygon2d;
 import java.util.Collection;
 
 import net.ijt.geometry.geom2d.Point2D;
-import net.ijt.geometry.polygon2d.process.GiftWrappingConvexHull2D;
+import net.ijt.geometry.polygon2d.process.BooleanOperation2D;
+import net.ijt.geometry.polygon2d.process.EarClippingTriangulation2D;
+import net.ijt.geometry.polygon2d.process.MonotoneChainConvexHull2D;
+import net.ijt.geometry.polygon2d.process.PolygonOffset2D;
 
 /**
  * A set of static methods operating on polygons.
@@ -20,22 +23,162 @@ public class Polygons2D
      * Computes the convex hull of a set of points and return the result as a
      * single Polygon2D.
      * 
-     * Uses Jarvis algorithm, also known as "Gift wrap" algorithm.
+     * Uses Andrew's monotone chain algorithm, with a complexity of
+     * <code>O(n log n)</code>. The vertices of the resulting polygon are
+     * oriented counter-clockwise.
      * 
      * 
      * @param points
      *            a set of points in the 2D space
      * @return the convex hull of the points, as a Polygon2D
      * 
+     * @see net.ijt.geometry.polygon2d.process.MonotoneChainConvexHull2D 
+     * @see net.ijt.geometry.polygon2d.process.ChanConvexHull2D 
      * @see net.ijt.geometry.polygon2d.process.GiftWrappingConvexHull2D 
      */
 	public static final Polygon2D convexHull(Collection<? extends Point2D> points)
 	{
-		GiftWrappingConvexHull2D algo = new GiftWrappingConvexHull2D();
+		MonotoneChainConvexHull2D algo = new MonotoneChainConvexHull2D();
 		return algo.process(points);
 	}
 	
 	
+	/**
+	 * Computes the union of two polygonal domains.
+	 * 
+	 * @param domain1
+	 *            the first polygonal domain
+	 * @param domain2
+	 *            the second polygonal domain
+	 * @return the union of the two domains
+	 * 
+	 * @see net.ijt.geometry.polygon2d.process.BooleanOperation2D
+	 */
+	public static final MultiPolygon2D union(PolygonalDomain2D domain1, PolygonalDomain2D domain2)
+	{
+		return new BooleanOperation2D(BooleanOperation2D.Type.UNION).process(domain1, domain2);
+	}
+	
+	/**
+	 * Computes the intersection of two polygonal domains.
+	 * 
+	 * @param domain1
+	 *            the first polygonal domain
+	 * @param domain2
+	 *            the second polygonal domain
+	 * @return the intersection of the two domains
+	 * 
+	 * @see net.ijt.geometry.polygon2d.process.BooleanOperation2D
+	 */
+	public static final MultiPolygon2D intersection(PolygonalDomain2D domain1, PolygonalDomain2D domain2)
+	{
+		return new BooleanOperation2D(BooleanOperation2D.Type.INTERSECTION).process(domain1, domain2);
+	}
+	
+	/**
+	 * Computes the difference of two polygonal domains, that is the set of
+	 * points within the first domain and outside the second one.
+	 * 
+	 * @param domain1
+	 *            the first polygonal domain
+	 * @param domain2
+	 *            the second polygonal domain
+	 * @return the difference of the two domains
+	 * 
+	 * @see net.ijt.geometry.polygon2d.process.BooleanOperation2D
+	 */
+	public static final MultiPolygon2D difference(PolygonalDomain2D domain1, PolygonalDomain2D domain2)
+	{
+		return new BooleanOperation2D(BooleanOperation2D.Type.DIFFERENCE).process(domain1, domain2);
+	}
+	
+	/**
+	 * Computes the exclusive or of two polygonal domains, that is the set of
+	 * points within exactly one of the two domains.
+	 * 
+	 * @param domain1
+	 *            the first polygonal domain
+	 * @param domain2
+	 *            the second polygonal domain
+	 * @return the exclusive or of the two domains
+	 * 
+	 * @see net.ijt.geometry.polygon2d.process.BooleanOperation2D
+	 */
+	public static final MultiPolygon2D xor(PolygonalDomain2D domain1, PolygonalDomain2D domain2)
+	{
+		return new BooleanOperation2D(BooleanOperation2D.Type.XOR).process(domain1, domain2);
+	}
+	
+	/**
+	 * Computes the area of the intersection of two polygonal domains. The
+	 * arrangement of the boundaries of both domains is computed, but the rings
+	 * of the intersection are not built.
+	 * 
+	 * @param domain1
+	 *            the first polygonal domain
+	 * @param domain2
+	 *            the second polygonal domain
+	 * @return the area of the intersection of the two domains
+	 * 
+	 * @see net.ijt.geometry.polygon2d.process.BooleanOperation2D#area(PolygonalDomain2D, PolygonalDomain2D)
+	 */
+	public static final double intersectionArea(PolygonalDomain2D domain1, PolygonalDomain2D domain2)
+	{
+		return new BooleanOperation2D(BooleanOperation2D.Type.INTERSECTION).area(domain1, domain2);
+	}
+	
+	/**
+	 * Computes a triangulation of a bounded polygonal domain, possibly with
+	 * holes.
+	 * 
+	 * @param domain
+	 *            the polygonal domain to triangulate
+	 * @return the vertex index triplets of the triangles, using the
+	 *         concatenated vertex indices of the rings of the domain
+	 * 
+	 * @see net.ijt.geometry.polygon2d.process.EarClippingTriangulation2D
+	 */
+	public static final int[] triangulate(PolygonalDomain2D domain)
+	{
+		return new EarClippingTriangulation2D().process(domain);
+	}
+	
+	/**
+	 * Computes the offset of a polygonal domain by a given distance, using
+	 * round joins. Positive distances grow the domain, and negative distances
+	 * shrink it.
+	 * 
+	 * @param domain
+	 *            the polygonal domain to offset
+	 * @param distance
+	 *            the signed offset distance
+	 * @return the offset domain
+	 * 
+	 * @see net.ijt.geometry.polygon2d.process.PolygonOffset2D
+	 */
+	public static final MultiPolygon2D offset(PolygonalDomain2D domain, double distance)
+	{
+		return new PolygonOffset2D(distance, PolygonOffset2D.JoinType.ROUND).process(domain);
+	}
+	
+	/**
+	 * Computes the buffer of a polyline, corresponding to the set of points
+	 * within a given distance of the polyline, using round joins and caps.
+	 * 
+	 * @param polyline
+	 *            the polyline
+	 * @param distance
+	 *            the buffer distance
+	 * @return the buffer of the polyline
+	 * 
+	 * @see net.ijt.geometry.polygon2d.process.PolygonOffset2D
+	 */
+	public static final MultiPolygon2D buffer(Polyline2D polyline, double distance)
+	{
+		return new PolygonOffset2D(distance, PolygonOffset2D.JoinType.ROUND).process(polyline);
+	}
+	
+	
 	/**
 	 * Private constructor to prevent instantiation.
 	 */
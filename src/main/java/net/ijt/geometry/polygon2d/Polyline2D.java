@@ -14,6 +14,7 @@ import net.ijt.geometry.geom2d.Curve2D;
 import net.ijt.geometry.geom2d.LineSegment2D;
 import net.ijt.geometry.geom2d.LinearGeometry2D;
 import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.polygon2d.process.DouglasPeuckerSimplification2D;
 
 /**
  * <p>
@@ -81,6 +82,60 @@ public interface Polyline2D extends Curve2D
      */
     public Polyline2D resampleBySpacing(double spacing);
 
+    /**
+     * Re-samples the polyline into a new polyline with the specified number
+     * of vertices, regularly spaced along the curve. For open polylines, the
+     * first and last vertices are kept. The default implementation computes
+     * the positions of the new vertices from the length of the polyline, and
+     * should be overridden by implementations storing their vertices within
+     * arrays.
+     * 
+     * @param vertexCount
+     *            the number of vertices of the new polyline
+     * @return a re-sampled polyline.
+     */
+    public default Polyline2D resampleByCount(int vertexCount)
+    {
+        boolean closed = isClosed();
+        if (vertexCount < (closed ? 1 : 2))
+        {
+            throw new IllegalArgumentException("Requires at least " + (closed ? "one vertex" : "two vertices"));
+        }
+        
+        // regularly spaced positions, excluding the end of the curve
+        int ne = closed ? vertexCount : vertexCount - 1;
+        double length = length();
+        double[] positions = new double[ne];
+        for (int i = 0; i < ne; i++)
+        {
+            positions[i] = i * length / ne;
+        }
+        
+        List<Point2D> vertices = new ArrayList<Point2D>(pointsAtLengths(positions));
+        if (!closed)
+        {
+            vertices.add(vertexPosition(vertexCount() - 1));
+        }
+        return Polyline2D.create(vertices, closed);
+    }
+
+    /**
+     * Simplifies this polyline using the Douglas-Peucker algorithm. The
+     * removed vertices are within the specified distance of the new
+     * polyline.
+     *
+     * @param tolerance
+     *            the maximal distance between a removed vertex and the new
+     *            polyline
+     * @return a simplified polyline.
+     * @see net.ijt.geometry.polygon2d.process.DouglasPeuckerSimplification2D
+     * @see net.ijt.geometry.polygon2d.process.VisvalingamSimplification2D
+     */
+    public default Polyline2D simplify(double tolerance)
+    {
+        return new DouglasPeuckerSimplification2D(tolerance).process(this);
+    }
+
     /**
      * Returns a point from its curvilinear abscissa, between 0 and
      * polyline.length().
@@ -91,6 +146,69 @@ public interface Polyline2D extends Curve2D
      * @return the coordinates of the point
      */
     public Point2D getPointAtLength(double pos);
+
+    /**
+     * Returns the points corresponding to a series of curvilinear abscissas.
+     * This is more efficient than calling <code>getPointAtLength()</code>
+     * for each position: when the positions are sorted in increasing order,
+     * the points are computed with a single walk along the edges. The default
+     * implementation computes the curvilinear abscissa of each vertex, and
+     * retrieves each point with the <code>point(double)</code> method.
+     * 
+     * @param positions
+     *            the curvilinear abcissas of the points, between 0 and
+     *            polyline.length().
+     * @return the list of points, in the same order as the positions
+     */
+    public default List<Point2D> pointsAtLengths(double[] positions)
+    {
+        ArrayList<Point2D> points = new ArrayList<Point2D>(positions.length);
+        int nv = vertexCount();
+        int ne = isClosed() ? nv : nv - 1;
+        if (ne < 1)
+        {
+            for (double pos : positions)
+            {
+                points.add(getPointAtLength(pos));
+            }
+            return points;
+        }
+        
+        // compute the curvilinear abscissa of each vertex
+        double[] cum = new double[ne + 1];
+        Point2D p1 = vertexPosition(0);
+        for (int i = 0; i < ne; i++)
+        {
+            Point2D p2 = vertexPosition((i + 1) % nv);
+            cum[i + 1] = cum[i] + p1.distance(p2);
+            p1 = p2;
+        }
+        
+        int edge = 0;
+        for (double pos : positions)
+        {
+            if (pos < cum[edge])
+            {
+                // position lower than the previous one: binary search for
+                // the first edge whose end abscissa is not lower
+                int lo = 0, hi = ne - 1;
+                while (lo < hi)
+                {
+                    int mid = (lo + hi) >>> 1;
+                    if (cum[mid + 1] >= pos) hi = mid; else lo = mid + 1;
+                }
+                edge = lo;
+            }
+            while (edge < ne - 1 && cum[edge + 1] < pos)
+            {
+                edge++;
+            }
+            double dist = cum[edge + 1] - cum[edge];
+            double t = dist > 0 ? Math.max(Math.min((pos - cum[edge]) / dist, 1), 0) : 0;
+            points.add(point(edge + t));
+        }
+        return points;
+    }
     
     /**
      * @return return the curvilinear length of this polyline, as the sum of edge lengths.
@@ -153,6 +271,18 @@ public interface Polyline2D extends Curve2D
      */
     public Polyline2D reverse();
     
+    /**
+     * Returns the spatial index of the edges of this polyline, used to
+     * accelerate distance and projection computations. Implementations may
+     * cache the index, and discard it when the polyline is modified.
+     * 
+     * @return the spatial index of the edges of this polyline
+     */
+    public default SegmentIndex2D segmentIndex()
+    {
+        return SegmentIndex2D.create(this);
+    }
+
     /**
 	 * Compute the orthogonal projection of the input point onto this polyline.
 	 * 
@@ -0,0 +1,532 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.stream.IntStream;
+
+import net.ijt.geometry.geom2d.Point2D;
+
+/**
+ * A polygonal domain prepared for repeated point queries.
+ *
+ * At creation, the edges of the rings are distributed into the cells of a
+ * uniform grid they cross, and into horizontal bands corresponding to the
+ * rows of the grid. The orientation of the domain is also precomputed. Then,
+ * the <code>isInside()</code> method only considers the edges within the band
+ * containing the query point, and the <code>signedDistance()</code> method
+ * searches the closest edge by examining cells in increasing order of
+ * distance. For polygons with evenly distributed edges, both queries run in
+ * <code>O(k)</code>, where k is the number of edges within a band (or within
+ * the visited cells), instead of <code>O(n)</code>.
+ *
+ * The prepared polygon keeps a copy of the edge coordinates: subsequent
+ * modifications of the original polygon are not taken into account.
+ *
+ * <pre>
+ * <code>
+ * PreparedPolygon2D prepared = new PreparedPolygon2D(polygon);
+ * boolean[] inside = prepared.isInside(xs, ys);
+ * </code>
+ * </pre>
+ *
+ * @author dlegland
+ *
+ */
+public class PreparedPolygon2D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The number of query points above which batch queries are processed in
+     * parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 4096;
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The coordinates of the edge extremities, packed as (x1, y1, x2, y2)
+     * for each edge.
+     */
+    final double[] edges;
+
+    /**
+     * The number of edges.
+     */
+    final int edgeCount;
+
+    /**
+     * True if the domain has a positive signed area (the rings enclose a
+     * bounded domain).
+     */
+    final boolean bounded;
+
+    /**
+     * The bounds of the grid, and the size of its cells.
+     */
+    final double xmin, ymin, cellWidth, cellHeight;
+
+    /**
+     * The number of columns and of rows of the grid.
+     */
+    final int nx, ny;
+
+    /**
+     * The indices of the edges within each cell, stored as a compressed
+     * array: the edges of cell c are the elements of cellEdges between
+     * cellOffsets[c] and cellOffsets[c+1].
+     */
+    final int[] cellOffsets;
+    final int[] cellEdges;
+
+    /**
+     * The indices of the edges within each row of the grid, stored as a
+     * compressed array.
+     */
+    final int[] rowOffsets;
+    final int[] rowEdges;
+
+
+    // ===================================================================
+    // Constructors
+
+    /**
+     * Prepares a polygonal domain, that may be composed of several rings.
+     *
+     * @param polygon
+     *            the polygonal domain to prepare
+     */
+    public PreparedPolygon2D(PolygonalDomain2D polygon)
+    {
+        this(polygon.rings());
+    }
+
+    /**
+     * Prepares the domain bounded by a single linear ring.
+     *
+     * @param ring
+     *            the linear ring bounding the domain
+     */
+    public PreparedPolygon2D(LinearRing2D ring)
+    {
+        this(Collections.singletonList(ring));
+    }
+
+    /**
+     * Prepares the domain bounded by a set of linear rings.
+     *
+     * @param rings
+     *            the linear rings bounding the domain
+     */
+    public PreparedPolygon2D(Iterable<LinearRing2D> rings)
+    {
+        // copy edge coordinates, and compute signed area and bounds
+        ArrayList<LinearRing2D> ringList = new ArrayList<LinearRing2D>();
+        int n = 0;
+        for (LinearRing2D ring : rings)
+        {
+            ringList.add(ring);
+            n += ring.vertexCount();
+        }
+        if (n == 0)
+        {
+            throw new IllegalArgumentException("Requires at least one non empty ring");
+        }
+        this.edgeCount = n;
+        this.edges = new double[4 * n];
+
+        double area = 0;
+        double x0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY;
+        double y0 = Double.POSITIVE_INFINITY;
+        double y1 = Double.NEGATIVE_INFINITY;
+        int e = 0;
+        for (LinearRing2D ring : ringList)
+        {
+            int nv = ring.vertexCount();
+            if (nv == 0) continue;
+            double xprev = ring.vertexX(nv - 1);
+            double yprev = ring.vertexY(nv - 1);
+            for (int i = 0; i < nv; i++)
+            {
+                double x = ring.vertexX(i);
+                double y = ring.vertexY(i);
+                edges[4 * e] = xprev;
+                edges[4 * e + 1] = yprev;
+                edges[4 * e + 2] = x;
+                edges[4 * e + 3] = y;
+                e++;
+
+                area += xprev * y - yprev * x;
+                x0 = Math.min(x0, x);
+                x1 = Math.max(x1, x);
+                y0 = Math.min(y0, y);
+                y1 = Math.max(y1, y);
+                xprev = x;
+                yprev = y;
+            }
+        }
+        this.bounded = area > 0;
+
+        // choose grid size such that each cell contains about one edge
+        double width = Math.max(x1 - x0, Double.MIN_NORMAL);
+        double height = Math.max(y1 - y0, Double.MIN_NORMAL);
+        double cellSize = Math.sqrt(width * height / n);
+        this.nx = (int) Math.max(1, Math.min(Math.ceil(width / cellSize), 1024));
+        this.ny = (int) Math.max(1, Math.min(Math.ceil(height / cellSize), 1024));
+        this.xmin = x0;
+        this.ymin = y0;
+        this.cellWidth = width / nx;
+        this.cellHeight = height / ny;
+
+        // count the number of edges within each cell and each row. Each edge
+        // is assigned to the cells it crosses (its supercover), obtained by
+        // clipping the edge with each row it spans.
+        int[] cellCounts = new int[nx * ny + 1];
+        int[] rowCounts = new int[ny + 1];
+        int[] columns = new int[2];
+        for (int i = 0; i < n; i++)
+        {
+            int iy0 = rowIndex(Math.min(edges[4 * i + 1], edges[4 * i + 3]));
+            int iy1 = rowIndex(Math.max(edges[4 * i + 1], edges[4 * i + 3]));
+            for (int iy = iy0; iy <= iy1; iy++)
+            {
+                rowCounts[iy + 1]++;
+                columnRange(i, iy, iy0, iy1, columns);
+                for (int ix = columns[0]; ix <= columns[1]; ix++)
+                {
+                    cellCounts[iy * nx + ix + 1]++;
+                }
+            }
+        }
+
+        // convert counts into offsets, and fill edge indices
+        for (int c = 0; c < nx * ny; c++)
+        {
+            cellCounts[c + 1] += cellCounts[c];
+        }
+        for (int r = 0; r < ny; r++)
+        {
+            rowCounts[r + 1] += rowCounts[r];
+        }
+        this.cellOffsets = cellCounts;
+        this.rowOffsets = rowCounts;
+        this.cellEdges = new int[cellCounts[nx * ny]];
+        this.rowEdges = new int[rowCounts[ny]];
+        int[] cellPos = new int[nx * ny];
+        int[] rowPos = new int[ny];
+        for (int i = 0; i < n; i++)
+        {
+            int iy0 = rowIndex(Math.min(edges[4 * i + 1], edges[4 * i + 3]));
+            int iy1 = rowIndex(Math.max(edges[4 * i + 1], edges[4 * i + 3]));
+            for (int iy = iy0; iy <= iy1; iy++)
+            {
+                rowEdges[rowOffsets[iy] + rowPos[iy]++] = i;
+                columnRange(i, iy, iy0, iy1, columns);
+                for (int ix = columns[0]; ix <= columns[1]; ix++)
+                {
+                    int c = iy * nx + ix;
+                    cellEdges[cellOffsets[c] + cellPos[c]++] = i;
+                }
+            }
+        }
+    }
+
+
+    // ===================================================================
+    // Queries on single points
+
+    /**
+     * Checks if the specified point is inside the prepared domain.
+     *
+     * @param point
+     *            the point to test
+     * @return true if the point is located within the domain
+     */
+    public boolean isInside(Point2D point)
+    {
+        return isInside(point.x(), point.y());
+    }
+
+    /**
+     * Checks if the point specified by its coordinates is inside the prepared
+     * domain. As for the LinearRing2D class, the winding number is used, and
+     * no specific test is made for points on the boundary.
+     *
+     * @param x
+     *            the x-coordinate of the point to test
+     * @param y
+     *            the y-coordinate of the point to test
+     * @return true if the point is located within the domain
+     */
+    public boolean isInside(double x, double y)
+    {
+        int winding = 0;
+        if (y >= ymin && y <= ymin + ny * cellHeight)
+        {
+            // only edges within the row containing the point can cross the
+            // horizontal line through the point
+            int row = rowIndex(y);
+            for (int k = rowOffsets[row]; k < rowOffsets[row + 1]; k++)
+            {
+                int i = 4 * rowEdges[k];
+                double xprev = edges[i];
+                double yprev = edges[i + 1];
+                double xcurr = edges[i + 2];
+                double ycurr = edges[i + 3];
+                if (yprev <= y)
+                {
+                    // detect upward crossing
+                    if (ycurr > y && isLeft(xprev, yprev, xcurr, ycurr, x, y) > 0) winding++;
+                }
+                else
+                {
+                    // detect downward crossing
+                    if (ycurr <= y && isLeft(xprev, yprev, xcurr, ycurr, x, y) < 0) winding--;
+                }
+            }
+        }
+
+        return bounded ? winding > 0 : winding >= 0;
+    }
+
+    /**
+     * Computes the signed distance of the point to the boundary of the
+     * prepared domain. The distance is negative if the point is inside the
+     * domain, and positive otherwise.
+     *
+     * @param point
+     *            the query point
+     * @return the signed distance to the boundary
+     */
+    public double signedDistance(Point2D point)
+    {
+        return signedDistance(point.x(), point.y());
+    }
+
+    /**
+     * Computes the signed distance of the point to the boundary of the
+     * prepared domain. The distance is negative if the point is inside the
+     * domain, and positive otherwise.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @return the signed distance to the boundary
+     */
+    public double signedDistance(double x, double y)
+    {
+        double dist = distanceToBoundary(x, y);
+        return isInside(x, y) ? -dist : dist;
+    }
+
+    /**
+     * Computes the distance of the point to the boundary of the prepared
+     * domain, by visiting the cells of the grid in increasing order of
+     * distance (rings of cells around the cell containing the point).
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @return the distance to the closest edge
+     */
+    public double distanceToBoundary(double x, double y)
+    {
+        int cx = columnIndex(x);
+        int cy = rowIndex(y);
+        double minCellSize = Math.min(cellWidth, cellHeight);
+        int maxRadius = Math.max(Math.max(cx, nx - 1 - cx), Math.max(cy, ny - 1 - cy));
+
+        double minDist = Double.POSITIVE_INFINITY;
+        for (int r = 0; r <= maxRadius; r++)
+        {
+            // cells not visited yet are at distance at least (r-1) cells
+            if (minDist <= (r - 1) * minCellSize)
+            {
+                break;
+            }
+
+            int iy0 = Math.max(cy - r, 0);
+            int iy1 = Math.min(cy + r, ny - 1);
+            for (int iy = iy0; iy <= iy1; iy++)
+            {
+                boolean fullRow = iy == cy - r || iy == cy + r;
+                int step = fullRow ? 1 : 2 * r;
+                for (int ix = cx - r; ix <= cx + r; ix += Math.max(step, 1))
+                {
+                    if (ix < 0 || ix >= nx) continue;
+                    int c = iy * nx + ix;
+                    for (int k = cellOffsets[c]; k < cellOffsets[c + 1]; k++)
+                    {
+                        int i = 4 * cellEdges[k];
+                        double dist = edgeDistance(edges[i], edges[i + 1], edges[i + 2], edges[i + 3], x, y);
+                        minDist = Math.min(minDist, dist);
+                    }
+                }
+            }
+        }
+        return minDist;
+    }
+
+
+    // ===================================================================
+    // Batch queries
+
+    /**
+     * Checks if each point specified by its coordinates is inside the
+     * prepared domain. Large sets of points are processed in parallel.
+     *
+     * @param xs
+     *            the x-coordinates of the query points
+     * @param ys
+     *            the y-coordinates of the query points
+     * @return an array of booleans, true for points within the domain
+     */
+    public boolean[] isInside(double[] xs, double[] ys)
+    {
+        checkSameLength(xs, ys);
+        boolean[] res = new boolean[xs.length];
+        indexStream(xs.length).forEach(i -> res[i] = isInside(xs[i], ys[i]));
+        return res;
+    }
+
+    /**
+     * Computes the signed distance of each point specified by its
+     * coordinates to the boundary of the prepared domain. Large sets of
+     * points are processed in parallel.
+     *
+     * @param xs
+     *            the x-coordinates of the query points
+     * @param ys
+     *            the y-coordinates of the query points
+     * @return the signed distance of each point to the boundary
+     */
+    public double[] signedDistance(double[] xs, double[] ys)
+    {
+        checkSameLength(xs, ys);
+        double[] res = new double[xs.length];
+        indexStream(xs.length).forEach(i -> res[i] = signedDistance(xs[i], ys[i]));
+        return res;
+    }
+
+    private static final IntStream indexStream(int n)
+    {
+        IntStream stream = IntStream.range(0, n);
+        return n >= PARALLEL_THRESHOLD ? stream.parallel() : stream;
+    }
+
+    private static final void checkSameLength(double[] xs, double[] ys)
+    {
+        if (xs.length != ys.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+    }
+
+
+    // ===================================================================
+    // Utility methods
+
+    /**
+     * Returns the index of the grid column containing the x-coordinate,
+     * clamped between 0 and nx-1.
+     */
+    private int columnIndex(double x)
+    {
+        int ix = (int) Math.floor((x - xmin) / cellWidth);
+        return Math.max(0, Math.min(ix, nx - 1));
+    }
+
+    /**
+     * Returns the index of the grid row containing the y-coordinate, clamped
+     * between 0 and ny-1.
+     */
+    private int rowIndex(double y)
+    {
+        int iy = (int) Math.floor((y - ymin) / cellHeight);
+        return Math.max(0, Math.min(iy, ny - 1));
+    }
+
+    /**
+     * Computes the range of columns of the cells crossed by an edge within a
+     * row of the grid, by clipping the edge with the horizontal band of the
+     * row. Within the first and last rows spanned by the edge, the clipping
+     * stops at the edge extremities. The range is enlarged by a small
+     * fraction of the cell width, to keep the cells touched by the edge
+     * despite rounding errors.
+     *
+     * @param edge
+     *            the index of the edge
+     * @param row
+     *            the index of the row, between firstRow and lastRow
+     * @param firstRow
+     *            the index of the row containing the lower extremity of the
+     *            edge
+     * @param lastRow
+     *            the index of the row containing the upper extremity of the
+     *            edge
+     * @param range
+     *            the array used to store the indices of the first and last
+     *            columns
+     */
+    private void columnRange(int edge, int row, int firstRow, int lastRow, int[] range)
+    {
+        double x1 = edges[4 * edge];
+        double y1 = edges[4 * edge + 1];
+        double x2 = edges[4 * edge + 2];
+        double y2 = edges[4 * edge + 3];
+        double xa = x1;
+        double xb = x2;
+        if (firstRow != lastRow)
+        {
+            // vertical extent of the part of the edge within the row
+            double ya = row == firstRow ? Math.min(y1, y2) : ymin + row * cellHeight;
+            double yb = row == lastRow ? Math.max(y1, y2) : ymin + (row + 1) * cellHeight;
+            double slope = (x2 - x1) / (y2 - y1);
+            xa = x1 + (ya - y1) * slope;
+            xb = x1 + (yb - y1) * slope;
+        }
+        double tol = 1e-10 * cellWidth;
+        range[0] = columnIndex(Math.min(xa, xb) - tol);
+        range[1] = columnIndex(Math.max(xa, xb) + tol);
+    }
+
+    /**
+     * Tests if the point p3 is Left|On|Right of the infinite line formed by p1
+     * and p2.
+     *
+     * @see LinearRing2D
+     */
+    private final static int isLeft(double x1, double y1, double x2, double y2, double x3, double y3)
+    {
+        return (int) Math.signum((x2 - x1) * (y3 - y1) - (x3 - x1) * (y2 - y1));
+    }
+
+    /**
+     * Computes the distance between the point (x, y) and the line segment
+     * joining the points (x1, y1) and (x2, y2).
+     */
+    private final static double edgeDistance(double x1, double y1, double x2, double y2, double x, double y)
+    {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double delta = dx * dx + dy * dy;
+        if (delta < Double.MIN_NORMAL)
+        {
+            return Math.hypot(x1 - x, y1 - y);
+        }
+
+        // position of the projected point on the edge, clamped between bounds
+        double t = ((x - x1) * dx + (y - y1) * dy) / delta;
+        t = Math.max(Math.min(t, 1), 0);
+        return Math.hypot(x1 + t * dx - x, y1 + t * dy - y);
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d;
+
+import net.ijt.geometry.geom2d.Bounds2D;
+import net.ijt.geometry.geom2d.BoundsIndex2D;
+import net.ijt.geometry.geom2d.Point2D;
+
+/**
+ * A spatial index over the line segments of a polyline, used to accelerate
+ * nearest segment, k-nearest segments and within-radius queries.
+ *
+ * The segments are indexed by their bounding boxes within a BoundsIndex2D,
+ * an R-tree bulk-loaded with the Sort-Tile-Recursive (STR) algorithm and
+ * stored within flattened primitive arrays. The queries traverse the tree
+ * using the exact distance between the query point and the segments.
+ *
+ * Segment indices correspond to the edge indices of the polyline: segment
+ * <code>i</code> joins vertex <code>i</code> to vertex <code>i+1</code>, the
+ * last segment of a closed polyline joining the last vertex to the first
+ * one. The index keeps a copy of the segment coordinates, and is not updated
+ * when the polyline is modified. It can be shared between threads.
+ *
+ * @see Polyline2D#segmentIndex()
+ * @see net.ijt.geometry.geom2d.BoundsIndex2D
+ *
+ * @author dlegland
+ *
+ */
+public class SegmentIndex2D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The maximum number of children of each node.
+     */
+    public static final int NODE_CAPACITY = BoundsIndex2D.NODE_CAPACITY;
+
+
+    // ===================================================================
+    // Static factories
+
+    /**
+     * Computes the spatial index of the edges of a polyline.
+     *
+     * @param polyline
+     *            the polyline to index
+     * @return the spatial index of the polyline edges
+     */
+    public static final SegmentIndex2D create(Polyline2D polyline)
+    {
+        int nv = polyline.vertexCount();
+        double[] xs = new double[nv];
+        double[] ys = new double[nv];
+        for (int i = 0; i < nv; i++)
+        {
+            Point2D p = polyline.vertexPosition(i);
+            xs[i] = p.x();
+            ys[i] = p.y();
+        }
+        return new SegmentIndex2D(xs, ys, nv, polyline.isClosed());
+    }
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The coordinates of the segment extremities, stored as (x1, y1, x2, y2)
+     * for each segment.
+     */
+    final double[] segments;
+
+    /**
+     * The number of segments.
+     */
+    final int segmentCount;
+
+    /**
+     * The index of the bounding boxes of the segments.
+     */
+    final BoundsIndex2D index;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new index over the edges of the polyline with the specified
+     * vertex coordinates. The coordinate arrays are not retained by the
+     * index.
+     *
+     * @param xcoords
+     *            the x-coordinates of the vertices
+     * @param ycoords
+     *            the y-coordinates of the vertices
+     * @param vertexCount
+     *            the number of vertices to consider within the arrays
+     * @param closed
+     *            true if the last vertex is connected to the first one
+     */
+    public SegmentIndex2D(double[] xcoords, double[] ycoords, int vertexCount, boolean closed)
+    {
+        int n = closed ? vertexCount : Math.max(vertexCount - 1, 0);
+        this.segmentCount = n;
+        this.segments = new double[4 * n];
+        for (int i = 0; i < n; i++)
+        {
+            int j = i + 1 == vertexCount ? 0 : i + 1;
+            segments[4 * i] = xcoords[i];
+            segments[4 * i + 1] = ycoords[i];
+            segments[4 * i + 2] = xcoords[j];
+            segments[4 * i + 3] = ycoords[j];
+        }
+
+        double[] bounds = new double[4 * n];
+        for (int i = 0; i < n; i++)
+        {
+            int k = 4 * i;
+            bounds[k] = Math.min(segments[k], segments[k + 2]);
+            bounds[k + 1] = Math.min(segments[k + 1], segments[k + 3]);
+            bounds[k + 2] = Math.max(segments[k], segments[k + 2]);
+            bounds[k + 3] = Math.max(segments[k + 1], segments[k + 3]);
+        }
+        this.index = new BoundsIndex2D(bounds, n);
+    }
+
+
+    // ===================================================================
+    // Queries
+
+    /**
+     * Finds the segment closest to the query point.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @return the index of the closest segment, or -1 if the index is empty
+     */
+    public int nearestSegment(double x, double y)
+    {
+        int[] res = nearestSegments(x, y, 1);
+        return res.length == 0 ? -1 : res[0];
+    }
+
+    /**
+     * Finds the k segments closest to the query point, using a best-first
+     * traversal of the tree.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @param k
+     *            the number of segments to find
+     * @return the indices of the k closest segments (or of all the segments
+     *         if there are less than k), by increasing distance
+     */
+    public int[] nearestSegments(double x, double y, int k)
+    {
+        if (k < 0)
+        {
+            throw new IllegalArgumentException("The number of segments must be positive");
+        }
+        return index.nearestItems(x, y, k, this::segmentDistanceSq);
+    }
+
+    /**
+     * Finds all the segments within the specified distance of the query
+     * point.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @param radius
+     *            the maximal distance between the point and the segments
+     * @return the indices of the segments within the radius, in increasing
+     *         order
+     */
+    public int[] segmentsWithin(double x, double y, double radius)
+    {
+        return index.itemsWithin(x, y, radius, this::segmentDistanceSq);
+    }
+
+    /**
+     * Computes the distance between the query point and the closest segment.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @return the distance to the closest segment, or positive infinity if
+     *         the index is empty
+     */
+    public double distance(double x, double y)
+    {
+        int seg = nearestSegment(x, y);
+        return seg < 0 ? Double.POSITIVE_INFINITY : segmentDistance(seg, x, y);
+    }
+
+    /**
+     * Computes the orthogonal projection of the query point onto the closest
+     * segment.
+     *
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @return the projection of the point, or null if the index is empty
+     */
+    public Point2D projection(double x, double y)
+    {
+        int seg = nearestSegment(x, y);
+        if (seg < 0)
+        {
+            return null;
+        }
+        int k = 4 * seg;
+        double x1 = segments[k];
+        double y1 = segments[k + 1];
+        double dx = segments[k + 2] - x1;
+        double dy = segments[k + 3] - y1;
+        double t = projectionPosition(x1, y1, dx, dy, x, y);
+        return new Point2D(x1 + t * dx, y1 + t * dy);
+    }
+
+    /**
+     * Computes the distance between the query point and a segment.
+     *
+     * @param segmentIndex
+     *            the index of the segment
+     * @param x
+     *            the x-coordinate of the query point
+     * @param y
+     *            the y-coordinate of the query point
+     * @return the distance between the point and the segment
+     */
+    public double segmentDistance(int segmentIndex, double x, double y)
+    {
+        return Math.sqrt(segmentDistanceSq(segmentIndex, x, y));
+    }
+
+    private double segmentDistanceSq(int seg, double x, double y)
+    {
+        int k = 4 * seg;
+        double x1 = segments[k];
+        double y1 = segments[k + 1];
+        double dx = segments[k + 2] - x1;
+        double dy = segments[k + 3] - y1;
+        double t = projectionPosition(x1, y1, dx, dy, x, y);
+        double ex = x1 + t * dx - x;
+        double ey = y1 + t * dy - y;
+        return ex * ex + ey * ey;
+    }
+
+    /**
+     * Computes the position of the projection of the point on the segment,
+     * clamped between 0 and 1.
+     */
+    private static final double projectionPosition(double x1, double y1, double dx, double dy, double x, double y)
+    {
+        double delta = dx * dx + dy * dy;
+        if (delta < Double.MIN_NORMAL)
+        {
+            return 0.0;
+        }
+        double t = ((x - x1) * dx + (y - y1) * dy) / delta;
+        return Math.max(Math.min(t, 1), 0);
+    }
+
+
+    // ===================================================================
+    // Accessors
+
+    /**
+     * @return the number of indexed segments
+     */
+    public int segmentCount()
+    {
+        return this.segmentCount;
+    }
+
+    /**
+     * @return the number of nodes of the tree
+     */
+    public int nodeCount()
+    {
+        return index.nodeCount();
+    }
+
+    /**
+     * @return the bounds of the indexed segments, or null if the index is
+     *         empty
+     */
+    public Bounds2D bounds()
+    {
+        return index.bounds();
+    }
+}
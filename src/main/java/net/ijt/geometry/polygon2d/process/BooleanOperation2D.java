@@ -0,0 +1,310 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.Arrays;
+
+import net.ijt.geometry.geom2d.Predicates2D;
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.MultiPolygon2D;
+import net.ijt.geometry.polygon2d.PolygonalDomain2D;
+
+/**
+ * Computes boolean operations (union, intersection, difference, exclusive
+ * or) between two polygonal domains.
+ *
+ * The boundaries of the two domains are first combined into a planar
+ * arrangement, whose faces are classified according to the winding numbers
+ * of the rings of each domain. As for single polygons, a point belongs to a
+ * bounded domain if its winding number is positive, and to an unbounded
+ * domain (with negative signed area) if its winding number is greater than or
+ * equal to zero. The boundary of the result is composed of the edges that
+ * separate a face within the result from a face outside the result. Edges
+ * shared by both domains, as well as vertices touching other edges, are
+ * processed consistently.
+ *
+ * The rings of the result are oriented such that the domain is on their
+ * left: outer boundaries are oriented counter-clockwise, and holes are
+ * oriented clockwise. Rings touching at a vertex are returned as separate
+ * rings, and collinear consecutive vertices are removed.
+ *
+ * When only the area of the result is needed, the <code>area()</code> method
+ * avoids the creation of the rings.
+ *
+ * <pre>
+ * <code>
+ * BooleanOperation2D op = new BooleanOperation2D(BooleanOperation2D.Type.INTERSECTION);
+ * MultiPolygon2D inter = op.process(polygon1, polygon2);
+ * double interArea = op.area(polygon1, polygon2);
+ * </code>
+ * </pre>
+ *
+ * @see net.ijt.geometry.polygon2d.Polygons2D
+ *
+ * @author dlegland
+ *
+ */
+public class BooleanOperation2D
+{
+    // ===================================================================
+    // Inner enumeration
+
+    /**
+     * The type of boolean operation.
+     */
+    public enum Type
+    {
+        /** The points within the first domain or within the second domain. */
+        UNION,
+        /** The points within both domains. */
+        INTERSECTION,
+        /** The points within the first domain and not within the second one. */
+        DIFFERENCE,
+        /** The points within exactly one of the two domains. */
+        XOR;
+
+        /**
+         * Combines the membership to the two domains.
+         *
+         * @param inA
+         *            the membership to the first domain
+         * @param inB
+         *            the membership to the second domain
+         * @return the membership to the result of the operation
+         */
+        public boolean combine(boolean inA, boolean inB)
+        {
+            switch (this)
+            {
+            case UNION: return inA || inB;
+            case INTERSECTION: return inA && inB;
+            case DIFFERENCE: return inA && !inB;
+            case XOR: return inA ^ inB;
+            default: throw new RuntimeException("Unknown operation: " + this);
+            }
+        }
+    }
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The type of operation to apply.
+     */
+    Type type;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new boolean operation.
+     *
+     * @param type
+     *            the type of operation to apply
+     */
+    public BooleanOperation2D(Type type)
+    {
+        this.type = type;
+    }
+
+
+    // ===================================================================
+    // Methods
+
+    /**
+     * Computes the result of the boolean operation between two polygonal
+     * domains.
+     *
+     * @param domainA
+     *            the first polygonal domain
+     * @param domainB
+     *            the second polygonal domain
+     * @return the result of the operation, as a polygonal domain with
+     *         possibly several rings
+     */
+    public MultiPolygon2D process(PolygonalDomain2D domainA, PolygonalDomain2D domainB)
+    {
+        PlanarArrangement2D arr = new PlanarArrangement2D(domainA, domainB);
+        boolean[] boundary = resultBoundary(arr, domainA, domainB);
+        return boundaryRings(arr, boundary);
+    }
+
+    /**
+     * Computes the signed area of the result of the boolean operation between
+     * two polygonal domains, without computing the rings of the result.
+     *
+     * The area is computed from the boundary edges of the result within the
+     * arrangement of both domains, using Green's formula, and the linking of
+     * the boundary edges into rings is avoided. Most of the computation time
+     * is spent splitting the edges at their intersections. The faces of the
+     * arrangement and their winding numbers are obtained in nearly linear time, and
+     * are faster to compute than classifying each piece of edge with a point
+     * in polygon test, as a ray shot from a piece may cross many edges.
+     *
+     * @param domainA
+     *            the first polygonal domain
+     * @param domainB
+     *            the second polygonal domain
+     * @return the signed area of the result of the operation
+     */
+    public double area(PolygonalDomain2D domainA, PolygonalDomain2D domainB)
+    {
+        PlanarArrangement2D arr = new PlanarArrangement2D(domainA, domainB);
+        boolean[] boundary = resultBoundary(arr, domainA, domainB);
+
+        double area = 0;
+        for (int h = 0; h < boundary.length; h++)
+        {
+            if (boundary[h])
+            {
+                int v1 = arr.origins[h];
+                int v2 = arr.target(h);
+                area += arr.xs[v1] * arr.ys[v2] - arr.xs[v2] * arr.ys[v1];
+            }
+        }
+        return area / 2;
+    }
+
+    /**
+     * Identifies the half-edges that have the result on their left and not
+     * on their right.
+     */
+    private boolean[] resultBoundary(PlanarArrangement2D arr, PolygonalDomain2D domainA, PolygonalDomain2D domainB)
+    {
+        boolean boundedA = domainA.signedArea() >= 0;
+        boolean boundedB = domainB.signedArea() >= 0;
+
+        boolean[] inResult = new boolean[arr.faceCount];
+        for (int f = 0; f < arr.faceCount; f++)
+        {
+            boolean inA = isInside(arr.windingsA[f], boundedA);
+            boolean inB = isInside(arr.windingsB[f], boundedB);
+            inResult[f] = type.combine(inA, inB);
+        }
+
+        return boundaryEdges(arr, inResult);
+    }
+
+    private static final boolean isInside(int winding, boolean bounded)
+    {
+        return bounded ? winding > 0 : winding >= 0;
+    }
+
+    /**
+     * Identifies the half-edges that have a face of the result on their left
+     * and a face outside the result on their right.
+     *
+     * @param arr
+     *            the planar arrangement
+     * @param inResult
+     *            the membership of each face of the arrangement to the result
+     * @return the boolean flag of each half-edge
+     */
+    static final boolean[] boundaryEdges(PlanarArrangement2D arr, boolean[] inResult)
+    {
+        int nh = arr.halfEdgeCount();
+        boolean[] res = new boolean[nh];
+        for (int h = 0; h < nh; h++)
+        {
+            res[h] = inResult[arr.faces[h]] && !inResult[arr.faces[h ^ 1]];
+        }
+        return res;
+    }
+
+    /**
+     * Builds the rings formed by the boundary half-edges of a planar
+     * arrangement, such that the result is on the left of each ring.
+     *
+     * @param arr
+     *            the planar arrangement
+     * @param boundary
+     *            the boolean flag of each half-edge of the boundary
+     * @return the polygonal domain bounded by the half-edges
+     */
+    static final MultiPolygon2D boundaryRings(PlanarArrangement2D arr, boolean[] boundary)
+    {
+        MultiPolygon2D res = new MultiPolygon2D();
+        int nh = arr.halfEdgeCount();
+        boolean[] visited = new boolean[nh];
+        double[] ringX = new double[16];
+        double[] ringY = new double[16];
+        for (int h0 = 0; h0 < nh; h0++)
+        {
+            if (!boundary[h0] || visited[h0])
+            {
+                continue;
+            }
+
+            // follow boundary half-edges, keeping the result on the left
+            int n = 0;
+            int h = h0;
+            do
+            {
+                visited[h] = true;
+                if (n == ringX.length)
+                {
+                    ringX = Arrays.copyOf(ringX, 2 * n);
+                    ringY = Arrays.copyOf(ringY, 2 * n);
+                }
+                int v = arr.origins[h];
+                ringX[n] = arr.xs[v];
+                ringY[n] = arr.ys[v];
+                n++;
+                h = nextBoundaryEdge(arr, h, boundary);
+            } while (h != h0);
+
+            LinearRing2D ring = removeCollinearVertices(ringX, ringY, n);
+            if (ring.vertexCount() >= 3)
+            {
+                res.addRing(ring);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Finds the boundary half-edge following the specified one, by turning
+     * clockwise around the target vertex, starting from the twin half-edge.
+     */
+    private static final int nextBoundaryEdge(PlanarArrangement2D arr, int h, boolean[] boundary)
+    {
+        // the next half-edges around the face on the left correspond to
+        // successive clockwise rotations around the target vertex
+        int next = arr.nexts[h];
+        while (!boundary[next])
+        {
+            next = arr.nexts[next ^ 1];
+        }
+        return next;
+    }
+
+    /**
+     * Creates a linear ring from the vertex coordinates, removing the
+     * vertices located between their two neighbors on a straight line.
+     */
+    private static final LinearRing2D removeCollinearVertices(double[] xs, double[] ys, int n)
+    {
+        double[] resX = new double[n];
+        double[] resY = new double[n];
+        int count = 0;
+        for (int i = 0; i < n; i++)
+        {
+            int iPrev = (i + n - 1) % n;
+            int iNext = (i + 1) % n;
+            double det = Predicates2D.orient2d(xs[iPrev], ys[iPrev], xs[i], ys[i], xs[iNext], ys[iNext]);
+            double dot = (xs[i] - xs[iPrev]) * (xs[iNext] - xs[i]) + (ys[i] - ys[iPrev]) * (ys[iNext] - ys[i]);
+            if (det == 0 && dot > 0)
+            {
+                continue;
+            }
+            resX[count] = xs[i];
+            resY[count] = ys[i];
+            count++;
+        }
+        return LinearRing2D.wrap(Arrays.copyOf(resX, count), Arrays.copyOf(resY, count));
+    }
+}
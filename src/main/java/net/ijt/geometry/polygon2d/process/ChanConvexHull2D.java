@@ -0,0 +1,318 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.geom2d.Predicates2D;
+import net.ijt.geometry.polygon2d.Polygon2D;
+
+/**
+ * Computes the convex hull of a set of points using Chan's output-sensitive
+ * algorithm.
+ *
+ * For a guess <code>m</code> of the number of hull vertices, the points are
+ * partitioned into groups of <code>m</code> points, and the convex hull of
+ * each group is computed with the monotone chain algorithm. A gift wrapping
+ * is then performed over the groups, the next vertex within each group being
+ * found by binary search. If the hull is not closed after <code>m</code>
+ * steps, the process is repeated with the guess <code>m*m</code>. The
+ * complexity is <code>O(n log h)</code>, where <code>n</code> is the number
+ * of points and <code>h</code> the number of hull vertices.
+ *
+ * As for the MonotoneChainConvexHull2D class, points are first filtered with
+ * the Akl-Toussaint heuristic, and the orientation tests use robust
+ * predicates.
+ *
+ * @see MonotoneChainConvexHull2D
+ *
+ * @author dlegland
+ *
+ */
+public class ChanConvexHull2D implements ConvexHull2D
+{
+    /**
+     * The number of points below which the monotone chain algorithm is used
+     * directly.
+     */
+    private static final int MIN_SIZE = 64;
+
+    public ChanConvexHull2D()
+    {
+    }
+
+    /**
+     * Computes the convex hull of a set of points as a single Polygon2D. The
+     * vertices of the polygon are oriented counter-clockwise, starting from
+     * the point with the lowest x-coordinate (and the lowest y-coordinate in
+     * case of ties).
+     *
+     * @param points
+     *            a set of points in the 2D space
+     * @return the convex hull of the points, as a Polygon2D
+     */
+    @Override
+    public Polygon2D process(Collection<? extends Point2D> points)
+    {
+        int n = points.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int i = 0;
+        for (Point2D point : points)
+        {
+            xs[i] = point.x();
+            ys[i] = point.y();
+            i++;
+        }
+
+        return MonotoneChainConvexHull2D.createPolygon(xs, ys, process(xs, ys));
+    }
+
+    /**
+     * Computes the convex hull of a set of points given by their coordinates,
+     * and returns the indices of the hull vertices. The vertices are oriented
+     * counter-clockwise, starting from the point with the lowest x-coordinate
+     * (and the lowest y-coordinate in case of ties).
+     *
+     * @param xs
+     *            the x-coordinates of the points
+     * @param ys
+     *            the y-coordinates of the points
+     * @return the indices of the points located on the convex hull
+     */
+    public int[] process(double[] xs, double[] ys)
+    {
+        if (xs.length != ys.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        int[] candidates = MonotoneChainConvexHull2D.filterCandidates(xs, ys);
+        int n = candidates.length;
+        if (n < MIN_SIZE)
+        {
+            return MonotoneChainConvexHull2D.monotoneChain(xs, ys, candidates, 0, n);
+        }
+
+        // successive guesses of hull size are 4, 16, 256, 65536...
+        for (int t = 1; ; t++)
+        {
+            int m = t >= 5 ? n : (int) Math.min(1L << (1 << t), n);
+            int[] hull = wrapGroups(xs, ys, candidates, m);
+            if (hull != null)
+            {
+                return hull;
+            }
+        }
+    }
+
+    /**
+     * Tries to compute the convex hull by partitioning the points into groups
+     * of size m, and wrapping the hulls of the groups.
+     *
+     * @return the indices of hull vertices, or null if the hull has more than
+     *         m vertices
+     */
+    private static final int[] wrapGroups(double[] xs, double[] ys, int[] candidates, int m)
+    {
+        // compute the convex hull of each group
+        int n = candidates.length;
+        int nGroups = (n + m - 1) / m;
+        int[][] hulls = new int[nGroups][];
+        IntStream groups = IntStream.range(0, nGroups);
+        if (n >= MonotoneChainConvexHull2D.PARALLEL_THRESHOLD)
+        {
+            groups = groups.parallel();
+        }
+        groups.forEach(g -> hulls[g] = MonotoneChainConvexHull2D.monotoneChain(xs, ys, candidates, g * m, Math.min((g + 1) * m, n)));
+
+        // The first vertex is the lowest of the leftmost points. It is also
+        // the first vertex of the hull of its group.
+        int currentGroup = 0;
+        for (int g = 1; g < nGroups; g++)
+        {
+            int i0 = hulls[g][0];
+            int iRef = hulls[currentGroup][0];
+            if (xs[i0] < xs[iRef] || (xs[i0] == xs[iRef] && ys[i0] < ys[iRef]))
+            {
+                currentGroup = g;
+            }
+        }
+        int currentPos = 0;
+        int start = hulls[currentGroup][0];
+        double x0 = xs[start];
+        double y0 = ys[start];
+
+        int[] res = new int[m];
+        int[] tangentPos = new int[nGroups];
+        for (int step = 0; step < m; step++)
+        {
+            int current = hulls[currentGroup][currentPos];
+            res[step] = current;
+            double px = xs[current];
+            double py = ys[current];
+
+            // find the next vertex within each group, and keep the one such
+            // that all points are on the left side
+            int bestGroup = -1;
+            int best = -1;
+            for (int g = 0; g < nGroups; g++)
+            {
+                int[] hull = hulls[g];
+                int pos = g == currentGroup ? (currentPos + 1) % hull.length : tangent(xs, ys, hull, px, py);
+                int index = hull[pos];
+                if (xs[index] == px && ys[index] == py)
+                {
+                    // current point is also a vertex of this group
+                    pos = (pos + 1) % hull.length;
+                    index = hull[pos];
+                    if (xs[index] == px && ys[index] == py)
+                    {
+                        continue;
+                    }
+                }
+                tangentPos[g] = pos;
+
+                if (best == -1)
+                {
+                    bestGroup = g;
+                    best = index;
+                    continue;
+                }
+                double orient = Predicates2D.orient2d(px, py, xs[best], ys[best], xs[index], ys[index]);
+                if (orient < 0 || (orient == 0 && distanceSq(px, py, xs[index], ys[index]) > distanceSq(px, py, xs[best], ys[best])))
+                {
+                    bestGroup = g;
+                    best = index;
+                }
+            }
+
+            if (best == -1 || (xs[best] == x0 && ys[best] == y0))
+            {
+                // the hull is closed
+                int[] hull = new int[step + 1];
+                System.arraycopy(res, 0, hull, 0, step + 1);
+                return hull;
+            }
+            currentGroup = bestGroup;
+            currentPos = tangentPos[bestGroup];
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds the position of the vertex of a convex polygon such that the
+     * polygon is on the left side of (or on) the line from the query point to
+     * the vertex. The query point must not be strictly inside the polygon.
+     */
+    private static final int tangent(double[] xs, double[] ys, int[] hull, double px, double py)
+    {
+        int k = hull.length;
+        if (k <= 3)
+        {
+            return linearTangent(xs, ys, hull, px, py);
+        }
+        int pos = tangentSearch(xs, ys, hull, px, py);
+
+        // if the next vertex is aligned with the query point and the tangent
+        // vertex, keep the furthest one
+        int index = hull[pos];
+        int next = hull[(pos + 1) % k];
+        if (orientation(xs, ys, px, py, index, next) == 0
+                && distanceSq(px, py, xs[next], ys[next]) > distanceSq(px, py, xs[index], ys[index]))
+        {
+            pos = (pos + 1) % k;
+        }
+        return pos;
+    }
+
+    /**
+     * Finds the tangent vertex by binary search over the cyclic sequence of
+     * vertices.
+     */
+    private static final int tangentSearch(double[] xs, double[] ys, int[] hull, double px, double py)
+    {
+        int k = hull.length;
+
+        int l = 0;
+        int r = k;
+        int lBefore = orientation(xs, ys, px, py, hull[0], hull[k - 1]);
+        int lAfter = orientation(xs, ys, px, py, hull[0], hull[1]);
+        while (l < r)
+        {
+            int c = (l + r) >>> 1;
+            int cBefore = orientation(xs, ys, px, py, hull[c], hull[(c + k - 1) % k]);
+            int cAfter = orientation(xs, ys, px, py, hull[c], hull[(c + 1) % k]);
+            if (cBefore >= 0 && cAfter >= 0)
+            {
+                return c;
+            }
+            int cSide = orientation(xs, ys, px, py, hull[l % k], hull[c]);
+            if ((cSide > 0 && (lAfter < 0 || lBefore == lAfter)) || (cSide < 0 && cBefore < 0))
+            {
+                r = c;
+            }
+            else
+            {
+                l = c + 1;
+            }
+            lBefore = -cAfter;
+            lAfter = orientation(xs, ys, px, py, hull[l % k], hull[(l + 1) % k]);
+        }
+
+        // check the result, and fall back to linear search in case of failure
+        // (may occur for degenerate configurations)
+        int pos = l % k;
+        if (orientation(xs, ys, px, py, hull[pos], hull[(pos + k - 1) % k]) >= 0
+                && orientation(xs, ys, px, py, hull[pos], hull[(pos + 1) % k]) >= 0)
+        {
+            return pos;
+        }
+        return linearTangent(xs, ys, hull, px, py);
+    }
+
+    /**
+     * Finds the tangent vertex by iterating over all the vertices of the
+     * polygon.
+     */
+    private static final int linearTangent(double[] xs, double[] ys, int[] hull, double px, double py)
+    {
+        int bestPos = -1;
+        for (int pos = 0; pos < hull.length; pos++)
+        {
+            int index = hull[pos];
+            if (xs[index] == px && ys[index] == py)
+            {
+                continue;
+            }
+            if (bestPos == -1)
+            {
+                bestPos = pos;
+                continue;
+            }
+            int best = hull[bestPos];
+            double orient = Predicates2D.orient2d(px, py, xs[best], ys[best], xs[index], ys[index]);
+            if (orient < 0 || (orient == 0 && distanceSq(px, py, xs[index], ys[index]) > distanceSq(px, py, xs[best], ys[best])))
+            {
+                bestPos = pos;
+            }
+        }
+        return bestPos == -1 ? 0 : bestPos;
+    }
+
+    private static final int orientation(double[] xs, double[] ys, double px, double py, int i1, int i2)
+    {
+        double det = Predicates2D.orient2d(px, py, xs[i1], ys[i1], xs[i2], ys[i2]);
+        return det > 0 ? 1 : (det < 0 ? -1 : 0);
+    }
+
+    private static final double distanceSq(double x1, double y1, double x2, double y2)
+    {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.Collection;
+
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.polygon2d.Polygon2D;
+
+/**
+ * Common interface for algorithms computing the convex hull of a set of
+ * points.
+ *
+ * @see GiftWrappingConvexHull2D
+ * @see MonotoneChainConvexHull2D
+ * @see ChanConvexHull2D
+ *
+ * @author dlegland
+ *
+ */
+public interface ConvexHull2D
+{
+    /**
+     * Computes the convex hull of a set of points as a single Polygon2D.
+     *
+     * @param points
+     *            a set of points in the 2D space
+     * @return the convex hull of the points, as a Polygon2D
+     */
+    public Polygon2D process(Collection<? extends Point2D> points);
+}
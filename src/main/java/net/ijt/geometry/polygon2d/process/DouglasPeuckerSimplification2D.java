@@ -0,0 +1,235 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+/**
+ * Simplifies polylines using the Douglas-Peucker algorithm. The vertex
+ * farthest from the segment joining the extremities of a portion of the
+ * polyline is kept if its distance is larger than the tolerance, and the two
+ * resulting portions are processed in turn. The portions to process are
+ * stored within an explicit stack rather than by recursion, making it
+ * possible to process long contours.
+ *
+ * For closed polylines, the first vertex and the vertex farthest from it are
+ * kept, and the two resulting portions are simplified.
+ *
+ * <pre>
+ * <code>
+ * Polyline2D simplified = new DouglasPeuckerSimplification2D(1.0).process(contour);
+ * </code>
+ * </pre>
+ *
+ * @see VisvalingamSimplification2D
+ *
+ * @author dlegland
+ *
+ */
+public class DouglasPeuckerSimplification2D implements PolylineSimplification2D
+{
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The maximal distance between a removed vertex and the simplified
+     * polyline.
+     */
+    private double tolerance;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new simplification operator.
+     *
+     * @param tolerance
+     *            the maximal distance between a removed vertex and the
+     *            simplified polyline
+     */
+    public DouglasPeuckerSimplification2D(double tolerance)
+    {
+        if (!(tolerance >= 0))
+        {
+            throw new IllegalArgumentException("Tolerance must be positive or zero");
+        }
+        this.tolerance = tolerance;
+    }
+
+
+    // ===================================================================
+    // Implementation of the PolylineSimplification2D interface
+
+    @Override
+    public int[] simplify(double[] xcoords, double[] ycoords, boolean closed)
+    {
+        if (xcoords.length != ycoords.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        int nv = xcoords.length;
+        if (nv <= (closed ? 3 : 2))
+        {
+            return identity(nv);
+        }
+
+        boolean[] keep = new boolean[nv];
+        double tol2 = tolerance * tolerance;
+
+        // stack of (start, end) index pairs. For closed polylines, the end
+        // index may equal the vertex count, and refers to the first vertex.
+        int[] stack = new int[2 * (nv + 1)];
+        int stackSize = 0;
+
+        keep[0] = true;
+        if (closed)
+        {
+            // split the ring at the vertex farthest from the first vertex
+            int iFar = 1;
+            double maxDist = -1;
+            for (int i = 1; i < nv; i++)
+            {
+                double dx = xcoords[i] - xcoords[0];
+                double dy = ycoords[i] - ycoords[0];
+                double dist = dx * dx + dy * dy;
+                if (dist > maxDist)
+                {
+                    maxDist = dist;
+                    iFar = i;
+                }
+            }
+            keep[iFar] = true;
+            stack[stackSize++] = 0;
+            stack[stackSize++] = iFar;
+            stack[stackSize++] = iFar;
+            stack[stackSize++] = nv;
+        }
+        else
+        {
+            keep[nv - 1] = true;
+            stack[stackSize++] = 0;
+            stack[stackSize++] = nv - 1;
+        }
+
+        while (stackSize > 0)
+        {
+            int end = stack[--stackSize];
+            int start = stack[--stackSize];
+            if (end - start < 2)
+            {
+                continue;
+            }
+
+            int end2 = end % nv;
+            int iMax = farthestVertex(xcoords, ycoords, start, end2, start + 1, end);
+            if (segmentDistanceSq(xcoords, ycoords, start, end2, iMax) > tol2)
+            {
+                keep[iMax] = true;
+                stack[stackSize++] = start;
+                stack[stackSize++] = iMax;
+                stack[stackSize++] = iMax;
+                stack[stackSize++] = end;
+            }
+        }
+
+        int count = 0;
+        for (int i = 0; i < nv; i++)
+        {
+            if (keep[i]) count++;
+        }
+
+        // ensures a closed polyline keeps at least three vertices
+        if (closed && count < 3)
+        {
+            int iFar = 0;
+            for (int i = 1; i < nv; i++)
+            {
+                if (keep[i]) iFar = i;
+            }
+            int iMax = -1;
+            double maxDist = -1;
+            for (int i = 1; i < nv; i++)
+            {
+                double dist = segmentDistanceSq(xcoords, ycoords, 0, iFar, i);
+                if (!keep[i] && dist > maxDist)
+                {
+                    maxDist = dist;
+                    iMax = i;
+                }
+            }
+            keep[iMax] = true;
+            count++;
+        }
+
+        int[] res = new int[count];
+        count = 0;
+        for (int i = 0; i < nv; i++)
+        {
+            if (keep[i]) res[count++] = i;
+        }
+        return res;
+    }
+
+    /**
+     * Returns the index of the vertex within the range [i0, i1) that is
+     * farthest from the segment joining the vertices with indices
+     * <code>start</code> and <code>end</code>.
+     */
+    private static final int farthestVertex(double[] xcoords, double[] ycoords, int start, int end, int i0, int i1)
+    {
+        int iMax = i0;
+        double maxDist = -1;
+        for (int i = i0; i < i1; i++)
+        {
+            double dist = segmentDistanceSq(xcoords, ycoords, start, end, i);
+            if (dist > maxDist)
+            {
+                maxDist = dist;
+                iMax = i;
+            }
+        }
+        return iMax;
+    }
+
+    /**
+     * Computes the squared distance between the vertex with index
+     * <code>i</code> and the segment joining the vertices with indices
+     * <code>start</code> and <code>end</code>.
+     */
+    private static final double segmentDistanceSq(double[] xcoords, double[] ycoords, int start, int end, int i)
+    {
+        double x0 = xcoords[start];
+        double y0 = ycoords[start];
+        double dx = xcoords[end] - x0;
+        double dy = ycoords[end] - y0;
+        double px = xcoords[i] - x0;
+        double py = ycoords[i] - y0;
+
+        double len2 = dx * dx + dy * dy;
+        if (len2 > 0)
+        {
+            double t = (px * dx + py * dy) / len2;
+            if (t >= 1)
+            {
+                px -= dx;
+                py -= dy;
+            }
+            else if (t > 0)
+            {
+                px -= t * dx;
+                py -= t * dy;
+            }
+        }
+        return px * px + py * py;
+    }
+
+    private static final int[] identity(int n)
+    {
+        int[] res = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            res[i] = i;
+        }
+        return res;
+    }
+}
@@ -0,0 +1,1113 @@
+/*
+ * The triangulation algorithm of this file is adapted from the "earcut"
+ * library (https://github.com/mapbox/earcut), distributed under the
+ * following license:
+ *
+ * ISC License
+ *
+ * Copyright (c) 2016, Mapbox
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND ISC DISCLAIMS ALL WARRANTIES WITH
+ * REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL ISC BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.PolygonalDomain2D;
+
+/**
+ * Computes a triangulation of a polygonal domain, possibly with holes, using
+ * the ear clipping algorithm.
+ *
+ * The vertices of each outer ring are stored within a circular doubly linked
+ * list, and ears (convex vertices whose triangle contains no other reflex
+ * vertex) are removed one after the other. The holes are first connected to
+ * their outer ring by bridges, processed from the leftmost hole to the
+ * rightmost one. For large polygons, the vertices are also sorted along a
+ * z-order curve, so that the ear test only considers the vertices located
+ * within the bounding box of the candidate triangle. Degenerate cases
+ * (duplicate vertices, self-touching rings, local self-intersections) are
+ * handled by successive filtering and splitting passes. The implementation
+ * is adapted from the "earcut" library by Mapbox (ISC license, see the
+ * notice at the top of this file).
+ *
+ * The result is an array of vertex index triplets, each triplet
+ * corresponding to a triangle. Vertex indices refer to the concatenation of
+ * the vertices of the rings of the domain, in the iteration order of the
+ * rings.
+ *
+ * <pre>
+ * <code>
+ * int[] triangles = new EarClippingTriangulation2D().process(polygon);
+ * int nTriangles = triangles.length / 3;
+ * </code>
+ * </pre>
+ *
+ * @author dlegland
+ *
+ */
+public class EarClippingTriangulation2D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The minimal number of vertices of a ring for indexing its vertices
+     * along a z-order curve.
+     */
+    public static final int HASH_THRESHOLD = 80;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new triangulation operator.
+     */
+    public EarClippingTriangulation2D()
+    {
+    }
+
+
+    // ===================================================================
+    // Methods
+
+    /**
+     * Computes the triangulation of a bounded polygonal domain. Rings with a
+     * positive signed area are considered as outer boundaries, and rings with
+     * a negative signed area as holes. Each hole is associated to the
+     * smallest outer ring that contains it.
+     *
+     * @param domain
+     *            the polygonal domain to triangulate
+     * @return the vertex index triplets of the triangles
+     * @throws IllegalArgumentException
+     *             if the domain is not bounded
+     */
+    public int[] process(PolygonalDomain2D domain)
+    {
+        if (domain.signedArea() < 0)
+        {
+            throw new IllegalArgumentException("Can not triangulate an unbounded domain");
+        }
+
+        // concatenate ring vertices
+        ArrayList<LinearRing2D> rings = new ArrayList<LinearRing2D>();
+        for (LinearRing2D ring : domain.rings())
+        {
+            rings.add(ring);
+        }
+        int nRings = rings.size();
+        int[] ringStarts = new int[nRings + 1];
+        for (int r = 0; r < nRings; r++)
+        {
+            ringStarts[r + 1] = ringStarts[r] + rings.get(r).vertexCount();
+        }
+        double[] xs = new double[ringStarts[nRings]];
+        double[] ys = new double[ringStarts[nRings]];
+        double[] areas = new double[nRings];
+        for (int r = 0; r < nRings; r++)
+        {
+            LinearRing2D ring = rings.get(r);
+            for (int i = 0; i < ring.vertexCount(); i++)
+            {
+                xs[ringStarts[r] + i] = ring.vertexX(i);
+                ys[ringStarts[r] + i] = ring.vertexY(i);
+            }
+            areas[r] = ring.signedArea();
+        }
+
+        // associate each hole to the smallest outer ring that contains it
+        int[] outers = new int[nRings];
+        for (int r = 0; r < nRings; r++)
+        {
+            outers[r] = areas[r] > 0 ? r : -1;
+        }
+        for (int h = 0; h < nRings; h++)
+        {
+            if (areas[h] >= 0 || ringStarts[h] == ringStarts[h + 1])
+            {
+                continue;
+            }
+            double x = xs[ringStarts[h]];
+            double y = ys[ringStarts[h]];
+            double bestArea = Double.POSITIVE_INFINITY;
+            for (int r = 0; r < nRings; r++)
+            {
+                if (areas[r] > 0 && areas[r] < bestArea && rings.get(r).isInside(x, y))
+                {
+                    outers[h] = r;
+                    bestArea = areas[r];
+                }
+            }
+        }
+
+        // triangulate each outer ring together with its holes
+        IntList triangles = new IntList();
+        for (int r = 0; r < nRings; r++)
+        {
+            if (outers[r] != r)
+            {
+                continue;
+            }
+            IntList holes = new IntList();
+            for (int h = 0; h < nRings; h++)
+            {
+                if (h != r && outers[h] == r)
+                {
+                    holes.add(h);
+                }
+            }
+            triangulate(xs, ys, ringStarts, r, holes, triangles);
+        }
+
+        return Arrays.copyOf(triangles.values, triangles.size);
+    }
+
+    /**
+     * Computes the triangulation of a simple polygon given by the coordinates
+     * of its vertices.
+     *
+     * @param xs
+     *            the x-coordinates of the vertices
+     * @param ys
+     *            the y-coordinates of the vertices
+     * @return the vertex index triplets of the triangles
+     */
+    public int[] process(double[] xs, double[] ys)
+    {
+        if (xs.length != ys.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        IntList triangles = new IntList();
+        triangulate(xs, ys, new int[] { 0, xs.length }, 0, new IntList(), triangles);
+        return Arrays.copyOf(triangles.values, triangles.size);
+    }
+
+    /**
+     * Triangulates the outer ring with the specified index, together with its
+     * holes, and adds the triangles to the list.
+     */
+    private static final void triangulate(double[] xs, double[] ys, int[] ringStarts, int outer, IntList holes, IntList triangles)
+    {
+        Node outerNode = linkedList(xs, ys, ringStarts[outer], ringStarts[outer + 1], true);
+        if (outerNode == null || outerNode.next == outerNode.prev)
+        {
+            return;
+        }
+
+        int vertexCount = ringStarts[outer + 1] - ringStarts[outer];
+        if (holes.size > 0)
+        {
+            outerNode = eliminateHoles(xs, ys, ringStarts, holes, outerNode);
+            for (int k = 0; k < holes.size; k++)
+            {
+                int h = holes.values[k];
+                vertexCount += ringStarts[h + 1] - ringStarts[h];
+            }
+        }
+
+        // compute bounds for z-order indexing of large polygons
+        ZOrder zorder = null;
+        if (vertexCount > HASH_THRESHOLD)
+        {
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            Node p = outerNode;
+            do
+            {
+                minX = Math.min(minX, p.x);
+                minY = Math.min(minY, p.y);
+                maxX = Math.max(maxX, p.x);
+                maxY = Math.max(maxY, p.y);
+                p = p.next;
+            } while (p != outerNode);
+            double size = Math.max(maxX - minX, maxY - minY);
+            if (size > 0)
+            {
+                zorder = new ZOrder(minX, minY, 32767 / size);
+            }
+        }
+
+        earcutLinked(outerNode, triangles, zorder, 0);
+    }
+
+
+    // ===================================================================
+    // Main ear clipping loop
+
+    /**
+     * Main ear slicing loop, that triangulates a polygon given as a linked
+     * list.
+     *
+     * @param pass
+     *            the index of the pass: 0 for the first pass, 1 after
+     *            filtering points, 2 after curing local self-intersections
+     */
+    private static final void earcutLinked(Node ear, IntList triangles, ZOrder zorder, int pass)
+    {
+        if (ear == null)
+        {
+            return;
+        }
+
+        // interlink polygon nodes in z-order
+        if (pass == 0 && zorder != null)
+        {
+            indexCurve(ear, zorder);
+        }
+
+        Node stop = ear;
+        // iterate through ears, slicing them one by one
+        while (ear.prev != ear.next)
+        {
+            Node prev = ear.prev;
+            Node next = ear.next;
+
+            if (zorder != null ? isEarHashed(ear, zorder) : isEar(ear))
+            {
+                // cut off the triangle
+                triangles.add(prev.i);
+                triangles.add(ear.i);
+                triangles.add(next.i);
+                removeNode(ear);
+
+                // skipping the next vertex leads to less sliver triangles
+                ear = next.next;
+                stop = next.next;
+                continue;
+            }
+
+            ear = next;
+
+            // if we looped through the whole remaining polygon and can't
+            // find any more ears
+            if (ear == stop)
+            {
+                if (pass == 0)
+                {
+                    // try filtering points and slicing again
+                    earcutLinked(filterPoints(ear, null), triangles, zorder, 1);
+                }
+                else if (pass == 1)
+                {
+                    // if this didn't work, try curing all small
+                    // self-intersections locally
+                    ear = cureLocalIntersections(filterPoints(ear, null), triangles);
+                    earcutLinked(ear, triangles, zorder, 2);
+                }
+                else
+                {
+                    // as a last resort, try splitting the remaining polygon
+                    // into two
+                    splitEarcut(ear, triangles, zorder);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a polygon node forms a valid ear with its neighbors.
+     */
+    private static final boolean isEar(Node ear)
+    {
+        Node a = ear.prev;
+        Node b = ear;
+        Node c = ear.next;
+
+        // reflex, can't be an ear
+        if (area(a, b, c) >= 0)
+        {
+            return false;
+        }
+
+        // triangle bounds
+        double x0 = Math.min(a.x, Math.min(b.x, c.x));
+        double y0 = Math.min(a.y, Math.min(b.y, c.y));
+        double x1 = Math.max(a.x, Math.max(b.x, c.x));
+        double y1 = Math.max(a.y, Math.max(b.y, c.y));
+
+        // now make sure we don't have other points inside the potential ear
+        Node p = c.next;
+        while (p != a)
+        {
+            if (p.x >= x0 && p.x <= x1 && p.y >= y0 && p.y <= y1
+                    && pointInTriangle(a.x, a.y, b.x, b.y, c.x, c.y, p.x, p.y)
+                    && area(p.prev, p, p.next) >= 0)
+            {
+                return false;
+            }
+            p = p.next;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a polygon node forms a valid ear with its neighbors,
+     * considering only the nodes whose z-order is within the range of the
+     * bounding box of the triangle.
+     */
+    private static final boolean isEarHashed(Node ear, ZOrder zorder)
+    {
+        Node a = ear.prev;
+        Node b = ear;
+        Node c = ear.next;
+
+        // reflex, can't be an ear
+        if (area(a, b, c) >= 0)
+        {
+            return false;
+        }
+
+        // triangle bounds
+        double x0 = Math.min(a.x, Math.min(b.x, c.x));
+        double y0 = Math.min(a.y, Math.min(b.y, c.y));
+        double x1 = Math.max(a.x, Math.max(b.x, c.x));
+        double y1 = Math.max(a.y, Math.max(b.y, c.y));
+
+        // z-order range for the current triangle bounds
+        int minZ = zorder.code(x0, y0);
+        int maxZ = zorder.code(x1, y1);
+
+        Node p = ear.prevZ;
+        Node n = ear.nextZ;
+
+        // look for points inside the triangle in both directions
+        while (p != null && p.z >= minZ && n != null && n.z <= maxZ)
+        {
+            if (isBlocking(p, a, b, c, x0, y0, x1, y1)) return false;
+            p = p.prevZ;
+
+            if (isBlocking(n, a, b, c, x0, y0, x1, y1)) return false;
+            n = n.nextZ;
+        }
+
+        // look for remaining points in decreasing z-order
+        while (p != null && p.z >= minZ)
+        {
+            if (isBlocking(p, a, b, c, x0, y0, x1, y1)) return false;
+            p = p.prevZ;
+        }
+
+        // look for remaining points in increasing z-order
+        while (n != null && n.z <= maxZ)
+        {
+            if (isBlocking(n, a, b, c, x0, y0, x1, y1)) return false;
+            n = n.nextZ;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if the node is a reflex node within the triangle (a, b, c),
+     * preventing the triangle to be an ear.
+     */
+    private static final boolean isBlocking(Node p, Node a, Node b, Node c, double x0, double y0, double x1, double y1)
+    {
+        return p.x >= x0 && p.x <= x1 && p.y >= y0 && p.y <= y1 && p != a && p != c
+                && pointInTriangle(a.x, a.y, b.x, b.y, c.x, c.y, p.x, p.y)
+                && area(p.prev, p, p.next) >= 0;
+    }
+
+    /**
+     * Goes through all polygon nodes and cures small local
+     * self-intersections.
+     */
+    private static final Node cureLocalIntersections(Node start, IntList triangles)
+    {
+        Node p = start;
+        do
+        {
+            Node a = p.prev;
+            Node b = p.next.next;
+
+            if (!equals(a, b) && intersects(a, p, p.next, b) && locallyInside(a, b) && locallyInside(b, a))
+            {
+                triangles.add(a.i);
+                triangles.add(p.i);
+                triangles.add(b.i);
+
+                // remove two nodes involved
+                removeNode(p);
+                removeNode(p.next);
+
+                p = start = b;
+            }
+            p = p.next;
+        } while (p != start);
+
+        return filterPoints(p, null);
+    }
+
+    /**
+     * Tries splitting the polygon into two along a valid diagonal, and
+     * triangulates them independently.
+     */
+    private static final void splitEarcut(Node start, IntList triangles, ZOrder zorder)
+    {
+        // look for a valid diagonal that divides the polygon into two
+        Node a = start;
+        do
+        {
+            Node b = a.next.next;
+            while (b != a.prev)
+            {
+                if (a.i != b.i && isValidDiagonal(a, b))
+                {
+                    // split the polygon in two by the diagonal
+                    Node c = splitPolygon(a, b);
+
+                    // filter collinear points around the cuts
+                    a = filterPoints(a, a.next);
+                    c = filterPoints(c, c.next);
+
+                    // run earcut on each half
+                    earcutLinked(a, triangles, zorder, 0);
+                    earcutLinked(c, triangles, zorder, 0);
+                    return;
+                }
+                b = b.next;
+            }
+            a = a.next;
+        } while (a != start);
+    }
+
+
+    // ===================================================================
+    // Elimination of holes
+
+    /**
+     * Links every hole into the outer loop, producing a single-ring polygon
+     * without holes.
+     */
+    private static final Node eliminateHoles(double[] xs, double[] ys, int[] ringStarts, IntList holes, Node outerNode)
+    {
+        ArrayList<Node> queue = new ArrayList<Node>(holes.size);
+        for (int k = 0; k < holes.size; k++)
+        {
+            int h = holes.values[k];
+            Node list = linkedList(xs, ys, ringStarts[h], ringStarts[h + 1], false);
+            if (list == null)
+            {
+                continue;
+            }
+            if (list == list.next)
+            {
+                list.steiner = true;
+            }
+            queue.add(getLeftmost(list));
+        }
+
+        // process holes from left to right
+        queue.sort((n1, n2) -> Double.compare(n1.x, n2.x));
+        for (Node hole : queue)
+        {
+            outerNode = eliminateHole(hole, outerNode);
+        }
+
+        return outerNode;
+    }
+
+    /**
+     * Finds a bridge between the vertices that connects the hole with the
+     * outer ring, and links it.
+     */
+    private static final Node eliminateHole(Node hole, Node outerNode)
+    {
+        Node bridge = findHoleBridge(hole, outerNode);
+        if (bridge == null)
+        {
+            return outerNode;
+        }
+
+        Node bridgeReverse = splitPolygon(bridge, hole);
+
+        // filter collinear points around the cuts
+        filterPoints(bridgeReverse, bridgeReverse.next);
+        return filterPoints(bridge, bridge.next);
+    }
+
+    /**
+     * David Eberly's algorithm for finding a bridge between a hole and the
+     * outer polygon.
+     */
+    private static final Node findHoleBridge(Node hole, Node outerNode)
+    {
+        Node p = outerNode;
+        double hx = hole.x;
+        double hy = hole.y;
+        double qx = Double.NEGATIVE_INFINITY;
+        Node m = null;
+
+        // find a segment intersected by a ray from the hole's leftmost point
+        // to the left; segment's endpoint with lesser x will be a potential
+        // connection point
+        do
+        {
+            if (hy <= p.y && hy >= p.next.y && p.next.y != p.y)
+            {
+                double x = p.x + (hy - p.y) * (p.next.x - p.x) / (p.next.y - p.y);
+                if (x <= hx && x > qx)
+                {
+                    qx = x;
+                    m = p.x < p.next.x ? p : p.next;
+                    if (x == hx)
+                    {
+                        // hole touches outer segment; pick leftmost endpoint
+                        return m;
+                    }
+                }
+            }
+            p = p.next;
+        } while (p != outerNode);
+
+        if (m == null)
+        {
+            return null;
+        }
+
+        // look for points inside the triangle of hole point, segment
+        // intersection and endpoint; if there are no points found, we have a
+        // valid connection; otherwise choose the point of the minimum angle
+        // with the ray as connection point
+        Node stop = m;
+        double mx = m.x;
+        double my = m.y;
+        double tanMin = Double.POSITIVE_INFINITY;
+
+        p = m;
+        do
+        {
+            if (hx >= p.x && p.x >= mx && hx != p.x
+                    && pointInTriangle(hy < my ? hx : qx, hy, mx, my, hy < my ? qx : hx, hy, p.x, p.y))
+            {
+                double tan = Math.abs(hy - p.y) / (hx - p.x);
+                if (locallyInside(p, hole) && (tan < tanMin
+                        || (tan == tanMin && (p.x > m.x || (p.x == m.x && sectorContainsSector(m, p))))))
+                {
+                    m = p;
+                    tanMin = tan;
+                }
+            }
+            p = p.next;
+        } while (p != stop);
+
+        return m;
+    }
+
+    /**
+     * Checks whether sector in vertex m contains sector in vertex p in the
+     * same coordinates.
+     */
+    private static final boolean sectorContainsSector(Node m, Node p)
+    {
+        return area(m.prev, m, p.prev) < 0 && area(p.next, m, m.next) < 0;
+    }
+
+    /**
+     * Finds the leftmost node of a polygon ring.
+     */
+    private static final Node getLeftmost(Node start)
+    {
+        Node p = start;
+        Node leftmost = start;
+        do
+        {
+            if (p.x < leftmost.x || (p.x == leftmost.x && p.y < leftmost.y))
+            {
+                leftmost = p;
+            }
+            p = p.next;
+        } while (p != start);
+        return leftmost;
+    }
+
+
+    // ===================================================================
+    // Z-order indexing
+
+    /**
+     * Interlinks the polygon nodes in z-order.
+     */
+    private static final void indexCurve(Node start, ZOrder zorder)
+    {
+        Node p = start;
+        do
+        {
+            if (!p.hasZ)
+            {
+                p.z = zorder.code(p.x, p.y);
+                p.hasZ = true;
+            }
+            p.prevZ = p.prev;
+            p.nextZ = p.next;
+            p = p.next;
+        } while (p != start);
+
+        p.prevZ.nextZ = null;
+        p.prevZ = null;
+
+        sortLinked(p);
+    }
+
+    /**
+     * Sorts a linked list of nodes according to their z-order, using Simon
+     * Tatham's linked list merge sort algorithm.
+     */
+    private static final Node sortLinked(Node list)
+    {
+        int inSize = 1;
+        int numMerges;
+        do
+        {
+            Node p = list;
+            list = null;
+            Node tail = null;
+            numMerges = 0;
+
+            while (p != null)
+            {
+                numMerges++;
+                Node q = p;
+                int pSize = 0;
+                for (int i = 0; i < inSize; i++)
+                {
+                    pSize++;
+                    q = q.nextZ;
+                    if (q == null) break;
+                }
+                int qSize = inSize;
+
+                while (pSize > 0 || (qSize > 0 && q != null))
+                {
+                    Node e;
+                    if (pSize != 0 && (qSize == 0 || q == null || p.z <= q.z))
+                    {
+                        e = p;
+                        p = p.nextZ;
+                        pSize--;
+                    }
+                    else
+                    {
+                        e = q;
+                        q = q.nextZ;
+                        qSize--;
+                    }
+
+                    if (tail != null)
+                    {
+                        tail.nextZ = e;
+                    }
+                    else
+                    {
+                        list = e;
+                    }
+                    e.prevZ = tail;
+                    tail = e;
+                }
+
+                p = q;
+            }
+
+            tail.nextZ = null;
+            inSize *= 2;
+        } while (numMerges > 1);
+
+        return list;
+    }
+
+
+    // ===================================================================
+    // Geometric utilities
+
+    /**
+     * Checks if a point lies within a triangle.
+     */
+    private static final boolean pointInTriangle(double ax, double ay, double bx, double by, double cx, double cy, double px, double py)
+    {
+        return (cx - px) * (ay - py) >= (ax - px) * (cy - py)
+                && (ax - px) * (by - py) >= (bx - px) * (ay - py)
+                && (bx - px) * (cy - py) >= (cx - px) * (by - py);
+    }
+
+    /**
+     * Checks if a diagonal between two polygon nodes is valid (lies in
+     * polygon interior).
+     */
+    private static final boolean isValidDiagonal(Node a, Node b)
+    {
+        // doesn't intersect other edges
+        if (a.next.i == b.i || a.prev.i == b.i || intersectsPolygon(a, b))
+        {
+            return false;
+        }
+
+        // locally visible, and does not create opposite-facing sectors
+        if (locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b)
+                && (area(a.prev, a, b.prev) != 0 || area(a, b.prev, b) != 0))
+        {
+            return true;
+        }
+
+        // special zero-length case
+        return equals(a, b) && area(a.prev, a, a.next) > 0 && area(b.prev, b, b.next) > 0;
+    }
+
+    /**
+     * Computes twice the signed area of a triangle. The result is negative
+     * for counter-clockwise triangles.
+     */
+    private static final double area(Node p, Node q, Node r)
+    {
+        return (q.y - p.y) * (r.x - q.x) - (q.x - p.x) * (r.y - q.y);
+    }
+
+    /**
+     * Checks if two points are equal.
+     */
+    private static final boolean equals(Node p1, Node p2)
+    {
+        return p1.x == p2.x && p1.y == p2.y;
+    }
+
+    /**
+     * Checks if two segments intersect.
+     */
+    private static final boolean intersects(Node p1, Node q1, Node p2, Node q2)
+    {
+        int o1 = sign(area(p1, q1, p2));
+        int o2 = sign(area(p1, q1, q2));
+        int o3 = sign(area(p2, q2, p1));
+        int o4 = sign(area(p2, q2, q1));
+
+        // general case
+        if (o1 != o2 && o3 != o4) return true;
+
+        // collinear cases
+        if (o1 == 0 && onSegment(p1, p2, q1)) return true;
+        if (o2 == 0 && onSegment(p1, q2, q1)) return true;
+        if (o3 == 0 && onSegment(p2, p1, q2)) return true;
+        if (o4 == 0 && onSegment(p2, q1, q2)) return true;
+
+        return false;
+    }
+
+    /**
+     * For collinear points p, q, r, checks if point q lies on segment pr.
+     */
+    private static final boolean onSegment(Node p, Node q, Node r)
+    {
+        return q.x <= Math.max(p.x, r.x) && q.x >= Math.min(p.x, r.x)
+                && q.y <= Math.max(p.y, r.y) && q.y >= Math.min(p.y, r.y);
+    }
+
+    private static final int sign(double num)
+    {
+        return num > 0 ? 1 : num < 0 ? -1 : 0;
+    }
+
+    /**
+     * Checks if a polygon diagonal intersects any polygon segments.
+     */
+    private static final boolean intersectsPolygon(Node a, Node b)
+    {
+        Node p = a;
+        do
+        {
+            if (p.i != a.i && p.next.i != a.i && p.i != b.i && p.next.i != b.i && intersects(p, p.next, a, b))
+            {
+                return true;
+            }
+            p = p.next;
+        } while (p != a);
+
+        return false;
+    }
+
+    /**
+     * Checks if a polygon diagonal is locally inside the polygon.
+     */
+    private static final boolean locallyInside(Node a, Node b)
+    {
+        return area(a.prev, a, a.next) < 0
+                ? area(a, b, a.next) >= 0 && area(a, a.prev, b) >= 0
+                : area(a, b, a.prev) < 0 || area(a, a.next, b) < 0;
+    }
+
+    /**
+     * Checks if the middle point of a polygon diagonal is inside the polygon.
+     */
+    private static final boolean middleInside(Node a, Node b)
+    {
+        Node p = a;
+        boolean inside = false;
+        double px = (a.x + b.x) / 2;
+        double py = (a.y + b.y) / 2;
+        do
+        {
+            if (((p.y > py) != (p.next.y > py)) && p.next.y != p.y
+                    && (px < (p.next.x - p.x) * (py - p.y) / (p.next.y - p.y) + p.x))
+            {
+                inside = !inside;
+            }
+            p = p.next;
+        } while (p != a);
+
+        return inside;
+    }
+
+
+    // ===================================================================
+    // Management of linked lists
+
+    /**
+     * Creates a circular doubly linked list from polygon points in the
+     * specified winding order: counter-clockwise for outer rings, and
+     * clockwise for holes.
+     */
+    private static final Node linkedList(double[] xs, double[] ys, int start, int end, boolean outer)
+    {
+        if (end <= start)
+        {
+            return null;
+        }
+
+        double area = 0;
+        for (int i = start, j = end - 1; i < end; j = i++)
+        {
+            area += (xs[j] - xs[i]) * (ys[i] + ys[j]);
+        }
+
+        Node last = null;
+        if (outer == (area > 0))
+        {
+            for (int i = start; i < end; i++)
+            {
+                last = insertNode(i, xs[i], ys[i], last);
+            }
+        }
+        else
+        {
+            for (int i = end - 1; i >= start; i--)
+            {
+                last = insertNode(i, xs[i], ys[i], last);
+            }
+        }
+
+        if (last != null && equals(last, last.next))
+        {
+            removeNode(last);
+            last = last.next;
+        }
+
+        return last;
+    }
+
+    /**
+     * Eliminates collinear or duplicate points.
+     */
+    private static final Node filterPoints(Node start, Node end)
+    {
+        if (start == null)
+        {
+            return start;
+        }
+        if (end == null)
+        {
+            end = start;
+        }
+
+        Node p = start;
+        boolean again;
+        do
+        {
+            again = false;
+
+            if (!p.steiner && (equals(p, p.next) || area(p.prev, p, p.next) == 0))
+            {
+                removeNode(p);
+                p = end = p.prev;
+                if (p == p.next)
+                {
+                    break;
+                }
+                again = true;
+            }
+            else
+            {
+                p = p.next;
+            }
+        } while (again || p != end);
+
+        return end;
+    }
+
+    /**
+     * Links two polygon vertices with a bridge; if the vertices belong to the
+     * same ring, it splits the polygon into two; if one belongs to the outer
+     * ring and another to a hole, it merges it into a single ring.
+     */
+    private static final Node splitPolygon(Node a, Node b)
+    {
+        Node a2 = new Node(a.i, a.x, a.y);
+        Node b2 = new Node(b.i, b.x, b.y);
+        Node an = a.next;
+        Node bp = b.prev;
+
+        a.next = b;
+        b.prev = a;
+
+        a2.next = an;
+        an.prev = a2;
+
+        b2.next = a2;
+        a2.prev = b2;
+
+        bp.next = b2;
+        b2.prev = bp;
+
+        return b2;
+    }
+
+    /**
+     * Creates a node and optionally links it with the previous one (in a
+     * circular doubly linked list).
+     */
+    private static final Node insertNode(int i, double x, double y, Node last)
+    {
+        Node p = new Node(i, x, y);
+
+        if (last == null)
+        {
+            p.prev = p;
+            p.next = p;
+        }
+        else
+        {
+            p.next = last.next;
+            p.prev = last;
+            last.next.prev = p;
+            last.next = p;
+        }
+        return p;
+    }
+
+    private static final void removeNode(Node p)
+    {
+        p.next.prev = p.prev;
+        p.prev.next = p.next;
+
+        if (p.prevZ != null) p.prevZ.nextZ = p.nextZ;
+        if (p.nextZ != null) p.nextZ.prevZ = p.prevZ;
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * A vertex of a polygon ring, stored within a circular doubly linked list
+     * and within a z-order sorted linked list.
+     */
+    private static final class Node
+    {
+        /** The index of the vertex. */
+        final int i;
+
+        /** The coordinates of the vertex. */
+        final double x;
+        final double y;
+
+        /** The previous and next vertices in the polygon ring. */
+        Node prev;
+        Node next;
+
+        /** The z-order curve value. */
+        int z;
+        boolean hasZ = false;
+
+        /** The previous and next nodes in z-order. */
+        Node prevZ;
+        Node nextZ;
+
+        /** Indicates whether this is a Steiner point. */
+        boolean steiner = false;
+
+        Node(int i, double x, double y)
+        {
+            this.i = i;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /**
+     * Computes the position of points along a z-order curve, after
+     * normalization of coordinates to 15-bit integers.
+     */
+    private static final class ZOrder
+    {
+        final double minX;
+        final double minY;
+        final double invSize;
+
+        ZOrder(double minX, double minY, double invSize)
+        {
+            this.minX = minX;
+            this.minY = minY;
+            this.invSize = invSize;
+        }
+
+        int code(double x0, double y0)
+        {
+            // coords are transformed into non-negative 15-bit integer range
+            int x = (int) ((x0 - minX) * invSize);
+            int y = (int) ((y0 - minY) * invSize);
+
+            x = (x | (x << 8)) & 0x00FF00FF;
+            x = (x | (x << 4)) & 0x0F0F0F0F;
+            x = (x | (x << 2)) & 0x33333333;
+            x = (x | (x << 1)) & 0x55555555;
+
+            y = (y | (y << 8)) & 0x00FF00FF;
+            y = (y | (y << 4)) & 0x0F0F0F0F;
+            y = (y | (y << 2)) & 0x33333333;
+            y = (y | (y << 1)) & 0x55555555;
+
+            return x | (y << 1);
+        }
+    }
+
+    /**
+     * A growable list of integers.
+     */
+    private static final class IntList
+    {
+        int[] values = new int[16];
+        int size = 0;
+
+        void add(int value)
+        {
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+    }
+}
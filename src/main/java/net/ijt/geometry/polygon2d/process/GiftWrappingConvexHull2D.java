@@ -24,7 +24,7 @@ import net.ijt.geometry.polygon2d.Polygon2D;
  * 
  * @author dlegland
  */
-public class GiftWrappingConvexHull2D
+public class GiftWrappingConvexHull2D implements ConvexHull2D
 {
     private static final double TWO_PI = 2 * Math.PI;
  
@@ -40,6 +40,7 @@ public class GiftWrappingConvexHull2D
      * SimplePolygon2D. Complexity is O(n*h), with n number of points, h number
      * of points of the hull. Worst case complexity is O(n^2).
      */
+    @Override
     public Polygon2D process(Collection<? extends Point2D> points)
     {
         // Init iteration on points
@@ -0,0 +1,337 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.geom2d.Predicates2D;
+import net.ijt.geometry.polygon2d.DefaultPolygon2D;
+import net.ijt.geometry.polygon2d.Polygon2D;
+
+/**
+ * Computes the convex hull of a set of points using Andrew's monotone chain
+ * algorithm.
+ *
+ * Points are sorted by x-coordinate (then by y-coordinate), and the lower and
+ * upper hulls are built in a single pass each. The complexity is
+ * <code>O(n log n)</code>, where <code>n</code> is the number of input
+ * points, independently of the number of hull vertices.
+ *
+ * Before sorting, the points located strictly within the octagon formed by
+ * the extreme points in the horizontal, vertical and diagonal directions are
+ * discarded (Akl-Toussaint heuristic). For random point sets, this removes
+ * most points at the cost of a linear scan. For large inputs, both the
+ * filtering and the sorting are performed in parallel.
+ *
+ * The orientation tests use the robust predicate of the Predicates2D class,
+ * so that nearly collinear configurations are processed consistently.
+ * Collinear points located on the edges of the hull are not included in the
+ * result.
+ *
+ * @see ChanConvexHull2D
+ * @see net.ijt.geometry.geom2d.Predicates2D
+ *
+ * @author dlegland
+ *
+ */
+public class MonotoneChainConvexHull2D implements ConvexHull2D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The number of points above which the filtering and the sorting of
+     * points are performed in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 15;
+
+
+    // ===================================================================
+    // Constructor
+
+    public MonotoneChainConvexHull2D()
+    {
+    }
+
+
+    // ===================================================================
+    // Methods
+
+    /**
+     * Computes the convex hull of a set of points as a single Polygon2D. The
+     * vertices of the polygon are oriented counter-clockwise, starting from
+     * the point with the lowest x-coordinate (and the lowest y-coordinate in
+     * case of ties).
+     *
+     * @param points
+     *            a set of points in the 2D space
+     * @return the convex hull of the points, as a Polygon2D
+     */
+    @Override
+    public Polygon2D process(Collection<? extends Point2D> points)
+    {
+        int n = points.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int i = 0;
+        for (Point2D point : points)
+        {
+            xs[i] = point.x();
+            ys[i] = point.y();
+            i++;
+        }
+
+        return createPolygon(xs, ys, process(xs, ys));
+    }
+
+    /**
+     * Computes the convex hull of a set of points given by their coordinates,
+     * and returns the indices of the hull vertices. The vertices are oriented
+     * counter-clockwise, starting from the point with the lowest x-coordinate
+     * (and the lowest y-coordinate in case of ties).
+     *
+     * @param xs
+     *            the x-coordinates of the points
+     * @param ys
+     *            the y-coordinates of the points
+     * @return the indices of the points located on the convex hull
+     */
+    public int[] process(double[] xs, double[] ys)
+    {
+        if (xs.length != ys.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        int[] candidates = filterCandidates(xs, ys);
+        return monotoneChain(xs, ys, candidates, 0, candidates.length);
+    }
+
+
+    // ===================================================================
+    // Implementation
+
+    /**
+     * Returns the indices of the points that may belong to the convex hull,
+     * by discarding the points located strictly within the octagon formed by
+     * the extreme points in eight directions (Akl-Toussaint heuristic).
+     *
+     * @param xs
+     *            the x-coordinates of the points
+     * @param ys
+     *            the y-coordinates of the points
+     * @return the indices of the candidate points, in increasing order
+     */
+    static final int[] filterCandidates(double[] xs, double[] ys)
+    {
+        int n = xs.length;
+        if (n < 9)
+        {
+            return IntStream.range(0, n).toArray();
+        }
+
+        // indices of the extreme points in the directions S, SE, E, NE, N,
+        // NW, W, SW (in counter-clockwise order)
+        int[] ext = new int[8];
+        for (int i = 1; i < n; i++)
+        {
+            double x = xs[i];
+            double y = ys[i];
+            if (y < ys[ext[0]]) ext[0] = i;
+            if (x - y > xs[ext[1]] - ys[ext[1]]) ext[1] = i;
+            if (x > xs[ext[2]]) ext[2] = i;
+            if (x + y > xs[ext[3]] + ys[ext[3]]) ext[3] = i;
+            if (y > ys[ext[4]]) ext[4] = i;
+            if (x - y < xs[ext[5]] - ys[ext[5]]) ext[5] = i;
+            if (x < xs[ext[6]]) ext[6] = i;
+            if (x + y < xs[ext[7]] + ys[ext[7]]) ext[7] = i;
+        }
+
+        // remove consecutive duplicate vertices of the octagon
+        double[] ox = new double[8];
+        double[] oy = new double[8];
+        int no = 0;
+        for (int k = 0; k < 8; k++)
+        {
+            double x = xs[ext[k]];
+            double y = ys[ext[k]];
+            if (no == 0 || x != ox[no - 1] || y != oy[no - 1])
+            {
+                ox[no] = x;
+                oy[no] = y;
+                no++;
+            }
+        }
+        while (no > 1 && ox[no - 1] == ox[0] && oy[no - 1] == oy[0])
+        {
+            no--;
+        }
+        if (no < 3)
+        {
+            return IntStream.range(0, n).toArray();
+        }
+
+        final int nOct = no;
+        IntStream stream = IntStream.range(0, n);
+        if (n >= PARALLEL_THRESHOLD)
+        {
+            stream = stream.parallel();
+        }
+        return stream.filter(i -> !isStrictlyInside(ox, oy, nOct, xs[i], ys[i])).toArray();
+    }
+
+    /**
+     * Checks if a point is strictly inside a convex polygon oriented
+     * counter-clockwise.
+     */
+    private static final boolean isStrictlyInside(double[] px, double[] py, int np, double x, double y)
+    {
+        for (int k = 0; k < np; k++)
+        {
+            int k2 = k + 1 == np ? 0 : k + 1;
+            if (Predicates2D.orient2d(px[k], py[k], px[k2], py[k2], x, y) <= 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the convex hull of a subset of points using the monotone chain
+     * algorithm.
+     *
+     * @param xs
+     *            the x-coordinates of the points
+     * @param ys
+     *            the y-coordinates of the points
+     * @param indices
+     *            the array containing the indices of the points to process
+     * @param from
+     *            the position of the first index to process (inclusive)
+     * @param to
+     *            the position of the last index to process (exclusive)
+     * @return the indices of the hull vertices, in counter-clockwise order
+     */
+    static final int[] monotoneChain(double[] xs, double[] ys, int[] indices, int from, int to)
+    {
+        int n = to - from;
+        if (n == 0)
+        {
+            return new int[0];
+        }
+
+        // sort points by x-coordinate, then y-coordinate
+        IndexedPoint[] points = new IndexedPoint[n];
+        for (int i = 0; i < n; i++)
+        {
+            int index = indices[from + i];
+            points[i] = new IndexedPoint(xs[index], ys[index], index);
+        }
+        if (n >= PARALLEL_THRESHOLD)
+        {
+            Arrays.parallelSort(points);
+        }
+        else
+        {
+            Arrays.sort(points);
+        }
+        if (n == 1)
+        {
+            return new int[] { points[0].index };
+        }
+
+        // build lower hull, then upper hull, using a single stack
+        IndexedPoint[] hull = new IndexedPoint[2 * n];
+        int k = 0;
+        for (int i = 0; i < n; i++)
+        {
+            IndexedPoint p = points[i];
+            while (k >= 2 && orient(hull[k - 2], hull[k - 1], p) <= 0)
+            {
+                k--;
+            }
+            hull[k++] = p;
+        }
+        for (int i = n - 2, t = k + 1; i >= 0; i--)
+        {
+            IndexedPoint p = points[i];
+            while (k >= t && orient(hull[k - 2], hull[k - 1], p) <= 0)
+            {
+                k--;
+            }
+            hull[k++] = p;
+        }
+
+        // the last point is the same as the first one
+        k--;
+        if (k == 2 && hull[0].x == hull[1].x && hull[0].y == hull[1].y)
+        {
+            // all points are identical
+            k = 1;
+        }
+
+        int[] res = new int[k];
+        for (int i = 0; i < k; i++)
+        {
+            res[i] = hull[i].index;
+        }
+        return res;
+    }
+
+    private static final double orient(IndexedPoint p1, IndexedPoint p2, IndexedPoint p3)
+    {
+        return Predicates2D.orient2d(p1.x, p1.y, p2.x, p2.y, p3.x, p3.y);
+    }
+
+    /**
+     * Creates the polygon with the vertices at the specified indices.
+     */
+    static final Polygon2D createPolygon(double[] xs, double[] ys, int[] indices)
+    {
+        int n = indices.length;
+        double[] hx = new double[n];
+        double[] hy = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            hx[i] = xs[indices[i]];
+            hy[i] = ys[indices[i]];
+        }
+        return new DefaultPolygon2D(hx, hy);
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * A point with the index of the corresponding input point, sorted by
+     * x-coordinate, then y-coordinate.
+     */
+    private static final class IndexedPoint implements Comparable<IndexedPoint>
+    {
+        final double x;
+        final double y;
+        final int index;
+
+        IndexedPoint(double x, double y, int index)
+        {
+            this.x = x;
+            this.y = y;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(IndexedPoint that)
+        {
+            if (this.x < that.x) return -1;
+            if (this.x > that.x) return 1;
+            if (this.y < that.y) return -1;
+            if (this.y > that.y) return 1;
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.Arrays;
+
+/**
+ * A sparse matrix containing the intersection areas between the polygons of
+ * two collections, as computed by the PolygonOverlaps2D class. Rows
+ * correspond to the polygons of the first collection, and columns to the
+ * polygons of the second collection. Only the pairs with a positive
+ * intersection area are stored.
+ *
+ * The matrix is stored in compressed row format: the non-zero entries of
+ * each row are stored contiguously, sorted by increasing column index. The
+ * areas of the polygons are also stored, to compute overlap measures such as
+ * the Jaccard index or the Dice coefficient.
+ *
+ * @see PolygonOverlaps2D
+ *
+ * @author dlegland
+ *
+ */
+public class OverlapMatrix
+{
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The position of the first entry of each row, with an additional
+     * element equal to the number of entries.
+     */
+    final int[] rowStarts;
+
+    /**
+     * The column index of each entry.
+     */
+    final int[] columns;
+
+    /**
+     * The intersection area of each entry.
+     */
+    final double[] values;
+
+    /**
+     * The area of the polygon associated to each row.
+     */
+    final double[] rowAreas;
+
+    /**
+     * The area of the polygon associated to each column.
+     */
+    final double[] columnAreas;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new overlap matrix from its compressed row representation.
+     * The arrays are not copied.
+     *
+     * @param rowStarts
+     *            the position of the first entry of each row, followed by the
+     *            number of entries
+     * @param columns
+     *            the column index of each entry, sorted within each row
+     * @param values
+     *            the intersection area of each entry
+     * @param rowAreas
+     *            the area of the polygon associated to each row
+     * @param columnAreas
+     *            the area of the polygon associated to each column
+     */
+    public OverlapMatrix(int[] rowStarts, int[] columns, double[] values, double[] rowAreas, double[] columnAreas)
+    {
+        if (rowStarts.length != rowAreas.length + 1)
+        {
+            throw new IllegalArgumentException("Row starts must have one more element than the number of rows");
+        }
+        if (columns.length != values.length)
+        {
+            throw new IllegalArgumentException("Column and value arrays must have the same length");
+        }
+        this.rowStarts = rowStarts;
+        this.columns = columns;
+        this.values = values;
+        this.rowAreas = rowAreas;
+        this.columnAreas = columnAreas;
+    }
+
+
+    // ===================================================================
+    // Access to entries
+
+    /**
+     * Returns the intersection area between the polygons associated to the
+     * specified row and column.
+     *
+     * @param row
+     *            the row index
+     * @param column
+     *            the column index
+     * @return the intersection area, or zero if the polygons do not overlap
+     */
+    public double get(int row, int column)
+    {
+        int pos = Arrays.binarySearch(columns, rowStarts[row], rowStarts[row + 1], column);
+        return pos >= 0 ? values[pos] : 0.0;
+    }
+
+    /**
+     * @param row
+     *            the row index
+     * @return the indices of the columns overlapping the specified row, in
+     *         increasing order
+     */
+    public int[] rowColumns(int row)
+    {
+        return Arrays.copyOfRange(columns, rowStarts[row], rowStarts[row + 1]);
+    }
+
+    /**
+     * @param row
+     *            the row index
+     * @return the intersection areas with the columns overlapping the
+     *         specified row, in the same order as the rowColumns() method
+     */
+    public double[] rowValues(int row)
+    {
+        return Arrays.copyOfRange(values, rowStarts[row], rowStarts[row + 1]);
+    }
+
+    /**
+     * Computes the Jaccard index between the polygons associated to the
+     * specified row and column, as the ratio of the intersection area over
+     * the union area.
+     *
+     * @param row
+     *            the row index
+     * @param column
+     *            the column index
+     * @return the Jaccard index, between 0 and 1
+     */
+    public double jaccard(int row, int column)
+    {
+        double inter = get(row, column);
+        if (inter == 0)
+        {
+            return 0.0;
+        }
+        return inter / (rowAreas[row] + columnAreas[column] - inter);
+    }
+
+    /**
+     * Computes the Dice coefficient between the polygons associated to the
+     * specified row and column, as twice the intersection area over the sum
+     * of the areas.
+     *
+     * @param row
+     *            the row index
+     * @param column
+     *            the column index
+     * @return the Dice coefficient, between 0 and 1
+     */
+    public double dice(int row, int column)
+    {
+        double inter = get(row, column);
+        if (inter == 0)
+        {
+            return 0.0;
+        }
+        return 2 * inter / (rowAreas[row] + columnAreas[column]);
+    }
+
+    /**
+     * Finds the column with the largest Jaccard index with the specified row.
+     *
+     * @param row
+     *            the row index
+     * @return the index of the best matching column, or -1 if the row does
+     *         not overlap any column
+     */
+    public int bestColumn(int row)
+    {
+        int best = -1;
+        double bestScore = 0;
+        for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++)
+        {
+            int col = columns[k];
+            double score = values[k] / (rowAreas[row] + columnAreas[col] - values[k]);
+            if (score > bestScore)
+            {
+                best = col;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+
+    // ===================================================================
+    // Accessors
+
+    /**
+     * @return the number of rows, corresponding to the size of the first
+     *         polygon collection
+     */
+    public int rowCount()
+    {
+        return rowAreas.length;
+    }
+
+    /**
+     * @return the number of columns, corresponding to the size of the second
+     *         polygon collection
+     */
+    public int columnCount()
+    {
+        return columnAreas.length;
+    }
+
+    /**
+     * @return the number of pairs of polygons with a positive intersection
+     *         area
+     */
+    public int nonZeroCount()
+    {
+        return columns.length;
+    }
+
+    /**
+     * @param row
+     *            the row index
+     * @return the area of the polygon associated to the row
+     */
+    public double rowArea(int row)
+    {
+        return rowAreas[row];
+    }
+
+    /**
+     * @param column
+     *            the column index
+     * @return the area of the polygon associated to the column
+     */
+    public double columnArea(int column)
+    {
+        return columnAreas[column];
+    }
+}
@@ -0,0 +1,1076 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import net.ijt.geometry.geom2d.BoundsIndex2D;
+import net.ijt.geometry.geom2d.Predicates2D;
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.PolygonalDomain2D;
+
+/**
+ * The planar arrangement of the boundary edges of two polygonal domains,
+ * used for computing boolean operations.
+ *
+ * The edges of the rings are first split at their mutual intersections. The
+ * candidate pairs are the edges whose bounding boxes intersect, found by
+ * querying an STR tree of the edge boxes, such that finding the candidates
+ * requires O((n + k) log n) operations for n edges and k candidate pairs.
+ * Collinear overlapping edges
+ * are split at the extremities of the overlap, and identical edges are
+ * merged, keeping track of the number of times each domain traverses the
+ * edge in each direction. The orientation tests use robust predicates.
+ *
+ * Intersection points are snap rounded: they are rounded onto a grid whose
+ * cell size is about 2^-44 times the largest coordinate, or onto the vertex
+ * already located within the same cell, and the edges passing through the
+ * cell of a new vertex are split at this vertex. Nearly degenerate inputs,
+ * such as nearly parallel edges, therefore do not generate cascades of new
+ * intersections, and the splitting passes terminate.
+ *
+ * The resulting planar graph is stored as a set of half-edges: half-edge
+ * <code>h</code> and its twin <code>h^1</code> correspond to the two
+ * directions of an edge, and each half-edge is bounded by the face on its
+ * left. For each face, the winding numbers of the rings of both domains are
+ * computed by propagating the increment associated to each edge.
+ *
+ * @see BooleanOperation2D
+ *
+ * @author dlegland
+ *
+ */
+class PlanarArrangement2D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The maximum number of splitting passes. As intersection points are
+     * rounded, splitting edges may create new intersections with nearby
+     * edges, that are detected by the next pass. Snap rounding makes these
+     * new intersections rare, and the splitting stops after the last pass in
+     * any case: the remaining crossings, between edges passing within a few
+     * cells of the snapping grid of each other, are then ignored.
+     */
+    private static final int MAX_SPLIT_ITERATIONS = 16;
+
+    /**
+     * The number of bits of precision of the snapping grid, relative to the
+     * largest absolute coordinate of the vertices.
+     */
+    private static final int SNAP_BITS = 44;
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The coordinates of the vertices.
+     */
+    double[] xs = new double[16];
+    double[] ys = new double[16];
+    int vertexCount = 0;
+
+    /**
+     * The index of each vertex, from its coordinates.
+     */
+    HashMap<VertexKey, Integer> vertexIndices = new HashMap<VertexKey, Integer>();
+
+    /**
+     * The size of the cells of the snapping grid, as a power of two.
+     */
+    double snapSize;
+
+    /**
+     * The vertex associated to each cell of the snapping grid (hot pixel),
+     * from the coordinates of the center of the cell. Intersections located
+     * within the cell are snapped onto this vertex.
+     */
+    HashMap<VertexKey, Integer> cellVertices = new HashMap<VertexKey, Integer>();
+
+    /**
+     * The edges, as pairs of vertex indices, with the number of times each
+     * domain traverses the edge from the first to the second vertex (minus
+     * the number of traversals in the opposite direction).
+     */
+    int[] edgeSources = new int[16];
+    int[] edgeTargets = new int[16];
+    int[] edgeDeltasA = new int[16];
+    int[] edgeDeltasB = new int[16];
+    int edgeCount = 0;
+
+    /**
+     * The origin vertex of each half-edge. The twin of half-edge h is the
+     * half-edge h^1.
+     */
+    int[] origins;
+
+    /**
+     * The increment of the winding numbers of each domain when crossing the
+     * half-edge from its right side to its left side.
+     */
+    int[] deltasA;
+    int[] deltasB;
+
+    /**
+     * The next half-edge along the boundary of the face on the left.
+     */
+    int[] nexts;
+
+    /**
+     * The index of the face on the left of each half-edge.
+     */
+    int[] faces;
+
+    /**
+     * The winding numbers of the rings of each domain within each face.
+     */
+    int[] windingsA;
+    int[] windingsB;
+
+    /**
+     * The number of faces. Each connected component of the graph has its own
+     * unbounded face.
+     */
+    int faceCount;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Computes the arrangement of the boundaries of two polygonal domains.
+     *
+     * @param domainA
+     *            the first polygonal domain
+     * @param domainB
+     *            the second polygonal domain
+     */
+    PlanarArrangement2D(PolygonalDomain2D domainA, PolygonalDomain2D domainB)
+    {
+        addRings(domainA, true);
+        addRings(domainB, false);
+        initSnapGrid();
+
+        // only the edges modified by the previous pass need to be tested
+        boolean[] modified = null;
+        for (int iter = 0; iter < MAX_SPLIT_ITERATIONS; iter++)
+        {
+            modified = splitIntersectingEdges(modified);
+            if (modified == null)
+            {
+                break;
+            }
+        }
+
+        mergeEdges();
+        computeFaces();
+        computeWindingNumbers();
+    }
+
+
+    // ===================================================================
+    // Initialization
+
+    private void addRings(PolygonalDomain2D domain, boolean isA)
+    {
+        for (LinearRing2D ring : domain.rings())
+        {
+            int n = ring.vertexCount();
+            if (n == 0) continue;
+            int first = vertexIndex(ring.vertexX(0), ring.vertexY(0));
+            int prev = first;
+            for (int i = 1; i <= n; i++)
+            {
+                int curr = i < n ? vertexIndex(ring.vertexX(i), ring.vertexY(i)) : first;
+                if (curr != prev)
+                {
+                    addEdge(prev, curr, isA ? 1 : 0, isA ? 0 : 1);
+                }
+                prev = curr;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the vertex with the specified coordinates,
+     * creating it if necessary.
+     */
+    private int vertexIndex(double x, double y)
+    {
+        VertexKey key = new VertexKey(x, y);
+        Integer index = vertexIndices.get(key);
+        if (index != null)
+        {
+            return index;
+        }
+
+        if (vertexCount == xs.length)
+        {
+            xs = Arrays.copyOf(xs, 2 * vertexCount);
+            ys = Arrays.copyOf(ys, 2 * vertexCount);
+        }
+        xs[vertexCount] = key.x;
+        ys[vertexCount] = key.y;
+        vertexIndices.put(key, vertexCount);
+        return vertexCount++;
+    }
+
+    /**
+     * Chooses the size of the snapping grid from the largest absolute
+     * coordinate, and associates each input vertex to the cell containing
+     * it. When several vertices fall within the same cell, the first one is
+     * kept.
+     */
+    private void initSnapGrid()
+    {
+        double maxCoord = 0;
+        for (int v = 0; v < vertexCount; v++)
+        {
+            maxCoord = Math.max(maxCoord, Math.max(Math.abs(xs[v]), Math.abs(ys[v])));
+        }
+        this.snapSize = Math.max(Math.scalb(1.0, Math.getExponent(Math.max(maxCoord, Double.MIN_NORMAL)) - SNAP_BITS), Double.MIN_NORMAL);
+
+        for (int v = 0; v < vertexCount; v++)
+        {
+            cellVertices.putIfAbsent(cellKey(xs[v], ys[v]), v);
+        }
+    }
+
+    /**
+     * Returns the coordinates of the center of the cell of the snapping grid
+     * containing the point. As the cell size is a power of two, the
+     * coordinates are exactly computed.
+     */
+    private VertexKey cellKey(double x, double y)
+    {
+        return new VertexKey(Math.rint(x / snapSize) * snapSize, Math.rint(y / snapSize) * snapSize);
+    }
+
+    /**
+     * Returns the index of the vertex associated to the cell of the snapping
+     * grid containing the point, creating a vertex at the center of the cell
+     * if necessary.
+     */
+    private int snappedVertexIndex(double x, double y)
+    {
+        VertexKey cell = cellKey(x, y);
+        Integer index = cellVertices.get(cell);
+        if (index != null)
+        {
+            return index;
+        }
+        int vertex = vertexIndex(cell.x, cell.y);
+        cellVertices.put(cell, vertex);
+        return vertex;
+    }
+
+    private void addEdge(int source, int target, int deltaA, int deltaB)
+    {
+        if (edgeCount == edgeSources.length)
+        {
+            int newSize = 2 * edgeCount;
+            edgeSources = Arrays.copyOf(edgeSources, newSize);
+            edgeTargets = Arrays.copyOf(edgeTargets, newSize);
+            edgeDeltasA = Arrays.copyOf(edgeDeltasA, newSize);
+            edgeDeltasB = Arrays.copyOf(edgeDeltasB, newSize);
+        }
+        edgeSources[edgeCount] = source;
+        edgeTargets[edgeCount] = target;
+        edgeDeltasA[edgeCount] = deltaA;
+        edgeDeltasB[edgeCount] = deltaB;
+        edgeCount++;
+    }
+
+
+    // ===================================================================
+    // Computation of intersections
+
+    /**
+     * Finds the pairs of edges that intersect, and splits the edges at the
+     * intersections. The pairs of edges that were not modified since the
+     * previous pass are not tested again.
+     *
+     * Intersection points are snapped onto the snapping grid, and the edges
+     * passing through the cell of a new vertex (hot pixel) are also split at
+     * this vertex. Edges close to an intersection therefore share its vertex,
+     * instead of creating new intersections at nearby positions in the next
+     * passes.
+     *
+     * @param modified
+     *            the edges modified by the previous pass, or null to test all
+     *            the pairs of edges
+     * @return the edges modified by this pass, or null if no edge was split
+     */
+    private boolean[] splitIntersectingEdges(boolean[] modified)
+    {
+        int n = edgeCount;
+        double[] bounds = new double[4 * n];
+        for (int i = 0; i < n; i++)
+        {
+            int v1 = edgeSources[i];
+            int v2 = edgeTargets[i];
+            bounds[4 * i] = Math.min(xs[v1], xs[v2]);
+            bounds[4 * i + 1] = Math.min(ys[v1], ys[v2]);
+            bounds[4 * i + 2] = Math.max(xs[v1], xs[v2]);
+            bounds[4 * i + 3] = Math.max(ys[v1], ys[v2]);
+        }
+        BoundsIndex2D index = new BoundsIndex2D(bounds, n);
+
+        // test each pair of edges with intersecting bounds once. After the
+        // first pass, only the pairs involving a modified edge are tested,
+        // querying the tree for each modified edge if they are few.
+        IntList[] splits = new IntList[n];
+        int firstNewVertex = vertexCount;
+        int modifiedCount = 0;
+        for (int i = 0; modified != null && i < n; i++)
+        {
+            if (modified[i]) modifiedCount++;
+        }
+        if (modified == null)
+        {
+            index.forEachIntersectingPair((edge1, edge2) -> intersect(edge1, edge2, splits));
+        }
+        else if (modifiedCount > n / 4)
+        {
+            index.forEachIntersectingPair((edge1, edge2) -> {
+                if (modified[edge1] || modified[edge2])
+                {
+                    intersect(edge1, edge2, splits);
+                }
+            });
+        }
+        else
+        {
+            for (int i = 0; i < n; i++)
+            {
+                if (!modified[i])
+                {
+                    continue;
+                }
+                final int edge = i;
+                index.forEachIntersecting(bounds[4 * i], bounds[4 * i + 2], bounds[4 * i + 1], bounds[4 * i + 3], other -> {
+                    if (other > edge || (other != edge && !modified[other]))
+                    {
+                        intersect(edge, other, splits);
+                    }
+                });
+            }
+        }
+
+        // route the edges passing through the cell of each new vertex
+        double half = snapSize / 2;
+        for (int v = firstNewVertex; v < vertexCount; v++)
+        {
+            final int vertex = v;
+            final double x = xs[v], y = ys[v];
+            index.forEachIntersecting(x - half, x + half, y - half, y + half, edge -> {
+                if (crossesCell(edge, x, y, half))
+                {
+                    addSplit(splits, edge, vertex);
+                }
+            });
+        }
+
+        // replace each split edge by a chain of edges
+        boolean changed = false;
+        for (int i = 0; i < n; i++)
+        {
+            if (splits[i] == null)
+            {
+                continue;
+            }
+            changed = true;
+            int[] chain = sortAlongEdge(i, splits[i]);
+            int source = edgeSources[i];
+            int target = edgeTargets[i];
+            int deltaA = edgeDeltasA[i];
+            int deltaB = edgeDeltasB[i];
+
+            // the first part replaces the original edge
+            edgeTargets[i] = chain[0];
+            for (int c = 1; c < chain.length; c++)
+            {
+                addEdge(chain[c - 1], chain[c], deltaA, deltaB);
+            }
+            addEdge(chain[chain.length - 1], target, deltaA, deltaB);
+            edgeSources[i] = source;
+        }
+        if (!changed)
+        {
+            return null;
+        }
+
+        // the split edges and the new edges will be tested by the next pass
+        boolean[] res = new boolean[edgeCount];
+        for (int i = 0; i < edgeCount; i++)
+        {
+            res[i] = i >= n || splits[i] != null;
+        }
+        return res;
+    }
+
+    /**
+     * Computes the intersections between two edges, and records the vertices
+     * where each edge needs to be split.
+     */
+    private void intersect(int e1, int e2, IntList[] splits)
+    {
+        int a = edgeSources[e1], b = edgeTargets[e1];
+        int c = edgeSources[e2], d = edgeTargets[e2];
+
+        // check overlap along y
+        if (Math.max(ys[a], ys[b]) < Math.min(ys[c], ys[d]) || Math.max(ys[c], ys[d]) < Math.min(ys[a], ys[b]))
+        {
+            return;
+        }
+
+        int o1 = orientation(a, b, c);
+        int o2 = orientation(a, b, d);
+        if (o1 == 0 && o2 == 0)
+        {
+            // collinear edges: split each edge at the extremities of the
+            // other edge located strictly within it
+            if (isStrictlyWithin(c, a, b)) addSplit(splits, e1, c);
+            if (isStrictlyWithin(d, a, b)) addSplit(splits, e1, d);
+            if (isStrictlyWithin(a, c, d)) addSplit(splits, e2, a);
+            if (isStrictlyWithin(b, c, d)) addSplit(splits, e2, b);
+            return;
+        }
+
+        int o3 = orientation(c, d, a);
+        int o4 = orientation(c, d, b);
+
+        // an extremity of one edge touches the other edge
+        if (o1 == 0 && isStrictlyWithin(c, a, b)) addSplit(splits, e1, c);
+        if (o2 == 0 && isStrictlyWithin(d, a, b)) addSplit(splits, e1, d);
+        if (o3 == 0 && isStrictlyWithin(a, c, d)) addSplit(splits, e2, a);
+        if (o4 == 0 && isStrictlyWithin(b, c, d)) addSplit(splits, e2, b);
+
+        // proper crossing
+        if (o1 * o2 < 0 && o3 * o4 < 0)
+        {
+            double ax = xs[a], ay = ys[a];
+            double bx = xs[b], by = ys[b];
+            double cx = xs[c], cy = ys[c];
+            double dx = xs[d], dy = ys[d];
+            double denom = (bx - ax) * (dy - cy) - (by - ay) * (dx - cx);
+            double t = ((cx - ax) * (dy - cy) - (cy - ay) * (dx - cx)) / denom;
+            t = Math.max(Math.min(t, 1), 0);
+            double px = ax + t * (bx - ax);
+            double py = ay + t * (by - ay);
+
+            // keep the intersection within the bounds common to both edges
+            px = Math.max(px, Math.max(Math.min(ax, bx), Math.min(cx, dx)));
+            px = Math.min(px, Math.min(Math.max(ax, bx), Math.max(cx, dx)));
+            py = Math.max(py, Math.max(Math.min(ay, by), Math.min(cy, dy)));
+            py = Math.min(py, Math.min(Math.max(ay, by), Math.max(cy, dy)));
+
+            int p = snappedVertexIndex(px, py);
+            addSplit(splits, e1, p);
+            addSplit(splits, e2, p);
+        }
+    }
+
+    /**
+     * Checks if an edge, whose bounds intersect the square cell with the
+     * specified center and half size, crosses the cell. This is the case
+     * when the corners of the cell are not all strictly on the same side of
+     * the line supporting the edge.
+     */
+    private boolean crossesCell(int edge, double x, double y, double half)
+    {
+        int a = edgeSources[edge], b = edgeTargets[edge];
+        double dx = xs[b] - xs[a];
+        double dy = ys[b] - ys[a];
+        int positive = 0, negative = 0;
+        for (int k = 0; k < 4; k++)
+        {
+            double cx = (k & 1) == 0 ? x - half : x + half;
+            double cy = (k & 2) == 0 ? y - half : y + half;
+            double det = dx * (cy - ys[a]) - dy * (cx - xs[a]);
+            if (det > 0) positive++;
+            if (det < 0) negative++;
+        }
+        return positive < 4 && negative < 4;
+    }
+
+    private void addSplit(IntList[] splits, int edge, int vertex)
+    {
+        if (vertex == edgeSources[edge] || vertex == edgeTargets[edge])
+        {
+            return;
+        }
+        if (splits[edge] == null)
+        {
+            splits[edge] = new IntList();
+        }
+        splits[edge].add(vertex);
+    }
+
+    /**
+     * Sorts the split vertices of an edge by increasing distance to its
+     * source vertex, removing duplicates.
+     */
+    private int[] sortAlongEdge(int edge, IntList splits)
+    {
+        int source = edgeSources[edge];
+        int target = edgeTargets[edge];
+        double x0 = xs[source], y0 = ys[source];
+        double dx = xs[target] - x0, dy = ys[target] - y0;
+
+        Integer[] vertices = new Integer[splits.size];
+        for (int i = 0; i < splits.size; i++)
+        {
+            vertices[i] = splits.values[i];
+        }
+        Arrays.sort(vertices, (v1, v2) -> Double.compare(
+                (xs[v1] - x0) * dx + (ys[v1] - y0) * dy,
+                (xs[v2] - x0) * dx + (ys[v2] - y0) * dy));
+
+        int[] res = new int[vertices.length];
+        int count = 0;
+        for (Integer v : vertices)
+        {
+            if (count == 0 || res[count - 1] != v)
+            {
+                res[count++] = v;
+            }
+        }
+        return Arrays.copyOf(res, count);
+    }
+
+    /**
+     * Checks if the vertex p, assumed to be collinear with vertices a and b,
+     * is located strictly between them.
+     */
+    private boolean isStrictlyWithin(int p, int a, int b)
+    {
+        if (p == a || p == b)
+        {
+            return false;
+        }
+        double x = xs[p], y = ys[p];
+        return x >= Math.min(xs[a], xs[b]) && x <= Math.max(xs[a], xs[b])
+                && y >= Math.min(ys[a], ys[b]) && y <= Math.max(ys[a], ys[b]);
+    }
+
+    private int orientation(int a, int b, int c)
+    {
+        double det = Predicates2D.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+        return det > 0 ? 1 : (det < 0 ? -1 : 0);
+    }
+
+
+    // ===================================================================
+    // Computation of the half-edge structure
+
+    /**
+     * Merges the edges with the same extremities, and creates the
+     * half-edges. Edges traversed the same number of times in both
+     * directions are removed.
+     */
+    private void mergeEdges()
+    {
+        HashMap<Long, Integer> edgeIndices = new HashMap<Long, Integer>();
+        IntList sources = new IntList();
+        IntList targets = new IntList();
+        IntList mergedA = new IntList();
+        IntList mergedB = new IntList();
+        for (int i = 0; i < edgeCount; i++)
+        {
+            int source = edgeSources[i];
+            int target = edgeTargets[i];
+            if (source == target)
+            {
+                continue;
+            }
+            int sign = source < target ? 1 : -1;
+            int v1 = Math.min(source, target);
+            int v2 = Math.max(source, target);
+            Long key = ((long) v1 << 32) | v2;
+            Integer index = edgeIndices.get(key);
+            if (index == null)
+            {
+                index = sources.size;
+                edgeIndices.put(key, index);
+                sources.add(v1);
+                targets.add(v2);
+                mergedA.add(0);
+                mergedB.add(0);
+            }
+            mergedA.values[index] += sign * edgeDeltasA[i];
+            mergedB.values[index] += sign * edgeDeltasB[i];
+        }
+
+        // create half-edges for edges with non-null deltas
+        int n = sources.size;
+        this.origins = new int[2 * n];
+        this.deltasA = new int[2 * n];
+        this.deltasB = new int[2 * n];
+        int count = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (mergedA.values[i] == 0 && mergedB.values[i] == 0)
+            {
+                continue;
+            }
+            origins[count] = sources.values[i];
+            origins[count + 1] = targets.values[i];
+            deltasA[count] = mergedA.values[i];
+            deltasA[count + 1] = -mergedA.values[i];
+            deltasB[count] = mergedB.values[i];
+            deltasB[count + 1] = -mergedB.values[i];
+            count += 2;
+        }
+        this.origins = Arrays.copyOf(origins, count);
+        this.deltasA = Arrays.copyOf(deltasA, count);
+        this.deltasB = Arrays.copyOf(deltasB, count);
+
+        // free memory used by the initial edges
+        this.edgeSources = null;
+        this.edgeTargets = null;
+        this.edgeDeltasA = null;
+        this.edgeDeltasB = null;
+    }
+
+    /**
+     * Sorts the outgoing half-edges around each vertex, links the half-edges
+     * along the boundary of each face, and identifies the faces.
+     */
+    private void computeFaces()
+    {
+        int nh = origins.length;
+
+        // group outgoing half-edges by vertex
+        int[] offsets = new int[vertexCount + 1];
+        for (int h = 0; h < nh; h++)
+        {
+            offsets[origins[h] + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++)
+        {
+            offsets[v + 1] += offsets[v];
+        }
+        Integer[] outgoing = new Integer[nh];
+        int[] pos = new int[vertexCount];
+        for (int h = 0; h < nh; h++)
+        {
+            int v = origins[h];
+            outgoing[offsets[v] + pos[v]++] = h;
+        }
+
+        // sort half-edges around each vertex in counter-clockwise order
+        int[] positions = new int[nh];
+        for (int v = 0; v < vertexCount; v++)
+        {
+            int start = offsets[v];
+            int end = offsets[v + 1];
+            if (end - start > 1)
+            {
+                Arrays.sort(outgoing, start, end, (h1, h2) -> compareAngles(h1, h2));
+            }
+            for (int i = start; i < end; i++)
+            {
+                positions[outgoing[i]] = i - start;
+            }
+        }
+
+        // The next half-edge is the outgoing half-edge that precedes the twin
+        // in counter-clockwise order around the target vertex.
+        this.nexts = new int[nh];
+        for (int h = 0; h < nh; h++)
+        {
+            int twin = h ^ 1;
+            int v = origins[twin];
+            int start = offsets[v];
+            int degree = offsets[v + 1] - start;
+            nexts[h] = outgoing[start + (positions[twin] + degree - 1) % degree];
+        }
+
+        // identify faces by following next half-edges
+        this.faces = new int[nh];
+        Arrays.fill(faces, -1);
+        this.faceCount = 0;
+        for (int h = 0; h < nh; h++)
+        {
+            if (faces[h] != -1)
+            {
+                continue;
+            }
+            int h2 = h;
+            do
+            {
+                faces[h2] = faceCount;
+                h2 = nexts[h2];
+            } while (h2 != h);
+            faceCount++;
+        }
+    }
+
+    /**
+     * Compares the directions of two half-edges with the same origin, by
+     * increasing angle starting from the positive x-axis.
+     */
+    private int compareAngles(int h1, int h2)
+    {
+        int v = origins[h1];
+        int t1 = origins[h1 ^ 1];
+        int t2 = origins[h2 ^ 1];
+        int half1 = halfPlane(xs[t1] - xs[v], ys[t1] - ys[v]);
+        int half2 = halfPlane(xs[t2] - xs[v], ys[t2] - ys[v]);
+        if (half1 != half2)
+        {
+            return half1 - half2;
+        }
+        return -orientation(v, t1, t2);
+    }
+
+    /**
+     * Returns 0 for directions with angle in [0, PI), and 1 for directions
+     * with angle in [PI, 2*PI).
+     */
+    private static final int halfPlane(double dx, double dy)
+    {
+        return (dy > 0 || (dy == 0 && dx > 0)) ? 0 : 1;
+    }
+
+
+    // ===================================================================
+    // Computation of winding numbers
+
+    /**
+     * Computes the winding numbers of both domains within each face. Within
+     * a connected component of the graph, the winding numbers are propagated
+     * from face to face. The components are then processed by increasing
+     * abscissa of their leftmost vertex: the winding numbers of the unbounded
+     * face of a component are those of the face located just on the left of
+     * its leftmost vertex, found by shooting a horizontal ray within a tree
+     * of the edge bounding boxes. As the edge hit by the ray belongs to a
+     * component located more on the left, its windings are already known.
+     */
+    private void computeWindingNumbers()
+    {
+        int nh = origins.length;
+        this.windingsA = new int[faceCount];
+        this.windingsB = new int[faceCount];
+
+        // the half-edges of each face
+        int[] faceEdges = new int[faceCount];
+        double[] faceAreas = new double[faceCount];
+        for (int h = 0; h < nh; h++)
+        {
+            faceEdges[faces[h]] = h;
+            int v1 = origins[h];
+            int v2 = origins[h ^ 1];
+            faceAreas[faces[h]] += xs[v1] * ys[v2] - xs[v2] * ys[v1];
+        }
+
+        // propagate relative winding numbers over the faces of each
+        // component, and find the unbounded face and the leftmost vertex
+        int[] components = new int[faceCount];
+        Arrays.fill(components, -1);
+        IntList outerFaces = new IntList();
+        IntList leftmostVertices = new IntList();
+        IntList queue = new IntList();
+        for (int f0 = 0; f0 < faceCount; f0++)
+        {
+            if (components[f0] != -1)
+            {
+                continue;
+            }
+
+            int component = outerFaces.size;
+            queue.size = 0;
+            queue.add(f0);
+            components[f0] = component;
+            int outerFace = f0;
+            int leftmost = origins[faceEdges[f0]];
+            for (int q = 0; q < queue.size; q++)
+            {
+                int face = queue.values[q];
+                if (faceAreas[face] < faceAreas[outerFace])
+                {
+                    outerFace = face;
+                }
+                int h0 = faceEdges[face];
+                int h = h0;
+                do
+                {
+                    int v = origins[h];
+                    if (xs[v] < xs[leftmost] || (xs[v] == xs[leftmost] && ys[v] < ys[leftmost]))
+                    {
+                        leftmost = v;
+                    }
+                    int face2 = faces[h ^ 1];
+                    if (components[face2] == -1)
+                    {
+                        components[face2] = component;
+                        windingsA[face2] = windingsA[face] - deltasA[h];
+                        windingsB[face2] = windingsB[face] - deltasB[h];
+                        queue.add(face2);
+                    }
+                    h = nexts[h];
+                } while (h != h0);
+            }
+            outerFaces.add(outerFace);
+            leftmostVertices.add(leftmost);
+        }
+
+        int componentCount = outerFaces.size;
+        if (componentCount == 1)
+        {
+            // the unbounded face has zero winding numbers
+            applyWindingOffsets(components, new int[] { -windingsA[outerFaces.values[0]] },
+                    new int[] { -windingsB[outerFaces.values[0]] });
+            return;
+        }
+
+        // index the bounding boxes of the edges
+        int ne = nh / 2;
+        double[] bounds = new double[4 * ne];
+        for (int e = 0; e < ne; e++)
+        {
+            int v1 = origins[2 * e];
+            int v2 = origins[2 * e + 1];
+            bounds[4 * e] = Math.min(xs[v1], xs[v2]);
+            bounds[4 * e + 1] = Math.min(ys[v1], ys[v2]);
+            bounds[4 * e + 2] = Math.max(xs[v1], xs[v2]);
+            bounds[4 * e + 3] = Math.max(ys[v1], ys[v2]);
+        }
+        BoundsIndex2D index = new BoundsIndex2D(bounds, ne);
+
+        // process the components from left to right
+        Integer[] order = new Integer[componentCount];
+        for (int c = 0; c < componentCount; c++)
+        {
+            order[c] = c;
+        }
+        int[] leftmosts = leftmostVertices.values;
+        Arrays.sort(order, (c1, c2) -> {
+            int v1 = leftmosts[c1];
+            int v2 = leftmosts[c2];
+            int res = Double.compare(xs[v1], xs[v2]);
+            return res != 0 ? res : Double.compare(ys[v1], ys[v2]);
+        });
+
+        int[] offsetsA = new int[componentCount];
+        int[] offsetsB = new int[componentCount];
+        for (int component : order)
+        {
+            int vertex = leftmosts[component];
+            int face = leftFace(index, xs[vertex], ys[vertex]);
+            int outerFace = outerFaces.values[component];
+            int windingA = 0;
+            int windingB = 0;
+            if (face != -1)
+            {
+                int component2 = components[face];
+                windingA = windingsA[face] + offsetsA[component2];
+                windingB = windingsB[face] + offsetsB[component2];
+            }
+            offsetsA[component] = windingA - windingsA[outerFace];
+            offsetsB[component] = windingB - windingsB[outerFace];
+        }
+        applyWindingOffsets(components, offsetsA, offsetsB);
+    }
+
+    private void applyWindingOffsets(int[] components, int[] offsetsA, int[] offsetsB)
+    {
+        for (int face = 0; face < faceCount; face++)
+        {
+            windingsA[face] += offsetsA[components[face]];
+            windingsB[face] += offsetsB[components[face]];
+        }
+    }
+
+    /**
+     * Finds the face located just on the left of the specified point, that
+     * must not belong to the edges on its left. The ray going to the left of
+     * the point is considered to be infinitesimally above the point, such
+     * that an edge crosses the ray if its lower vertex is at or below the
+     * point and its upper vertex is strictly above the point.
+     *
+     * The nearest edge is first identified by comparing the abscissa of the
+     * crossings. As these abscissa are rounded, the edges crossing the ray
+     * close to the nearest crossing are then compared using robust
+     * predicates.
+     *
+     * @return the index of the face on the left of the point, or -1 if the
+     *         ray does not cross any edge
+     */
+    private int leftFace(BoundsIndex2D index, double x, double y)
+    {
+        int[] nearest = index.nearestItems(x, y, 1, (edge, x0, y0) -> {
+            if (!crossesLeftRay(2 * edge, x0, y0)) return Double.POSITIVE_INFINITY;
+            double dx = x0 - crossingX(2 * edge, y0);
+            return dx * dx;
+        });
+        if (nearest.length == 0)
+        {
+            return -1;
+        }
+
+        // bound the rounding error of the crossing abscissa
+        int h0 = 2 * nearest[0];
+        double xmin = crossingX(h0, y) - 16 * Math.ulp(Math.abs(xs[origins[h0]]) + Math.abs(xs[origins[h0 + 1]]));
+
+        IntList candidates = new IntList();
+        index.forEachIntersecting(xmin, x, y, y, candidates::add);
+        int best = h0;
+        for (int i = 0; i < candidates.size; i++)
+        {
+            int h = 2 * candidates.values[i];
+            if (h != best && crossesLeftRay(h, x, y) && isRightOf(h, best))
+            {
+                best = h;
+            }
+        }
+
+        // the face on the right of the upward half-edge
+        return ys[origins[best]] < ys[origins[best + 1]] ? faces[best + 1] : faces[best];
+    }
+
+    /**
+     * Checks if the edge crosses the horizontal ray going to the left of the
+     * specified point.
+     */
+    private boolean crossesLeftRay(int h, double x, double y)
+    {
+        int v1 = origins[h];
+        int v2 = origins[h + 1];
+        double y1 = ys[v1];
+        double y2 = ys[v2];
+        if (y1 <= y && y2 > y)
+        {
+            return Predicates2D.orient2d(xs[v1], y1, xs[v2], y2, x, y) < 0;
+        }
+        if (y2 <= y && y1 > y)
+        {
+            return Predicates2D.orient2d(xs[v1], y1, xs[v2], y2, x, y) > 0;
+        }
+        return false;
+    }
+
+    /**
+     * Computes the abscissa of the intersection of the edge with the
+     * horizontal line, clamped within the bounds of the edge.
+     */
+    private double crossingX(int h, double y)
+    {
+        int v1 = origins[h];
+        int v2 = origins[h + 1];
+        double x1 = xs[v1];
+        double x2 = xs[v2];
+        double t = (y - ys[v1]) / (ys[v2] - ys[v1]);
+        double x = x1 + t * (x2 - x1);
+        return Math.max(Math.min(x, Math.max(x1, x2)), Math.min(x1, x2));
+    }
+
+    /**
+     * Checks if the first edge is on the right of the second one, just above
+     * a horizontal line crossed by both edges. As the edges do not cross each
+     * other, one of them has its two vertices on the same side of the other.
+     */
+    private boolean isRightOf(int h1, int h2)
+    {
+        // orient the second edge upward
+        boolean upward = ys[origins[h2]] < ys[origins[h2 + 1]];
+        int lower = origins[upward ? h2 : h2 + 1];
+        int upper = origins[upward ? h2 + 1 : h2];
+        int o1 = orientation(lower, upper, origins[h1]);
+        int o2 = orientation(lower, upper, origins[h1 + 1]);
+        if (o1 <= 0 && o2 <= 0)
+        {
+            return true;
+        }
+        if (o1 >= 0 && o2 >= 0)
+        {
+            return false;
+        }
+
+        // the second edge is on one side of the first one
+        upward = ys[origins[h1]] < ys[origins[h1 + 1]];
+        lower = origins[upward ? h1 : h1 + 1];
+        upper = origins[upward ? h1 + 1 : h1];
+        o1 = orientation(lower, upper, origins[h2]);
+        o2 = orientation(lower, upper, origins[h2 + 1]);
+        return o1 >= 0 && o2 >= 0;
+    }
+
+
+    // ===================================================================
+    // Accessors
+
+    /**
+     * @return the number of half-edges
+     */
+    int halfEdgeCount()
+    {
+        return origins.length;
+    }
+
+    /**
+     * @return the index of the target vertex of the half-edge
+     */
+    int target(int halfEdge)
+    {
+        return origins[halfEdge ^ 1];
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * The coordinates of a vertex, used as key for identifying vertices.
+     */
+    private static final class VertexKey
+    {
+        final double x;
+        final double y;
+
+        VertexKey(double x, double y)
+        {
+            // avoid distinguishing positive and negative zeros
+            this.x = x == 0 ? 0.0 : x;
+            this.y = y == 0 ? 0.0 : y;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof VertexKey)) return false;
+            VertexKey that = (VertexKey) obj;
+            return this.x == that.x && this.y == that.y;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            long bits = Double.doubleToLongBits(x) * 31 + Double.doubleToLongBits(y);
+            return (int) (bits ^ (bits >>> 32));
+        }
+    }
+
+    /**
+     * A growable array of int values.
+     */
+    private static final class IntList
+    {
+        int[] values = new int[8];
+        int size = 0;
+
+        void add(int value)
+        {
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,575 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.MultiPolygon2D;
+import net.ijt.geometry.polygon2d.PolygonalDomain2D;
+import net.ijt.geometry.polygon2d.Polyline2D;
+
+/**
+ * Computes the offset of polygonal domains, and the buffer of polylines, by
+ * a fixed distance. Positive distances grow polygonal domains, and negative
+ * distances shrink them.
+ *
+ * Each edge of a ring is first translated along its normal by the offset
+ * distance. At the vertices where the translated edges separate, they are
+ * connected by a join whose shape depends on the join type. At the other
+ * vertices, the translated edges are connected through the original vertex.
+ * The resulting raw rings may self-intersect, and may contain loops for the
+ * parts of the domain that vanish. The raw rings are therefore combined
+ * into a planar arrangement, computed by a sweep over the edges, and the
+ * faces with a positive winding number are kept.
+ *
+ * The buffer of a polyline is the set of points within the distance of the
+ * polyline. For open polylines, the extremities are flat for the MITER join
+ * type, and shaped as the joins for the other join types. For closed
+ * polylines, the buffer is a band on both sides of the curve.
+ *
+ * <pre>
+ * <code>
+ * PolygonOffset2D grow = new PolygonOffset2D(5.0, PolygonOffset2D.JoinType.ROUND);
+ * PolygonOffset2D shrink = new PolygonOffset2D(-5.0, PolygonOffset2D.JoinType.ROUND);
+ * MultiPolygon2D band = Polygons2D.difference(grow.process(roi), shrink.process(roi));
+ * </code>
+ * </pre>
+ *
+ * @see BooleanOperation2D
+ * @see net.ijt.geometry.polygon2d.Polygons2D
+ *
+ * @author dlegland
+ *
+ */
+public class PolygonOffset2D
+{
+    // ===================================================================
+    // Inner enumeration
+
+    /**
+     * The shape of the joins between consecutive offset edges.
+     */
+    public enum JoinType
+    {
+        /**
+         * The offset edges are extended until they meet. Joins whose length
+         * exceeds the miter limit are squared.
+         */
+        MITER,
+        /** The offset edges are joined by a circular arc. */
+        ROUND,
+        /**
+         * The offset edges are joined by a segment located at the offset
+         * distance from the vertex.
+         */
+        SQUARE;
+    }
+
+
+    // ===================================================================
+    // Constants
+
+    /**
+     * The default maximal ratio between the length of miter joins and the
+     * offset distance.
+     */
+    public static final double DEFAULT_MITER_LIMIT = 2.0;
+
+    /**
+     * The default maximal distance between the circular arcs of round joins
+     * and their polygonal approximation, in the units of the coordinates
+     * (a quarter of pixel for contours of image regions).
+     */
+    public static final double DEFAULT_ARC_TOLERANCE = 0.25;
+
+    /**
+     * The minimal number of polygonal domains for processing a list of
+     * domains in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 16;
+
+
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The offset distance.
+     */
+    private double distance;
+
+    /**
+     * The shape of the joins.
+     */
+    private JoinType joinType;
+
+    /**
+     * The maximal ratio between the length of miter joins and the offset
+     * distance.
+     */
+    private double miterLimit;
+
+    /**
+     * The angle between two consecutive vertices of round joins.
+     */
+    private double arcStep;
+
+
+    // ===================================================================
+    // Constructors
+
+    /**
+     * Creates a new offset operator, using default values for the miter
+     * limit and the arc tolerance.
+     *
+     * @param distance
+     *            the offset distance, positive for growing the domains
+     * @param joinType
+     *            the shape of the joins
+     */
+    public PolygonOffset2D(double distance, JoinType joinType)
+    {
+        this(distance, joinType, DEFAULT_MITER_LIMIT, DEFAULT_ARC_TOLERANCE);
+    }
+
+    /**
+     * Creates a new offset operator.
+     *
+     * @param distance
+     *            the offset distance, positive for growing the domains
+     * @param joinType
+     *            the shape of the joins
+     * @param miterLimit
+     *            the maximal ratio between the length of miter joins and the
+     *            offset distance, at least 1
+     * @param arcTolerance
+     *            the maximal distance between the circular arcs of round
+     *            joins and their polygonal approximation
+     */
+    public PolygonOffset2D(double distance, JoinType joinType, double miterLimit, double arcTolerance)
+    {
+        if (Double.isNaN(distance) || Double.isInfinite(distance))
+        {
+            throw new IllegalArgumentException("Offset distance must be finite");
+        }
+        if (!(miterLimit >= 1))
+        {
+            throw new IllegalArgumentException("Miter limit must be at least 1");
+        }
+        if (!(arcTolerance > 0))
+        {
+            throw new IllegalArgumentException("Arc tolerance must be positive");
+        }
+        this.distance = distance;
+        this.joinType = joinType;
+        this.miterLimit = miterLimit;
+
+        // choose the angular step such that the distance between the arc and
+        // the chord is below the tolerance, with at least 8 steps per turn
+        double d = Math.abs(distance);
+        double step = d > arcTolerance ? 2 * Math.acos(1 - arcTolerance / d) : Math.PI;
+        this.arcStep = Math.min(step, Math.PI / 4);
+    }
+
+
+    // ===================================================================
+    // Methods
+
+    /**
+     * Computes the offset of a polygonal domain.
+     *
+     * @param domain
+     *            the polygonal domain to offset
+     * @return the offset domain
+     */
+    public MultiPolygon2D process(PolygonalDomain2D domain)
+    {
+        ArrayList<LinearRing2D> rings = new ArrayList<LinearRing2D>();
+        for (LinearRing2D ring : domain.rings())
+        {
+            double[][] coords = distinctVertices(ring);
+            if (coords[0].length < 3)
+            {
+                continue;
+            }
+            if (distance == 0)
+            {
+                rings.add(LinearRing2D.wrap(coords[0], coords[1]));
+            }
+            else
+            {
+                rings.add(offsetRing(coords[0], coords[1], coords[0].length, distance, null));
+            }
+        }
+
+        return cleanup(rings, domain.signedArea() >= 0);
+    }
+
+    /**
+     * Computes the buffer of a polyline, as the set of points within the
+     * absolute value of the offset distance from the polyline.
+     *
+     * @param polyline
+     *            the polyline
+     * @return the buffer of the polyline, that may be empty
+     */
+    public MultiPolygon2D process(Polyline2D polyline)
+    {
+        ArrayList<LinearRing2D> rings = new ArrayList<LinearRing2D>();
+        double[][] coords = distinctVertices(polyline);
+        double[] xs = coords[0];
+        double[] ys = coords[1];
+        int nv = xs.length;
+        if (distance == 0 || nv == 0)
+        {
+            return new MultiPolygon2D();
+        }
+
+        // the buffer is computed by offsetting to the right of the polyline
+        double d = Math.abs(distance);
+        if (nv == 1)
+        {
+            // a single point results in a disk, or a square
+            RingBuilder builder = new RingBuilder();
+            if (joinType == JoinType.ROUND)
+            {
+                addArc(builder, xs[0], ys[0], d, 0, 2 * Math.PI);
+            }
+            else
+            {
+                builder.add(xs[0] - d, ys[0] - d);
+                builder.add(xs[0] + d, ys[0] - d);
+                builder.add(xs[0] + d, ys[0] + d);
+                builder.add(xs[0] - d, ys[0] + d);
+            }
+            rings.add(builder.toRing());
+        }
+        else if (polyline.isClosed() && nv >= 3)
+        {
+            // offset the ring on both sides
+            rings.add(offsetRing(xs, ys, nv, d, null));
+            double[] rx = new double[nv];
+            double[] ry = new double[nv];
+            for (int i = 0; i < nv; i++)
+            {
+                rx[i] = xs[nv - 1 - i];
+                ry[i] = ys[nv - 1 - i];
+            }
+            rings.add(offsetRing(rx, ry, nv, d, null));
+        }
+        else
+        {
+            // follow the polyline forward then backward, and replace the joins
+            // at the extremities by caps
+            int n2 = 2 * nv - 2;
+            double[] px = new double[n2];
+            double[] py = new double[n2];
+            for (int i = 0; i < nv; i++)
+            {
+                px[i] = xs[i];
+                py[i] = ys[i];
+            }
+            for (int i = 1; i < nv - 1; i++)
+            {
+                px[n2 - i] = xs[i];
+                py[n2 - i] = ys[i];
+            }
+            boolean[] caps = new boolean[n2];
+            caps[0] = true;
+            caps[nv - 1] = true;
+            rings.add(offsetRing(px, py, n2, d, caps));
+        }
+
+        return cleanup(rings, true);
+    }
+
+    /**
+     * Computes the offset of each polygonal domain of a list. The domains are
+     * processed in parallel when the list is large enough.
+     *
+     * @param domains
+     *            the polygonal domains to offset
+     * @return the list of offset domains, in the same order
+     */
+    public List<MultiPolygon2D> process(List<? extends PolygonalDomain2D> domains)
+    {
+        MultiPolygon2D[] res = new MultiPolygon2D[domains.size()];
+        IntStream stream = IntStream.range(0, res.length);
+        if (res.length >= PARALLEL_THRESHOLD)
+        {
+            stream = stream.parallel();
+        }
+        stream.forEach(i -> res[i] = process(domains.get(i)));
+        return Arrays.asList(res);
+    }
+
+
+    // ===================================================================
+    // Computation of raw offset rings
+
+    /**
+     * Computes the raw offset of a closed ring, by translating each edge to
+     * its right by the signed distance <code>d</code>. The vertices flagged
+     * within the <code>caps</code> array are considered as the extremities
+     * of an open polyline.
+     */
+    private LinearRing2D offsetRing(double[] xs, double[] ys, int nv, double d, boolean[] caps)
+    {
+        // unit normal on the right of each edge
+        double[] nx = new double[nv];
+        double[] ny = new double[nv];
+        for (int i = 0; i < nv; i++)
+        {
+            int i2 = (i + 1) % nv;
+            double dx = xs[i2] - xs[i];
+            double dy = ys[i2] - ys[i];
+            double len = Math.hypot(dx, dy);
+            nx[i] = dy / len;
+            ny[i] = -dx / len;
+        }
+
+        RingBuilder builder = new RingBuilder();
+        for (int i = 0; i < nv; i++)
+        {
+            int iPrev = (i + nv - 1) % nv;
+            if (caps != null && caps[i])
+            {
+                addCap(builder, xs[i], ys[i], d, nx[iPrev], ny[iPrev]);
+            }
+            else
+            {
+                addJoin(builder, xs[i], ys[i], d, nx[iPrev], ny[iPrev], nx[i], ny[i]);
+            }
+        }
+        return builder.toRing();
+    }
+
+    /**
+     * Adds the vertices connecting the offsets of two consecutive edges with
+     * unit normals (n1x, n1y) and (n2x, n2y), around the vertex (x, y), for
+     * the signed offset distance d.
+     */
+    private void addJoin(RingBuilder builder, double x, double y, double d, double n1x, double n1y, double n2x, double n2y)
+    {
+        double sin = n1x * n2y - n1y * n2x;
+        double cos = n1x * n2x + n1y * n2y;
+
+        // nearly collinear edges
+        if (cos > 0 && Math.abs(sin) < 1e-12)
+        {
+            builder.add(x + d * n1x, y + d * n1y);
+            return;
+        }
+
+        // the offset edges overlap: connect them through the vertex, the
+        // resulting loop will be removed by the cleanup
+        if (sin * d < 0)
+        {
+            builder.add(x + d * n1x, y + d * n1y);
+            builder.add(x, y);
+            builder.add(x + d * n2x, y + d * n2y);
+            return;
+        }
+
+        switch (joinType)
+        {
+        case MITER:
+            // the ratio between the miter length and the distance is
+            // 1 / cos(theta / 2), with cos^2(theta / 2) = (1 + cos) / 2
+            if ((1 + cos) * miterLimit * miterLimit > 2)
+            {
+                double k = d / (1 + cos);
+                builder.add(x + k * (n1x + n2x), y + k * (n1y + n2y));
+            }
+            else
+            {
+                addSquareJoin(builder, x, y, d, n1x, n1y, n2x, n2y);
+            }
+            break;
+        case SQUARE:
+            addSquareJoin(builder, x, y, d, n1x, n1y, n2x, n2y);
+            break;
+        case ROUND:
+            double angle = sin == 0 ? Math.PI * Math.signum(d) : Math.atan2(sin, cos);
+            addArc(builder, x, y, d, Math.atan2(n1y, n1x), angle);
+            break;
+        default:
+            throw new RuntimeException("Unknown join type: " + joinType);
+        }
+    }
+
+    /**
+     * Adds the two vertices of a join cut by the line orthogonal to the
+     * bisector, at the offset distance from the vertex.
+     */
+    private void addSquareJoin(RingBuilder builder, double x, double y, double d, double n1x, double n1y, double n2x, double n2y)
+    {
+        double ad = Math.abs(d);
+
+        // direction of the edges
+        double e1x = -n1y, e1y = n1x;
+        double e2x = -n2y, e2y = n2x;
+
+        // unit vector along the bisector, pointing towards the join
+        double ux = n1x + n2x;
+        double uy = n1y + n2y;
+        double norm = Math.hypot(ux, uy);
+        if (norm < 1e-12)
+        {
+            ux = e1x;
+            uy = e1y;
+        }
+        else
+        {
+            ux = ux * Math.signum(d) / norm;
+            uy = uy * Math.signum(d) / norm;
+        }
+
+        double s1 = (ad - d * (n1x * ux + n1y * uy)) / (e1x * ux + e1y * uy);
+        double s2 = (ad - d * (n2x * ux + n2y * uy)) / -(e2x * ux + e2y * uy);
+        builder.add(x + d * n1x + s1 * e1x, y + d * n1y + s1 * e1y);
+        builder.add(x + d * n2x - s2 * e2x, y + d * n2y - s2 * e2y);
+    }
+
+    /**
+     * Adds the cap at the extremity (x, y) of an open polyline, whose last
+     * edge has the unit normal (nx, ny), for the positive distance d.
+     */
+    private void addCap(RingBuilder builder, double x, double y, double d, double nx, double ny)
+    {
+        switch (joinType)
+        {
+        case MITER:
+            builder.add(x + d * nx, y + d * ny);
+            builder.add(x - d * nx, y - d * ny);
+            break;
+        case SQUARE:
+            // the direction of the edge is (-ny, nx)
+            builder.add(x + d * (nx - ny), y + d * (ny + nx));
+            builder.add(x - d * (nx + ny), y - d * (ny - nx));
+            break;
+        case ROUND:
+            addArc(builder, x, y, d, Math.atan2(ny, nx), Math.PI);
+            break;
+        default:
+            throw new RuntimeException("Unknown join type: " + joinType);
+        }
+    }
+
+    /**
+     * Adds the vertices of a circular arc centered on (x, y), starting at
+     * the point located at the signed distance <code>d</code> in the
+     * direction <code>angle0</code>, and turning by <code>angle</code>.
+     */
+    private void addArc(RingBuilder builder, double x, double y, double d, double angle0, double angle)
+    {
+        int steps = Math.max((int) Math.ceil(Math.abs(angle) / arcStep), 1);
+        double dt = angle / steps;
+        double cos = Math.cos(dt);
+        double sin = Math.sin(dt);
+        double vx = d * Math.cos(angle0);
+        double vy = d * Math.sin(angle0);
+        for (int k = 0; k <= steps; k++)
+        {
+            builder.add(x + vx, y + vy);
+            double tmp = vx * cos - vy * sin;
+            vy = vx * sin + vy * cos;
+            vx = tmp;
+        }
+    }
+
+
+    // ===================================================================
+    // Utility methods
+
+    /**
+     * Removes the raw rings self-intersections and the loops of vanishing
+     * parts, by keeping the faces of the planar arrangement of the raw rings
+     * with a positive winding number. Faces with null winding number are
+     * also kept for unbounded domains.
+     */
+    private static final MultiPolygon2D cleanup(List<LinearRing2D> rings, boolean bounded)
+    {
+        if (rings.isEmpty())
+        {
+            return new MultiPolygon2D();
+        }
+
+        PlanarArrangement2D arr = new PlanarArrangement2D(new MultiPolygon2D(rings), new MultiPolygon2D());
+        boolean[] inResult = new boolean[arr.faceCount];
+        for (int f = 0; f < arr.faceCount; f++)
+        {
+            int winding = arr.windingsA[f];
+            inResult[f] = bounded ? winding > 0 : winding >= 0;
+        }
+        return BooleanOperation2D.boundaryRings(arr, BooleanOperation2D.boundaryEdges(arr, inResult));
+    }
+
+    /**
+     * Returns the coordinates of the vertices of the polyline, removing the
+     * vertices identical to the previous one. For closed polylines, the last
+     * vertex is also removed if it is identical to the first one.
+     */
+    private static final double[][] distinctVertices(Polyline2D polyline)
+    {
+        int nv = polyline.vertexCount();
+        double[] xs = new double[nv];
+        double[] ys = new double[nv];
+        int count = 0;
+        for (int i = 0; i < nv; i++)
+        {
+            double x = polyline.vertexPosition(i).x();
+            double y = polyline.vertexPosition(i).y();
+            if (count > 0 && x == xs[count - 1] && y == ys[count - 1])
+            {
+                continue;
+            }
+            xs[count] = x;
+            ys[count] = y;
+            count++;
+        }
+        if (polyline.isClosed())
+        {
+            while (count > 1 && xs[count - 1] == xs[0] && ys[count - 1] == ys[0])
+            {
+                count--;
+            }
+        }
+        return new double[][] { Arrays.copyOf(xs, count), Arrays.copyOf(ys, count) };
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * Accumulates the vertices of a ring within growable arrays.
+     */
+    private static final class RingBuilder
+    {
+        double[] xs = new double[16];
+        double[] ys = new double[16];
+        int size = 0;
+
+        void add(double x, double y)
+        {
+            if (size == xs.length)
+            {
+                xs = Arrays.copyOf(xs, 2 * size);
+                ys = Arrays.copyOf(ys, 2 * size);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        LinearRing2D toRing()
+        {
+            return LinearRing2D.wrap(Arrays.copyOf(xs, size), Arrays.copyOf(ys, size));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import net.ijt.geometry.geom2d.Bounds2D;
+import net.ijt.geometry.geom2d.BoundsIndex2D;
+import net.ijt.geometry.polygon2d.PolygonalDomain2D;
+
+/**
+ * Computes the intersection areas between all the pairs of polygons from two
+ * collections, for example to match predicted regions of interest with
+ * reference ones.
+ *
+ * The bounding boxes of the polygons of the second collection are indexed
+ * within an STR-packed R-tree. For each polygon of the first collection, the
+ * candidate polygons are the ones whose bounding box intersects its own
+ * bounding box, and the intersection area is computed only for these pairs.
+ * The rows are processed in parallel when the first collection is large
+ * enough. The result is returned as a sparse matrix that contains only the
+ * pairs with a positive intersection area.
+ *
+ * <pre>
+ * <code>
+ * OverlapMatrix overlaps = new PolygonOverlaps2D().process(predictions, references);
+ * for (int i = 0; i &lt; overlaps.rowCount(); i++)
+ * {
+ *     int j = overlaps.bestColumn(i);
+ *     double score = j &gt;= 0 ? overlaps.jaccard(i, j) : 0.0;
+ * }
+ * </code>
+ * </pre>
+ *
+ * @see OverlapMatrix
+ * @see BooleanOperation2D#area(PolygonalDomain2D, PolygonalDomain2D)
+ * @see net.ijt.geometry.geom2d.BoundsIndex2D
+ *
+ * @author dlegland
+ *
+ */
+public class PolygonOverlaps2D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The minimal number of polygons within the first collection for
+     * processing the rows in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 64;
+
+
+    // ===================================================================
+    // Constructor
+
+    /**
+     * Creates a new operator for computing polygon overlaps.
+     */
+    public PolygonOverlaps2D()
+    {
+    }
+
+
+    // ===================================================================
+    // Methods
+
+    /**
+     * Computes the intersection areas between the polygons of two
+     * collections. The polygons must be bounded.
+     *
+     * @param polygons1
+     *            the polygons associated to the rows of the result
+     * @param polygons2
+     *            the polygons associated to the columns of the result
+     * @return the sparse matrix of intersection areas
+     * @throws IllegalArgumentException
+     *             if one of the polygons is not bounded
+     */
+    public OverlapMatrix process(List<? extends PolygonalDomain2D> polygons1, List<? extends PolygonalDomain2D> polygons2)
+    {
+        int n1 = polygons1.size();
+        int n2 = polygons2.size();
+
+        double[] areas1 = new double[n1];
+        double[] areas2 = new double[n2];
+        List<Bounds2D> bounds1 = computeBounds(polygons1, areas1);
+        List<Bounds2D> bounds2 = computeBounds(polygons2, areas2);
+        BoundsIndex2D index = new BoundsIndex2D(bounds2);
+
+        // compute the non-zero entries of each row
+        BooleanOperation2D op = new BooleanOperation2D(BooleanOperation2D.Type.INTERSECTION);
+        int[][] rowColumns = new int[n1][];
+        double[][] rowValues = new double[n1][];
+        IntStream stream = IntStream.range(0, n1);
+        if (n1 >= PARALLEL_THRESHOLD)
+        {
+            stream = stream.parallel();
+        }
+        stream.forEach(i -> {
+            PolygonalDomain2D poly = polygons1.get(i);
+            int[] candidates = index.intersecting(bounds1.get(i));
+            int[] cols = new int[candidates.length];
+            double[] vals = new double[candidates.length];
+            int count = 0;
+            for (int j : candidates)
+            {
+                double area = op.area(poly, polygons2.get(j));
+                if (area > 0)
+                {
+                    cols[count] = j;
+                    vals[count] = area;
+                    count++;
+                }
+            }
+            rowColumns[i] = Arrays.copyOf(cols, count);
+            rowValues[i] = Arrays.copyOf(vals, count);
+        });
+
+        // concatenate rows
+        int[] rowStarts = new int[n1 + 1];
+        for (int i = 0; i < n1; i++)
+        {
+            rowStarts[i + 1] = rowStarts[i] + rowColumns[i].length;
+        }
+        int[] columns = new int[rowStarts[n1]];
+        double[] values = new double[rowStarts[n1]];
+        for (int i = 0; i < n1; i++)
+        {
+            System.arraycopy(rowColumns[i], 0, columns, rowStarts[i], rowColumns[i].length);
+            System.arraycopy(rowValues[i], 0, values, rowStarts[i], rowValues[i].length);
+        }
+
+        return new OverlapMatrix(rowStarts, columns, values, areas1, areas2);
+    }
+
+    /**
+     * Computes the bounds and the area of each polygon.
+     */
+    private static final List<Bounds2D> computeBounds(List<? extends PolygonalDomain2D> polygons, double[] areas)
+    {
+        ArrayList<Bounds2D> res = new ArrayList<Bounds2D>(polygons.size());
+        for (int i = 0; i < polygons.size(); i++)
+        {
+            PolygonalDomain2D poly = polygons.get(i);
+            double area = poly.signedArea();
+            Bounds2D bounds = poly.bounds();
+            if (area < 0 || !bounds.isBounded())
+            {
+                throw new IllegalArgumentException("Requires bounded polygons, polygon at index " + i + " is not");
+            }
+            areas[i] = area;
+            res.add(bounds);
+        }
+        return res;
+    }
+}
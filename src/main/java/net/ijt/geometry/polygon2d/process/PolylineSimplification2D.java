@@ -0,0 +1,111 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.polygon2d.LineString2D;
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.Polyline2D;
+
+/**
+ * Common interface for algorithms that reduce the number of vertices of a
+ * polyline, for example to simplify contours traced with one vertex per
+ * pixel.
+ *
+ * The simplification is computed on primitive coordinate arrays, and returns
+ * the indices of the vertices to keep. The first vertex is always kept. For
+ * open polylines, the last vertex is also kept.
+ *
+ * @see DouglasPeuckerSimplification2D
+ * @see VisvalingamSimplification2D
+ *
+ * @author dlegland
+ *
+ */
+public interface PolylineSimplification2D
+{
+    // ===================================================================
+    // Constants
+
+    /**
+     * The minimal number of polylines for simplifying a list of polylines in
+     * parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 16;
+
+
+    // ===================================================================
+    // Methods
+
+    /**
+     * Computes the indices of the vertices to keep for simplifying the
+     * polyline with the specified vertex coordinates.
+     *
+     * @param xcoords
+     *            the x-coordinates of the polyline vertices
+     * @param ycoords
+     *            the y-coordinates of the polyline vertices
+     * @param closed
+     *            true if the polyline is closed
+     * @return the indices of the vertices to keep, in increasing order
+     */
+    public int[] simplify(double[] xcoords, double[] ycoords, boolean closed);
+
+    /**
+     * Simplifies a polyline. The result is a LinearRing2D if the polyline is
+     * closed, and a LineString2D otherwise.
+     *
+     * @param polyline
+     *            the polyline to simplify
+     * @return the simplified polyline
+     */
+    public default Polyline2D process(Polyline2D polyline)
+    {
+        int nv = polyline.vertexCount();
+        double[] xcoords = new double[nv];
+        double[] ycoords = new double[nv];
+        for (int i = 0; i < nv; i++)
+        {
+            Point2D vertex = polyline.vertexPosition(i);
+            xcoords[i] = vertex.x();
+            ycoords[i] = vertex.y();
+        }
+
+        boolean closed = polyline.isClosed();
+        int[] indices = simplify(xcoords, ycoords, closed);
+
+        double[] resX = new double[indices.length];
+        double[] resY = new double[indices.length];
+        for (int i = 0; i < indices.length; i++)
+        {
+            resX[i] = xcoords[indices[i]];
+            resY[i] = ycoords[indices[i]];
+        }
+        return closed ? LinearRing2D.wrap(resX, resY) : LineString2D.wrap(resX, resY);
+    }
+
+    /**
+     * Simplifies each polyline of a list. The polylines are processed in
+     * parallel when the list is large enough.
+     *
+     * @param polylines
+     *            the polylines to simplify
+     * @return the list of simplified polylines, in the same order
+     */
+    public default List<Polyline2D> process(List<? extends Polyline2D> polylines)
+    {
+        Polyline2D[] res = new Polyline2D[polylines.size()];
+        IntStream stream = IntStream.range(0, res.length);
+        if (res.length >= PARALLEL_THRESHOLD)
+        {
+            stream = stream.parallel();
+        }
+        stream.forEach(i -> res[i] = process(polylines.get(i)));
+        return Arrays.asList(res);
+    }
+}
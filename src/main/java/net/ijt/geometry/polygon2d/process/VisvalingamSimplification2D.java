@@ -0,0 +1,474 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import java.util.Arrays;
+
+import net.ijt.geometry.geom2d.Predicates2D;
+
+/**
+ * Simplifies polylines using the Visvalingam-Whyatt algorithm. The
+ * effective area of a vertex is the area of the triangle formed by the
+ * vertex and its two neighbors. The vertex with the smallest effective area
+ * is removed iteratively, until all the remaining vertices have an effective
+ * area larger than the tolerance. The vertices are stored within an indexed
+ * binary heap, resulting in a complexity of <code>O(n log n)</code>.
+ *
+ * When topology preservation is enabled, a vertex is not removed if the
+ * triangle formed with its neighbors contains another vertex of the
+ * polyline. In that case, a simple polyline remains simple after
+ * simplification. The vertices are indexed within a grid to accelerate this
+ * test.
+ *
+ * <pre>
+ * <code>
+ * Polyline2D simplified = new VisvalingamSimplification2D(2.0, true).process(contour);
+ * </code>
+ * </pre>
+ *
+ * @see DouglasPeuckerSimplification2D
+ *
+ * @author dlegland
+ *
+ */
+public class VisvalingamSimplification2D implements PolylineSimplification2D
+{
+    // ===================================================================
+    // Class variables
+
+    /**
+     * The maximal effective area of a removed vertex.
+     */
+    private double areaTolerance;
+
+    /**
+     * Whether vertices whose removal would create self-intersections should
+     * be kept.
+     */
+    private boolean preserveTopology;
+
+
+    // ===================================================================
+    // Constructors
+
+    /**
+     * Creates a new simplification operator that does not preserve
+     * topology.
+     *
+     * @param areaTolerance
+     *            the maximal effective area of a removed vertex
+     */
+    public VisvalingamSimplification2D(double areaTolerance)
+    {
+        this(areaTolerance, false);
+    }
+
+    /**
+     * Creates a new simplification operator.
+     *
+     * @param areaTolerance
+     *            the maximal effective area of a removed vertex
+     * @param preserveTopology
+     *            if true, vertices whose removal would create
+     *            self-intersections are kept
+     */
+    public VisvalingamSimplification2D(double areaTolerance, boolean preserveTopology)
+    {
+        if (!(areaTolerance >= 0))
+        {
+            throw new IllegalArgumentException("Area tolerance must be positive or zero");
+        }
+        this.areaTolerance = areaTolerance;
+        this.preserveTopology = preserveTopology;
+    }
+
+
+    // ===================================================================
+    // Implementation of the PolylineSimplification2D interface
+
+    @Override
+    public int[] simplify(double[] xcoords, double[] ycoords, boolean closed)
+    {
+        if (xcoords.length != ycoords.length)
+        {
+            throw new IllegalArgumentException("Coordinate arrays must have the same length");
+        }
+        int nv = xcoords.length;
+        int minCount = closed ? 3 : 2;
+
+        // doubly linked list of remaining vertices
+        int[] prev = new int[nv];
+        int[] next = new int[nv];
+        for (int i = 0; i < nv; i++)
+        {
+            prev[i] = i - 1;
+            next[i] = i + 1;
+        }
+        if (nv > 0)
+        {
+            prev[0] = closed ? nv - 1 : -1;
+            next[nv - 1] = closed ? 0 : -1;
+        }
+
+        AreaHeap heap = new AreaHeap(nv);
+        for (int i = 0; i < nv; i++)
+        {
+            if (prev[i] >= 0 && next[i] >= 0)
+            {
+                heap.add(i, triangleArea(xcoords, ycoords, prev[i], i, next[i]));
+            }
+        }
+        heap.heapify();
+
+        boolean[] removed = new boolean[nv];
+        VertexGrid grid = preserveTopology && nv > minCount ? new VertexGrid(xcoords, ycoords) : null;
+
+        int count = nv;
+        while (count > minCount && !heap.isEmpty() && heap.minArea() <= areaTolerance)
+        {
+            double area = heap.minArea();
+            int i = heap.removeMin();
+            int p = prev[i];
+            int q = next[i];
+
+            // vertices blocked by topology are discarded from the heap, and
+            // reconsidered when one of their neighbors is removed
+            if (grid != null && grid.containsVertex(p, i, q, removed))
+            {
+                continue;
+            }
+
+            removed[i] = true;
+            next[p] = q;
+            prev[q] = p;
+            count--;
+
+            // the effective area of neighbors can not be smaller than the area
+            // of the removed vertex
+            if (prev[p] >= 0)
+            {
+                heap.update(p, Math.max(area, triangleArea(xcoords, ycoords, prev[p], p, q)));
+            }
+            if (next[q] >= 0)
+            {
+                heap.update(q, Math.max(area, triangleArea(xcoords, ycoords, p, q, next[q])));
+            }
+        }
+
+        int[] res = new int[count];
+        count = 0;
+        for (int i = 0; i < nv; i++)
+        {
+            if (!removed[i]) res[count++] = i;
+        }
+        return res;
+    }
+
+    private static final double triangleArea(double[] xcoords, double[] ycoords, int i1, int i2, int i3)
+    {
+        double dx1 = xcoords[i2] - xcoords[i1];
+        double dy1 = ycoords[i2] - ycoords[i1];
+        double dx2 = xcoords[i3] - xcoords[i1];
+        double dy2 = ycoords[i3] - ycoords[i1];
+        return Math.abs(dx1 * dy2 - dx2 * dy1) / 2;
+    }
+
+
+    // ===================================================================
+    // Inner classes
+
+    /**
+     * A binary min-heap of vertex indices sorted by effective area, that keeps
+     * track of the position of each vertex to allow updating its area. The
+     * areas are stored in heap order to improve memory locality.
+     */
+    private static final class AreaHeap
+    {
+        int[] vertices;
+        double[] areas;
+        int[] positions;
+        int size = 0;
+
+        AreaHeap(int nv)
+        {
+            this.vertices = new int[nv];
+            this.areas = new double[nv];
+            this.positions = new int[nv];
+            Arrays.fill(positions, -1);
+        }
+
+        /**
+         * Adds a vertex at the end of the heap, without restoring the heap
+         * order. The <code>heapify()</code> method must be called after the
+         * last call.
+         */
+        void add(int vertex, double area)
+        {
+            vertices[size] = vertex;
+            areas[size] = area;
+            positions[vertex] = size;
+            size++;
+        }
+
+        /**
+         * Restores the heap order in linear time.
+         */
+        void heapify()
+        {
+            for (int pos = size / 2 - 1; pos >= 0; pos--)
+            {
+                siftDown(pos, vertices[pos], areas[pos]);
+            }
+        }
+
+        boolean isEmpty()
+        {
+            return size == 0;
+        }
+
+        double minArea()
+        {
+            return areas[0];
+        }
+
+        int removeMin()
+        {
+            int vertex = vertices[0];
+            positions[vertex] = -1;
+            size--;
+            if (size > 0)
+            {
+                siftDown(0, vertices[size], areas[size]);
+            }
+            return vertex;
+        }
+
+        /**
+         * Inserts the vertex if it is not within the heap, or updates its
+         * area otherwise.
+         */
+        void update(int vertex, double area)
+        {
+            int pos = positions[vertex];
+            if (pos < 0)
+            {
+                siftUp(size++, vertex, area);
+            }
+            else if (area < areas[pos])
+            {
+                siftUp(pos, vertex, area);
+            }
+            else
+            {
+                siftDown(pos, vertex, area);
+            }
+        }
+
+        /**
+         * Moves the hole at the specified position towards the root until the
+         * vertex can be stored within it.
+         */
+        private void siftUp(int pos, int vertex, double area)
+        {
+            while (pos > 0)
+            {
+                int parent = (pos - 1) >> 1;
+                if (areas[parent] <= area) break;
+                move(parent, pos);
+                pos = parent;
+            }
+            store(pos, vertex, area);
+        }
+
+        /**
+         * Moves the hole at the specified position towards the leaves until
+         * the vertex can be stored within it.
+         */
+        private void siftDown(int pos, int vertex, double area)
+        {
+            int half = size >> 1;
+            while (pos < half)
+            {
+                int child = 2 * pos + 1;
+                if (child + 1 < size && areas[child + 1] < areas[child])
+                {
+                    child++;
+                }
+                if (areas[child] >= area) break;
+                move(child, pos);
+                pos = child;
+            }
+            store(pos, vertex, area);
+        }
+
+        private void move(int from, int to)
+        {
+            vertices[to] = vertices[from];
+            areas[to] = areas[from];
+            positions[vertices[to]] = to;
+        }
+
+        private void store(int pos, int vertex, double area)
+        {
+            vertices[pos] = vertex;
+            areas[pos] = area;
+            positions[vertex] = pos;
+        }
+    }
+
+    /**
+     * A grid of vertex indices, used to identify the vertices that lie within
+     * a triangle. The size of the cells is chosen from the mean edge length,
+     * as vertices of contours are distributed along a curve rather than
+     * within their bounding box. The vertices are grouped by rows of cells,
+     * and sorted by column within each row, so that only occupied cells are
+     * stored.
+     */
+    private static final class VertexGrid
+    {
+        double[] xcoords;
+        double[] ycoords;
+        double xmin;
+        double ymin;
+        double cellSize;
+        int nx;
+        int ny;
+
+        /** The index of the first vertex of each row within rowVertices. */
+        int[] rowStarts;
+        /** The vertex indices, ordered by row, then by column. */
+        int[] rowVertices;
+        /** The column index of each item of rowVertices. */
+        int[] rowColumns;
+
+        VertexGrid(double[] xcoords, double[] ycoords)
+        {
+            this.xcoords = xcoords;
+            this.ycoords = ycoords;
+            int nv = xcoords.length;
+
+            xmin = Double.POSITIVE_INFINITY;
+            ymin = Double.POSITIVE_INFINITY;
+            double xmax = Double.NEGATIVE_INFINITY;
+            double ymax = Double.NEGATIVE_INFINITY;
+            double length = 0;
+            for (int i = 0; i < nv; i++)
+            {
+                xmin = Math.min(xmin, xcoords[i]);
+                xmax = Math.max(xmax, xcoords[i]);
+                ymin = Math.min(ymin, ycoords[i]);
+                ymax = Math.max(ymax, ycoords[i]);
+                int i2 = (i + 1) % nv;
+                length += Math.hypot(xcoords[i2] - xcoords[i], ycoords[i2] - ycoords[i]);
+            }
+
+            // cells about twice the mean edge length, with at most one row or
+            // column per vertex
+            double extent = Math.max(xmax - xmin, ymax - ymin);
+            cellSize = Math.max(2 * length / nv, extent / nv);
+            if (!(cellSize > 0))
+            {
+                cellSize = 1;
+            }
+            nx = (int) ((xmax - xmin) / cellSize) + 1;
+            ny = (int) ((ymax - ymin) / cellSize) + 1;
+
+            // counting sort of vertices by row
+            int[] rows = new int[nv];
+            rowStarts = new int[ny + 1];
+            for (int i = 0; i < nv; i++)
+            {
+                rows[i] = cellY(ycoords[i]);
+                rowStarts[rows[i] + 1]++;
+            }
+            for (int r = 0; r < ny; r++)
+            {
+                rowStarts[r + 1] += rowStarts[r];
+            }
+            int[] offsets = Arrays.copyOf(rowStarts, ny);
+            long[] keys = new long[nv];
+            for (int i = 0; i < nv; i++)
+            {
+                keys[offsets[rows[i]]++] = ((long) cellX(xcoords[i]) << 32) | i;
+            }
+
+            // sort vertices by column within each row
+            rowVertices = new int[nv];
+            rowColumns = new int[nv];
+            for (int r = 0; r < ny; r++)
+            {
+                Arrays.sort(keys, rowStarts[r], rowStarts[r + 1]);
+            }
+            for (int k = 0; k < nv; k++)
+            {
+                rowVertices[k] = (int) keys[k];
+                rowColumns[k] = (int) (keys[k] >>> 32);
+            }
+        }
+
+        private int cellX(double x)
+        {
+            return Math.min(Math.max((int) ((x - xmin) / cellSize), 0), nx - 1);
+        }
+
+        private int cellY(double y)
+        {
+            return Math.min(Math.max((int) ((y - ymin) / cellSize), 0), ny - 1);
+        }
+
+        /**
+         * Checks if the closed triangle formed by three vertices contains
+         * another vertex that was not removed.
+         */
+        boolean containsVertex(int i1, int i2, int i3, boolean[] removed)
+        {
+            double x1 = xcoords[i1], y1 = ycoords[i1];
+            double x2 = xcoords[i2], y2 = ycoords[i2];
+            double x3 = xcoords[i3], y3 = ycoords[i3];
+            int cx0 = cellX(Math.min(x1, Math.min(x2, x3)));
+            int cx1 = cellX(Math.max(x1, Math.max(x2, x3)));
+            int cy0 = cellY(Math.min(y1, Math.min(y2, y3)));
+            int cy1 = cellY(Math.max(y1, Math.max(y2, y3)));
+
+            for (int cy = cy0; cy <= cy1; cy++)
+            {
+                // find the first vertex of the row within the column range
+                int lo = rowStarts[cy];
+                int hi = rowStarts[cy + 1];
+                while (lo < hi)
+                {
+                    int mid = (lo + hi) >>> 1;
+                    if (rowColumns[mid] < cx0)
+                    {
+                        lo = mid + 1;
+                    }
+                    else
+                    {
+                        hi = mid;
+                    }
+                }
+
+                for (int k = lo; k < rowStarts[cy + 1] && rowColumns[k] <= cx1; k++)
+                {
+                    int v = rowVertices[k];
+                    if (removed[v] || v == i1 || v == i2 || v == i3)
+                    {
+                        continue;
+                    }
+                    double x = xcoords[v], y = ycoords[v];
+                    double d1 = Predicates2D.orient2d(x1, y1, x2, y2, x, y);
+                    double d2 = Predicates2D.orient2d(x2, y2, x3, y3, x, y);
+                    double d3 = Predicates2D.orient2d(x3, y3, x1, y1, x, y);
+                    boolean hasNeg = d1 < 0 || d2 < 0 || d3 < 0;
+                    boolean hasPos = d1 > 0 || d2 > 0 || d3 > 0;
+                    if (!(hasNeg && hasPos))
+                    {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
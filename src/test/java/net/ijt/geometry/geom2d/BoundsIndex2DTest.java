@@ -0,0 +1,187 @@
+/**
+ *
+ */
+package net.ijt.geometry.geom2d;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ *
+ */
+public class BoundsIndex2DTest
+{
+    /**
+     * Compares the result of queries with a brute force search, on random
+     * boxes.
+     */
+    @Test
+    public final void testIntersecting_randomBoxes()
+    {
+        Random random = new Random(42);
+        ArrayList<Bounds2D> boxes = new ArrayList<Bounds2D>();
+        for (int i = 0; i < 1000; i++)
+        {
+            boxes.add(randomBox(random));
+        }
+        BoundsIndex2D index = new BoundsIndex2D(boxes);
+        assertEquals(1000, index.itemCount());
+
+        for (int q = 0; q < 100; q++)
+        {
+            Bounds2D query = randomBox(random);
+            int[] exp = new int[boxes.size()];
+            int count = 0;
+            for (int i = 0; i < boxes.size(); i++)
+            {
+                Bounds2D box = boxes.get(i);
+                if (box.minX() <= query.maxX() && box.maxX() >= query.minX()
+                        && box.minY() <= query.maxY() && box.maxY() >= query.minY())
+                {
+                    exp[count++] = i;
+                }
+            }
+            assertArrayEquals(Arrays.copyOf(exp, count), index.intersecting(query));
+        }
+    }
+
+    /**
+     * Boxes touching the query box are returned.
+     */
+    @Test
+    public final void testIntersecting_touching()
+    {
+        ArrayList<Bounds2D> boxes = new ArrayList<Bounds2D>();
+        boxes.add(new Bounds2D(0, 1, 0, 1));
+        boxes.add(new Bounds2D(2, 3, 0, 1));
+        BoundsIndex2D index = new BoundsIndex2D(boxes);
+
+        assertArrayEquals(new int[] { 0 }, index.intersecting(1, 1.5, 0.5, 2));
+        assertArrayEquals(new int[] { 0, 1 }, index.intersecting(1, 2, 0.5, 0.6));
+        assertArrayEquals(new int[0], index.intersecting(1.2, 1.8, 0, 1));
+    }
+
+    /**
+     * An empty index returns empty results.
+     */
+    @Test
+    public final void testIntersecting_empty()
+    {
+        BoundsIndex2D index = new BoundsIndex2D(new ArrayList<Bounds2D>());
+        assertEquals(0, index.intersecting(0, 1, 0, 1).length);
+    }
+
+    /**
+     * Compares the pairs of intersecting boxes with a brute force search.
+     */
+    @Test
+    public final void testForEachIntersectingPair_randomBoxes()
+    {
+        Random random = new Random(42);
+        ArrayList<Bounds2D> boxes = new ArrayList<Bounds2D>();
+        for (int i = 0; i < 1000; i++)
+        {
+            boxes.add(randomBox(random));
+        }
+        BoundsIndex2D index = new BoundsIndex2D(boxes);
+
+        int n = boxes.size();
+        boolean[] found = new boolean[n * n];
+        int[] count = new int[1];
+        index.forEachIntersectingPair((item1, item2) -> {
+            assertTrue(item1 != item2);
+            int key = Math.min(item1, item2) * n + Math.max(item1, item2);
+            assertFalse(found[key]);
+            found[key] = true;
+            count[0]++;
+        });
+
+        int expCount = 0;
+        for (int i = 0; i < n; i++)
+        {
+            Bounds2D box1 = boxes.get(i);
+            for (int j = i + 1; j < n; j++)
+            {
+                Bounds2D box2 = boxes.get(j);
+                boolean exp = box1.minX() <= box2.maxX() && box1.maxX() >= box2.minX()
+                        && box1.minY() <= box2.maxY() && box1.maxY() >= box2.minY();
+                assertEquals(exp, found[i * n + j]);
+                if (exp) expCount++;
+            }
+        }
+        assertEquals(expCount, count[0]);
+    }
+
+    /**
+     * Compares the nearest items and the items within a radius with a brute
+     * force search, using the distance to the boxes given as primitive
+     * arrays.
+     */
+    @Test
+    public final void testNearestItems_randomBoxes()
+    {
+        Random random = new Random(42);
+        int n = 500;
+        double[] bounds = new double[4 * n];
+        for (int i = 0; i < n; i++)
+        {
+            Bounds2D box = randomBox(random);
+            bounds[4 * i] = box.minX();
+            bounds[4 * i + 1] = box.minY();
+            bounds[4 * i + 2] = box.maxX();
+            bounds[4 * i + 3] = box.maxY();
+        }
+        BoundsIndex2D index = new BoundsIndex2D(bounds, n);
+        BoundsIndex2D.ItemDistance dist = (item, x, y) -> {
+            double dx = Math.max(Math.max(bounds[4 * item] - x, x - bounds[4 * item + 2]), 0);
+            double dy = Math.max(Math.max(bounds[4 * item + 1] - y, y - bounds[4 * item + 3]), 0);
+            return dx * dx + dy * dy;
+        };
+
+        for (int q = 0; q < 100; q++)
+        {
+            double x = random.nextDouble() * 120 - 10;
+            double y = random.nextDouble() * 120 - 10;
+            double[] dists = new double[n];
+            for (int i = 0; i < n; i++)
+            {
+                dists[i] = dist.distanceSq(i, x, y);
+            }
+            double[] sorted = dists.clone();
+            Arrays.sort(sorted);
+
+            int[] nearest = index.nearestItems(x, y, 5, dist);
+            assertEquals(5, nearest.length);
+            for (int k = 0; k < 5; k++)
+            {
+                assertEquals(sorted[k], dists[nearest[k]], 0.0);
+            }
+
+            int[] within = index.itemsWithin(x, y, 3.0, dist);
+            int count = 0;
+            for (int i = 0; i < n; i++)
+            {
+                if (dists[i] <= 9.0)
+                {
+                    assertEquals(i, within[count++]);
+                }
+            }
+            assertEquals(count, within.length);
+        }
+    }
+
+    private static final Bounds2D randomBox(Random random)
+    {
+        double x = random.nextDouble() * 100;
+        double y = random.nextDouble() * 100;
+        return new Bounds2D(x, x + random.nextDouble() * 5, y, y + random.nextDouble() * 5);
+    }
+}
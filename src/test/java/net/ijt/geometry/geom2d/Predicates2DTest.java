@@ -0,0 +1,131 @@
+/**
+ * 
+ */
+package net.ijt.geometry.geom2d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 
+ */
+public class Predicates2DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.geom2d.Predicates2D#orient2d(double, double, double, double, double, double)}.
+     */
+    @Test
+    public final void testOrient2d_simple()
+    {
+        assertTrue(Predicates2D.orient2d(0, 0, 10, 0, 5, 5) > 0);
+        assertTrue(Predicates2D.orient2d(0, 0, 10, 0, 5, -5) < 0);
+        assertEquals(0.0, Predicates2D.orient2d(0, 0, 10, 0, 20, 0), 0.0);
+        assertEquals(100.0, Predicates2D.orient2d(0, 0, 10, 0, 0, 10), 1e-12);
+    }
+
+    /**
+     * Points on a line with irrational slope, for which the floating point
+     * evaluation of the determinant is not reliable.
+     */
+    @Test
+    public final void testOrient2d_nearlyCollinear()
+    {
+        double ax = 0.5, ay = 0.5;
+        double bx = 12, by = 12;
+        double cx = 24, cy = 24;
+
+        // all points are exactly aligned
+        assertEquals(0.0, Predicates2D.orient2d(ax, ay, bx, by, cx, cy), 0.0);
+
+        // moving the first point by one ulp results in a consistent sign
+        for (int i = 0; i < 64; i++)
+        {
+            double x = ax + i * Math.ulp(ax);
+            double s1 = Predicates2D.orient2d(x, ay, bx, by, cx, cy);
+            double s2 = Predicates2D.orient2d(bx, by, cx, cy, x, ay);
+            double s3 = Predicates2D.orient2d(cx, cy, x, ay, bx, by);
+            assertEquals(Math.signum(s1), Math.signum(s2), 0.0);
+            assertEquals(Math.signum(s1), Math.signum(s3), 0.0);
+            if (i > 0)
+            {
+                // point moved to the right of the line (b,c)
+                assertTrue(s1 < 0);
+            }
+        }
+    }
+
+    /**
+     * Points with very small coordinates, for which the products of the
+     * floating point evaluation underflow.
+     */
+    @Test
+    public final void testOrient2d_tinyCoordinates()
+    {
+        double s = Math.scalb(1.0, -540);
+        double ax = 3 * s, ay = 5 * s;
+        double bx = 6 * s, by = 10 * s;
+        double cx = 9 * s, cy = 15 * s;
+        assertEquals(0.0, Predicates2D.orient2d(ax, ay, bx, by, cx, cy), 0.0);
+        assertTrue(Predicates2D.orient2d(ax, ay, bx, by, cx, cy + Math.ulp(cy)) > 0);
+        assertTrue(Predicates2D.orient2d(ax, ay, bx, by, cx, cy - Math.ulp(cy)) < 0);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.geom2d.Predicates2D#orientation(Point2D, Point2D, Point2D)}.
+     */
+    @Test
+    public final void testOrientation()
+    {
+        Point2D p1 = new Point2D(1, 1);
+        Point2D p2 = new Point2D(3, 2);
+        Point2D p3 = new Point2D(2, 4);
+        assertEquals(+1, Predicates2D.orientation(p1, p2, p3));
+        assertEquals(-1, Predicates2D.orientation(p1, p3, p2));
+        assertEquals(0, Predicates2D.orientation(p1, p2, new Point2D(5, 3)));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.geom2d.Predicates2D#incircle(double, double, double, double, double, double, double, double)}.
+     */
+    @Test
+    public final void testIncircle_simple()
+    {
+        // unit circle, with points in counter-clockwise order
+        assertTrue(Predicates2D.incircle(1, 0, 0, 1, -1, 0, 0, 0) > 0);
+        assertTrue(Predicates2D.incircle(1, 0, 0, 1, -1, 0, 2, 0) < 0);
+        assertEquals(0.0, Predicates2D.incircle(1, 0, 0, 1, -1, 0, 0, -1), 0.0);
+
+        // reversed orientation
+        assertTrue(Predicates2D.incircle(-1, 0, 0, 1, 1, 0, 0, 0) < 0);
+    }
+
+    /**
+     * Points nearly on a circle, for which the floating point evaluation of
+     * the determinant is not reliable.
+     */
+    @Test
+    public final void testIncircle_nearlyCocircular()
+    {
+        // four points exactly on the circle centered at (0.25, 0.25) with
+        // radius 5
+        double ax = 5.25, ay = 0.25;
+        double bx = 3.25, by = 4.25;
+        double cx = -4.75, cy = 0.25;
+        double dx = 0.25, dy = -4.75;
+        assertEquals(0.0, Predicates2D.incircle(ax, ay, bx, by, cx, cy, dx, dy), 0.0);
+
+        for (int i = 1; i < 64; i++)
+        {
+            // move the query point towards the center
+            double y = dy + i * Math.ulp(dy);
+            assertTrue(Predicates2D.incircle(ax, ay, bx, by, cx, cy, dx, y) > 0);
+            assertTrue(Predicates2D.incircle(bx, by, cx, cy, ax, ay, dx, y) > 0);
+
+            // move the query point away from the center
+            y = dy - i * Math.ulp(dy);
+            assertTrue(Predicates2D.incircle(ax, ay, bx, by, cx, cy, dx, y) < 0);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ *
+ */
+package net.ijt.geometry.graph;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom2d.Bounds2D;
+import net.ijt.geometry.geom2d.Predicates2D;
+import net.ijt.geometry.polygon2d.Polygon2D;
+
+/**
+ *
+ */
+public class DelaunayTriangulation2DTest
+{
+    /**
+     * Checks the empty circumcircle property on random points.
+     */
+    @Test
+    public final void testTriangles_randomPoints()
+    {
+        Random random = new Random(42);
+        int n = 300;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            xs[i] = random.nextDouble();
+            ys[i] = random.nextDouble();
+        }
+
+        DelaunayTriangulation2D dt = new DelaunayTriangulation2D(xs, ys);
+        int[] triangles = dt.triangles();
+        assertEquals(triangles.length / 3, dt.triangleCount());
+
+        for (int t = 0; t < triangles.length; t += 3)
+        {
+            int a = triangles[t], b = triangles[t + 1], c = triangles[t + 2];
+            assertTrue(Predicates2D.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) > 0);
+            for (int i = 0; i < n; i++)
+            {
+                assertTrue(Predicates2D.incircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[i], ys[i]) <= 0);
+            }
+        }
+
+        // Euler formula: the number of edges is 3n - 3 - h
+        int[] edges = dt.edges();
+        int nHull = 3 * n - 3 - edges.length / 2;
+        assertEquals(2 * n - 2 - nHull, dt.triangleCount());
+        assertEquals(edges.length / 2, dt.graph().edgeNumber());
+    }
+
+    /**
+     * Points on a regular grid are cocircular by groups of four.
+     */
+    @Test
+    public final void testTriangles_grid()
+    {
+        double[] xs = new double[100];
+        double[] ys = new double[100];
+        for (int i = 0; i < 100; i++)
+        {
+            xs[i] = i % 10;
+            ys[i] = i / 10;
+        }
+
+        DelaunayTriangulation2D dt = new DelaunayTriangulation2D(xs, ys);
+
+        assertEquals(162, dt.triangleCount());
+        assertTrue(dt.neighbors(55).length >= 4);
+    }
+
+    /**
+     * Duplicate points are inserted only once, and share the same neighbors.
+     */
+    @Test
+    public final void testTriangles_duplicatePoints()
+    {
+        double[] xs = new double[] { 0, 1, 0, 1, 1, 0.5 };
+        double[] ys = new double[] { 0, 0, 1, 1, 0, 0.5 };
+
+        DelaunayTriangulation2D dt = new DelaunayTriangulation2D(xs, ys);
+
+        assertEquals(4, dt.triangleCount());
+        assertArrayEquals(dt.neighbors(1), dt.neighbors(4));
+        int[] nn = dt.nearestNeighbors();
+        assertEquals(4, nn[1]);
+        assertEquals(1, nn[4]);
+        assertEquals(5, nn[0]);
+    }
+
+    /**
+     * Collinear points result in a path graph without triangles.
+     */
+    @Test
+    public final void testTriangles_collinear()
+    {
+        double[] xs = new double[] { 3, 0, 2, 1 };
+        double[] ys = new double[] { 3, 0, 2, 1 };
+
+        DelaunayTriangulation2D dt = new DelaunayTriangulation2D(xs, ys);
+
+        assertEquals(0, dt.triangleCount());
+        assertEquals(3, dt.graph().edgeNumber());
+        assertArrayEquals(new int[] { 0, 3 }, dt.neighbors(2));
+    }
+
+    /**
+     * Adds a constraint edge crossing several edges of the triangulation.
+     */
+    @Test
+    public final void testAddConstraint()
+    {
+        Random random = new Random(42);
+        int n = 200;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            xs[i] = 10 * random.nextDouble();
+            ys[i] = 10 * random.nextDouble();
+        }
+        // two far away vertices
+        xs[0] = 0.5; ys[0] = 0.2;
+        xs[1] = 9.5; ys[1] = 9.7;
+
+        DelaunayTriangulation2D dt = new DelaunayTriangulation2D(xs, ys);
+        int nt = dt.triangleCount();
+        dt.addConstraint(0, 1);
+
+        assertTrue(dt.isConstrained(0, 1));
+        assertTrue(dt.isConstrained(1, 0));
+        assertEquals(nt, dt.triangleCount());
+
+        // the triangles still cover the convex hull, with the same area
+        int[] triangles = dt.triangles();
+        double area = 0;
+        for (int t = 0; t < triangles.length; t += 3)
+        {
+            int a = triangles[t], b = triangles[t + 1], c = triangles[t + 2];
+            double det = Predicates2D.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+            assertTrue(det > 0);
+            area += det / 2;
+        }
+        double expArea = 0;
+        int[] triangles0 = new DelaunayTriangulation2D(xs, ys).triangles();
+        for (int t = 0; t < triangles0.length; t += 3)
+        {
+            int a = triangles0[t], b = triangles0[t + 1], c = triangles0[t + 2];
+            expArea += Predicates2D.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) / 2;
+        }
+        assertEquals(expArea, area, 1e-10);
+    }
+
+    /**
+     * A constraint going through a vertex is split into two constraint
+     * edges.
+     */
+    @Test
+    public final void testAddConstraint_throughVertex()
+    {
+        double[] xs = new double[] { 0, 4, 2, 2, 2 };
+        double[] ys = new double[] { 0, 0, -1, 1, 0 };
+
+        DelaunayTriangulation2D dt = new DelaunayTriangulation2D(xs, ys);
+        dt.addConstraint(0, 1);
+
+        assertTrue(dt.isConstrained(0, 4));
+        assertTrue(dt.isConstrained(4, 1));
+    }
+
+    /**
+     * The Voronoi cells of random points partition the bounds, and contain
+     * their site.
+     */
+    @Test
+    public final void testVoronoiCells()
+    {
+        Random random = new Random(42);
+        int n = 100;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            xs[i] = random.nextDouble();
+            ys[i] = random.nextDouble();
+        }
+
+        DelaunayTriangulation2D dt = new DelaunayTriangulation2D(xs, ys);
+        List<Polygon2D> cells = dt.voronoiCells(new Bounds2D(0, 1, 0, 1));
+
+        assertEquals(n, cells.size());
+        double area = 0;
+        for (int i = 0; i < n; i++)
+        {
+            Polygon2D cell = cells.get(i);
+            area += cell.signedArea();
+            assertTrue(cell.isInside(xs[i], ys[i]));
+        }
+        assertEquals(1.0, area, 1e-10);
+    }
+
+    /**
+     * The Voronoi cells clipped by bounds smaller than the convex hull of the
+     * points partition the bounds. The cells of the points outside the
+     * bounds are empty.
+     */
+    @Test
+    public final void testVoronoiCells_smallBounds()
+    {
+        Random random = new Random(42);
+        int n = 200;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            xs[i] = random.nextDouble() * 10;
+            ys[i] = random.nextDouble() * 10;
+        }
+
+        DelaunayTriangulation2D dt = new DelaunayTriangulation2D(xs, ys);
+        List<Polygon2D> cells = dt.voronoiCells(new Bounds2D(4, 6, 3, 7));
+
+        double area = 0;
+        for (int i = 0; i < n; i++)
+        {
+            Polygon2D cell = cells.get(i);
+            if (cell.vertexCount() > 0)
+            {
+                area += cell.signedArea();
+            }
+            if (xs[i] > 4 && xs[i] < 6 && ys[i] > 3 && ys[i] < 7)
+            {
+                assertTrue(cell.isInside(xs[i], ys[i]));
+            }
+        }
+        assertEquals(8.0, area, 1e-10);
+    }
+
+    /**
+     * The Voronoi cells can not be computed once constraints were added.
+     */
+    @Test(expected = IllegalStateException.class)
+    public final void testVoronoiCells_constrained()
+    {
+        double[] xs = new double[] { 0, 4, 2, 2 };
+        double[] ys = new double[] { 0, 0, -1, 1 };
+        DelaunayTriangulation2D dt = new DelaunayTriangulation2D(xs, ys);
+        dt.addConstraint(2, 3);
+        dt.voronoiCells(new Bounds2D(-1, 5, -2, 2));
+    }
+}
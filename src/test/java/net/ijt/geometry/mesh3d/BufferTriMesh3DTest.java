@@ -0,0 +1,91 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Bounds3D;
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Vector3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class BufferTriMesh3DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.BufferTriMesh3D#allocateDirect(int, int)}.
+     */
+    @Test
+    public final void testAllocateDirect()
+    {
+        SimpleTriMesh3D mesh = (SimpleTriMesh3D) Meshes3D.createTorus(new Point3D(1, 2, 3), new Vector3D(0, 0, 1), 3, 1, 30, 15);
+        BufferTriMesh3D mesh2 = copy(mesh);
+        
+        assertEquals(mesh.vertexCount(), mesh2.vertexCount());
+        assertEquals(mesh.faceCount(), mesh2.faceCount());
+        assertArrayEquals(Meshes3D.vertexCoordinates(mesh), Meshes3D.vertexCoordinates(mesh2), 0.0);
+        assertArrayEquals(Meshes3D.faceVertexIndices(mesh), Meshes3D.faceVertexIndices(mesh2));
+    }
+    
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.BufferTriMesh3D#addFace(int, int, int)}.
+     */
+    @Test(expected = RuntimeException.class)
+    public final void testAddFace_CapacityReached()
+    {
+        BufferTriMesh3D mesh = BufferTriMesh3D.allocateDirect(3, 1);
+        mesh.addVertex(new Point3D(0, 0, 0));
+        mesh.addVertex(new Point3D(1, 0, 0));
+        mesh.addVertex(new Point3D(0, 1, 0));
+        mesh.addFace(0, 1, 2);
+        mesh.addFace(0, 2, 1);
+    }
+    
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.BufferTriMesh3D#surfaceArea()}.
+     */
+    @Test
+    public final void testSurfaceArea()
+    {
+        SimpleTriMesh3D mesh = (SimpleTriMesh3D) Meshes3D.createIcosphere(3);
+        BufferTriMesh3D mesh2 = copy(mesh);
+        
+        assertEquals(mesh.surfaceArea(), mesh2.surfaceArea(), 1e-10);
+    }
+    
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.BufferTriMesh3D#bounds()}.
+     */
+    @Test
+    public final void testBounds()
+    {
+        BufferTriMesh3D mesh = copy(Meshes3D.createOctahedron());
+        Bounds3D bounds = mesh.bounds();
+        
+        assertEquals(-1, bounds.minX(), 1e-10);
+        assertEquals(1, bounds.maxX(), 1e-10);
+        assertEquals(-1, bounds.minZ(), 1e-10);
+        assertEquals(1, bounds.maxZ(), 1e-10);
+    }
+    
+    private static final BufferTriMesh3D copy(Mesh3D mesh)
+    {
+        BufferTriMesh3D res = BufferTriMesh3D.allocateDirect(mesh.vertexCount(), mesh.faceCount());
+        for (Mesh3D.Vertex vertex : mesh.vertices())
+        {
+            res.addVertex(vertex.position());
+        }
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        for (int i = 0; i < faces.length; i += 3)
+        {
+            res.addFace(faces[i], faces[i + 1], faces[i + 2]);
+        }
+        return res;
+    }
+}
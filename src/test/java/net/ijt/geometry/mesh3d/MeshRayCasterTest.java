@@ -0,0 +1,81 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Vector3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class MeshRayCasterTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.MeshRayCaster#castRay(net.ijt.geometry.geom3d.Point3D, net.ijt.geometry.geom3d.Vector3D)}.
+     */
+    @Test
+    public final void testCastRay_Icosphere()
+    {
+        Mesh3D mesh = Meshes3D.createIcosphere(3);
+        MeshRayCaster caster = new MeshRayCaster(mesh);
+        
+        double dist = caster.castRay(new Point3D(-3, 0.1, 0.2), new Vector3D(1, 0, 0));
+        assertEquals(3 - Math.sqrt(0.95), dist, 0.01);
+        
+        dist = caster.castRay(new Point3D(-3, 0, 0), new Vector3D(-1, 0, 0));
+        assertEquals(Double.POSITIVE_INFINITY, dist, 0.0);
+        assertEquals(-1, caster.pickFace(new Point3D(-3, 0, 0), new Vector3D(0, 1, 0)));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.MeshRayCaster#castRays(double[], double[], double, double[], int[])}.
+     */
+    @Test
+    public final void testCastRays_CompareBruteForce()
+    {
+        Mesh3D mesh = Meshes3D.createTorus(new Point3D(0, 0, 0), new Vector3D(0, 0, 1), 3, 1, 30, 15);
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        MeshRayCaster caster = new MeshRayCaster(mesh);
+        
+        // random rays starting from inside the bounding box
+        int nRays = 3000;
+        Random rnd = new Random(42);
+        double[] origins = new double[3 * nRays];
+        double[] directions = new double[3 * nRays];
+        for (int i = 0; i < 3 * nRays; i++)
+        {
+            origins[i] = rnd.nextDouble() * 8 - 4;
+            directions[i] = rnd.nextGaussian();
+        }
+        
+        double[] dists = new double[nRays];
+        int[] hitFaces = new int[nRays];
+        caster.castRays(origins, directions, 0.1, dists, hitFaces);
+        
+        int nHits = 0;
+        for (int i = 0; i < nRays; i++)
+        {
+            double best = Double.POSITIVE_INFINITY;
+            for (int f = 0; f < faces.length / 3; f++)
+            {
+                double t = Triangle3D.rayIntersection(coords, 3 * faces[3 * f], 3 * faces[3 * f + 1], 3 * faces[3 * f + 2], 
+                        origins[3 * i], origins[3 * i + 1], origins[3 * i + 2], 
+                        directions[3 * i], directions[3 * i + 1], directions[3 * i + 2]);
+                if (t > 0.1) best = Math.min(best, t);
+            }
+            assertEquals(best, dists[i], 1e-12);
+            if (hitFaces[i] >= 0) nHits++;
+        }
+        assertTrue(nHits > 0);
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Vector3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class MeshWindingNumberTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.MeshWindingNumber#windingNumber(double, double, double)}.
+     */
+    @Test
+    public final void testWindingNumber_Icosphere()
+    {
+        MeshWindingNumber wn = new MeshWindingNumber(Meshes3D.createIcosphere(4));
+        
+        assertEquals(1.0, wn.windingNumber(0, 0, 0), 0.05);
+        assertEquals(1.0, wn.windingNumber(0.5, 0.3, -0.2), 0.05);
+        assertEquals(0.0, wn.windingNumber(2, 0, 0), 0.05);
+        assertEquals(0.0, wn.windingNumber(20, 30, 40), 0.05);
+        
+        // with a high accuracy, all faces are evaluated exactly
+        MeshWindingNumber wn2 = new MeshWindingNumber(MeshBVH3D.create(Meshes3D.createIcosphere(2)), 1e6);
+        assertEquals(1.0, wn2.windingNumber(0.1, 0.2, 0.3), 1e-10);
+        assertEquals(0.0, wn2.windingNumber(2, 0, 0), 1e-10);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.MeshWindingNumber#isInside(double[])}.
+     */
+    @Test
+    public final void testIsInside_Torus()
+    {
+        Mesh3D mesh = Meshes3D.createTorus(new Point3D(0, 0, 0), new Vector3D(0, 0, 1), 3, 1, 60, 30);
+        MeshWindingNumber wn = new MeshWindingNumber(mesh);
+        
+        int n = 2000;
+        Random rnd = new Random(12);
+        double[] points = new double[3 * n];
+        for (int i = 0; i < 3 * n; i++)
+        {
+            points[i] = rnd.nextDouble() * 10 - 5;
+        }
+        boolean[] res = wn.isInside(points);
+        
+        // compare with the analytical torus, ignoring points close to the
+        // surface
+        for (int i = 0; i < n; i++)
+        {
+            double x = points[3 * i], y = points[3 * i + 1], z = points[3 * i + 2];
+            double rho = Math.hypot(x, y) - 3;
+            double dist = Math.hypot(rho, z) - 1;
+            if (Math.abs(dist) < 0.05) continue;
+            assertEquals(dist < 0, res[i]);
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.MeshWindingNumber#isInside(double, double, double)}.
+     */
+    @Test
+    public final void testIsInside_MeshWithHole()
+    {
+        // remove one face of the octahedron
+        double[] coords = Meshes3D.vertexCoordinates(Meshes3D.createOctahedron());
+        int[] faces = Meshes3D.faceVertexIndices(Meshes3D.createOctahedron());
+        int[] faces2 = new int[faces.length - 3];
+        System.arraycopy(faces, 0, faces2, 0, faces2.length);
+        Mesh3D mesh = new SimpleTriMesh3D(coords, faces2);
+        MeshWindingNumber wn = new MeshWindingNumber(mesh);
+        
+        assertTrue(wn.isInside(0, 0, 0.1));
+        assertFalse(wn.isInside(1, 1, 1));
+    }
+}
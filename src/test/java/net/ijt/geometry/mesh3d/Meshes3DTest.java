@@ -0,0 +1,217 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Bounds3D;
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Sphere3D;
+import net.ijt.geometry.geom3d.Vector3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class Meshes3DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Meshes3D#surfaceArea(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testSurfaceArea_Parallel()
+    {
+        // large enough to be processed in parallel
+        Mesh3D mesh = Meshes3D.createTorus(new Point3D(0, 0, 0), new Vector3D(0, 0, 1), 3, 1, 200, 100);
+        assertTrue(mesh.faceCount() >= Mesh3D.PARALLEL_THRESHOLD);
+        assertTrue(mesh.faceIndexStream().isParallel());
+        
+        // compare with a sequential computation
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        double area = 0;
+        for (int i = 0; i < faces.length; i += 3)
+        {
+            Point3D p1 = new Point3D(coords[3 * faces[i]], coords[3 * faces[i] + 1], coords[3 * faces[i] + 2]);
+            Point3D p2 = new Point3D(coords[3 * faces[i + 1]], coords[3 * faces[i + 1] + 1], coords[3 * faces[i + 1] + 2]);
+            Point3D p3 = new Point3D(coords[3 * faces[i + 2]], coords[3 * faces[i + 2] + 1], coords[3 * faces[i + 2] + 2]);
+            area += Vector3D.crossProduct(new Vector3D(p1, p2), new Vector3D(p1, p3)).norm() / 2;
+        }
+        assertEquals(area, Meshes3D.surfaceArea(mesh), 1e-8);
+        
+        // converges towards the area of the torus
+        assertEquals(4 * Math.PI * Math.PI * 3, area, 0.1);
+    }
+    
+    /**
+     * Checks the packed arrays are consistent with the per-element accessors.
+     */
+    @Test
+    public final void testVertexCoordinates_faceVertexIndices()
+    {
+        Mesh3D mesh = Meshes3D.createOctahedron();
+        
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        assertEquals(3 * mesh.vertexCount(), coords.length);
+        double[] pos = new double[3];
+        for (int i = 0; i < mesh.vertexCount(); i++)
+        {
+            mesh.vertexCoordinates(i, pos);
+            assertArrayEquals(pos, Arrays.copyOfRange(coords, 3 * i, 3 * i + 3), 0.0);
+        }
+        
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        assertEquals(3 * mesh.faceCount(), faces.length);
+        int[] inds = new int[3];
+        for (int i = 0; i < mesh.faceCount(); i++)
+        {
+            mesh.faceVertexIndices(i, inds);
+            assertArrayEquals(inds, Arrays.copyOfRange(faces, 3 * i, 3 * i + 3));
+        }
+    }
+    
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Meshes3D#bounds(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testBounds_Parallel()
+    {
+        Mesh3D mesh = Meshes3D.createTorus(new Point3D(10, 20, 30), new Vector3D(0, 0, 1), 3, 1, 200, 100);
+        
+        Bounds3D bounds = Meshes3D.bounds(mesh);
+        assertEquals(6, bounds.minX(), 1e-10);
+        assertEquals(14, bounds.maxX(), 1e-10);
+        assertEquals(29, bounds.minZ(), 1e-10);
+        assertEquals(31, bounds.maxZ(), 1e-10);
+    }
+    
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Meshes3D#findClosestVertexIndex(net.ijt.geometry.mesh3d.Mesh3D, net.ijt.geometry.geom3d.Point3D)}.
+     */
+    @Test
+    public final void testFindClosestVertexIndex_Parallel()
+    {
+        Mesh3D mesh = Meshes3D.createTorus(new Point3D(0, 0, 0), new Vector3D(0, 0, 1), 3, 1, 200, 100);
+        
+        for (int iv : new int[] {0, 1234, 15000, mesh.vertexCount() - 1})
+        {
+            Point3D pos = mesh.vertexPosition(iv);
+            assertEquals(iv, Meshes3D.findClosestVertexIndex(mesh, pos));
+        }
+    }
+    
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Mesh3D#vertexIndexStream()}.
+     */
+    @Test
+    public final void testVertexIndexStream()
+    {
+        Mesh3D mesh = Meshes3D.createTorus(new Point3D(0, 0, 0), new Vector3D(0, 0, 1), 3, 1, 200, 100);
+        int nv = mesh.vertexCount();
+        
+        assertEquals(nv, mesh.vertexIndexStream().count());
+        assertEquals((long) nv * (nv - 1) / 2, mesh.vertexIndexStream().asLongStream().sum());
+        assertEquals(nv, mesh.vertexIndexStream().distinct().count());
+        
+        // small meshes are processed sequentially
+        assertTrue(!Meshes3D.createOctahedron().vertexIndexStream().isParallel());
+    }
+    
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Meshes3D#createIcosphere(int)}.
+     */
+    @Test
+    public final void testCreateIcosphere()
+    {
+        Mesh3D mesh = Meshes3D.createIcosphere(3);
+        
+        assertEquals(642, mesh.vertexCount());
+        assertEquals(1280, mesh.faceCount());
+        for (Mesh3D.Vertex v : mesh.vertices())
+        {
+            assertEquals(1.0, v.position().distance(0, 0, 0), 1e-12);
+        }
+        // volume converges towards the volume of the unit sphere
+        assertEquals(4 * Math.PI / 3, signedVolume(mesh), 0.05);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Meshes3D#createUVSphere(int, int)}.
+     */
+    @Test
+    public final void testCreateUVSphere()
+    {
+        Mesh3D mesh = Meshes3D.createUVSphere(16, 8);
+        
+        assertEquals(2 + 16 * 7, mesh.vertexCount());
+        assertEquals(2 * 16 * 7, mesh.faceCount());
+        assertTrue(signedVolume(mesh) > 0);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Meshes3D#createMesh(net.ijt.geometry.geom3d.Sphere3D, int)}.
+     */
+    @Test
+    public final void testCreateMesh_Sphere3D()
+    {
+        Sphere3D sphere = new Sphere3D(new Point3D(10, 20, 30), 5);
+        Mesh3D mesh = Meshes3D.createMesh(sphere, 2);
+        
+        assertEquals(162, mesh.vertexCount());
+        for (Mesh3D.Vertex v : mesh.vertices())
+        {
+            assertEquals(5.0, v.position().distance(10, 20, 30), 1e-10);
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Meshes3D#createCylinder(net.ijt.geometry.geom3d.Point3D, net.ijt.geometry.geom3d.Point3D, double, int)}.
+     */
+    @Test
+    public final void testCreateCylinder()
+    {
+        Point3D p1 = new Point3D(1, 2, 3);
+        Point3D p2 = new Point3D(1, 2, 13);
+        Mesh3D mesh = Meshes3D.createCylinder(p1, p2, 2.0, 200);
+        
+        assertEquals(402, mesh.vertexCount());
+        assertEquals(800, mesh.faceCount());
+        assertEquals(Math.PI * 4 * 10, signedVolume(mesh), 0.1);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Meshes3D#createTorus(net.ijt.geometry.geom3d.Point3D, net.ijt.geometry.geom3d.Vector3D, double, double, int, int)}.
+     */
+    @Test
+    public final void testCreateTorus()
+    {
+        Mesh3D mesh = Meshes3D.createTorus(new Point3D(0, 0, 0), new Vector3D(1, 1, 0), 10, 2, 200, 100);
+        
+        assertEquals(20000, mesh.vertexCount());
+        assertEquals(40000, mesh.faceCount());
+        double exp = 2 * Math.PI * Math.PI * 10 * 2 * 2;
+        assertEquals(exp, signedVolume(mesh), exp * 0.01);
+    }
+
+    private static final double signedVolume(Mesh3D mesh)
+    {
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        double vol = 0;
+        for (int i = 0; i < faces.length; i += 3)
+        {
+            int a = 3 * faces[i], b = 3 * faces[i + 1], c = 3 * faces[i + 2];
+            vol += coords[a] * (coords[b + 1] * coords[c + 2] - coords[b + 2] * coords[c + 1])
+                    - coords[a + 1] * (coords[b] * coords[c + 2] - coords[b + 2] * coords[c])
+                    + coords[a + 2] * (coords[b] * coords[c + 1] - coords[b + 1] * coords[c]);
+        }
+        return vol / 6;
+    }
+}
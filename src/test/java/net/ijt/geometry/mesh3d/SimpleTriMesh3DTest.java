@@ -0,0 +1,68 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Point3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class SimpleTriMesh3DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.SimpleTriMesh3D#vertexCoordinates(int, double[])}.
+     */
+    @Test
+    public final void testVertexCoordinates()
+    {
+        Mesh3D mesh = Meshes3D.createIcosphere(1);
+        double[] coords = Meshes3D.vertexCoordinates(mesh);
+        
+        double[] pos = new double[3];
+        for (int iv = 0; iv < mesh.vertexCount(); iv++)
+        {
+            mesh.vertexCoordinates(iv, pos);
+            assertEquals(coords[3 * iv], pos[0], 0.0);
+            assertEquals(coords[3 * iv + 1], pos[1], 0.0);
+            assertEquals(coords[3 * iv + 2], pos[2], 0.0);
+        }
+    }
+    
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.SimpleTriMesh3D#faceVertexIndices(int, int[])}.
+     */
+    @Test
+    public final void testFaceVertexIndices()
+    {
+        Mesh3D mesh = Meshes3D.createIcosphere(1);
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        
+        int[] inds = new int[3];
+        int[] faces2 = new int[faces.length];
+        mesh.faceIndices().forEach(iFace -> {
+            assertEquals(3, mesh.faceVertexIndices(iFace, inds));
+            System.arraycopy(inds, 0, faces2, 3 * iFace, 3);
+        });
+        assertArrayEquals(faces, faces2);
+    }
+    
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.SimpleTriMesh3D#vertexPositions()}.
+     */
+    @Test
+    public final void testVertexPositions()
+    {
+        SimpleTriMesh3D mesh = new SimpleTriMesh3D();
+        mesh.addVertex(new Point3D(0, 0, 0));
+        mesh.addVertex(new Point3D(1, 0, 0));
+        
+        assertEquals(2, mesh.vertexPositions().size());
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.LineSegment3D;
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Vector3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class Triangle3DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Triangle3D#intersection(net.ijt.geometry.mesh3d.Triangle3D)}.
+     */
+    @Test
+    public final void testIntersection_Crossing()
+    {
+        // horizontal triangle, and vertical triangle crossing it along x = 0.25
+        Triangle3D tri1 = new Triangle3D(new Point3D(0, 0, 0), new Point3D(1, 0, 0), new Point3D(0, 1, 0));
+        Triangle3D tri2 = new Triangle3D(new Point3D(0.25, -1, -1), new Point3D(0.25, 2, -1), new Point3D(0.25, 0.5, 1));
+        
+        assertTrue(tri1.intersects(tri2));
+        LineSegment3D seg = tri1.intersection(tri2);
+        
+        // extremities are (0.25, 0, 0) and (0.25, 0.75, 0), in any order
+        Point3D p1 = seg.getP1();
+        Point3D p2 = seg.getP2();
+        assertEquals(0.75, p1.distance(p2), 1e-12);
+        assertEquals(0.0, p1.z(), 1e-12);
+        assertEquals(0.0, p2.z(), 1e-12);
+        assertEquals(0.25, p1.x(), 1e-12);
+        assertEquals(0.25, p2.x(), 1e-12);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Triangle3D#intersects(net.ijt.geometry.mesh3d.Triangle3D)}.
+     */
+    @Test
+    public final void testIntersects_Disjoint()
+    {
+        Triangle3D tri1 = new Triangle3D(new Point3D(0, 0, 0), new Point3D(1, 0, 0), new Point3D(0, 1, 0));
+        Triangle3D tri2 = new Triangle3D(new Point3D(2, -1, -1), new Point3D(2, 2, -1), new Point3D(2, 0.5, 1));
+        
+        assertFalse(tri1.intersects(tri2));
+        assertNull(tri1.intersection(tri2));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Triangle3D#intersects(net.ijt.geometry.mesh3d.Triangle3D)}.
+     */
+    @Test
+    public final void testIntersects_Coplanar()
+    {
+        Triangle3D tri1 = new Triangle3D(new Point3D(0, 0, 0), new Point3D(1, 0, 0), new Point3D(0, 1, 0));
+        Triangle3D tri2 = new Triangle3D(new Point3D(0.2, 0.2, 0), new Point3D(2, 0.2, 0), new Point3D(0.2, 2, 0));
+        Triangle3D tri3 = new Triangle3D(new Point3D(1, 1, 0), new Point3D(2, 1, 0), new Point3D(1, 2, 0));
+        
+        assertTrue(tri1.intersects(tri2));
+        assertFalse(tri1.intersects(tri3));
+        assertNull(tri1.intersection(tri2));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Triangle3D#rayIntersection(net.ijt.geometry.geom3d.Point3D, net.ijt.geometry.geom3d.Vector3D)}.
+     */
+    @Test
+    public final void testRayIntersection()
+    {
+        Triangle3D tri = new Triangle3D(new Point3D(0, 0, 0), new Point3D(1, 0, 0), new Point3D(0, 1, 0));
+        
+        assertEquals(1.5, tri.rayIntersection(new Point3D(0.2, 0.3, 3), new Vector3D(0, 0, -2)), 1e-12);
+        assertEquals(Double.POSITIVE_INFINITY, tri.rayIntersection(new Point3D(0.2, 0.3, 3), new Vector3D(0, 0, 1)), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, tri.rayIntersection(new Point3D(0.8, 0.3, 3), new Vector3D(0, 0, -1)), 0.0);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.Triangle3D#distance(double, double, double)}.
+     */
+    @Test
+    public final void testDistance()
+    {
+        Triangle3D tri = new Triangle3D(new Point3D(0, 0, 0), new Point3D(2, 0, 0), new Point3D(0, 2, 0));
+        
+        // projection inside the triangle
+        assertEquals(3.0, tri.distance(0.5, 0.5, 3), 1e-12);
+        // closest point on the hypotenuse
+        assertEquals(Math.sqrt(2), tri.distance(2, 2, 0), 1e-12);
+        // closest point on a vertex
+        assertEquals(5.0, tri.distance(-3, -4, 0), 1e-12);
+        // closest point on an edge
+        assertEquals(5.0, tri.distance(1, -3, 4), 1e-12);
+        
+        assertEquals(25.0, Triangle3D.distanceSquared(new double[] {0, 0, 0}, new double[] {2, 0, 0}, 
+                new double[] {0, 2, 0}, 1, -3, 4), 1e-12);
+    }
+}
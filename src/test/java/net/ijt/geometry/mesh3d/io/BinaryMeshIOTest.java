@@ -0,0 +1,126 @@
+/**
+ *
+ */
+package net.ijt.geometry.mesh3d.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Vector3D;
+import net.ijt.geometry.mesh3d.BufferTriMesh3D;
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class BinaryMeshIOTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.io.BinaryMeshReader#readMesh()}.
+     */
+    @Test
+    public final void testReadMesh_Raw() throws IOException
+    {
+        Mesh3D mesh = createMesh();
+        Mesh3D mesh2 = roundTrip(mesh, false, false, false);
+
+        assertArrayEquals(Meshes3D.vertexCoordinates(mesh), Meshes3D.vertexCoordinates(mesh2), 0.0);
+        assertArrayEquals(Meshes3D.faceVertexIndices(mesh), Meshes3D.faceVertexIndices(mesh2));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.io.BinaryMeshReader#readMesh()}.
+     */
+    @Test
+    public final void testReadMesh_AllOptions() throws IOException
+    {
+        Mesh3D mesh = createMesh();
+        Mesh3D mesh2 = roundTrip(mesh, true, true, true);
+
+        assertArrayEquals(Meshes3D.vertexCoordinates(mesh), Meshes3D.vertexCoordinates(mesh2), 1e-6);
+        assertArrayEquals(Meshes3D.faceVertexIndices(mesh), Meshes3D.faceVertexIndices(mesh2));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.io.BinaryMeshWriter#setCompressed(boolean)}.
+     */
+    @Test
+    public final void testWriteMesh_SmallerFiles() throws IOException
+    {
+        Mesh3D mesh = createMesh();
+        long rawSize = write(mesh, false, false, false).length();
+        long compactSize = write(mesh, true, true, true).length();
+
+        long expRawSize = 32 + 24L * mesh.vertexCount() + 12L * mesh.faceCount();
+        assertEquals(expRawSize, rawSize);
+        assertTrue(compactSize < rawSize / 2);
+
+        // delta encoding alone should reduce the index block
+        long deltaSize = write(mesh, false, true, false).length();
+        assertTrue(deltaSize < rawSize);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.io.BinaryMeshReader#mapMesh()}.
+     */
+    @Test
+    public final void testMapMesh() throws IOException
+    {
+        Mesh3D mesh = createMesh();
+
+        for (boolean floatCoords : new boolean[] {false, true})
+        {
+            File file = write(mesh, floatCoords, false, false);
+            BufferTriMesh3D mesh2 = new BinaryMeshReader(file).mapMesh();
+
+            assertEquals(mesh.vertexCount(), mesh2.vertexCount());
+            assertEquals(mesh.faceCount(), mesh2.faceCount());
+            assertArrayEquals(Meshes3D.vertexCoordinates(mesh), Meshes3D.vertexCoordinates(mesh2), floatCoords ? 1e-6 : 0.0);
+            assertArrayEquals(Meshes3D.faceVertexIndices(mesh), Meshes3D.faceVertexIndices(mesh2));
+            assertEquals(mesh.bounds().maxX(), mesh2.bounds().maxX(), 1e-6);
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.io.BinaryMeshReader#mapMesh()}.
+     */
+    @Test(expected = RuntimeException.class)
+    public final void testMapMesh_Compressed() throws IOException
+    {
+        File file = write(createMesh(), false, false, true);
+        new BinaryMeshReader(file).mapMesh();
+    }
+
+    private static final Mesh3D createMesh()
+    {
+        return Meshes3D.createTorus(new Point3D(1, 2, 3), new Vector3D(1, 1, 1), 3.3, 1.1, 40, 20);
+    }
+
+    private static final Mesh3D roundTrip(Mesh3D mesh, boolean floatCoords, boolean deltaIndices, boolean compressed) throws IOException
+    {
+        File file = write(mesh, floatCoords, deltaIndices, compressed);
+        return new BinaryMeshReader(file).readMesh();
+    }
+
+    private static final File write(Mesh3D mesh, boolean floatCoords, boolean deltaIndices, boolean compressed) throws IOException
+    {
+        File file = File.createTempFile("mesh", ".ijtm");
+        file.deleteOnExit();
+
+        BinaryMeshWriter writer = new BinaryMeshWriter(file);
+        writer.setFloatCoordinates(floatCoords);
+        writer.setDeltaIndices(deltaIndices);
+        writer.setCompressed(compressed);
+        writer.writeMesh(mesh);
+        return file;
+    }
+}
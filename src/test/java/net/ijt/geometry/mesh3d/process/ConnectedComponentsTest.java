@@ -0,0 +1,86 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class ConnectedComponentsTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.ConnectedComponents#process(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testProcess_TwoTetrahedra()
+    {
+        SimpleTriMesh3D mesh = createTwoTetrahedra();
+        
+        ConnectedComponents algo = new ConnectedComponents();
+        ArrayList<SimpleTriMesh3D> comps = algo.process(mesh);
+        
+        assertEquals(2, comps.size());
+        for (SimpleTriMesh3D comp : comps)
+        {
+            assertEquals(4, comp.vertexCount());
+            assertEquals(4, comp.faceCount());
+        }
+        assertEquals(mesh.surfaceArea(), comps.get(0).surfaceArea() + comps.get(1).surfaceArea(), 1e-10);
+        assertEquals(10.0, comps.get(1).bounds().minX(), 1e-10);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.ConnectedComponents#vertexLabels(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testVertexLabels_IsolatedVertex()
+    {
+        SimpleTriMesh3D mesh = createTwoTetrahedra();
+        mesh.addVertex(new Point3D(20, 20, 20));
+        
+        int[] labels = new ConnectedComponents().vertexLabels(mesh);
+        
+        assertEquals(9, labels.length);
+        assertEquals(0, labels[2]);
+        assertEquals(1, labels[4]);
+        assertEquals(1, labels[5]);
+        assertEquals(-1, labels[8]);
+    }
+
+    /**
+     * Creates a mesh with two disjoint tetrahedra, the second one being
+     * translated along the x axis.
+     */
+    private static final SimpleTriMesh3D createTwoTetrahedra()
+    {
+        SimpleTriMesh3D mesh = new SimpleTriMesh3D(8, 8);
+        mesh.addVertex(new Point3D(0, 0, 0));
+        mesh.addVertex(new Point3D(1, 1, 0));
+        mesh.addVertex(new Point3D(1, 0, 1));
+        mesh.addVertex(new Point3D(10, 0, 0));
+        mesh.addVertex(new Point3D(11, 1, 0));
+        mesh.addVertex(new Point3D(11, 0, 1));
+        mesh.addVertex(new Point3D(10, 1, 1));
+        mesh.addVertex(new Point3D(0, 1, 1));
+        
+        mesh.addFace(0, 1, 2);
+        mesh.addFace(3, 4, 5);
+        mesh.addFace(0, 2, 7);
+        mesh.addFace(3, 5, 6);
+        mesh.addFace(0, 7, 1);
+        mesh.addFace(3, 6, 4);
+        mesh.addFace(7, 2, 1);
+        mesh.addFace(6, 5, 4);
+        return mesh;
+    }
+}
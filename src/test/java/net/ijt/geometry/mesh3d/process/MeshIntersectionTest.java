@@ -0,0 +1,63 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Sphere3D;
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.polyline3d.LineString3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class MeshIntersectionTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.MeshIntersection#intersects(net.ijt.geometry.mesh3d.Mesh3D, net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testIntersects()
+    {
+        Mesh3D mesh1 = Meshes3D.createMesh(new Sphere3D(new Point3D(0, 0, 0), 1.0), 3);
+        Mesh3D mesh2 = Meshes3D.createMesh(new Sphere3D(new Point3D(1, 0, 0), 1.0), 3);
+        Mesh3D mesh3 = Meshes3D.createMesh(new Sphere3D(new Point3D(3, 0, 0), 1.0), 3);
+        
+        MeshIntersection algo = new MeshIntersection();
+        assertTrue(algo.intersects(mesh1, mesh2));
+        assertFalse(algo.intersects(mesh1, mesh3));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.MeshIntersection#process(net.ijt.geometry.mesh3d.Mesh3D, net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testProcess_TwoSpheres()
+    {
+        Mesh3D mesh1 = Meshes3D.createMesh(new Sphere3D(new Point3D(0, 0, 0), 1.0), 4);
+        Mesh3D mesh2 = Meshes3D.createMesh(new Sphere3D(new Point3D(1, 0.1, 0.2), 1.0), 4);
+        
+        ArrayList<LineString3D> curves = new MeshIntersection().process(mesh1, mesh2);
+        
+        // expect a single closed curve, close to a circle with radius sqrt(3)/2
+        assertEquals(1, curves.size());
+        ArrayList<Point3D> vertices = curves.get(0).vertices();
+        assertTrue(vertices.size() > 20);
+        assertTrue(vertices.get(0).distance(vertices.get(vertices.size() - 1)) < 1e-10);
+        for (Point3D p : vertices)
+        {
+            assertEquals(1.0, p.distance(0, 0, 0), 0.01);
+            assertEquals(1.0, p.distance(1, 0.1, 0.2), 0.01);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+import net.ijt.geometry.mesh3d.TriMeshEdges;
+import net.ijt.geometry.polyline3d.LinearRing3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class MeshRepairTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.MeshRepair#orient(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testOrient_FlippedFaces()
+    {
+        SimpleTriMesh3D mesh = createOctahedron(true, false);
+        
+        SimpleTriMesh3D res = new MeshRepair().orient(mesh);
+        
+        assertEquals(8, res.faceCount());
+        assertConsistentOrientation(res);
+        assertEquals(4.0 / 3.0, signedVolume(res), 1e-10);
+    }
+
+    /**
+     * The orientation of an open surface does not depend on its position:
+     * the orientation of the majority of the faces is kept.
+     */
+    @Test
+    public final void testOrient_OpenSurface()
+    {
+        for (double z0 : new double[] { -10, 0, 10 })
+        {
+            // the upper half of an octahedron, with normals pointing to the
+            // bottom, and one flipped face
+            SimpleTriMesh3D mesh = new SimpleTriMesh3D(5, 4);
+            mesh.addVertex(new Point3D( 1,  0, z0));
+            mesh.addVertex(new Point3D( 0,  1, z0));
+            mesh.addVertex(new Point3D(-1,  0, z0));
+            mesh.addVertex(new Point3D( 0, -1, z0));
+            mesh.addVertex(new Point3D( 0,  0, z0 + 1));
+            mesh.addFace(0, 4, 1);
+            mesh.addFace(1, 4, 2);
+            mesh.addFace(2, 4, 3);
+            mesh.addFace(3, 0, 4);
+            
+            SimpleTriMesh3D res = new MeshRepair().orient(mesh);
+            
+            assertConsistentOrientation(res);
+            int[] faces = Meshes3D.faceVertexIndices(res);
+            assertTrue(directedEdge(faces, 0, 0, 4));
+            assertTrue(directedEdge(faces, 3, 3, 4));
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.MeshRepair#nonManifoldEdges(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testNonManifoldEdges()
+    {
+        SimpleTriMesh3D mesh = createOctahedron(false, false);
+        mesh.addVertex(new Point3D(1, 1, 1));
+        mesh.addFace(0, 1, 6);
+        
+        int[] edges = new MeshRepair().nonManifoldEdges(mesh);
+        
+        assertEquals(2, edges.length);
+        assertEquals(0, edges[0]);
+        assertEquals(1, edges[1]);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.MeshRepair#boundaryLoops(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testBoundaryLoops()
+    {
+        SimpleTriMesh3D mesh = createOctahedron(false, true);
+        
+        ArrayList<LinearRing3D> loops = new MeshRepair().boundaryLoops(mesh);
+        
+        assertEquals(1, loops.size());
+        assertEquals(3, loops.get(0).vertexCount());
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.MeshRepair#process(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testProcess_FilledHole()
+    {
+        SimpleTriMesh3D mesh = createOctahedron(true, true);
+        
+        SimpleTriMesh3D res = new MeshRepair(10).process(mesh);
+        
+        assertEquals(8, res.faceCount());
+        assertConsistentOrientation(res);
+        assertEquals(4.0 / 3.0, signedVolume(res), 1e-10);
+        assertEquals(0, new MeshRepair().boundaryLoops(res).size());
+    }
+
+    private static final void assertConsistentOrientation(SimpleTriMesh3D mesh)
+    {
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        TriMeshEdges edges = new TriMeshEdges(faces);
+        for (int edge = 0; edge < edges.edgeCount(); edge++)
+        {
+            if (edges.edgeFaceCount(edge) != 2) continue;
+            int f1 = edges.edgeFace(edge, 0);
+            int f2 = edges.edgeFace(edge, 1);
+            int iv1 = edges.edgeSource(edge);
+            int iv2 = edges.edgeTarget(edge);
+            assertEquals(directedEdge(faces, f1, iv1, iv2), !directedEdge(faces, f2, iv1, iv2));
+        }
+    }
+    
+    private static final boolean directedEdge(int[] faces, int face, int iv1, int iv2)
+    {
+        for (int k = 0; k < 3; k++)
+        {
+            if (faces[3 * face + k] == iv1 && faces[3 * face + (k + 1) % 3] == iv2) return true;
+        }
+        return false;
+    }
+    
+    private static final double signedVolume(SimpleTriMesh3D mesh)
+    {
+        double vol = 0;
+        for (int iFace = 0; iFace < mesh.faceCount(); iFace++)
+        {
+            Point3D p1 = mesh.getFacePolygon(iFace).vertices().iterator().next();
+            Point3D[] pts = mesh.getFacePolygon(iFace).vertices().toArray(new Point3D[3]);
+            vol += p1.x() * (pts[1].y() * pts[2].z() - pts[1].z() * pts[2].y())
+                    + p1.y() * (pts[1].z() * pts[2].x() - pts[1].x() * pts[2].z())
+                    + p1.z() * (pts[1].x() * pts[2].y() - pts[1].y() * pts[2].x());
+        }
+        return vol / 6;
+    }
+
+    /**
+     * Creates an octahedron, with options to flip the orientation of some
+     * faces, and to remove the last face.
+     */
+    private static final SimpleTriMesh3D createOctahedron(boolean flipFaces, boolean removeLastFace)
+    {
+        SimpleTriMesh3D mesh = new SimpleTriMesh3D(6, 8);
+        mesh.addVertex(new Point3D( 1,  0,  0));
+        mesh.addVertex(new Point3D( 0,  1,  0));
+        mesh.addVertex(new Point3D(-1,  0,  0));
+        mesh.addVertex(new Point3D( 0, -1,  0));
+        mesh.addVertex(new Point3D( 0,  0,  1));
+        mesh.addVertex(new Point3D( 0,  0, -1));
+        if (flipFaces)
+        {
+            mesh.addFace(0, 4, 1);
+            mesh.addFace(1, 4, 2);
+        }
+        else
+        {
+            mesh.addFace(0, 1, 4);
+            mesh.addFace(1, 2, 4);
+        }
+        mesh.addFace(2, 3, 4);
+        mesh.addFace(3, 0, 4);
+        mesh.addFace(0, 5, 1);
+        mesh.addFace(1, 5, 2);
+        mesh.addFace(2, 5, 3);
+        if (!removeLastFace)
+        {
+            mesh.addFace(0, 3, 5);
+        }
+        return mesh;
+    }
+}
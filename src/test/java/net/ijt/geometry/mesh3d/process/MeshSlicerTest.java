@@ -0,0 +1,134 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.geom3d.Plane3D;
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Sphere3D;
+import net.ijt.geometry.geom3d.Vector3D;
+import net.ijt.geometry.mesh3d.BufferTriMesh3D;
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.Polyline2D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class MeshSlicerTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.MeshSlicer#process(net.ijt.geometry.mesh3d.Mesh3D, net.ijt.geometry.geom3d.Plane3D)}.
+     */
+    @Test
+    public final void testProcess_Sphere()
+    {
+        Mesh3D mesh = Meshes3D.createMesh(new Sphere3D(new Point3D(10, 20, 30), 5.0), 4);
+        Plane3D plane = new Plane3D(new Point3D(0, 0, 30.1), new Vector3D(1, 0, 0), new Vector3D(0, 1, 0));
+        
+        ArrayList<Polyline2D> contours = new MeshSlicer().process(mesh, plane);
+        
+        assertEquals(1, contours.size());
+        assertTrue(contours.get(0) instanceof LinearRing2D);
+        LinearRing2D ring = (LinearRing2D) contours.get(0);
+        assertTrue(ring.signedArea() > 0);
+        for (Point2D p : ring.vertexPositions())
+        {
+            assertEquals(5.0, p.distance(10, 20), 0.05);
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.MeshSlicer#processStack(net.ijt.geometry.mesh3d.Mesh3D, net.ijt.geometry.geom3d.Plane3D, double, int)}.
+     */
+    @Test
+    public final void testProcessStack_TwoSpheres()
+    {
+        // two disjoint spheres along the z-axis
+        Mesh3D mesh1 = Meshes3D.createMesh(new Sphere3D(new Point3D(0, 0, 5), 3.0), 3);
+        Mesh3D mesh2 = Meshes3D.createMesh(new Sphere3D(new Point3D(0, 0, 15), 3.0), 3);
+        Mesh3D mesh = merge(mesh1, mesh2);
+        Plane3D plane = new Plane3D(new Point3D(0, 0, 0.5), new Vector3D(1, 0, 0), new Vector3D(0, 1, 0));
+        
+        ArrayList<ArrayList<Polyline2D>> slices = new MeshSlicer().processStack(mesh, plane, 1.0, 20);
+        
+        assertEquals(20, slices.size());
+        // no contour below or between spheres
+        assertEquals(0, slices.get(0).size());
+        assertEquals(0, slices.get(9).size());
+        assertEquals(0, slices.get(19).size());
+        // a single contour within each sphere
+        assertEquals(1, slices.get(4).size());
+        assertEquals(1, slices.get(14).size());
+    }
+    
+    /**
+     * Slices a mesh stored within direct buffers, and compares with the
+     * contours of the same mesh stored within arrays.
+     */
+    @Test
+    public final void testProcessStack_BufferMesh()
+    {
+        Mesh3D mesh = Meshes3D.createMesh(new Sphere3D(new Point3D(0, 0, 5), 3.0), 3);
+        BufferTriMesh3D mesh2 = BufferTriMesh3D.allocateDirect(mesh.vertexCount(), mesh.faceCount());
+        for (Mesh3D.Vertex vertex : mesh.vertices())
+        {
+            mesh2.addVertex(vertex.position());
+        }
+        int[] indices = new int[3];
+        for (int iFace = 0; iFace < mesh.faceCount(); iFace++)
+        {
+            mesh.faceVertexIndices(iFace, indices);
+            mesh2.addFace(indices[0], indices[1], indices[2]);
+        }
+        Plane3D plane = new Plane3D(new Point3D(0, 0, 0.5), new Vector3D(1, 0, 0), new Vector3D(0, 1, 0));
+        
+        ArrayList<ArrayList<Polyline2D>> slices = new MeshSlicer().processStack(mesh, plane, 1.0, 10);
+        ArrayList<ArrayList<Polyline2D>> slices2 = new MeshSlicer().processStack(mesh2, plane, 1.0, 10);
+        
+        for (int k = 0; k < 10; k++)
+        {
+            assertEquals(slices.get(k).size(), slices2.get(k).size());
+            for (int i = 0; i < slices.get(k).size(); i++)
+            {
+                Polyline2D ring = slices.get(k).get(i);
+                Polyline2D ring2 = slices2.get(k).get(i);
+                assertEquals(ring.vertexCount(), ring2.vertexCount());
+                for (int iv = 0; iv < ring.vertexCount(); iv++)
+                {
+                    assertEquals(0.0, ring.vertexPosition(iv).distance(ring2.vertexPosition(iv)), 1e-12);
+                }
+            }
+        }
+        assertEquals(1, slices2.get(4).size());
+    }
+    
+    private static final Mesh3D merge(Mesh3D mesh1, Mesh3D mesh2)
+    {
+        double[] coords1 = Meshes3D.vertexCoordinates(mesh1);
+        double[] coords2 = Meshes3D.vertexCoordinates(mesh2);
+        int[] faces1 = Meshes3D.faceVertexIndices(mesh1);
+        int[] faces2 = Meshes3D.faceVertexIndices(mesh2);
+        double[] coords = new double[coords1.length + coords2.length];
+        System.arraycopy(coords1, 0, coords, 0, coords1.length);
+        System.arraycopy(coords2, 0, coords, coords1.length, coords2.length);
+        int[] faces = new int[faces1.length + faces2.length];
+        System.arraycopy(faces1, 0, faces, 0, faces1.length);
+        for (int i = 0; i < faces2.length; i++)
+        {
+            faces[faces1.length + i] = faces2[i] + coords1.length / 3;
+        }
+        return new SimpleTriMesh3D(coords, faces);
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Point3D;
+import net.ijt.geometry.geom3d.Predicates3D;
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+import net.ijt.geometry.mesh3d.TriMeshEdges;
+
+/**
+ * @author dlegland
+ *
+ */
+public class QuickHull3DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.QuickHull3D#process(java.util.Collection)}.
+     */
+    @Test
+    public final void testProcess_cubeWithInnerPoints()
+    {
+        ArrayList<Point3D> points = new ArrayList<Point3D>();
+        for (int i = 0; i < 8; i++)
+        {
+            points.add(new Point3D(i & 1, (i >> 1) & 1, (i >> 2) & 1));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++)
+        {
+            points.add(new Point3D(random.nextDouble(), random.nextDouble(), random.nextDouble()));
+        }
+
+        SimpleTriMesh3D hull = new QuickHull3D().process(points);
+
+        assertEquals(8, hull.vertexCount());
+        assertEquals(12, hull.faceCount());
+        assertEquals(6.0, Meshes3D.surfaceArea(hull), 1e-10);
+        assertEquals(1.0, volume(hull), 1e-10);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.QuickHull3D#process(double[])}.
+     */
+    @Test
+    public final void testProcess_sphere()
+    {
+        // all points on the sphere are hull vertices
+        int n = 1000;
+        Random random = new Random(42);
+        double[] coords = new double[3 * n];
+        for (int i = 0; i < n; i++)
+        {
+            double z = 2 * random.nextDouble() - 1;
+            double theta = 2 * Math.PI * random.nextDouble();
+            double r = Math.sqrt(1 - z * z);
+            coords[3 * i] = r * Math.cos(theta);
+            coords[3 * i + 1] = r * Math.sin(theta);
+            coords[3 * i + 2] = z;
+        }
+
+        SimpleTriMesh3D hull = new QuickHull3D().process(coords);
+
+        assertEquals(n, hull.vertexCount());
+        assertEquals(2 * n - 4, hull.faceCount());
+        assertClosedConvexHull(hull, coords);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.QuickHull3D#process(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testProcess_icosphere()
+    {
+        Mesh3D mesh = Meshes3D.createIcosphere(2);
+
+        SimpleTriMesh3D hull = new QuickHull3D().process(mesh);
+
+        assertEquals(mesh.vertexCount(), hull.vertexCount());
+        assertEquals(mesh.faceCount(), hull.faceCount());
+        assertEquals(Meshes3D.surfaceArea(mesh), Meshes3D.surfaceArea(hull), 1e-10);
+    }
+
+    /**
+     * Points on a regular grid, with many coplanar points.
+     */
+    @Test
+    public final void testProcess_grid()
+    {
+        int size = 10;
+        double[] coords = new double[3 * size * size * size];
+        int i = 0;
+        for (int z = 0; z < size; z++)
+        {
+            for (int y = 0; y < size; y++)
+            {
+                for (int x = 0; x < size; x++)
+                {
+                    coords[i++] = x;
+                    coords[i++] = y;
+                    coords[i++] = z;
+                }
+            }
+        }
+
+        SimpleTriMesh3D hull = new QuickHull3D().process(coords);
+
+        assertEquals(729.0, volume(hull), 1e-8);
+        assertEquals(6 * 81.0, Meshes3D.surfaceArea(hull), 1e-8);
+        assertClosedConvexHull(hull, coords);
+    }
+
+    /**
+     * Large number of points, to use parallel partition.
+     */
+    @Test
+    public final void testProcess_largePointCloud()
+    {
+        int n = QuickHull3D.PARALLEL_THRESHOLD + 1000;
+        Random random = new Random(42);
+        double[] coords = new double[3 * n];
+        for (int i = 0; i < coords.length; i++)
+        {
+            coords[i] = random.nextGaussian();
+        }
+
+        SimpleTriMesh3D hull = new QuickHull3D().process(coords);
+
+        assertClosedConvexHull(hull, coords);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testProcess_coplanar()
+    {
+        double[] coords = new double[] { 0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 1, 0, 0.5, 0.2, 0 };
+        new QuickHull3D().process(coords);
+    }
+
+    /**
+     * Checks that each edge is shared by two faces, and that no point is
+     * located strictly outside a face.
+     */
+    private static final void assertClosedConvexHull(SimpleTriMesh3D hull, double[] coords)
+    {
+        int[] faces = Meshes3D.faceVertexIndices(hull);
+        double[] vertices = Meshes3D.vertexCoordinates(hull);
+        int nf = hull.faceCount();
+
+        // Euler characteristic of a sphere
+        TriMeshEdges edges = new TriMeshEdges(faces);
+        assertEquals(2, hull.vertexCount() - edges.edgeCount() + nf);
+        assertEquals(3 * nf, 2 * edges.edgeCount());
+
+        for (int iFace = 0; iFace < nf; iFace++)
+        {
+            int i0 = 3 * faces[3 * iFace];
+            int i1 = 3 * faces[3 * iFace + 1];
+            int i2 = 3 * faces[3 * iFace + 2];
+            for (int i = 0; i < coords.length; i += 3)
+            {
+                double orient = Predicates3D.orient3d(
+                        vertices[i0], vertices[i0 + 1], vertices[i0 + 2],
+                        vertices[i1], vertices[i1 + 1], vertices[i1 + 2],
+                        vertices[i2], vertices[i2 + 1], vertices[i2 + 2],
+                        coords[i], coords[i + 1], coords[i + 2]);
+                assertTrue(orient <= 0);
+            }
+        }
+    }
+
+    /**
+     * Computes the volume enclosed by a triangular mesh with faces oriented
+     * towards the outside.
+     */
+    private static final double volume(SimpleTriMesh3D mesh)
+    {
+        int[] faces = Meshes3D.faceVertexIndices(mesh);
+        double[] v = Meshes3D.vertexCoordinates(mesh);
+        double vol = 0;
+        for (int f = 0; f < faces.length; f += 3)
+        {
+            int a = 3 * faces[f], b = 3 * faces[f + 1], c = 3 * faces[f + 2];
+            vol += v[a] * (v[b + 1] * v[c + 2] - v[b + 2] * v[c + 1])
+                    - v[a + 1] * (v[b] * v[c + 2] - v[b + 2] * v[c])
+                    + v[a + 2] * (v[b] * v[c + 1] - v[b + 1] * v[c]);
+        }
+        return vol / 6;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import net.ijt.geometry.mesh3d.Mesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class SmoothTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.Smooth#process(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testProcess_Octahedron()
+    {
+        Mesh3D mesh = Meshes3D.createOctahedron();
+        
+        Mesh3D res = new Smooth().process(mesh);
+        
+        assertEquals(mesh.vertexCount(), res.vertexCount());
+        assertEquals(mesh.faceCount(), res.faceCount());
+        assertArrayEquals(Meshes3D.faceVertexIndices(mesh), Meshes3D.faceVertexIndices(res));
+        
+        // each vertex is averaged with its four neighbors
+        double[] coords = new double[3];
+        res.vertexCoordinates(0, coords);
+        assertArrayEquals(new double[] {0.2, 0, 0}, coords, 1e-10);
+        res.vertexCoordinates(5, coords);
+        assertArrayEquals(new double[] {0, 0, -0.2}, coords, 1e-10);
+    }
+}
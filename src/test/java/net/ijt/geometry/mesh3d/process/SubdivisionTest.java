@@ -0,0 +1,57 @@
+/**
+ * 
+ */
+package net.ijt.geometry.mesh3d.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom3d.Bounds3D;
+import net.ijt.geometry.mesh3d.DefaultTriMesh3D;
+import net.ijt.geometry.mesh3d.Meshes3D;
+import net.ijt.geometry.mesh3d.SimpleTriMesh3D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class SubdivisionTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.Subdivision#process(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testProcess_Midpoint_Octahedron()
+    {
+        DefaultTriMesh3D mesh = (DefaultTriMesh3D) Meshes3D.createOctahedron();
+        
+        SimpleTriMesh3D res = new Subdivision(Subdivision.Scheme.MIDPOINT, 2).process(mesh);
+        
+        // first level: 6 + 12 vertices and 32 faces; second: 18 + 48 vertices
+        assertEquals(66, res.vertexCount());
+        assertEquals(128, res.faceCount());
+        assertEquals(mesh.surfaceArea(), res.surfaceArea(), 1e-10);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.mesh3d.process.Subdivision#process(net.ijt.geometry.mesh3d.Mesh3D)}.
+     */
+    @Test
+    public final void testProcess_Loop_Octahedron()
+    {
+        DefaultTriMesh3D mesh = (DefaultTriMesh3D) Meshes3D.createOctahedron();
+        
+        SimpleTriMesh3D res = new Subdivision(Subdivision.Scheme.LOOP, 3).process(mesh);
+        
+        assertEquals(258, res.vertexCount());
+        assertEquals(512, res.faceCount());
+        
+        // Loop surfaces are contained within the convex hull of control points
+        Bounds3D bounds = res.bounds();
+        assertTrue(bounds.maxX() < 1.0);
+        assertTrue(bounds.minZ() > -1.0);
+        assertTrue(res.surfaceArea() < mesh.surfaceArea());
+    }
+}
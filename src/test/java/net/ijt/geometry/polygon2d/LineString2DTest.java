@@ -0,0 +1,73 @@
+/**
+ * 
+ */
+package net.ijt.geometry.polygon2d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom2d.Point2D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class LineString2DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LineString2D#resampleByCount(int)}.
+     */
+    @Test
+    public final void testResampleByCount()
+    {
+        LineString2D line = LineString2D.wrap(new double[] { 0, 10, 10 }, new double[] { 0, 0, 20 });
+
+        LineString2D res = line.resampleByCount(7);
+        assertEquals(7, res.vertexCount());
+        assertEquals(30.0, res.length(), 1e-10);
+        for (int i = 0; i < 7; i++)
+        {
+            assertTrue(res.vertexPosition(i).almostEquals(line.getPointAtLength(i * 5.0), 1e-10));
+        }
+        assertEquals(10.0, res.vertexX(6), 0.0);
+        assertEquals(20.0, res.vertexY(6), 0.0);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LineString2D#resampleBySpacing(double)}.
+     */
+    @Test
+    public final void testResampleBySpacing()
+    {
+        LineString2D line = LineString2D.wrap(new double[] { 0, 10, 10 }, new double[] { 0, 0, 20 });
+
+        LineString2D res = line.resampleBySpacing(3.0);
+        assertEquals(10, res.vertexCount());
+        for (int i = 0; i < 9; i++)
+        {
+            assertTrue(res.vertexPosition(i).almostEquals(line.getPointAtLength(i * 3.0), 1e-10));
+        }
+        assertTrue(res.vertexPosition(9).almostEquals(new Point2D(10, 20), 1e-10));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LineString2D#pointsAtLengths(double[])}.
+     */
+    @Test
+    public final void testPointsAtLengths()
+    {
+        LineString2D line = LineString2D.wrap(new double[] { 0, 10, 10 }, new double[] { 0, 0, 20 });
+
+        List<Point2D> points = line.pointsAtLengths(new double[] { 25, 0, 10, 4, 40 });
+        assertEquals(5, points.size());
+        assertTrue(points.get(0).almostEquals(new Point2D(10, 15), 1e-10));
+        assertTrue(points.get(1).almostEquals(new Point2D(0, 0), 1e-10));
+        assertTrue(points.get(2).almostEquals(new Point2D(10, 0), 1e-10));
+        assertTrue(points.get(3).almostEquals(new Point2D(4, 0), 1e-10));
+        assertTrue(points.get(4).almostEquals(new Point2D(10, 20), 1e-10));
+    }
+}
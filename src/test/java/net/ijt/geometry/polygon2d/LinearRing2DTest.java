@@ -0,0 +1,167 @@
+/**
+ * 
+ */
+package net.ijt.geometry.polygon2d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom2d.Point2D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class LinearRing2DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LinearRing2D#wrap(double[], double[])}.
+     */
+    @Test
+    public final void testWrap()
+    {
+        double[] xs = new double[] { 10, 20, 20, 10 };
+        double[] ys = new double[] { 10, 10, 20, 20 };
+        LinearRing2D ring = LinearRing2D.wrap(xs, ys);
+
+        assertEquals(4, ring.vertexCount());
+        assertEquals(100.0, ring.signedArea(), 1e-10);
+        assertEquals(40.0, ring.length(), 1e-10);
+
+        // arrays are not copied
+        xs[1] = 30;
+        xs[2] = 30;
+        assertEquals(200.0, ring.signedArea(), 1e-10);
+        assertEquals(30.0, ring.vertexX(2), 0.0);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LinearRing2D#LinearRing2D(double[], double[])}.
+     */
+    @Test
+    public final void testConstructor_copiesArrays()
+    {
+        double[] xs = new double[] { 10, 20, 20, 10 };
+        double[] ys = new double[] { 10, 10, 20, 20 };
+        LinearRing2D ring = new LinearRing2D(xs, ys);
+
+        xs[1] = 30;
+        assertEquals(20.0, ring.vertexX(1), 0.0);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LinearRing2D#addVertex(Point2D)}.
+     */
+    @Test
+    public final void testAddRemoveVertex()
+    {
+        LinearRing2D ring = new LinearRing2D(2);
+        ring.addVertex(new Point2D(0, 0));
+        ring.addVertex(new Point2D(10, 0));
+        ring.addVertex(new Point2D(10, 5));
+        ring.addVertex(10, 10);
+        ring.addVertex(0, 10);
+        assertEquals(5, ring.vertexCount());
+        assertEquals(100.0, ring.signedArea(), 1e-10);
+
+        ring.removeVertex(2);
+        assertEquals(4, ring.vertexCount());
+        assertEquals(10.0, ring.vertexPosition(2).y(), 0.0);
+        assertEquals(100.0, ring.signedArea(), 1e-10);
+
+        int count = 0;
+        for (Point2D p : ring.vertexPositions())
+        {
+            assertEquals(ring.vertexX(count), p.x(), 0.0);
+            count++;
+        }
+        assertEquals(4, count);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LinearRing2D#isInside(double, double)}.
+     */
+    @Test
+    public final void testIsInside()
+    {
+        LinearRing2D ring = LinearRing2D.wrap(new double[] { 10, 20, 20, 10 }, new double[] { 10, 10, 20, 20 });
+
+        assertTrue(ring.isInside(15, 15));
+        assertFalse(ring.isInside(25, 15));
+        assertEquals(-5.0, ring.signedDistance(15, 15), 1e-10);
+        assertEquals(5.0, ring.signedDistance(25, 15), 1e-10);
+
+        // reverse ring is the complement
+        LinearRing2D rev = (LinearRing2D) ring.reverse();
+        assertFalse(rev.isInside(15, 15));
+        assertTrue(rev.isInside(25, 15));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LinearRing2D#resampleByCount(int)}.
+     */
+    @Test
+    public final void testResampleByCount()
+    {
+        LinearRing2D ring = LinearRing2D.wrap(new double[] { 10, 20, 20, 10 }, new double[] { 10, 10, 20, 20 });
+
+        LinearRing2D res = ring.resampleByCount(8);
+        assertEquals(8, res.vertexCount());
+        assertEquals(40.0, res.length(), 1e-10);
+        assertEquals(10.0, res.vertexX(0), 1e-10);
+        assertEquals(10.0, res.vertexY(0), 1e-10);
+        assertEquals(15.0, res.vertexX(1), 1e-10);
+        assertEquals(10.0, res.vertexY(1), 1e-10);
+        assertEquals(10.0, res.vertexX(7), 1e-10);
+        assertEquals(15.0, res.vertexY(7), 1e-10);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LinearRing2D#resampleBySpacing(double)}.
+     */
+    @Test
+    public final void testResampleBySpacing()
+    {
+        LinearRing2D ring = LinearRing2D.wrap(new double[] { 10, 20, 20, 10 }, new double[] { 10, 10, 20, 20 });
+
+        LinearRing2D res = ring.resampleBySpacing(4.0);
+        assertEquals(10, res.vertexCount());
+        for (int i = 0; i < res.vertexCount(); i++)
+        {
+            Point2D p = ring.getPointAtLength(i * 40.0 / 11);
+            assertEquals(p.x(), res.vertexX(i), 1e-10);
+            assertEquals(p.y(), res.vertexY(i), 1e-10);
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LinearRing2D#pointsAtLengths(double[])}.
+     */
+    @Test
+    public final void testPointsAtLengths()
+    {
+        // square with a duplicate vertex
+        LinearRing2D ring = LinearRing2D.wrap(new double[] { 10, 20, 20, 20, 10 }, new double[] { 10, 10, 10, 20, 20 });
+
+        List<Point2D> points = ring.pointsAtLengths(new double[] { 35, 0, 10, 15, 40, 50 });
+        assertEquals(6, points.size());
+        assertTrue(points.get(0).almostEquals(new Point2D(10, 15), 1e-10));
+        assertTrue(points.get(1).almostEquals(new Point2D(10, 10), 1e-10));
+        assertTrue(points.get(2).almostEquals(new Point2D(20, 10), 1e-10));
+        assertTrue(points.get(3).almostEquals(new Point2D(20, 15), 1e-10));
+        assertTrue(points.get(4).almostEquals(new Point2D(10, 10), 1e-10));
+        assertTrue(points.get(5).almostEquals(new Point2D(10, 10), 1e-10));
+
+        // length cache is discarded when vertices are added
+        assertEquals(40.0, ring.length(), 1e-10);
+        ring.addVertex(10, 15);
+        assertEquals(40.0, ring.length(), 1e-10);
+        ring.removeVertex(0);
+        assertEquals(10 + 10 + 5 + Math.hypot(10, 5), ring.length(), 1e-10);
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * 
+ */
+package net.ijt.geometry.polygon2d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author dlegland
+ *
+ */
+public class PreparedPolygon2DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.PreparedPolygon2D#isInside(double, double)}.
+     */
+    @Test
+    public final void testIsInside_Square()
+    {
+        LinearRing2D ring = new LinearRing2D(new double[] { 10, 20, 20, 10 }, new double[] { 10, 10, 20, 20 });
+        PreparedPolygon2D prepared = new PreparedPolygon2D(ring);
+
+        assertTrue(prepared.isInside(15, 15));
+        assertFalse(prepared.isInside(5, 15));
+        assertFalse(prepared.isInside(25, 15));
+        assertFalse(prepared.isInside(15, 5));
+        assertFalse(prepared.isInside(15, 25));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.PreparedPolygon2D#isInside(double, double)}.
+     */
+    @Test
+    public final void testIsInside_ClockwiseSquare()
+    {
+        LinearRing2D ring = new LinearRing2D(new double[] { 10, 10, 20, 20 }, new double[] { 10, 20, 20, 10 });
+        PreparedPolygon2D prepared = new PreparedPolygon2D(ring);
+
+        assertFalse(prepared.isInside(15, 15));
+        assertTrue(prepared.isInside(5, 15));
+        assertTrue(prepared.isInside(100, 100));
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.PreparedPolygon2D#isInside(double, double)}.
+     */
+    @Test
+    public final void testIsInside_SquareWithHole()
+    {
+        LinearRing2D outer = new LinearRing2D(new double[] { 0, 30, 30, 0 }, new double[] { 0, 0, 30, 30 });
+        LinearRing2D hole = new LinearRing2D(new double[] { 10, 10, 20, 20 }, new double[] { 10, 20, 20, 10 });
+        PreparedPolygon2D prepared = new PreparedPolygon2D(Arrays.asList(outer, hole));
+
+        assertTrue(prepared.isInside(5, 5));
+        assertFalse(prepared.isInside(15, 15));
+        assertFalse(prepared.isInside(40, 15));
+        assertEquals(-5.0, prepared.signedDistance(5, 15), 1e-10);
+        assertEquals(5.0, prepared.signedDistance(15, 15), 1e-10);
+    }
+
+    /**
+     * Compares the results of the prepared polygon with the results of the
+     * linear ring, on a random star-shaped polygon.
+     */
+    @Test
+    public final void testIsInside_SignedDistance_StarPolygon()
+    {
+        LinearRing2D ring = createStarRing(500, new Random(42));
+        PreparedPolygon2D prepared = new PreparedPolygon2D(ring);
+
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++)
+        {
+            double x = random.nextDouble() * 300 - 150;
+            double y = random.nextDouble() * 300 - 150;
+            assertEquals(ring.isInside(x, y), prepared.isInside(x, y));
+            assertEquals(ring.signedDistance(x, y), prepared.signedDistance(x, y), 1e-10);
+        }
+    }
+
+    /**
+     * A long diagonal edge is assigned to the cells it crosses, and not to
+     * all the cells of its bounding box.
+     */
+    @Test
+    public final void testSignedDistance_DiagonalStrip()
+    {
+        // thin strip along the diagonal, with a zigzag boundary on one side
+        // and a single long edge on the other side
+        int n = 1000;
+        double[] xs = new double[n + 1];
+        double[] ys = new double[n + 1];
+        for (int i = 0; i < n; i++)
+        {
+            double t = 100.0 * i / (n - 1);
+            xs[i] = t + (i % 2) * 0.2;
+            ys[i] = t;
+        }
+        xs[n] = 1;
+        ys[n] = 0;
+        LinearRing2D ring = new LinearRing2D(xs, ys);
+        PreparedPolygon2D prepared = new PreparedPolygon2D(ring);
+
+        // the long edge joins the two last vertices
+        int longEdgeCells = 0;
+        for (int edge : prepared.cellEdges)
+        {
+            if (edge == n) longEdgeCells++;
+        }
+        assertTrue(longEdgeCells <= 3 * Math.max(prepared.nx, prepared.ny));
+
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++)
+        {
+            double x = random.nextDouble() * 120 - 10;
+            double y = random.nextDouble() * 120 - 10;
+            assertEquals(ring.isInside(x, y), prepared.isInside(x, y));
+            assertEquals(ring.signedDistance(x, y), prepared.signedDistance(x, y), 1e-10);
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.PreparedPolygon2D#isInside(double[], double[])}.
+     */
+    @Test
+    public final void testIsInside_Batch()
+    {
+        LinearRing2D ring = createStarRing(200, new Random(3));
+        PreparedPolygon2D prepared = new PreparedPolygon2D(ring);
+
+        int n = PreparedPolygon2D.PARALLEL_THRESHOLD * 2;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        Random random = new Random(4);
+        for (int i = 0; i < n; i++)
+        {
+            xs[i] = random.nextDouble() * 300 - 150;
+            ys[i] = random.nextDouble() * 300 - 150;
+        }
+
+        boolean[] inside = prepared.isInside(xs, ys);
+        double[] dists = prepared.signedDistance(xs, ys);
+        for (int i = 0; i < n; i++)
+        {
+            assertEquals(ring.isInside(xs[i], ys[i]), inside[i]);
+            assertEquals(ring.signedDistance(xs[i], ys[i]), dists[i], 1e-10);
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.PreparedPolygon2D#isInside(double[], double[])}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIsInside_Batch_DifferentLengths()
+    {
+        LinearRing2D ring = new LinearRing2D(new double[] { 10, 20, 20, 10 }, new double[] { 10, 10, 20, 20 });
+        new PreparedPolygon2D(ring).isInside(new double[3], new double[4]);
+    }
+
+    private static final LinearRing2D createStarRing(int n, Random random)
+    {
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            double angle = 2 * Math.PI * i / n;
+            double radius = 50 + 50 * random.nextDouble();
+            xs[i] = radius * Math.cos(angle);
+            ys[i] = radius * Math.sin(angle);
+        }
+        return new LinearRing2D(xs, ys);
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * 
+ */
+package net.ijt.geometry.polygon2d;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom2d.LineSegment2D;
+import net.ijt.geometry.geom2d.Point2D;
+
+/**
+ * @author dlegland
+ *
+ */
+public class SegmentIndex2DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.SegmentIndex2D#nearestSegment(double, double)}.
+     */
+    @Test
+    public final void testNearestSegment_Square()
+    {
+        LinearRing2D ring = new LinearRing2D(new double[] { 0, 10, 10, 0 }, new double[] { 0, 0, 10, 10 });
+        SegmentIndex2D index = ring.segmentIndex();
+
+        assertEquals(4, index.segmentCount());
+        assertEquals(0, index.nearestSegment(5, -2));
+        assertEquals(1, index.nearestSegment(12, 5));
+        assertEquals(2, index.nearestSegment(5, 9));
+        assertEquals(3, index.nearestSegment(1, 5));
+        assertEquals(2.0, index.distance(5, -2), 1e-10);
+    }
+
+    /**
+     * Compares nearest and k-nearest queries with brute force search.
+     */
+    @Test
+    public final void testNearestSegments_RandomWalk()
+    {
+        LineString2D line = createRandomWalk(2000, new Random(42));
+        SegmentIndex2D index = line.segmentIndex();
+        assertEquals(1999, index.segmentCount());
+
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++)
+        {
+            double x = random.nextDouble() * 200 - 100;
+            double y = random.nextDouble() * 200 - 100;
+            double[] dists = bruteForceDistances(line, x, y);
+
+            int[] nearest = index.nearestSegments(x, y, 5);
+            assertEquals(5, nearest.length);
+            double[] sorted = dists.clone();
+            Arrays.sort(sorted);
+            for (int k = 0; k < 5; k++)
+            {
+                assertEquals(sorted[k], dists[nearest[k]], 1e-10);
+            }
+            assertEquals(sorted[0], line.distance(x, y), 1e-10);
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.SegmentIndex2D#segmentsWithin(double, double, double)}.
+     */
+    @Test
+    public final void testSegmentsWithin_RandomWalk()
+    {
+        LineString2D line = createRandomWalk(1000, new Random(3));
+        SegmentIndex2D index = line.segmentIndex();
+
+        Random random = new Random(4);
+        for (int i = 0; i < 100; i++)
+        {
+            double x = random.nextDouble() * 100 - 50;
+            double y = random.nextDouble() * 100 - 50;
+            double radius = random.nextDouble() * 10;
+            double[] dists = bruteForceDistances(line, x, y);
+
+            int[] expected = new int[dists.length];
+            int count = 0;
+            for (int j = 0; j < dists.length; j++)
+            {
+                if (dists[j] <= radius) expected[count++] = j;
+            }
+            assertArrayEquals(Arrays.copyOf(expected, count), index.segmentsWithin(x, y, radius));
+        }
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.LinearRing2D#projection(Point2D)}.
+     */
+    @Test
+    public final void testProjection_LinearRing()
+    {
+        LinearRing2D ring = new LinearRing2D(new double[] { 0, 10, 10, 0 }, new double[] { 0, 0, 10, 10 });
+
+        Point2D proj = ring.projection(new Point2D(12, 4));
+        assertEquals(10.0, proj.x(), 1e-10);
+        assertEquals(4.0, proj.y(), 1e-10);
+
+        proj = ring.projection(new Point2D(-3, -4));
+        assertEquals(0.0, proj.x(), 1e-10);
+        assertEquals(0.0, proj.y(), 1e-10);
+    }
+
+    /**
+     * Checks that the index is discarded when the polyline is modified.
+     */
+    @Test
+    public final void testSegmentIndex_Invalidation()
+    {
+        LineString2D line = new LineString2D(new double[] { 0, 10 }, new double[] { 0, 0 });
+        SegmentIndex2D index = line.segmentIndex();
+        assertSame(index, line.segmentIndex());
+        assertEquals(5.0, line.distance(5, 5), 1e-10);
+
+        line.addVertex(10, 10);
+        assertNotSame(index, line.segmentIndex());
+        assertEquals(2, line.segmentIndex().segmentCount());
+        assertEquals(3.0, line.distance(13, 5), 1e-10);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.SegmentIndex2D#nearestSegment(double, double)}.
+     */
+    @Test
+    public final void testNearestSegment_Empty()
+    {
+        SegmentIndex2D index = new SegmentIndex2D(new double[] { 3 }, new double[] { 4 }, 1, false);
+
+        assertEquals(0, index.segmentCount());
+        assertEquals(-1, index.nearestSegment(0, 0));
+        assertTrue(Double.isInfinite(index.distance(0, 0)));
+        assertEquals(0, index.segmentsWithin(0, 0, 10).length);
+    }
+
+    private static final double[] bruteForceDistances(LineString2D line, double x, double y)
+    {
+        int n = line.vertexCount() - 1;
+        double[] dists = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            LineSegment2D seg = new LineSegment2D(line.vertexPosition(i), line.vertexPosition(i + 1));
+            dists[i] = seg.distance(x, y);
+        }
+        return dists;
+    }
+
+    private static final LineString2D createRandomWalk(int n, Random random)
+    {
+        LineString2D line = new LineString2D(n);
+        double x = 0, y = 0;
+        for (int i = 0; i < n; i++)
+        {
+            line.addVertex(x, y);
+            x += random.nextGaussian() * 2;
+            y += random.nextGaussian() * 2;
+        }
+        return line;
+    }
+}
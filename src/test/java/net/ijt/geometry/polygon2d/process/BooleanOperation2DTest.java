@@ -0,0 +1,261 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.MultiPolygon2D;
+import net.ijt.geometry.polygon2d.PolygonalDomain2D;
+
+/**
+ *
+ */
+public class BooleanOperation2DTest
+{
+    /**
+     * Two overlapping squares with side 2, with an intersection area of 1.
+     */
+    @Test
+    public final void testProcess_overlappingSquares()
+    {
+        MultiPolygon2D square1 = square(0, 0, 2);
+        MultiPolygon2D square2 = square(1, 1, 2);
+
+        assertEquals(7.0, process(BooleanOperation2D.Type.UNION, square1, square2).signedArea(), 1e-10);
+        assertEquals(1.0, process(BooleanOperation2D.Type.INTERSECTION, square1, square2).signedArea(), 1e-10);
+        assertEquals(3.0, process(BooleanOperation2D.Type.DIFFERENCE, square1, square2).signedArea(), 1e-10);
+        assertEquals(6.0, process(BooleanOperation2D.Type.XOR, square1, square2).signedArea(), 1e-10);
+
+        MultiPolygon2D union = process(BooleanOperation2D.Type.UNION, square1, square2);
+        assertEquals(1, union.ringCount());
+        assertEquals(8, union.ring(0).vertexCount());
+        assertTrue(union.isInside(0.5, 0.5));
+        assertTrue(union.isInside(2.5, 2.5));
+        assertFalse(union.isInside(2.5, 0.5));
+    }
+
+    /**
+     * Two squares sharing an edge result in a single rectangle, without the
+     * vertices along the shared edge.
+     */
+    @Test
+    public final void testProcess_sharedEdge()
+    {
+        MultiPolygon2D square1 = square(0, 0, 1);
+        MultiPolygon2D square2 = square(1, 0, 1);
+
+        MultiPolygon2D union = process(BooleanOperation2D.Type.UNION, square1, square2);
+        assertEquals(1, union.ringCount());
+        assertEquals(4, union.ring(0).vertexCount());
+        assertEquals(2.0, union.signedArea(), 1e-10);
+
+        MultiPolygon2D inter = process(BooleanOperation2D.Type.INTERSECTION, square1, square2);
+        assertEquals(0, inter.ringCount());
+    }
+
+    /**
+     * Two disjoint squares.
+     */
+    @Test
+    public final void testProcess_disjointSquares()
+    {
+        MultiPolygon2D square1 = square(0, 0, 1);
+        MultiPolygon2D square2 = square(3, 0, 1);
+
+        MultiPolygon2D union = process(BooleanOperation2D.Type.UNION, square1, square2);
+        assertEquals(2, union.ringCount());
+        assertEquals(2.0, union.signedArea(), 1e-10);
+
+        MultiPolygon2D inter = process(BooleanOperation2D.Type.INTERSECTION, square1, square2);
+        assertEquals(0, inter.ringCount());
+
+        MultiPolygon2D diff = process(BooleanOperation2D.Type.DIFFERENCE, square1, square2);
+        assertEquals(1, diff.ringCount());
+        assertEquals(1.0, diff.signedArea(), 1e-10);
+    }
+
+    /**
+     * The exclusive or of a polygon with itself is empty.
+     */
+    @Test
+    public final void testProcess_identicalPolygons()
+    {
+        MultiPolygon2D square = square(0, 0, 1);
+
+        assertEquals(0, process(BooleanOperation2D.Type.XOR, square, square).ringCount());
+        assertEquals(0, process(BooleanOperation2D.Type.DIFFERENCE, square, square).ringCount());
+        MultiPolygon2D union = process(BooleanOperation2D.Type.UNION, square, square);
+        assertEquals(1, union.ringCount());
+        assertEquals(1.0, union.signedArea(), 1e-10);
+    }
+
+    /**
+     * Removes a square from the middle of a larger one, resulting in a domain
+     * with a hole.
+     */
+    @Test
+    public final void testProcess_hole()
+    {
+        MultiPolygon2D outer = square(0, 0, 4);
+        MultiPolygon2D inner = square(1, 1, 2);
+
+        MultiPolygon2D diff = process(BooleanOperation2D.Type.DIFFERENCE, outer, inner);
+        assertEquals(2, diff.ringCount());
+        assertEquals(12.0, diff.signedArea(), 1e-10);
+        assertTrue(diff.isInside(0.5, 0.5));
+        assertFalse(diff.isInside(2, 2));
+
+        // intersect the domain with a hole with a rectangle crossing the hole
+        MultiPolygon2D rect = MultiPolygon2D.create(LinearRing2D.wrap(
+                new double[] { -1, 5, 5, -1 }, new double[] { 1.5, 1.5, 2.5, 2.5 }));
+        MultiPolygon2D inter = process(BooleanOperation2D.Type.INTERSECTION, diff, rect);
+        assertEquals(2, inter.ringCount());
+        assertEquals(2.0, inter.signedArea(), 1e-10);
+    }
+
+    /**
+     * Combines nested squares with alternating orientations with small
+     * squares located within the rings, resulting in many connected
+     * components within the arrangement.
+     */
+    @Test
+    public final void testProcess_nestedSquares()
+    {
+        LinearRing2D[] rings = new LinearRing2D[5];
+        for (int i = 0; i < 5; i++)
+        {
+            double x0 = i, x1 = 10 - i;
+            LinearRing2D ring = LinearRing2D.wrap(new double[] { x0, x1, x1, x0 }, new double[] { x0, x0, x1, x1 });
+            rings[i] = i % 2 == 0 ? ring : (LinearRing2D) ring.reverse();
+        }
+        MultiPolygon2D nested = MultiPolygon2D.create(rings);
+        assertEquals(60.0, nested.signedArea(), 1e-10);
+
+        MultiPolygon2D squares = MultiPolygon2D.create(
+                LinearRing2D.wrap(new double[] { 0.2, 0.7, 0.7, 0.2 }, new double[] { 0.2, 0.2, 0.7, 0.7 }),
+                LinearRing2D.wrap(new double[] { 1.2, 1.7, 1.7, 1.2 }, new double[] { 1.2, 1.2, 1.7, 1.7 }));
+
+        MultiPolygon2D union = process(BooleanOperation2D.Type.UNION, nested, squares);
+        assertEquals(6, union.ringCount());
+        assertEquals(60.25, union.signedArea(), 1e-10);
+
+        MultiPolygon2D inter = process(BooleanOperation2D.Type.INTERSECTION, nested, squares);
+        assertEquals(1, inter.ringCount());
+        assertEquals(0.25, inter.signedArea(), 1e-10);
+
+        MultiPolygon2D diff = process(BooleanOperation2D.Type.DIFFERENCE, nested, squares);
+        assertEquals(6, diff.ringCount());
+        assertEquals(59.75, diff.signedArea(), 1e-10);
+        assertFalse(diff.isInside(0.5, 0.5));
+        assertTrue(diff.isInside(0.1, 0.5));
+    }
+
+    /**
+     * Checks the area computed without the rings is the same as the area of
+     * the result, for random polygons.
+     */
+    @Test
+    public final void testArea_randomPolygons()
+    {
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++)
+        {
+            MultiPolygon2D poly1 = randomStar(random, 0, 0, 12);
+            MultiPolygon2D poly2 = randomStar(random, 0.5, 0.2, 12);
+            for (BooleanOperation2D.Type type : BooleanOperation2D.Type.values())
+            {
+                BooleanOperation2D op = new BooleanOperation2D(type);
+                MultiPolygon2D res = op.process(poly1, poly2);
+                assertEquals(res.signedArea(), op.area(poly1, poly2), 1e-8);
+
+                // check membership of some points
+                for (int k = 0; k < 20; k++)
+                {
+                    double x = random.nextDouble() * 4 - 2;
+                    double y = random.nextDouble() * 4 - 2;
+                    boolean exp = type.combine(poly1.isInside(x, y), poly2.isInside(x, y));
+                    assertEquals(exp, res.isInside(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Combines a polygon with a slightly rotated copy of itself, such that
+     * the edges of both polygons are nearly parallel and cross at very
+     * shallow angles.
+     */
+    @Test
+    public final void testProcess_nearlyParallelEdges()
+    {
+        Random random = new Random(12);
+        for (int k = 0; k < 20; k++)
+        {
+            MultiPolygon2D poly1 = randomStar(random, 1000.1, 2000.3, 60);
+            double angle = Math.pow(10, -6 - k / 2);
+            double cos = Math.cos(angle), sin = Math.sin(angle);
+            LinearRing2D ring1 = poly1.rings().iterator().next();
+            int n = ring1.vertexCount();
+            double[] xs = new double[n];
+            double[] ys = new double[n];
+            for (int i = 0; i < n; i++)
+            {
+                double x = ring1.vertexX(i) - 1000, y = ring1.vertexY(i) - 2000;
+                xs[i] = 1000 + cos * x - sin * y;
+                ys[i] = 2000 + sin * x + cos * y;
+            }
+            MultiPolygon2D poly2 = MultiPolygon2D.create(LinearRing2D.wrap(xs, ys));
+
+            double area1 = poly1.signedArea();
+            double area2 = poly2.signedArea();
+            double union = process(BooleanOperation2D.Type.UNION, poly1, poly2).signedArea();
+            double inter = process(BooleanOperation2D.Type.INTERSECTION, poly1, poly2).signedArea();
+            double xor = process(BooleanOperation2D.Type.XOR, poly1, poly2).signedArea();
+            assertEquals(area1 + area2, union + inter, 1e-8);
+            assertEquals(union - inter, xor, 1e-8);
+            assertTrue(inter <= Math.min(area1, area2) + 1e-8);
+        }
+    }
+
+    private static final MultiPolygon2D process(BooleanOperation2D.Type type, PolygonalDomain2D domain1, PolygonalDomain2D domain2)
+    {
+        return new BooleanOperation2D(type).process(domain1, domain2);
+    }
+
+    /**
+     * Creates an axis-aligned square oriented counter-clockwise, used as
+     * fixture by the tests of the package.
+     */
+    static final MultiPolygon2D square(double x0, double y0, double side)
+    {
+        double[] xs = new double[] { x0, x0 + side, x0 + side, x0 };
+        double[] ys = new double[] { y0, y0, y0 + side, y0 + side };
+        return MultiPolygon2D.create(LinearRing2D.wrap(xs, ys));
+    }
+
+    /**
+     * Creates a random star-shaped polygon with n vertices around the
+     * specified center, used as fixture by the tests of the package.
+     */
+    static final MultiPolygon2D randomStar(Random random, double xc, double yc, int n)
+    {
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            double theta = 2 * Math.PI * i / n;
+            double r = 0.5 + random.nextDouble();
+            xs[i] = xc + r * Math.cos(theta);
+            ys[i] = yc + r * Math.sin(theta);
+        }
+        return MultiPolygon2D.create(LinearRing2D.wrap(xs, ys));
+    }
+}
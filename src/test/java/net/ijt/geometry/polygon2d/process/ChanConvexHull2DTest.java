@@ -0,0 +1,108 @@
+/**
+ * 
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom2d.Point2D;
+
+/**
+ * 
+ */
+public class ChanConvexHull2DTest
+{
+    /**
+     * Compares with the monotone chain algorithm on random points within a
+     * disk.
+     */
+    @Test
+    public final void testProcess_randomDisk()
+    {
+        Random random = new Random(42);
+        int n = 20000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            double r = Math.sqrt(random.nextDouble());
+            double theta = random.nextDouble() * 2 * Math.PI;
+            xs[i] = r * Math.cos(theta);
+            ys[i] = r * Math.sin(theta);
+        }
+
+        int[] exp = new MonotoneChainConvexHull2D().process(xs, ys);
+        int[] inds = new ChanConvexHull2D().process(xs, ys);
+        assertArrayEquals(exp, inds);
+    }
+
+    /**
+     * Compares with the monotone chain algorithm on points located on a
+     * circle, resulting in a large number of hull vertices.
+     */
+    @Test
+    public final void testProcess_circle()
+    {
+        Random random = new Random(42);
+        ArrayList<Point2D> points = new ArrayList<Point2D>();
+        for (int i = 0; i < 1000; i++)
+        {
+            double theta = random.nextDouble() * 2 * Math.PI;
+            points.add(new Point2D(Math.cos(theta), Math.sin(theta)));
+        }
+
+        double[] xs = new double[points.size()];
+        double[] ys = new double[points.size()];
+        for (int i = 0; i < xs.length; i++)
+        {
+            xs[i] = points.get(i).x();
+            ys[i] = points.get(i).y();
+        }
+        int[] exp = new MonotoneChainConvexHull2D().process(xs, ys);
+        int[] inds = new ChanConvexHull2D().process(xs, ys);
+        assertArrayEquals(exp, inds);
+
+        MonotoneChainConvexHull2DTest.assertConvexHull(new ChanConvexHull2D().process(points), points);
+    }
+
+    /**
+     * Compares with the monotone chain algorithm on random points on an
+     * integer grid, resulting in many collinear and duplicate points.
+     */
+    @Test
+    public final void testProcess_grid()
+    {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 20; trial++)
+        {
+            int n = 500;
+            double[] xs = new double[n];
+            double[] ys = new double[n];
+            for (int i = 0; i < n; i++)
+            {
+                xs[i] = random.nextInt(15);
+                ys[i] = random.nextInt(15);
+            }
+
+            int[] exp = new MonotoneChainConvexHull2D().process(xs, ys);
+            int[] inds = new ChanConvexHull2D().process(xs, ys);
+            assertArrayEquals(coords(xs, ys, exp), coords(xs, ys, inds), 0.0);
+        }
+    }
+
+    private static final double[] coords(double[] xs, double[] ys, int[] inds)
+    {
+        double[] res = new double[2 * inds.length];
+        for (int i = 0; i < inds.length; i++)
+        {
+            res[2 * i] = xs[inds[i]];
+            res[2 * i + 1] = ys[inds[i]];
+        }
+        return res;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.ijt.geometry.polygon2d.LineString2D;
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.Polyline2D;
+
+/**
+ *
+ */
+public class DouglasPeuckerSimplification2DTest
+{
+    /**
+     * Collinear vertices are removed from an open polyline.
+     */
+    @Test
+    public final void testSimplify_collinear()
+    {
+        double[] xs = new double[] { 0, 1, 2, 3, 4 };
+        double[] ys = new double[] { 0, 1, 2, 3, 4 };
+
+        int[] inds = new DouglasPeuckerSimplification2D(0.1).simplify(xs, ys, false);
+
+        assertArrayEquals(new int[] { 0, 4 }, inds);
+    }
+
+    /**
+     * Vertices farther than the tolerance are kept.
+     */
+    @Test
+    public final void testSimplify_zigzag()
+    {
+        double[] xs = new double[] { 0, 1, 2, 3, 4, 5, 6 };
+        double[] ys = new double[] { 0, 0.5, 0, 0.5, 0, 0.5, 0 };
+
+        assertEquals(7, new DouglasPeuckerSimplification2D(0.25).simplify(xs, ys, false).length);
+        assertEquals(2, new DouglasPeuckerSimplification2D(1.0).simplify(xs, ys, false).length);
+    }
+
+    /**
+     * Simplifies a circle traced with one vertex per pixel.
+     */
+    @Test
+    public final void testProcess_pixelContour()
+    {
+        LinearRing2D ring = pixelCircle(50);
+
+        Polyline2D res = new DouglasPeuckerSimplification2D(1.0).process(ring);
+
+        assertTrue(res instanceof LinearRing2D);
+        assertTrue(res.vertexCount() < ring.vertexCount() / 4);
+        for (int i = 0; i < ring.vertexCount(); i++)
+        {
+            assertTrue(res.distance(ring.vertexPosition(i)) <= 1.0 + 1e-10);
+        }
+    }
+
+    /**
+     * A closed polyline keeps at least three vertices.
+     */
+    @Test
+    public final void testProcess_flatRing()
+    {
+        LinearRing2D ring = LinearRing2D.wrap(new double[] { 0, 5, 10, 5 }, new double[] { 0, 0.1, 0, -0.1 });
+
+        Polyline2D res = new DouglasPeuckerSimplification2D(1.0).process(ring);
+
+        assertEquals(3, res.vertexCount());
+    }
+
+    /**
+     * Simplifies a list of polylines, in parallel.
+     */
+    @Test
+    public final void testProcess_list()
+    {
+        List<Polyline2D> polylines = new ArrayList<Polyline2D>();
+        for (int i = 0; i < 40; i++)
+        {
+            polylines.add(pixelCircle(10 + i));
+        }
+        polylines.add(LineString2D.wrap(new double[] { 0, 1, 2 }, new double[] { 0, 0, 0 }));
+
+        DouglasPeuckerSimplification2D algo = new DouglasPeuckerSimplification2D(0.8);
+        List<Polyline2D> res = algo.process(polylines);
+
+        assertEquals(polylines.size(), res.size());
+        for (int i = 0; i < polylines.size(); i++)
+        {
+            assertEquals(algo.process(polylines.get(i)).vertexCount(), res.get(i).vertexCount());
+        }
+        assertTrue(res.get(40) instanceof LineString2D);
+        assertEquals(2, res.get(40).vertexCount());
+    }
+
+    /**
+     * Creates the contour of a digital disk, with one vertex per boundary
+     * pixel.
+     */
+    static final LinearRing2D pixelCircle(double radius)
+    {
+        LinearRing2D ring = new LinearRing2D();
+        int n = (int) Math.ceil(16 * radius);
+        double lastX = Double.NaN, lastY = Double.NaN;
+        for (int i = 0; i < n; i++)
+        {
+            double theta = 2 * Math.PI * i / n;
+            double x = Math.round(radius * Math.cos(theta));
+            double y = Math.round(radius * Math.sin(theta));
+            if (x != lastX || y != lastY)
+            {
+                ring.addVertex(x, y);
+                lastX = x;
+                lastY = y;
+            }
+        }
+        if (ring.vertexX(0) == lastX && ring.vertexY(0) == lastY)
+        {
+            ring.removeVertex(ring.vertexCount() - 1);
+        }
+        return ring;
+    }
+}
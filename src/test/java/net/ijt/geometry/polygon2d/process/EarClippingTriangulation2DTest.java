@@ -0,0 +1,187 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.MultiPolygon2D;
+import net.ijt.geometry.polygon2d.PolygonalDomain2D;
+
+/**
+ *
+ */
+public class EarClippingTriangulation2DTest
+{
+    /**
+     * A square is split into two triangles.
+     */
+    @Test
+    public final void testProcess_square()
+    {
+        double[] xs = new double[] { 0, 1, 1, 0 };
+        double[] ys = new double[] { 0, 0, 1, 1 };
+
+        int[] triangles = new EarClippingTriangulation2D().process(xs, ys);
+
+        assertEquals(6, triangles.length);
+        assertEquals(1.0, totalArea(triangles, xs, ys), 1e-10);
+    }
+
+    /**
+     * Triangulates a clockwise non-convex polygon.
+     */
+    @Test
+    public final void testProcess_clockwiseNonConvex()
+    {
+        // a "U" shape, oriented clockwise
+        double[] xs = new double[] { 0, 0, 3, 3, 2, 2, 1, 1 };
+        double[] ys = new double[] { 0, 3, 3, 0, 0, 2, 2, 0 };
+
+        int[] triangles = new EarClippingTriangulation2D().process(xs, ys);
+
+        assertEquals(18, triangles.length);
+        assertEquals(7.0, totalArea(triangles, xs, ys), 1e-10);
+    }
+
+    /**
+     * Triangulates a square with a square hole.
+     */
+    @Test
+    public final void testProcess_hole()
+    {
+        LinearRing2D outer = LinearRing2D.wrap(new double[] { 0, 4, 4, 0 }, new double[] { 0, 0, 4, 4 });
+        LinearRing2D hole = LinearRing2D.wrap(new double[] { 1, 1, 3, 3 }, new double[] { 1, 3, 3, 1 });
+        MultiPolygon2D domain = MultiPolygon2D.create(outer, hole);
+
+        int[] triangles = new EarClippingTriangulation2D().process(domain);
+
+        // 8 vertices and one hole result in 8 triangles
+        assertEquals(24, triangles.length);
+        checkTriangulation(domain, triangles);
+    }
+
+    /**
+     * Triangulates a domain composed of two disjoint polygons, the second one
+     * having a hole.
+     */
+    @Test
+    public final void testProcess_multiplePolygons()
+    {
+        LinearRing2D outer1 = LinearRing2D.wrap(new double[] { 0, 1, 1, 0 }, new double[] { 0, 0, 1, 1 });
+        LinearRing2D outer2 = LinearRing2D.wrap(new double[] { 10, 14, 14, 10 }, new double[] { 0, 0, 4, 4 });
+        LinearRing2D hole2 = LinearRing2D.wrap(new double[] { 11, 11, 13, 13 }, new double[] { 1, 3, 3, 1 });
+        MultiPolygon2D domain = MultiPolygon2D.create(hole2, outer1, outer2);
+
+        int[] triangles = new EarClippingTriangulation2D().process(domain);
+
+        assertEquals(30, triangles.length);
+        checkTriangulation(domain, triangles);
+    }
+
+    /**
+     * Triangulates a large random star-shaped polygon with many holes, using
+     * the z-order index.
+     */
+    @Test
+    public final void testProcess_largeStarWithHoles()
+    {
+        Random random = new Random(42);
+        int n = 2000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            double theta = 2 * Math.PI * i / n;
+            double r = 50 + 10 * random.nextDouble();
+            xs[i] = r * Math.cos(theta);
+            ys[i] = r * Math.sin(theta);
+        }
+        ArrayList<LinearRing2D> rings = new ArrayList<LinearRing2D>();
+        rings.add(LinearRing2D.wrap(xs, ys));
+
+        // add small clockwise holes on a perturbed grid, avoiding collinear
+        // vertices that would be filtered
+        int nHoles = 0;
+        for (int ix = -3; ix <= 3; ix++)
+        {
+            for (int iy = -3; iy <= 3; iy++)
+            {
+                double xc = ix * 10 + random.nextDouble(), yc = iy * 10 + random.nextDouble();
+                if (Math.hypot(xc, yc) > 40) continue;
+                rings.add(LinearRing2D.wrap(
+                        new double[] { xc - 2, xc - 2, xc + 2, xc + 2 },
+                        new double[] { yc - 2, yc + 2, yc + 2, yc - 2 }));
+                nHoles++;
+            }
+        }
+        MultiPolygon2D domain = new MultiPolygon2D(rings);
+
+        int[] triangles = new EarClippingTriangulation2D().process(domain);
+
+        // number of triangles is n + 2h - 2 for a polygon with n vertices and h holes
+        int nv = domain.vertexCount();
+        assertEquals(3 * (nv + 2 * nHoles - 2), triangles.length);
+        checkTriangulation(domain, triangles);
+    }
+
+    /**
+     * Checks the triangles have the area of the domain, are oriented
+     * counter-clockwise, and have their centroid within the domain.
+     */
+    private static final void checkTriangulation(PolygonalDomain2D domain, int[] triangles)
+    {
+        ArrayList<Double> xList = new ArrayList<Double>();
+        ArrayList<Double> yList = new ArrayList<Double>();
+        for (LinearRing2D ring : domain.rings())
+        {
+            for (int i = 0; i < ring.vertexCount(); i++)
+            {
+                xList.add(ring.vertexX(i));
+                yList.add(ring.vertexY(i));
+            }
+        }
+        double[] xs = new double[xList.size()];
+        double[] ys = new double[yList.size()];
+        for (int i = 0; i < xs.length; i++)
+        {
+            xs[i] = xList.get(i);
+            ys[i] = yList.get(i);
+        }
+
+        for (int t = 0; t < triangles.length; t += 3)
+        {
+            double area = triangleArea(xs, ys, triangles[t], triangles[t + 1], triangles[t + 2]);
+            assertTrue(area >= 0);
+            double xc = (xs[triangles[t]] + xs[triangles[t + 1]] + xs[triangles[t + 2]]) / 3;
+            double yc = (ys[triangles[t]] + ys[triangles[t + 1]] + ys[triangles[t + 2]]) / 3;
+            if (area > 1e-10)
+            {
+                assertTrue(domain.isInside(xc, yc));
+            }
+        }
+        assertEquals(domain.signedArea(), totalArea(triangles, xs, ys), 1e-8);
+    }
+
+    private static final double totalArea(int[] triangles, double[] xs, double[] ys)
+    {
+        double area = 0;
+        for (int t = 0; t < triangles.length; t += 3)
+        {
+            area += Math.abs(triangleArea(xs, ys, triangles[t], triangles[t + 1], triangles[t + 2]));
+        }
+        return area;
+    }
+
+    private static final double triangleArea(double[] xs, double[] ys, int i1, int i2, int i3)
+    {
+        return ((xs[i2] - xs[i1]) * (ys[i3] - ys[i1]) - (xs[i3] - xs[i1]) * (ys[i2] - ys[i1])) / 2;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * 
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom2d.Point2D;
+import net.ijt.geometry.geom2d.Predicates2D;
+import net.ijt.geometry.polygon2d.Polygon2D;
+
+/**
+ * 
+ */
+public class MonotoneChainConvexHull2DTest
+{
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.process.MonotoneChainConvexHull2D#process(java.util.Collection)}.
+     */
+    @Test
+    public final void testProcess_square()
+    {
+        ArrayList<Point2D> points = new ArrayList<Point2D>();
+        points.add(new Point2D(10, 10));
+        points.add(new Point2D(20, 10));
+        points.add(new Point2D(20, 20));
+        points.add(new Point2D(10, 20));
+        points.add(new Point2D(15, 15));
+        points.add(new Point2D(15, 10));
+        points.add(new Point2D(12, 14));
+
+        Polygon2D hull = new MonotoneChainConvexHull2D().process(points);
+
+        assertEquals(4, hull.vertexCount());
+        assertEquals(100.0, hull.signedArea(), 1e-10);
+        Point2D p0 = hull.vertexPositions().iterator().next();
+        assertEquals(10.0, p0.x(), 0.0);
+        assertEquals(10.0, p0.y(), 0.0);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.process.MonotoneChainConvexHull2D#process(double[], double[])}.
+     */
+    @Test
+    public final void testProcess_grid()
+    {
+        // points on a regular grid, with many collinear points
+        int size = 20;
+        double[] xs = new double[size * size];
+        double[] ys = new double[size * size];
+        for (int i = 0; i < size * size; i++)
+        {
+            xs[i] = i % size;
+            ys[i] = i / size;
+        }
+
+        int[] inds = new MonotoneChainConvexHull2D().process(xs, ys);
+        assertArrayEquals(new int[] { 0, size - 1, size * size - 1, size * (size - 1) }, inds);
+    }
+
+    /**
+     * Test method for {@link net.ijt.geometry.polygon2d.process.MonotoneChainConvexHull2D#process(double[], double[])}.
+     */
+    @Test
+    public final void testProcess_degenerate()
+    {
+        MonotoneChainConvexHull2D algo = new MonotoneChainConvexHull2D();
+        assertEquals(0, algo.process(new double[0], new double[0]).length);
+        assertEquals(1, algo.process(new double[] { 2, 2, 2 }, new double[] { 3, 3, 3 }).length);
+
+        // collinear points
+        int[] inds = algo.process(new double[] { 2, 0, 3, 1 }, new double[] { 2, 0, 3, 1 });
+        assertArrayEquals(new int[] { 1, 2 }, inds);
+    }
+
+    /**
+     * Compares with the gift wrapping algorithm on a random set of points.
+     */
+    @Test
+    public final void testProcess_random()
+    {
+        Random random = new Random(42);
+        ArrayList<Point2D> points = new ArrayList<Point2D>();
+        for (int i = 0; i < 5000; i++)
+        {
+            double r = Math.sqrt(random.nextDouble());
+            double theta = random.nextDouble() * 2 * Math.PI;
+            points.add(new Point2D(r * Math.cos(theta), r * Math.sin(theta)));
+        }
+
+        Polygon2D hull = new MonotoneChainConvexHull2D().process(points);
+        Polygon2D ref = new GiftWrappingConvexHull2D().process(points);
+
+        assertEquals(ref.vertexCount(), hull.vertexCount());
+        assertEquals(ref.signedArea(), hull.signedArea(), 1e-10);
+        assertConvexHull(hull, points);
+    }
+
+    /**
+     * Checks that the polygon is convex, oriented counter-clockwise, and that
+     * all points are within the polygon.
+     */
+    static void assertConvexHull(Polygon2D hull, ArrayList<Point2D> points)
+    {
+        ArrayList<Point2D> vertices = new ArrayList<Point2D>();
+        for (Point2D p : hull.vertexPositions())
+        {
+            vertices.add(p);
+        }
+        int nv = vertices.size();
+        for (int i = 0; i < nv; i++)
+        {
+            Point2D p1 = vertices.get(i);
+            Point2D p2 = vertices.get((i + 1) % nv);
+            assertEquals(1, Predicates2D.orientation(p1, p2, vertices.get((i + 2) % nv)));
+            for (Point2D p : points)
+            {
+                assertTrue(Predicates2D.orientation(p1, p2, p) >= 0);
+            }
+        }
+    }
+}
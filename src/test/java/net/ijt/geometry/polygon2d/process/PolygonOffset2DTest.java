@@ -0,0 +1,172 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.ijt.geometry.polygon2d.LineString2D;
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.MultiPolygon2D;
+
+/**
+ *
+ */
+public class PolygonOffset2DTest
+{
+    /**
+     * Grows a square using miter joins.
+     */
+    @Test
+    public final void testProcess_squareMiter()
+    {
+        MultiPolygon2D square = BooleanOperation2DTest.square(0, 0, 10);
+
+        MultiPolygon2D res = new PolygonOffset2D(1.0, PolygonOffset2D.JoinType.MITER).process(square);
+
+        assertEquals(1, res.ringCount());
+        assertEquals(4, res.ring(0).vertexCount());
+        assertEquals(144.0, res.signedArea(), 1e-10);
+    }
+
+    /**
+     * Grows a square using round joins. The corners are approximated by
+     * polygonal arcs inscribed in the circle.
+     */
+    @Test
+    public final void testProcess_squareRound()
+    {
+        MultiPolygon2D square = BooleanOperation2DTest.square(0, 0, 10);
+
+        MultiPolygon2D res = new PolygonOffset2D(1.0, PolygonOffset2D.JoinType.ROUND).process(square);
+
+        assertEquals(1, res.ringCount());
+        double area = res.signedArea();
+        assertTrue(area > 140 + Math.PI - 0.4);
+        assertTrue(area <= 140 + Math.PI + 1e-10);
+        assertTrue(res.isInside(-0.5, 5));
+        assertFalse(res.isInside(-0.9, -0.9));
+    }
+
+    /**
+     * Shrinks a square, until it vanishes.
+     */
+    @Test
+    public final void testProcess_squareShrink()
+    {
+        MultiPolygon2D square = BooleanOperation2DTest.square(0, 0, 10);
+
+        for (PolygonOffset2D.JoinType type : PolygonOffset2D.JoinType.values())
+        {
+            MultiPolygon2D res = new PolygonOffset2D(-1.0, type).process(square);
+            assertEquals(1, res.ringCount());
+            assertEquals(64.0, res.signedArea(), 1e-10);
+
+            res = new PolygonOffset2D(-6.0, type).process(square);
+            assertEquals(0, res.ringCount());
+        }
+    }
+
+    /**
+     * Offsets a square with a square hole. The hole shrinks when the domain
+     * grows, and vanishes for large distances.
+     */
+    @Test
+    public final void testProcess_hole()
+    {
+        MultiPolygon2D domain = MultiPolygon2D.create(
+                LinearRing2D.wrap(new double[] { 0, 10, 10, 0 }, new double[] { 0, 0, 10, 10 }),
+                LinearRing2D.wrap(new double[] { 3, 3, 7, 7 }, new double[] { 3, 7, 7, 3 }));
+
+        MultiPolygon2D res = new PolygonOffset2D(1.0, PolygonOffset2D.JoinType.MITER).process(domain);
+        assertEquals(2, res.ringCount());
+        assertEquals(144.0 - 4.0, res.signedArea(), 1e-10);
+
+        res = new PolygonOffset2D(-1.0, PolygonOffset2D.JoinType.MITER).process(domain);
+        assertEquals(2, res.ringCount());
+        assertEquals(64.0 - 36.0, res.signedArea(), 1e-10);
+
+        res = new PolygonOffset2D(2.5, PolygonOffset2D.JoinType.MITER).process(domain);
+        assertEquals(1, res.ringCount());
+        assertEquals(225.0, res.signedArea(), 1e-10);
+    }
+
+    /**
+     * Computes the buffer of a line segment, with round caps.
+     */
+    @Test
+    public final void testProcessPolyline_segment()
+    {
+        LineString2D line = LineString2D.wrap(new double[] { 0, 10 }, new double[] { 0, 0 });
+
+        MultiPolygon2D res = new PolygonOffset2D(1.0, PolygonOffset2D.JoinType.ROUND).process(line);
+
+        assertEquals(1, res.ringCount());
+        double area = res.signedArea();
+        assertTrue(area > 20 + Math.PI - 0.4);
+        assertTrue(area <= 20 + Math.PI + 1e-10);
+        assertTrue(res.isInside(10.5, 0));
+        assertFalse(res.isInside(5, 1.5));
+
+        // flat caps for miter joins
+        res = new PolygonOffset2D(1.0, PolygonOffset2D.JoinType.MITER).process(line);
+        assertEquals(20.0, res.signedArea(), 1e-10);
+    }
+
+    /**
+     * Computes the buffer of a closed polyline, resulting in a band around
+     * the curve.
+     */
+    @Test
+    public final void testProcessPolyline_closed()
+    {
+        LinearRing2D ring = LinearRing2D.wrap(new double[] { 0, 10, 10, 0 }, new double[] { 0, 0, 10, 10 });
+
+        MultiPolygon2D res = new PolygonOffset2D(1.0, PolygonOffset2D.JoinType.MITER).process(ring);
+
+        assertEquals(2, res.ringCount());
+        assertEquals(144.0 - 64.0, res.signedArea(), 1e-10);
+        assertTrue(res.isInside(0, 5));
+        assertFalse(res.isInside(5, 5));
+    }
+
+    /**
+     * Offsets a list of contours, in parallel.
+     */
+    @Test
+    public final void testProcess_list()
+    {
+        List<MultiPolygon2D> domains = new ArrayList<MultiPolygon2D>();
+        for (int i = 0; i < 40; i++)
+        {
+            domains.add(MultiPolygon2D.create(DouglasPeuckerSimplification2DTest.pixelCircle(5 + i)));
+        }
+
+        PolygonOffset2D algo = new PolygonOffset2D(-2.0, PolygonOffset2D.JoinType.ROUND);
+        List<MultiPolygon2D> res = algo.process(domains);
+
+        assertEquals(domains.size(), res.size());
+        for (int i = 0; i < domains.size(); i++)
+        {
+            MultiPolygon2D expected = algo.process(domains.get(i));
+            assertEquals(expected.signedArea(), res.get(i).signedArea(), 1e-10);
+            assertTrue(res.get(i).signedArea() < domains.get(i).signedArea());
+        }
+    }
+
+    /**
+     * Checks the validation of the parameters.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testConstructor_invalidMiterLimit()
+    {
+        new PolygonOffset2D(1.0, PolygonOffset2D.JoinType.MITER, 0.5, 0.25);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.polygon2d.MultiPolygon2D;
+
+/**
+ *
+ */
+public class PolygonOverlaps2DTest
+{
+    /**
+     * Matches two sets of squares, the second one being shifted.
+     */
+    @Test
+    public final void testProcess_shiftedSquares()
+    {
+        ArrayList<MultiPolygon2D> set1 = new ArrayList<MultiPolygon2D>();
+        ArrayList<MultiPolygon2D> set2 = new ArrayList<MultiPolygon2D>();
+        for (int i = 0; i < 10; i++)
+        {
+            set1.add(BooleanOperation2DTest.square(3 * i, 0, 2));
+            set2.add(BooleanOperation2DTest.square(3 * i + 1, 1, 2));
+        }
+
+        OverlapMatrix overlaps = new PolygonOverlaps2D().process(set1, set2);
+        assertEquals(10, overlaps.rowCount());
+        assertEquals(10, overlaps.columnCount());
+        assertEquals(10, overlaps.nonZeroCount());
+        for (int i = 0; i < 10; i++)
+        {
+            assertEquals(1.0, overlaps.get(i, i), 1e-10);
+            assertEquals(0.0, overlaps.get(i, (i + 1) % 10), 1e-10);
+            assertEquals(i, overlaps.bestColumn(i));
+            assertEquals(1.0 / 7.0, overlaps.jaccard(i, i), 1e-10);
+            assertEquals(0.25, overlaps.dice(i, i), 1e-10);
+        }
+    }
+
+    /**
+     * Compares with the computation of intersection areas for all pairs, on
+     * random polygons.
+     */
+    @Test
+    public final void testProcess_randomPolygons()
+    {
+        Random random = new Random(42);
+        ArrayList<MultiPolygon2D> set1 = new ArrayList<MultiPolygon2D>();
+        ArrayList<MultiPolygon2D> set2 = new ArrayList<MultiPolygon2D>();
+        for (int i = 0; i < 100; i++)
+        {
+            set1.add(BooleanOperation2DTest.randomStar(random, random.nextDouble() * 20, random.nextDouble() * 20, 10));
+        }
+        for (int i = 0; i < 80; i++)
+        {
+            set2.add(BooleanOperation2DTest.randomStar(random, random.nextDouble() * 20, random.nextDouble() * 20, 10));
+        }
+
+        OverlapMatrix overlaps = new PolygonOverlaps2D().process(set1, set2);
+
+        BooleanOperation2D op = new BooleanOperation2D(BooleanOperation2D.Type.INTERSECTION);
+        int count = 0;
+        for (int i = 0; i < set1.size(); i++)
+        {
+            for (int j = 0; j < set2.size(); j++)
+            {
+                double exp = op.area(set1.get(i), set2.get(j));
+                assertEquals(exp, overlaps.get(i, j), 1e-10);
+                if (exp > 0)
+                {
+                    count++;
+                }
+            }
+        }
+        assertEquals(count, overlaps.nonZeroCount());
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ *
+ */
+package net.ijt.geometry.polygon2d.process;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.ijt.geometry.geom2d.Predicates2D;
+import net.ijt.geometry.polygon2d.LinearRing2D;
+import net.ijt.geometry.polygon2d.Polyline2D;
+
+/**
+ *
+ */
+public class VisvalingamSimplification2DTest
+{
+    /**
+     * Removes the vertices in the middle of the edges of a square.
+     */
+    @Test
+    public final void testSimplify_squareWithMiddles()
+    {
+        double[] xs = new double[] { 0, 1, 2, 2, 2, 1, 0, 0 };
+        double[] ys = new double[] { 0, 0, 0, 1, 2, 2, 2, 1 };
+
+        int[] inds = new VisvalingamSimplification2D(0.1).simplify(xs, ys, true);
+
+        assertArrayEquals(new int[] { 0, 2, 4, 6 }, inds);
+    }
+
+    /**
+     * The extremities of an open polyline are kept.
+     */
+    @Test
+    public final void testSimplify_openExtremities()
+    {
+        double[] xs = new double[] { 0, 1, 2, 3, 4 };
+        double[] ys = new double[] { 0, 0.1, 0, 0.1, 0 };
+
+        int[] inds = new VisvalingamSimplification2D(1.0).simplify(xs, ys, false);
+
+        assertArrayEquals(new int[] { 0, 4 }, inds);
+    }
+
+    /**
+     * Simplifies a circle traced with one vertex per pixel.
+     */
+    @Test
+    public final void testProcess_pixelContour()
+    {
+        LinearRing2D ring = DouglasPeuckerSimplification2DTest.pixelCircle(50);
+
+        Polyline2D res = new VisvalingamSimplification2D(2.0).process(ring);
+
+        assertTrue(res instanceof LinearRing2D);
+        assertTrue(res.vertexCount() < ring.vertexCount() / 4);
+        assertEquals(ring.signedArea(), ((LinearRing2D) res).signedArea(), ring.vertexCount());
+    }
+
+    /**
+     * A polygon with a spike, and a narrow slit that enters the triangle
+     * formed by the spike and its neighbors. Removing the spike vertex
+     * would create self-intersections.
+     */
+    @Test
+    public final void testSimplify_preserveTopology()
+    {
+        double[] xs = new double[] { 0, 10, 11, 12, 22, 22, 11.5, 11.5, 10.5, 10.5, 0 };
+        double[] ys = new double[] { 0, 0, -3, 0, 0, 10, 10, -1, -1, 10, 10 };
+        assertTrue(isSimple(xs, ys, identity(xs.length)));
+
+        int[] inds = new VisvalingamSimplification2D(3.0, false).simplify(xs, ys, true);
+        assertEquals(8, inds.length);
+        assertFalse(isSimple(xs, ys, inds));
+
+        inds = new VisvalingamSimplification2D(3.0, true).simplify(xs, ys, true);
+        assertEquals(11, inds.length);
+    }
+
+    /**
+     * Checks that topology preserving simplification of a noisy star-shaped
+     * polygon results in a simple polygon.
+     */
+    @Test
+    public final void testSimplify_preserveTopology_noisyStar()
+    {
+        Random random = new Random(42);
+        int n = 1000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            double theta = 2 * Math.PI * i / n;
+            double r = 50 + 5 * random.nextDouble();
+            xs[i] = r * Math.cos(theta);
+            ys[i] = r * Math.sin(theta);
+        }
+
+        int[] inds = new VisvalingamSimplification2D(200.0, true).simplify(xs, ys, true);
+
+        assertTrue(inds.length < n / 10);
+        assertTrue(isSimple(xs, ys, inds));
+    }
+
+    /**
+     * Checks that non-adjacent edges of the closed polyline formed by the
+     * selected vertices do not intersect.
+     */
+    private static final boolean isSimple(double[] xcoords, double[] ycoords, int[] inds)
+    {
+        int n = inds.length;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++)
+        {
+            xs[i] = xcoords[inds[i]];
+            ys[i] = ycoords[inds[i]];
+        }
+        for (int i = 0; i < n; i++)
+        {
+            int i2 = (i + 1) % n;
+            for (int j = i + 2; j < n; j++)
+            {
+                int j2 = (j + 1) % n;
+                if (j2 == i) continue;
+                double d1 = Predicates2D.orient2d(xs[i], ys[i], xs[i2], ys[i2], xs[j], ys[j]);
+                double d2 = Predicates2D.orient2d(xs[i], ys[i], xs[i2], ys[i2], xs[j2], ys[j2]);
+                double d3 = Predicates2D.orient2d(xs[j], ys[j], xs[j2], ys[j2], xs[i], ys[i]);
+                double d4 = Predicates2D.orient2d(xs[j], ys[j], xs[j2], ys[j2], xs[i2], ys[i2]);
+                if (d1 * d2 < 0 && d3 * d4 < 0)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static final int[] identity(int n)
+    {
+        int[] res = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            res[i] = i;
+        }
+        return res;
+    }
+}